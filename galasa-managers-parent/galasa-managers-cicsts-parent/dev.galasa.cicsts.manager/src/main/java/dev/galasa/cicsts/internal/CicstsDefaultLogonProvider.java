@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.cicsts.internal;
 
@@ -62,6 +62,14 @@ public class CicstsDefaultLogonProvider implements ICicsRegionLogonProvider {
         return true;
     }
 
+    /**
+     * The default logon uses no credentials, so sessions are interchangeable for the same region
+     */
+    @Override
+    public String getLogonIdentity(ICicsTerminal cicsTerminal) {
+        return getClass().getName() + ":" + cicsTerminal.getCicsRegion().getApplid();
+    }
+
     private void checkForInitialText(ICicsTerminal cicsTerminal) throws CicstsManagerException {
         try {
             cicsTerminal.waitForTextInField(initialText);
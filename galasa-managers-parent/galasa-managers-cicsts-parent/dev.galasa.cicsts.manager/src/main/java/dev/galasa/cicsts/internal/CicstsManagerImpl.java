@@ -10,6 +10,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -30,6 +31,9 @@ import dev.galasa.cicsts.internal.properties.CicstsPropertiesSingleton;
 import dev.galasa.cicsts.internal.properties.DefaultVersion;
 import dev.galasa.cicsts.internal.properties.ExtraBundles;
 import dev.galasa.cicsts.internal.properties.ProvisionType;
+import dev.galasa.cicsts.internal.properties.TerminalConnectThreads;
+import dev.galasa.cicsts.internal.properties.TerminalPoolIdleTimeout;
+import dev.galasa.cicsts.internal.properties.TerminalPoolSize;
 import dev.galasa.cicsts.spi.CicsTerminalImpl;
 import dev.galasa.cicsts.spi.ICeciProvider;
 import dev.galasa.cicsts.spi.ICedaProvider;
@@ -49,6 +53,9 @@ import dev.galasa.framework.spi.ResourceUnavailableException;
 import dev.galasa.framework.spi.language.GalasaTest;
 import dev.galasa.zos.spi.IZosManagerSpi;
 import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.spi.ParallelTerminalConnector;
+import dev.galasa.zos3270.spi.Terminal;
+import dev.galasa.zos3270.spi.TerminalSessionPool;
 
 @Component(service = { IManager.class })
 public class CicstsManagerImpl extends AbstractManager implements ICicstsManagerSpi {
@@ -66,6 +73,8 @@ public class CicstsManagerImpl extends AbstractManager implements ICicstsManager
     private final ArrayList<ICicsRegionLogonProvider> logonProviders = new ArrayList<>();
 
     private String provisionType;
+
+    private int terminalPoolSize;
     
     private ICeciProvider ceciProvider;
     private ICedaProvider cedaProvider;
@@ -226,6 +235,7 @@ public class CicstsManagerImpl extends AbstractManager implements ICicstsManager
 
         // Start the autoconnect terminals
         logger.info("Connecting CICS Terminals");
+        ArrayList<CicsTerminalImpl> startupTerminals = new ArrayList<>();
         for (CicsTerminalImpl terminal : this.terminals) {
             if (!terminal.isConnectAtStartup()) {
                 continue;
@@ -235,17 +245,105 @@ public class CicstsManagerImpl extends AbstractManager implements ICicstsManager
                 continue;
             }
             
+            startupTerminals.add(terminal);
+        }
+
+        this.terminalPoolSize = TerminalPoolSize.get();
+        final long terminalPoolIdleTimeout = TerminalPoolIdleTimeout.get();
+
+        // *** Connect and logon in parallel, the logon providers are shared by the terminals
+        ParallelTerminalConnector<CicsTerminalImpl> connector = new ParallelTerminalConnector<>(
+                TerminalConnectThreads.get(), "CICS TS terminal connect");
+        Map<CicsTerminalImpl, Exception> failures;
+        try {
+            failures = connector.connectAll(startupTerminals, new ParallelTerminalConnector.IConnector<CicsTerminalImpl>() {
+                @Override
+                public void connect(CicsTerminalImpl terminal) throws CicstsManagerException {
+                    connectStartupTerminal(terminal, terminalPoolIdleTimeout);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CicstsManagerException("Interrupted whilst connecting the CICS Terminals", e);
+        }
+
+        // *** Report the first failure in terminal order, as before, with the rest attached
+        CicstsManagerException failed = null;
+        for (Map.Entry<CicsTerminalImpl, Exception> failure : failures.entrySet()) {
+            logger.error("Failed to connect CICS terminal " + failure.getKey().getId() + " to the " + failure.getKey().getCicsRegion(), failure.getValue());
+            if (failed == null) {
+                failed = new CicstsManagerException("Failed to connect to the " + failure.getKey().getCicsRegion()
+                        + ((failures.size() > 1) ? ", and " + (failures.size() - 1) + " other CICS terminals failed" : ""), failure.getValue());
+            } else {
+                failed.addSuppressed(failure.getValue());
+            }
+        }
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    /**
+     * Connect a startup terminal, reusing a pooled session if there is one, otherwise logon as normal
+     */
+    private void connectStartupTerminal(CicsTerminalImpl terminal, long idleTimeout) throws CicstsManagerException {
+        if (!reusePooledSession(terminal, idleTimeout)) {
+            terminal.connectToCicsRegion();
+        }
+    }
+
+    /**
+     * Adopt a logged on session left by an earlier run and return it to the native CICS screen
+     * 
+     * @return true if a pooled session was reused, false if the terminal still needs to logon
+     */
+    private boolean reusePooledSession(CicsTerminalImpl terminal, long idleTimeout) {
+        String key = terminal.getSessionPoolKey();
+        if (this.terminalPoolSize <= 0 || key == null) {
+            return false;
+        }
+
+        Terminal session = TerminalSessionPool.getSharedPool().take(key, idleTimeout);
+        if (session == null) {
+            return false;
+        }
+
+        try {
+            terminal.adoptSession(session);
+            terminal.resetAndClear();
+            logger.debug("Reusing a pooled session for CICS terminal " + terminal.getId() + " on the " + terminal.getCicsRegion());
+            return true;
+        } catch (Exception e) {
+            logger.debug("Unable to reuse a pooled session for CICS terminal " + terminal.getId() + ", will logon", e);
             try {
-                terminal.connectToCicsRegion();
-            } catch (CicstsManagerException e) {
-                throw new CicstsManagerException("Failed to connect to the " + terminal.getCicsRegion(), e);
+                terminal.disconnect();
+            } catch (TerminalInterruptedException e1) { // NOSONAR - wish to hide disconnect errors
             }
+            return false;
         }
     }
 
     @Override
     public void provisionStop() {
         for (CicsTerminalImpl terminal : this.terminals) {
+            terminal.writeStatistics();
+            terminal.closeDatastreamTrace();
+
+            // *** Keep the logged on sessions for the next run if pooling is enabled and the logon providers allow it
+            String key = terminal.getSessionPoolKey();
+            if (this.terminalPoolSize > 0 && key != null && terminal.isConnectAtStartup() && terminal.isConnected()) {
+                try {
+                    terminal.signoffForPool();
+                    terminal.getScreen().unregisterScreenUpdateListener(terminal);
+                    terminal.setAutoReconnect(false);
+                    if (TerminalSessionPool.getSharedPool().offer(key, terminal, this.terminalPoolSize)) {
+                        continue;
+                    }
+                } catch (CicstsManagerException e) {
+                    logger.debug("Unable to sign off CICS terminal " + terminal.getId() + ", it will not be pooled", e);
+                }
+            }
+
             try {
                 terminal.disconnect();
             } catch (TerminalInterruptedException e) { // NOSONAR - wish to hide disconnect errors
@@ -0,0 +1,40 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.cicsts.internal.properties;
+
+import dev.galasa.cicsts.CicstsManagerException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+
+/**
+ * CICS TS Terminals - Connect threads
+ *
+ * @galasa.cps.property
+ *
+ * @galasa.name cicsts.terminal.connect.threads
+ *
+ * @galasa.description The number of CICS terminals to connect and logon at the same time when the test starts
+ *
+ * @galasa.required No
+ *
+ * @galasa.default 10
+ *
+ * @galasa.valid_values A whole number, 1 connects the terminals one at a time
+ *
+ * @galasa.examples
+ * <code>cicsts.terminal.connect.threads=20</code><br>
+ *
+ */
+public class TerminalConnectThreads extends CpsProperties {
+
+    public static int get() throws CicstsManagerException {
+        String threads = getStringWithDefault(CicstsPropertiesSingleton.cps(), "10", "terminal.connect", "threads");
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            throw new CicstsManagerException("Invalid value '" + threads + "' for cicsts.terminal.connect.threads", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.cicsts.internal.properties;
+
+import dev.galasa.cicsts.CicstsManagerException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+
+/**
+ * CICS TS Terminals - Pool idle timeout
+ *
+ * @galasa.cps.property
+ *
+ * @galasa.name cicsts.terminal.pool.idle.timeout
+ *
+ * @galasa.description The number of seconds a pooled CICS terminal session can be idle and still be reused, 
+ * older sessions are disconnected and a new terminal logged on
+ *
+ * @galasa.required No
+ *
+ * @galasa.default 300
+ *
+ * @galasa.valid_values A whole number of seconds
+ *
+ * @galasa.examples
+ * <code>cicsts.terminal.pool.idle.timeout=600</code><br>
+ *
+ */
+public class TerminalPoolIdleTimeout extends CpsProperties {
+
+    public static long get() throws CicstsManagerException {
+        String timeout = getStringWithDefault(CicstsPropertiesSingleton.cps(), "300", "terminal.pool", "idle.timeout");
+        try {
+            return Long.parseLong(timeout.trim());
+        } catch (NumberFormatException e) {
+            throw new CicstsManagerException("Invalid value '" + timeout + "' for cicsts.terminal.pool.idle.timeout", e);
+        }
+    }
+}
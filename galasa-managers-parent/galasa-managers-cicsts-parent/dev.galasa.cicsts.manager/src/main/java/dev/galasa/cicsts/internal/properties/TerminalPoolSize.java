@@ -0,0 +1,43 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.cicsts.internal.properties;
+
+import dev.galasa.cicsts.CicstsManagerException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+
+/**
+ * CICS TS Terminals - Pool size
+ *
+ * @galasa.cps.property
+ *
+ * @galasa.name cicsts.terminal.pool.size
+ *
+ * @galasa.description The number of logged on CICS terminal sessions to keep for each region at the end of a test, 
+ * so later tests in the same JVM can reset and reuse them instead of logging on again.  Only terminals connected 
+ * at startup are pooled, and only when every logon provider gives a logon identity.  Sessions are signed off 
+ * with CESF before they are pooled.
+ *
+ * @galasa.required No
+ *
+ * @galasa.default 0, terminals are disconnected at the end of the test
+ *
+ * @galasa.valid_values A whole number
+ *
+ * @galasa.examples
+ * <code>cicsts.terminal.pool.size=5</code><br>
+ *
+ */
+public class TerminalPoolSize extends CpsProperties {
+
+    public static int get() throws CicstsManagerException {
+        String size = getStringWithDefault(CicstsPropertiesSingleton.cps(), "0", "terminal.pool", "size");
+        try {
+            return Integer.parseInt(size.trim());
+        } catch (NumberFormatException e) {
+            throw new CicstsManagerException("Invalid value '" + size + "' for cicsts.terminal.pool.size", e);
+        }
+    }
+}
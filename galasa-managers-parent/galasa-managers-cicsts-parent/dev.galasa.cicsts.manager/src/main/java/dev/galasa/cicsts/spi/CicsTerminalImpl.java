@@ -27,6 +27,8 @@ public class CicsTerminalImpl extends Zos3270TerminalImpl implements ICicsTermin
 
     public final boolean connectAtStartup;
 
+    private final String hostPort;
+
     public CicsTerminalImpl(ICicstsManagerSpi cicstsManager, IFramework framework, ICicsRegionProvisioned cicsRegion, String host, int port, boolean ssl, boolean connectAtStartup)
             throws TerminalInterruptedException, Zos3270ManagerException {
         super(cicsRegion.getNextTerminalId(), host, port, ssl, framework, false, cicsRegion.getZosImage());
@@ -34,6 +36,7 @@ public class CicsTerminalImpl extends Zos3270TerminalImpl implements ICicsTermin
         this.cicsRegion = cicsRegion;
         this.cicstsManager = cicstsManager;
         this.connectAtStartup = connectAtStartup;
+        this.hostPort = host + ":" + Integer.toString(port) + (ssl ? ":tls" : "");
 
         setAutoReconnect(connectAtStartup);
     }
@@ -108,4 +111,39 @@ public class CicsTerminalImpl extends Zos3270TerminalImpl implements ICicsTermin
         return this.connectAtStartup;
     }
 
+    /**
+     * @return the key to pool the logged on session under, sessions are only interchangeable 
+     * for the same region, host and logon identities.  null if a logon provider does not 
+     * allow its sessions to be pooled
+     */
+    public String getSessionPoolKey() {
+        StringBuilder key = new StringBuilder();
+        key.append("cicsts:").append(this.cicsRegion.getApplid()).append("@").append(this.hostPort);
+        for (ICicsRegionLogonProvider logonProvider : this.cicstsManager.getLogonProviders()) {
+            String identity = logonProvider.getLogonIdentity(this);
+            if (identity == null) {
+                return null;
+            }
+            key.append(":").append(identity);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Sign off any user the test signed on, so the session can be pooled.  The session 
+     * is left logged on to the region at a clear native CICS screen
+     * 
+     * @throws CicstsManagerException - if the sign off fails, the session must not be pooled
+     */
+    public void signoffForPool() throws CicstsManagerException {
+        resetAndClear();
+
+        try {
+            type("CESF").enter().wfk();
+            clear().wfk();
+        } catch(Exception e) {
+            throw new CicstsManagerException("Unable to sign off the CICS TS terminal", e);
+        }
+    }
+
 }
\ No newline at end of file
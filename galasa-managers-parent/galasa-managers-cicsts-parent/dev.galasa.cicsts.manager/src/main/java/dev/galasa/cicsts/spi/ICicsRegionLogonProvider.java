@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.cicsts.spi;
 
@@ -11,4 +11,17 @@ import dev.galasa.cicsts.ICicsTerminal;
 public interface ICicsRegionLogonProvider {
     
     boolean logonToCicsRegion(ICicsTerminal cicsTerminal) throws CicstsManagerException;
+
+    /**
+     * Identifies who this provider logs the terminal on as, pooled terminal sessions are only 
+     * reused by runs with the same logon identity.  Sessions are signed off with CESF before 
+     * they are pooled.
+     * 
+     * @param cicsTerminal - the terminal to be pooled
+     * @return the identity, covering the region and any credentials the logon uses, or null 
+     * if sessions logged on by this provider must not be pooled
+     */
+    default String getLogonIdentity(ICicsTerminal cicsTerminal) {
+        return null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import dev.galasa.cicsts.CicstsManagerException;
+import dev.galasa.cicsts.internal.CicstsManagerImpl;
+import dev.galasa.cicsts.spi.CicsTerminalImpl;
+import dev.galasa.cicsts.spi.ICicsRegionLogonProvider;
+import dev.galasa.cicsts.spi.ICicsRegionProvisioned;
+import dev.galasa.cicsts.spi.ICicstsManagerSpi;
+import dev.galasa.zos3270.KeyboardLockedException;
+import dev.galasa.zos3270.spi.Screen;
+import dev.galasa.zos3270.spi.Terminal;
+import dev.galasa.zos3270.spi.TerminalSessionPool;
+
+@RunWith(PowerMockRunner.class)
+public class TestCicsTerminalPooling {
+
+    private CicstsManagerImpl cicstsManager;
+
+    private String key;
+
+    @Mock
+    private CicsTerminalImpl terminal;
+
+    @Mock
+    private Terminal session;
+
+    @Mock
+    private Screen screen;
+
+    @Before
+    public void before() throws Exception {
+        this.cicstsManager = new CicstsManagerImpl();
+        Whitebox.setInternalState(this.cicstsManager, "terminalPoolSize", 2);
+
+        // *** The pool is shared by the JVM, so keep each test to its own key
+        this.key = "cicsts:TEST" + UUID.randomUUID().toString();
+
+        when(this.terminal.getSessionPoolKey()).thenReturn(this.key);
+        when(this.terminal.isConnectAtStartup()).thenReturn(true);
+        when(this.terminal.isConnected()).thenReturn(true);
+        when(this.terminal.getScreen()).thenReturn(this.screen);
+
+        when(this.session.isConnected()).thenReturn(true);
+    }
+
+    @After
+    public void after() {
+        TerminalSessionPool.getSharedPool().take(this.key, 60);
+    }
+
+    @Test
+    public void testPooledSessionAdoptedThenReset() throws Exception {
+        assertThat(TerminalSessionPool.getSharedPool().offer(this.key, this.session, 2)).isTrue();
+
+        connectStartupTerminal(this.terminal);
+
+        InOrder order = inOrder(this.terminal);
+        order.verify(this.terminal).adoptSession(this.session);
+        order.verify(this.terminal).resetAndClear();
+        verify(this.terminal, never()).connectToCicsRegion();
+        verify(this.terminal, never()).disconnect();
+        assertThat(TerminalSessionPool.getSharedPool().getIdleCount(this.key)).isZero();
+    }
+
+    @Test
+    public void testLogonWhenPooledSessionResetFails() throws Exception {
+        assertThat(TerminalSessionPool.getSharedPool().offer(this.key, this.session, 2)).isTrue();
+        when(this.terminal.resetAndClear()).thenThrow(new CicstsManagerException("Reset failed"));
+
+        connectStartupTerminal(this.terminal);
+
+        InOrder order = inOrder(this.terminal);
+        order.verify(this.terminal).adoptSession(this.session);
+        order.verify(this.terminal).resetAndClear();
+        order.verify(this.terminal).disconnect();
+        order.verify(this.terminal).connectToCicsRegion();
+    }
+
+    @Test
+    public void testLogonWhenNothingPooled() throws Exception {
+        connectStartupTerminal(this.terminal);
+
+        verify(this.terminal, never()).adoptSession(this.session);
+        verify(this.terminal).connectToCicsRegion();
+    }
+
+    @Test
+    public void testSessionPoolKeyIncludesEachIdentity() throws Exception {
+        CicsTerminalImpl keyTerminal = keyTerminal("USER1", "USER2");
+
+        assertThat(keyTerminal.getSessionPoolKey()).isEqualTo("cicsts:APPLID1@host:23:USER1:USER2");
+    }
+
+    @Test
+    public void testNullIdentitySkipsPool() throws Exception {
+        CicsTerminalImpl keyTerminal = keyTerminal("USER1", null);
+        assertThat(keyTerminal.getSessionPoolKey()).isNull();
+
+        when(this.terminal.getSessionPoolKey()).thenReturn(null);
+        assertThat(TerminalSessionPool.getSharedPool().offer(this.key, this.session, 2)).isTrue();
+
+        connectStartupTerminal(this.terminal);
+
+        verify(this.terminal, never()).adoptSession(this.session);
+        verify(this.terminal).connectToCicsRegion();
+        assertThat(TerminalSessionPool.getSharedPool().getIdleCount(this.key)).isEqualTo(1);
+
+        provisionStop(this.terminal);
+
+        verify(this.terminal, never()).signoffForPool();
+        verify(this.terminal).disconnect();
+    }
+
+    @Test
+    public void testSignedOffSessionPooled() throws Exception {
+        provisionStop(this.terminal);
+
+        InOrder order = inOrder(this.terminal, this.screen);
+        order.verify(this.terminal).signoffForPool();
+        order.verify(this.screen).unregisterScreenUpdateListener(this.terminal);
+        order.verify(this.terminal).setAutoReconnect(false);
+        verify(this.terminal, never()).disconnect();
+        assertThat(TerminalSessionPool.getSharedPool().getIdleCount(this.key)).isEqualTo(1);
+    }
+
+    @Test
+    public void testDisconnectWhenCesfFails() throws Exception {
+        doCallRealMethod().when(this.terminal).signoffForPool();
+        doReturn(this.terminal).when(this.terminal).resetAndClear();
+        doThrow(new KeyboardLockedException("Keyboard locked")).when(this.terminal).type("CESF");
+
+        provisionStop(this.terminal);
+
+        verify(this.terminal).type("CESF");
+        verify(this.terminal, never()).setAutoReconnect(anyBoolean());
+        verify(this.terminal).disconnect();
+        assertThat(TerminalSessionPool.getSharedPool().getIdleCount(this.key)).isZero();
+    }
+
+    private void connectStartupTerminal(CicsTerminalImpl startupTerminal) throws Exception {
+        Whitebox.invokeMethod(this.cicstsManager, "connectStartupTerminal", startupTerminal, 60L);
+    }
+
+    private void provisionStop(CicsTerminalImpl stopTerminal) {
+        List<CicsTerminalImpl> terminals = Whitebox.getInternalState(this.cicstsManager, "terminals");
+        terminals.add(stopTerminal);
+
+        this.cicstsManager.provisionStop();
+    }
+
+    private CicsTerminalImpl keyTerminal(String... identities) throws Exception {
+        CicsTerminalImpl keyTerminal = mock(CicsTerminalImpl.class);
+        doCallRealMethod().when(keyTerminal).getSessionPoolKey();
+
+        ICicsRegionProvisioned cicsRegion = mock(ICicsRegionProvisioned.class);
+        when(cicsRegion.getApplid()).thenReturn("APPLID1");
+
+        ArrayList<ICicsRegionLogonProvider> logonProviders = new ArrayList<>();
+        for (String identity : Arrays.asList(identities)) {
+            ICicsRegionLogonProvider logonProvider = mock(ICicsRegionLogonProvider.class);
+            when(logonProvider.getLogonIdentity(keyTerminal)).thenReturn(identity);
+            logonProviders.add(logonProvider);
+        }
+
+        ICicstsManagerSpi spi = mock(ICicstsManagerSpi.class);
+        when(spi.getLogonProviders()).thenReturn(logonProviders);
+
+        Whitebox.setInternalState(keyTerminal, "cicsRegion", cicsRegion);
+        Whitebox.setInternalState(keyTerminal, "cicstsManager", spi);
+        Whitebox.setInternalState(keyTerminal, "hostPort", "host:23");
+        return keyTerminal;
+    }
+
+}
@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.http;
 
@@ -408,4 +408,60 @@ public class HttpClientResponse<T> {
 
         return response;
     }
+
+    /**
+     * Create an {@link HttpClientResponse} by streaming the body of an
+     * {@link HttpResponse} to a consumer, without holding the body in memory. The
+     * consumer is only called for a 200 status code. The {@link HttpResponse} is
+     * always closed.
+     * 
+     * @param httpResponse
+     * @param consumer
+     * @return - {@link HttpClientResponse} with the content returned by the consumer
+     * @throws HttpClientException
+     */
+    public static <T> HttpClientResponse<T> streamResponse(CloseableHttpResponse httpResponse,
+            IHttpStreamConsumer<T> consumer) throws HttpClientException {
+        return streamResponse(httpResponse, false, consumer);
+    }
+
+    /**
+     * Create an {@link HttpClientResponse} by streaming the body of an
+     * {@link HttpResponse} to a consumer, without holding the body in memory. If
+     * contentOnBadResponse is true, the consumer is called for any status code with
+     * a body, otherwise only for a 200 status code. The {@link HttpResponse} is
+     * always closed.
+     * 
+     * @param httpResponse
+     * @param contentOnBadResponse
+     * @param consumer
+     * @return - {@link HttpClientResponse} with the content returned by the consumer
+     * @throws HttpClientException
+     */
+    public static <T> HttpClientResponse<T> streamResponse(CloseableHttpResponse httpResponse,
+            boolean contentOnBadResponse, IHttpStreamConsumer<T> consumer) throws HttpClientException {
+
+        HttpClientResponse<T> response = new HttpClientResponse<>();
+        try {
+            response.populateGenericValues(httpResponse);
+
+            if (httpResponse.getEntity() != null) {
+                if (response.getStatusCode() == HttpStatus.SC_OK || contentOnBadResponse) {
+                    // *** Not closing the content, that would read the rest of the body if the consumer stopped early
+                    response.setContent(consumer.consume(httpResponse.getEntity().getContent()));
+                } else {
+                    EntityUtils.consume(httpResponse.getEntity());
+                }
+            }
+        } catch (IOException e) {
+            throw new HttpClientException("Unable to stream the response body", e);
+        } finally {
+            try {
+                httpResponse.close();
+            } catch (IOException e) { // NOSONAR - the body has been read or is being discarded
+            }
+        }
+
+        return response;
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+/**
+ * A response with the body left to be read as a stream.  The caller owns the response
+ * and must close it, preferably with try-with-resources.  If the body has been read to 
+ * the end the connection is returned to the client for reuse, otherwise the rest of the 
+ * body is discarded along with the connection.
+ */
+public class HttpClientStreamResponse implements Closeable {
+
+    private final CloseableHttpResponse httpResponse;
+
+    public HttpClientStreamResponse(CloseableHttpResponse httpResponse) {
+        this.httpResponse = httpResponse;
+    }
+
+    /**
+     * 
+     * @return - status code of the response
+     */
+    public int getStatusCode() {
+        return httpResponse.getStatusLine().getStatusCode();
+    }
+
+    /**
+     * 
+     * @return - reason phrase or status message of the response
+     */
+    public String getStatusMessage() {
+        return httpResponse.getStatusLine().getReasonPhrase();
+    }
+
+    /**
+     * 
+     * @return - full status line
+     */
+    public String getStatusLine() {
+        return httpResponse.getStatusLine().toString();
+    }
+
+    /**
+     * Get the value of a specific header. May be null
+     * 
+     * @param header
+     * @return - the value of the first header with the name
+     */
+    public String getHeader(String header) {
+        Header first = httpResponse.getFirstHeader(header);
+        if (first == null) {
+            return null;
+        }
+        return first.getValue();
+    }
+
+    /**
+     * 
+     * @return - the length of the body, or -1 if it is not known
+     */
+    public long getContentLength() {
+        HttpEntity entity = httpResponse.getEntity();
+        if (entity == null) {
+            return 0;
+        }
+        return entity.getContentLength();
+    }
+
+    /**
+     * The body of the response, closed when the response is closed.  Closing the
+     * stream itself reads the rest of the body, so the connection can be reused.
+     * 
+     * @return - the body, empty if the response has none
+     * @throws IOException
+     */
+    public InputStream getContent() throws IOException {
+        HttpEntity entity = httpResponse.getEntity();
+        if (entity == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        return entity.getContent();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpResponse.close();
+    }
+
+}
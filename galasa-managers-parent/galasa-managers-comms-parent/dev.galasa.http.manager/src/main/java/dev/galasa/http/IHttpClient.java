@@ -1,15 +1,17 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.http;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Path;
 import java.security.KeyStore;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -228,6 +230,163 @@ public interface IHttpClient {
      */
     void putFile(String path, InputStream file);
 
+    /**
+     * Issue an HTTP GET to the provided URL, leaving the body of the response to be 
+     * read as a stream.  The caller owns the returned response and must close it.
+     * 
+     * @param url
+     * @param acceptTypes
+     * @return - {@link HttpClientStreamResponse} with the body unread
+     * @throws HttpClientException
+     */
+    HttpClientStreamResponse getStream(String url, ContentType... acceptTypes) throws HttpClientException;
+
+    /**
+     * Issue an HTTP GET to the provided URL, passing the body of a 200 response to 
+     * the consumer as it arrives.  The client closes the response.
+     * 
+     * @param url
+     * @param consumer
+     * @param acceptTypes
+     * @return - {@link HttpClientResponse} with the content returned by the consumer
+     * @throws HttpClientException
+     */
+    <T> HttpClientResponse<T> getStream(String url, IHttpStreamConsumer<T> consumer, ContentType... acceptTypes)
+            throws HttpClientException;
+
+    /**
+     * Issue an HTTP GET to the provided URL, writing the body of a 200 response to
+     * the destination file as it arrives.  An existing file is replaced.
+     * 
+     * @param url
+     * @param destination
+     * @param acceptTypes
+     * @return - {@link HttpClientResponse} with the destination as content, null if the response was not 200
+     * @throws HttpClientException
+     */
+    HttpClientResponse<Path> getFile(String url, Path destination, ContentType... acceptTypes) throws HttpClientException;
+
+    /**
+     * Issue an HTTP PUT to the provided URL, sending the stream as it is read.
+     * The stream is not closed, it remains owned by the caller.
+     * 
+     * @param url
+     * @param content
+     * @param length - the length of the content, or -1 if it is not known
+     * @param contentType
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> putStream(String url, InputStream content, long length, ContentType contentType)
+            throws HttpClientException;
+
+    /**
+     * Issue an HTTP POST to the provided URL, sending the stream as it is read.
+     * The stream is not closed, it remains owned by the caller.
+     * 
+     * @param url
+     * @param content
+     * @param length - the length of the content, or -1 if it is not known
+     * @param contentType
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> postStream(String url, InputStream content, long length, ContentType contentType)
+            throws HttpClientException;
+
+    /**
+     * Issue an HTTP PUT to the provided URL, sending the file as it is read
+     * 
+     * @param url
+     * @param file
+     * @param contentType
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> putFile(String url, Path file, ContentType contentType) throws HttpClientException;
+
+    /**
+     * Issue an HTTP POST to the provided URL, sending the file as it is read
+     * 
+     * @param url
+     * @param file
+     * @param contentType
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> postFile(String url, Path file, ContentType contentType) throws HttpClientException;
+
+    /**
+     * Run a task on the threads shared by all the clients.  The tasks of a client are 
+     * limited to the connection pool size per route running at once, the rest wait
+     * without holding a thread.  The client is safe for use by concurrent tasks.
+     * 
+     * @param task - the requests to issue
+     * @return - a future completed with the result of the task, or exceptionally with its exception
+     */
+    <T> CompletableFuture<T> submitAsync(IHttpClientTask<T> task);
+
+    /**
+     * Asynchronous {@link #getJson(String)}
+     * 
+     * @param url
+     * @return - a future for the {@link HttpClientResponse} with a {@link JsonObject} content type
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> getJsonAsync(String url);
+
+    /**
+     * Asynchronous {@link #putJson(String, JsonObject)}
+     * 
+     * @param url
+     * @param json
+     * @return - a future for the {@link HttpClientResponse} with a {@link JsonObject} content type
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> putJsonAsync(String url, JsonObject json);
+
+    /**
+     * Asynchronous {@link #postJson(String, JsonObject)}
+     * 
+     * @param url
+     * @param json
+     * @return - a future for the {@link HttpClientResponse} with a {@link JsonObject} content type
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> postJsonAsync(String url, JsonObject json);
+
+    /**
+     * Asynchronous {@link #deleteJson(String)}
+     * 
+     * @param url
+     * @return - a future for the {@link HttpClientResponse} with a {@link JsonObject} content type
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> deleteJsonAsync(String url);
+
+    /**
+     * Asynchronous {@link #getText(String)}
+     * 
+     * @param url
+     * @return - a future for the {@link HttpClientResponse} with a {@link String} content type
+     */
+    CompletableFuture<HttpClientResponse<String>> getTextAsync(String url);
+
+    /**
+     * Asynchronous {@link #getJaxb(String, Class...)}
+     * 
+     * @param url
+     * @param responseTypes
+     * @return - a future for the {@link HttpClientResponse} with a JAXB content type
+     */
+    CompletableFuture<HttpClientResponse<Object>> getJaxbAsync(String url, Class<?>... responseTypes);
+
+    /**
+     * Asynchronous {@link #getFile(String, Path, ContentType...)}
+     * 
+     * @param url
+     * @param destination
+     * @param acceptTypes
+     * @return - a future for the {@link HttpClientResponse} with the destination as content
+     */
+    CompletableFuture<HttpClientResponse<Path>> getFileAsync(String url, Path destination, ContentType... acceptTypes);
+
     /**
      * Execute an {@link HttpClientRequest} returning a JAXB object available
      * through the returned {@link HttpClientResponse}. In order to unmarshal the
@@ -289,6 +448,16 @@ public interface IHttpClient {
      */
     void addOkResponseCode(int responseCode);
 
+    /**
+     * Set the most times a request is sent before its failure is returned. Only
+     * requests that are safe to send again are retried, with a growing wait
+     * between the attempts
+     * 
+     * @param maxAttempts - 1 for no retries
+     * @return the updated client
+     */
+    IHttpClient setRetryAttempts(int maxAttempts);
+
     /**
      * Build the client
      * 
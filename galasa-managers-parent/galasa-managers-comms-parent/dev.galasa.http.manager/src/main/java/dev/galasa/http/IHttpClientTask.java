@@ -0,0 +1,25 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http;
+
+/**
+ * A request, or a few dependent requests, to run asynchronously with
+ * {@link IHttpClient#submitAsync(IHttpClientTask)}
+ *
+ * @param <T> the result of the task
+ */
+@FunctionalInterface
+public interface IHttpClientTask<T> {
+
+    /**
+     * Issue the requests, on one of the shared HTTP client threads
+     * 
+     * @return - the result to complete the future with
+     * @throws HttpClientException
+     */
+    T execute() throws HttpClientException;
+
+}
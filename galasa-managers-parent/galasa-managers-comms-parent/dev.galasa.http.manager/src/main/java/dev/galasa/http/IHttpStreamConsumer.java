@@ -0,0 +1,29 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the body of a response as it arrives, so a large body does not have to fit in
+ * the heap.  The client closes the response once the consumer returns.
+ *
+ * @param <T> the result of consuming the body
+ */
+@FunctionalInterface
+public interface IHttpStreamConsumer<T> {
+
+    /**
+     * Read the body of the response
+     * 
+     * @param content - the body, only valid until this method returns, do not close it
+     * @return - the content for the {@link HttpClientResponse}
+     * @throws IOException
+     */
+    T consume(InputStream content) throws IOException;
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.galasa.http.IHttpClientTask;
+
+/**
+ * Runs the asynchronous requests of a client on a thread pool shared by all the clients.
+ * 
+ * Requests to a host are held back while the host already has the maximum number in
+ * flight, rather than taking a thread to wait for a pooled connection, so a large fan
+ * out neither starves other hosts of threads nor overloads the server.
+ */
+public class HttpAsyncDispatcher {
+
+    private static final int                THREADS         = 64;
+    private static final long               THREAD_IDLE     = 60;
+
+    private static final ThreadPoolExecutor executor        = createExecutor();
+
+    private final HashMap<String, Host>     hosts           = new HashMap<>();
+
+    /**
+     * Queue a task to run once the host has fewer than the limit in flight
+     * 
+     * @param host - the host the task sends its requests to
+     * @param limit - the most tasks to run at once for the host
+     * @param task
+     * @return - the future completed with the result of the task, or exceptionally with its exception
+     */
+    public <T> CompletableFuture<T> submit(String host, int limit, IHttpClientTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        Runnable runnable = () -> {
+            try {
+                // *** Skip tasks cancelled while waiting for the host
+                if (!future.isDone()) {
+                    future.complete(task.execute());
+                }
+            } catch (Throwable e) { // NOSONAR - the caller receives everything through the future
+                future.completeExceptionally(e);
+            } finally {
+                finished(host);
+            }
+        };
+
+        synchronized (this) {
+            Host state = hosts.computeIfAbsent(host, key -> new Host());
+            if (state.running >= Math.max(1, limit)) {
+                state.waiting.add(runnable);
+                return future;
+            }
+            state.running++;
+        }
+
+        executor.execute(runnable);
+        return future;
+    }
+
+    private void finished(String host) {
+        Runnable next;
+        synchronized (this) {
+            Host state = hosts.get(host);
+            next = state.waiting.poll();
+            if (next == null) {
+                state.running--;
+                if (state.running == 0) {
+                    hosts.remove(host);
+                }
+            }
+        }
+
+        if (next != null) {
+            executor.execute(next);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(THREADS, THREADS, THREAD_IDLE, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DispatcherThreadFactory());
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    private static class Host {
+        private int                        running;
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+    }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "http-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
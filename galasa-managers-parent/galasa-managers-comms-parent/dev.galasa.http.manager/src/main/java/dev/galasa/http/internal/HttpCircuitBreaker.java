@@ -0,0 +1,111 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.http.HttpClientException;
+
+/**
+ * Stops requests being sent to a host that appears to be down, shared by all the clients.
+ *
+ * After a number of consecutive connection failures or unavailable responses the circuit
+ * opens and requests to the host fail at once.  When the open time has passed a single
+ * request is let through, if it works the circuit closes, otherwise it opens again.
+ */
+public class HttpCircuitBreaker {
+
+    private static final Log                                          logger   = LogFactory.getLog(HttpCircuitBreaker.class);
+
+    private static final ConcurrentHashMap<String, HttpCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final String                                              host;
+
+    private int                                                       failures;
+    private long                                                      openedAt = -1;
+    private boolean                                                   trialInFlight;
+
+    private HttpCircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Get the breaker for the host of the URI
+     *
+     * @param uri - any URI on the host
+     * @return the breaker
+     */
+    public static HttpCircuitBreaker forHost(URI uri) {
+        String host = uri.getScheme() + "://" + uri.getAuthority();
+        return breakers.computeIfAbsent(host, HttpCircuitBreaker::new);
+    }
+
+    /**
+     * Check a request can be sent
+     *
+     * @param openTime - how long in milliseconds the circuit stays open
+     * @return true if the request is the trial let through an open circuit
+     * @throws HttpClientException - if the circuit is open
+     */
+    public synchronized boolean allowRequest(long openTime) throws HttpClientException {
+        if (openedAt < 0) {
+            return false;
+        }
+
+        if (!trialInFlight && System.currentTimeMillis() - openedAt >= openTime) {
+            trialInFlight = true;
+            return true;
+        }
+
+        throw new HttpClientException("Requests to " + host + " are failing fast, the last " + failures
+                + " requests to it failed");
+    }
+
+    /**
+     * Record that the host answered
+     */
+    public synchronized void success() {
+        if (openedAt >= 0) {
+            logger.info("Requests to " + host + " are working again");
+        }
+        failures = 0;
+        openedAt = -1;
+        trialInFlight = false;
+    }
+
+    /**
+     * Give up the trial request without an answer from the host, so the next request is
+     * let through as the trial instead
+     */
+    public synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Record that the host could not be reached or is unavailable
+     *
+     * @param threshold - the consecutive failures that open the circuit, 0 to never open it
+     */
+    public synchronized void failure(int threshold) {
+        failures++;
+
+        if (trialInFlight) {
+            trialInFlight = false;
+            openedAt = System.currentTimeMillis();
+            return;
+        }
+
+        if (openedAt < 0 && threshold > 0 && failures >= threshold) {
+            openedAt = System.currentTimeMillis();
+            logger.warn("The last " + failures + " requests to " + host + " failed, further requests will fail fast");
+        }
+    }
+
+}
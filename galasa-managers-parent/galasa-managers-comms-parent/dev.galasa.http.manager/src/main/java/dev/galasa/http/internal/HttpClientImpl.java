@@ -6,7 +6,6 @@
 package dev.galasa.http.internal;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,16 +13,23 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,6 +44,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.auth.AuthScope;
@@ -49,9 +56,15 @@ import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.ByteArrayEntity;
@@ -61,11 +74,14 @@ import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.AbstractHttpMessage;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.HttpContext;
 import org.w3c.dom.Document;
 
 import com.google.gson.JsonObject;
@@ -73,8 +89,10 @@ import com.google.gson.JsonObject;
 import dev.galasa.http.ContentType;
 import dev.galasa.http.HttpClientException;
 import dev.galasa.http.HttpClientResponse;
+import dev.galasa.http.HttpClientStreamResponse;
 import dev.galasa.http.IHttpClient;
-import jakarta.xml.bind.JAXBContext;
+import dev.galasa.http.IHttpClientTask;
+import dev.galasa.http.IHttpStreamConsumer;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.annotation.XmlType;
 
@@ -82,10 +100,36 @@ public class HttpClientImpl implements IHttpClient {
 
     private static final String JAVA_VENDOR_PROPERTY = "java.vendor";
 
-    private CloseableHttpClient httpClient;
-    protected URI               host                 = null;
-
-    private final List<Header>  commonHeaders        = new ArrayList<>();
+    private static final int    DEFAULT_MAX_TOTAL         = 20;
+    private static final int    DEFAULT_MAX_PER_ROUTE     = 10;
+    private static final long   DEFAULT_KEEP_ALIVE        = 30000;
+    private static final long   DEFAULT_IDLE_TIMEOUT      = 30000;
+    private static final int    VALIDATE_AFTER_INACTIVITY = 2000;
+    private static final int    DEFAULT_RETRY_ATTEMPTS    = 3;
+    private static final long   DEFAULT_RETRY_BACKOFF     = 500;
+    private static final long   DEFAULT_RETRY_MAX_BACKOFF = 10000;
+    private static final long   DEFAULT_RETRY_DEADLINE    = 60000;
+    private static final int    DEFAULT_CIRCUIT_FAILURES  = 5;
+    private static final long   DEFAULT_CIRCUIT_OPEN_TIME = 30000;
+
+    private static final ContentType[] UPLOAD_ACCEPT_TYPES = new ContentType[] { ContentType.APPLICATION_XML,
+            ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN };
+
+    private PooledClient        pooledClient;
+    private final List<PooledClient> retiredClients  = new ArrayList<>();
+    private boolean             rebuild              = true;
+
+    private int                 maxTotal             = DEFAULT_MAX_TOTAL;
+    private int                 maxPerRoute          = DEFAULT_MAX_PER_ROUTE;
+    private long                keepAlive            = DEFAULT_KEEP_ALIVE;
+    private long                idleTimeout          = DEFAULT_IDLE_TIMEOUT;
+    private volatile HttpRetryPolicy retryPolicy = new HttpRetryPolicy(DEFAULT_RETRY_ATTEMPTS,
+            DEFAULT_RETRY_BACKOFF, DEFAULT_RETRY_MAX_BACKOFF, DEFAULT_RETRY_DEADLINE);
+    private volatile int        circuitFailures      = DEFAULT_CIRCUIT_FAILURES;
+    private volatile long       circuitOpenTime      = DEFAULT_CIRCUIT_OPEN_TIME;
+    protected volatile URI      host                 = null;
+
+    private final List<Header>  commonHeaders        = new CopyOnWriteArrayList<>();
 
     private final int           timeout;
 
@@ -93,8 +137,10 @@ public class HttpClientImpl implements IHttpClient {
     private SSLContext          sslContext;
     private HostnameVerifier    hostnameVerifier     = NoopHostnameVerifier.INSTANCE;
     private CredentialsProvider credentialsProvider  = new BasicCredentialsProvider();
-    private HttpClientContext   httpContext          = null;
-    private Set<Integer>        okResponseCodes      = new HashSet<>();
+    private volatile AuthCache  authCache            = null;
+    private final Set<Integer>  okResponseCodes      = ConcurrentHashMap.newKeySet();
+
+    private final HttpAsyncDispatcher asyncDispatcher = new HttpAsyncDispatcher();
 
     private Log                 logger;
 
@@ -147,7 +193,23 @@ public class HttpClientImpl implements IHttpClient {
     private HttpClientResponse<Object> executeJaxbRequest(HttpClientRequest request, Class<?>... responseTypes)
             throws HttpClientException {
 
-        return HttpClientResponse.jaxbResponse(execute(request.buildRequest()), responseTypes);
+        return jaxbResponse(execute(request.buildRequest()), responseTypes);
+    }
+
+    /**
+     * Unmarshal the body of a response with the cached JAXB contexts, whatever the status,
+     * done here rather than by HttpClientResponse.jaxbResponse so the cache stays internal
+     */
+    private HttpClientResponse<Object> jaxbResponse(CloseableHttpResponse httpResponse, Class<?>... responseTypes)
+            throws HttpClientException {
+
+        return HttpClientResponse.streamResponse(httpResponse, true, content -> {
+            try {
+                return JaxbContextCache.unmarshal(content, responseTypes);
+            } catch (JAXBException e) {
+                throw new IOException("Unable to unmarshal the response body", e);
+            }
+        });
     }
 
     @Override
@@ -273,6 +335,131 @@ public class HttpClientImpl implements IHttpClient {
         return HttpClientResponse.byteResponse(execute(request.buildRequest()));
     }
 
+    @Override
+    public <T> CompletableFuture<T> submitAsync(IHttpClientTask<T> task) {
+        URI currentHost = this.host;
+        String hostKey = currentHost == null ? "" : currentHost.getHost() + ":" + currentHost.getPort();
+
+        int limit;
+        synchronized (this) {
+            limit = maxPerRoute;
+        }
+
+        return asyncDispatcher.submit(hostKey, limit, task);
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> getJsonAsync(String url) {
+        return submitAsync(() -> getJson(url));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> putJsonAsync(String url, JsonObject json) {
+        return submitAsync(() -> putJson(url, json));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> postJsonAsync(String url, JsonObject json) {
+        return submitAsync(() -> postJson(url, json));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> deleteJsonAsync(String url) {
+        return submitAsync(() -> deleteJson(url));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<String>> getTextAsync(String url) {
+        return submitAsync(() -> getText(url));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<Object>> getJaxbAsync(String url, Class<?>... responseTypes) {
+        return submitAsync(() -> getJaxb(url, responseTypes));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<Path>> getFileAsync(String url, Path destination, ContentType... acceptTypes) {
+        return submitAsync(() -> getFile(url, destination, acceptTypes));
+    }
+
+    @Override
+    public HttpClientStreamResponse getStream(String url, ContentType... acceptTypes) throws HttpClientException {
+        HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(url, null).toString(), acceptTypes);
+
+        return new HttpClientStreamResponse(execute(request.buildRequest()));
+    }
+
+    @Override
+    public <T> HttpClientResponse<T> getStream(String url, IHttpStreamConsumer<T> consumer, ContentType... acceptTypes)
+            throws HttpClientException {
+        HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(url, null).toString(), acceptTypes);
+
+        return HttpClientResponse.streamResponse(execute(request.buildRequest()), consumer);
+    }
+
+    @Override
+    public HttpClientResponse<Path> getFile(String url, Path destination, ContentType... acceptTypes)
+            throws HttpClientException {
+        return getStream(url, content -> {
+            Files.copy(content, destination, StandardCopyOption.REPLACE_EXISTING);
+            return destination;
+        }, acceptTypes);
+    }
+
+    @Override
+    public HttpClientResponse<String> putStream(String url, InputStream content, long length, ContentType contentType)
+            throws HttpClientException {
+        HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
+                UPLOAD_ACCEPT_TYPES, contentType);
+        request.setBody(content, length);
+        return executeUploadRequest(request);
+    }
+
+    @Override
+    public HttpClientResponse<String> postStream(String url, InputStream content, long length, ContentType contentType)
+            throws HttpClientException {
+        HttpClientRequest request = HttpClientRequest.newPostRequest(buildUri(url, null).toString(),
+                UPLOAD_ACCEPT_TYPES, contentType);
+        request.setBody(content, length);
+        return executeUploadRequest(request);
+    }
+
+    @Override
+    public HttpClientResponse<String> putFile(String url, Path file, ContentType contentType) throws HttpClientException {
+        HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
+                UPLOAD_ACCEPT_TYPES, contentType);
+        request.setBody(file);
+        return executeUploadRequest(request);
+    }
+
+    @Override
+    public HttpClientResponse<String> postFile(String url, Path file, ContentType contentType) throws HttpClientException {
+        HttpClientRequest request = HttpClientRequest.newPostRequest(buildUri(url, null).toString(),
+                UPLOAD_ACCEPT_TYPES, contentType);
+        request.setBody(file);
+        return executeUploadRequest(request);
+    }
+
+    /**
+     * Ask the server to accept the request before the body is sent, so a large body 
+     * is not sent only to be rejected
+     */
+    private HttpClientResponse<String> executeUploadRequest(HttpClientRequest request) throws HttpClientException {
+        HttpUriRequest uriRequest = request.buildRequest();
+        setExpectContinue((HttpRequestBase) uriRequest);
+
+        return HttpClientResponse.textResponse(execute(uriRequest));
+    }
+
+    private void setExpectContinue(HttpRequestBase request) {
+        RequestConfig.Builder config = RequestConfig.custom().setExpectContinueEnabled(true);
+        if (timeout > 0) {
+            config.setConnectTimeout(timeout).setConnectionRequestTimeout(timeout).setSocketTimeout(timeout);
+        }
+        request.setConfig(config.build());
+    }
+
 
 
     @Override
@@ -287,10 +474,23 @@ public class HttpClientImpl implements IHttpClient {
         BasicScheme basicAuth = new BasicScheme();
         authCache.put(new HttpHost(host.getHost(), host.getPort(), host.getScheme()), basicAuth);
 
-        // Add AuthCache to the execution context
-        httpContext = HttpClientContext.create();
+        // Add AuthCache to the execution context of each request
+        this.authCache = authCache;
+    }
+
+    /**
+     * A context for one request, a context cannot be shared by concurrent requests
+     */
+    private HttpClientContext newContext() {
+        AuthCache currentAuthCache = this.authCache;
+        if (currentAuthCache == null) {
+            return null;
+        }
+
+        HttpClientContext httpContext = HttpClientContext.create();
         httpContext.setCredentialsProvider(credentialsProvider);
-        httpContext.setAuthCache(authCache);
+        httpContext.setAuthCache(currentAuthCache);
+        return httpContext;
     }
 
     /**
@@ -379,9 +579,10 @@ public class HttpClientImpl implements IHttpClient {
      * @param sslContext
      * @return the updated client
      */
-    public IHttpClient setSSLContext(SSLContext sslContext) {
+    public synchronized IHttpClient setSSLContext(SSLContext sslContext) {
 
         this.sslContext = sslContext;
+        this.rebuild = true;
 
         return this;
     }
@@ -393,9 +594,10 @@ public class HttpClientImpl implements IHttpClient {
      * @param hostnameVerifier
      * @return the updated client
      */
-    public IHttpClient setHostnameVerifier(HostnameVerifier hostnameVerifier) {
+    public synchronized IHttpClient setHostnameVerifier(HostnameVerifier hostnameVerifier) {
 
         this.hostnameVerifier = hostnameVerifier;
+        this.rebuild = true;
 
         return this;
     }
@@ -405,9 +607,81 @@ public class HttpClientImpl implements IHttpClient {
      * 
      * @return the updated client
      */
-    public IHttpClient setNoopHostnameVerifier() {
+    public synchronized IHttpClient setNoopHostnameVerifier() {
 
         this.hostnameVerifier = NoopHostnameVerifier.INSTANCE;
+        this.rebuild = true;
+
+        return this;
+    }
+
+    /**
+     * Set the size of the connection pool
+     * 
+     * @param maxTotal - the most connections kept open across all hosts
+     * @param maxPerRoute - the most connections kept open to one host
+     * @return the updated client
+     */
+    public synchronized IHttpClient setConnectionPoolLimits(int maxTotal, int maxPerRoute) {
+
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.rebuild = true;
+
+        return this;
+    }
+
+    /**
+     * Set how long pooled connections are kept for reuse
+     * 
+     * @param keepAlive - the longest in milliseconds a connection is kept, a shorter Keep-Alive timeout from the server is honoured
+     * @param idleTimeout - how long in milliseconds a connection can be unused before it is closed
+     * @return the updated client
+     */
+    public synchronized IHttpClient setConnectionKeepAlive(long keepAlive, long idleTimeout) {
+
+        this.keepAlive = keepAlive;
+        this.idleTimeout = idleTimeout;
+        this.rebuild = true;
+
+        return this;
+    }
+
+    /**
+     * Set how failed requests are retried
+     * 
+     * @param maxAttempts - the most times a request is sent, 1 for no retries
+     * @param initialBackoff - the longest wait in milliseconds before the first retry, doubling for each retry after
+     * @param maxBackoff - the longest wait in milliseconds before any retry
+     * @param deadline - the milliseconds from the first attempt after which no more retries are started, 0 for none
+     * @return the updated client
+     */
+    public IHttpClient setRetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff, long deadline) {
+
+        this.retryPolicy = new HttpRetryPolicy(maxAttempts, initialBackoff, maxBackoff, deadline);
+
+        return this;
+    }
+
+    @Override
+    public IHttpClient setRetryAttempts(int maxAttempts) {
+
+        this.retryPolicy = this.retryPolicy.withMaxAttempts(maxAttempts);
+
+        return this;
+    }
+
+    /**
+     * Set when requests to a host that appears to be down fail fast
+     * 
+     * @param failures - the consecutive failed requests to a host before requests to it fail fast, 0 to never fail fast
+     * @param openTime - how long in milliseconds requests fail fast before one is let through to try the host again
+     * @return the updated client
+     */
+    public IHttpClient setCircuitBreaker(int failures, long openTime) {
+
+        this.circuitFailures = failures;
+        this.circuitOpenTime = openTime;
 
         return this;
     }
@@ -462,15 +736,48 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     /**
-     * Build the client
+     * Build the client, if it has not been built since the SSL or connection settings were changed.
+     * 
+     * The client keeps a pool of connections, so requests to the same host reuse the 
+     * connection and TLS session.  The cookies, credentials and common headers are read 
+     * as each request is sent, so changing them does not need a new client.  Requests 
+     * already using a replaced client, including asynchronous ones and responses still 
+     * being read, keep it until they finish and it is closed after.
      * 
      * @return the built client
      */
-    public IHttpClient build() {
+    public synchronized IHttpClient build() {
+
+        if (pooledClient != null && !rebuild) {
+            return this;
+        }
+
+        SSLConnectionSocketFactory sslSocketFactory;
+        if (sslContext != null) {
+            sslSocketFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
+        } else {
+            sslSocketFactory = SSLConnectionSocketFactory.getSocketFactory();
+        }
+
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
 
         HttpClientBuilder builder = HttpClients.custom().setDefaultCookieStore(cookieStore);
+        builder.setConnectionManager(connectionManager);
+        builder.setKeepAliveStrategy(new MaximumKeepAliveStrategy(keepAlive));
+        builder.evictExpiredConnections();
+        builder.evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
         builder.setDefaultCredentialsProvider(credentialsProvider);
         builder.setDefaultHeaders(commonHeaders);
+        // *** Retries are done by the retry policy, with a backoff
+        builder.disableAutomaticRetries();
 
         if (timeout > 0) {
             RequestConfig.Builder requestBuilder = RequestConfig.custom().setConnectTimeout(timeout)
@@ -478,16 +785,46 @@ public class HttpClientImpl implements IHttpClient {
             builder.setDefaultRequestConfig(requestBuilder.build());
         }
 
-        if (sslContext != null) {
-            SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
-            builder.setSSLSocketFactory(csf);
+        // *** Requests still using the old client keep it until they finish, it is closed once they have
+        if (pooledClient != null) {
+            retiredClients.add(pooledClient);
         }
-
-        httpClient = builder.build();
+        pooledClient = new PooledClient(builder.build(), connectionManager);
+        rebuild = false;
+        closeRetiredClients();
 
         return this;
     }
 
+    /**
+     * Get the client for a request, which must be given back with releaseClient
+     */
+    private synchronized PooledClient acquireClient() {
+        build();
+        closeRetiredClients();
+        pooledClient.users++;
+        return pooledClient;
+    }
+
+    private synchronized void releaseClient(PooledClient client) {
+        client.users--;
+        closeRetiredClients();
+    }
+
+    /**
+     * Close the replaced clients that have no requests running and no responses still being read
+     */
+    private void closeRetiredClients() {
+        Iterator<PooledClient> retired = retiredClients.iterator();
+        while (retired.hasNext()) {
+            PooledClient client = retired.next();
+            if (client.users == 0 && client.connectionManager.getTotalStats().getLeased() == 0) {
+                client.close();
+                retired.remove();
+            }
+        }
+    }
+
     private void addHeaders(AbstractHttpMessage message, ContentType contentType, ContentType[] acceptTypes) {
 
         if (contentType != null) {
@@ -517,54 +854,137 @@ public class HttpClientImpl implements IHttpClient {
 
     }
 
-    private byte[] execute(HttpUriRequest request, boolean retry) throws HttpClientException {
+    private <T> T execute(HttpUriRequest request, boolean retry, IHttpStreamConsumer<T> consumer) throws HttpClientException {
+
+        CloseableHttpResponse response = executeWithRetry(request, retry);
+        try {
+            StatusLine status = response.getStatusLine();
+            if (status.getStatusCode() != HttpStatus.SC_OK
+                    && status.getStatusCode() != HttpStatus.SC_CREATED
+                    && status.getStatusCode() != HttpStatus.SC_MOVED_TEMPORARILY
+                    && !okResponseCodes.contains(status.getStatusCode())) {
+                throw new HttpClientException("HTTP " + request.getMethod() + " to " + request.getURI().toASCIIString()
+                        + " failed with " + status.getStatusCode() + ": '" + status.getReasonPhrase() + "'");
+            }
+
+            HttpEntity entity = response.getEntity();
+
+            return consumer.consume(entity.getContent());
+
+        } catch (HttpClientException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HttpClientException(e);
+        } finally {
+            closeResponse(request, response);
+        }
+    }
+
+    /**
+     * Send a request under the retry policy.  A retryable status that is still failing once 
+     * the attempts are used up is returned rather than thrown, for the caller to report.
+     * 
+     * @param request
+     * @param retry - true if the caller knows the request is safe to repeat even if it is not idempotent
+     */
+    private CloseableHttpResponse executeWithRetry(HttpUriRequest request, boolean retry) throws HttpClientException {
+        HttpRetryPolicy policy = this.retryPolicy;
+        HttpCircuitBreaker circuitBreaker = HttpCircuitBreaker.forHost(request.getURI());
+        boolean repeatable = HttpRetryPolicy.isRepeatable(request);
+        boolean idempotent = (retry && repeatable) || HttpRetryPolicy.isIdempotent(request);
+
+        long started = System.currentTimeMillis();
+        for (int attempt = 1;; attempt++) {
+            boolean trial = circuitBreaker.allowRequest(circuitOpenTime);
 
-        while (true) {
-            CloseableHttpResponse response = null;
+            CloseableHttpResponse response;
             try {
-                this.build();
-                response = httpClient.execute(request, httpContext);
-                StatusLine status = response.getStatusLine();
-                if (status.getStatusCode() != HttpStatus.SC_OK
-                        && status.getStatusCode() != HttpStatus.SC_CREATED
-                        && status.getStatusCode() != HttpStatus.SC_MOVED_TEMPORARILY
-                        && !okResponseCodes.contains(status.getStatusCode())) {
-                    String message = "HTTP " + request.getMethod() + " to " + request.getURI().toASCIIString()
-                            + " failed with " + status.getStatusCode() + ": '" + status.getReasonPhrase() + "'";
-
-                    if (retry && status.getStatusCode() != HttpStatus.SC_UNAUTHORIZED) {
-                        logger.warn(message + ", retrying");
-                        try {
-                            Thread.sleep(2000);
-                        } catch (InterruptedException e1) {
-                            Thread.currentThread().interrupt();
-                            throw new HttpClientException("Galasa HTTP Client retry failed due to interruption", e1);
-                        }
-                        continue;
-                    }
-                    throw new HttpClientException(message);
+                response = send(request, circuitBreaker, trial);
+            } catch (IOException e) {
+                long wait = -1;
+                if (idempotent || HttpRetryPolicy.isNotSent(e)) {
+                    wait = policy.nextWait(attempt, started, -1);
                 }
+                if (wait < 0) {
+                    throw new HttpClientException("Error executing http request", e);
+                }
+                logger.warn("HTTP " + request.getMethod() + " to " + request.getURI().toASCIIString() + " failed with '"
+                        + e.getMessage() + "', retrying in " + wait + "ms");
+                backoff(wait);
+                continue;
+            }
 
-                HttpEntity entity = response.getEntity();
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (!HttpRetryPolicy.isRetryableStatus(statusCode) || okResponseCodes.contains(statusCode)) {
+                return response;
+            }
+            if (!idempotent && !(repeatable && HttpRetryPolicy.isRefusedStatus(statusCode))) {
+                return response;
+            }
 
-                return IOUtils.toByteArray(entity.getContent());
+            long wait = policy.nextWait(attempt, started, HttpRetryPolicy.retryAfter(response));
+            if (wait < 0) {
+                return response;
+            }
+            logger.warn("HTTP " + request.getMethod() + " to " + request.getURI().toASCIIString() + " failed with "
+                    + statusCode + ": '" + response.getStatusLine().getReasonPhrase() + "', retrying in " + wait + "ms");
+            closeResponse(request, response);
+            backoff(wait);
+        }
+    }
 
-            } catch (Exception e) {
-                throw new HttpClientException(e);
-            } finally {
-
-                if (response != null) {
-                    try {
-                        response.close();
-                    } catch (IOException e) {
-                        logger.error("Exception received when trying to close an http response from "
-                                + request.getURI().toASCIIString(), e);
-                    }
-                }
+    /**
+     * Send a request once, recording the outcome with the circuit breaker.  If the trial
+     * request ends without an answer or a connection failure, eg a runtime exception, the
+     * trial is released so the circuit is not left waiting on it.
+     */
+    private CloseableHttpResponse send(HttpUriRequest request, HttpCircuitBreaker circuitBreaker, boolean trial)
+            throws IOException {
+        boolean recorded = false;
+        PooledClient client = null;
+        try {
+            client = acquireClient();
+            CloseableHttpResponse response = client.httpClient.execute(request, newContext());
+
+            if (HttpRetryPolicy.isUnavailableStatus(response.getStatusLine().getStatusCode())) {
+                circuitBreaker.failure(circuitFailures);
+            } else {
+                circuitBreaker.success();
+            }
+            recorded = true;
+            return response;
+        } catch (IOException e) {
+            circuitBreaker.failure(circuitFailures);
+            recorded = true;
+            throw e;
+        } finally {
+            if (client != null) {
+                releaseClient(client);
+            }
+            if (trial && !recorded) {
+                circuitBreaker.releaseTrial();
             }
         }
     }
 
+    private void backoff(long wait) throws HttpClientException {
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpClientException("Galasa HTTP Client retry failed due to interruption", e);
+        }
+    }
+
+    private void closeResponse(HttpUriRequest request, CloseableHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            logger.error("Exception received when trying to close an http response from "
+                    + request.getURI().toASCIIString(), e);
+        }
+    }
+
     private URI buildUri(String path, Map<String, String> queryParams) throws HttpClientException {
 
         if (queryParams == null) {
@@ -643,18 +1063,17 @@ public class HttpClientImpl implements IHttpClient {
         ub.setPath(path);
     }
 
-    private Object unmarshall(byte[] content, Class<?>[] jaxbClasses) throws HttpClientException {
+    private Object unmarshall(InputStream content, Class<?>[] jaxbClasses) throws IOException {
 
         try {
             if (jaxbClasses != null && jaxbClasses.length > 0) {
-                JAXBContext ctx = JAXBContext.newInstance(jaxbClasses);
-                return ctx.createUnmarshaller().unmarshal(new ByteArrayInputStream(content));
+                return JaxbContextCache.unmarshal(content, jaxbClasses);
             }
         } catch (JAXBException e) {
-            throw new HttpClientException("Issue unmarshalling response", e);
+            throw new IOException("Issue unmarshalling response", e);
         }
 
-        return new String(content);
+        return new String(IOUtils.toByteArray(content));
 
     }
 
@@ -666,9 +1085,8 @@ public class HttpClientImpl implements IHttpClient {
 
         if (object.getClass().isAnnotationPresent(XmlType.class) && jaxbClasses != null && jaxbClasses.length > 0) {
             try {
-                JAXBContext ctx = JAXBContext.newInstance(jaxbClasses);
                 ByteArrayOutputStream os = new ByteArrayOutputStream();
-                ctx.createMarshaller().marshal(object, os);
+                JaxbContextCache.marshal(object, os, jaxbClasses);
 
                 return os.toByteArray();
             } catch (JAXBException e) {
@@ -689,9 +1107,7 @@ public class HttpClientImpl implements IHttpClient {
         post.setEntity(new ByteArrayEntity(dataBytes));
         addHeaders(post, contentType, acceptTypes);
 
-        byte[] response = execute(post, retry);
-
-        return unmarshall(response, jaxbClasses);
+        return execute(post, retry, content -> unmarshall(content, jaxbClasses));
 
     }
 
@@ -712,9 +1128,7 @@ public class HttpClientImpl implements IHttpClient {
             throw new HttpClientException("Unable to encode form", e);
         }
 
-        byte[] response = execute(post, retry);
-
-        return unmarshall(response, null);
+        return execute(post, retry, content -> unmarshall(content, null));
     }
 
     public CloseableHttpResponse getFile(String path) throws HttpClientException {
@@ -757,38 +1171,25 @@ public class HttpClientImpl implements IHttpClient {
     public CloseableHttpResponse putStream(String path, Map<String, String> queryParams, ContentType contentType, Object data,
             ContentType[] acceptTypes, Class<?>[] jaxbClasses, boolean retry) throws HttpClientException {
 
-        HttpPut put = new HttpPut(buildUri(path, queryParams));
-
-        HttpClientContext context = HttpClientContext.create();
-        RequestConfig config = RequestConfig.custom().setExpectContinueEnabled(true).build();
-        context.setRequestConfig(config);
-
-        if(data instanceof InputStream) {
-            InputStreamEntity entity;
-            try {
-                entity = new InputStreamEntity((InputStream) data);
-                put.setEntity(entity);
-                addHeaders(put, contentType, acceptTypes);
-                return httpClient.execute(put, context);
-            } catch (IOException e) {
-                logger.error("IO error with input stream", e);
-                throw new HttpClientException(e);
-            }
-        } else {
+        if (!(data instanceof InputStream)) {
             throw new HttpClientException("Data was not an expected object type");
         }
+
+        HttpPut put = new HttpPut(buildUri(path, queryParams));
+        put.setEntity(new InputStreamEntity((InputStream) data));
+        addHeaders(put, contentType, acceptTypes);
+        setExpectContinue(put);
+
+        // *** The stream can only be read once, so it is only sent again if it was never sent
+        return executeWithRetry(put, retry);
     }
 
     @Override
     public void addCommonHeader(String name, String value) {
-        List<Header> toRemove = new ArrayList<>();
-        commonHeaders.forEach(header -> {
-            if (header.getName().equals(name)) {
-                toRemove.add(header);
-            }
-        });
-        commonHeaders.removeAll(toRemove);
-        commonHeaders.add(new BasicHeader(name, value));
+        synchronized (commonHeaders) {
+            commonHeaders.removeIf(header -> header.getName().equals(name));
+            commonHeaders.add(new BasicHeader(name, value));
+        }
     }
 
     @Override
@@ -807,25 +1208,66 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     private CloseableHttpResponse execute(HttpUriRequest request) throws HttpClientException {
-        this.build();
-        try {
-            return httpClient.execute(request, httpContext);
-        } catch (IOException e) {
-            throw new HttpClientException("Error executing http request", e);
-        }
+        return executeWithRetry(request, false);
     }
 
+    /**
+     * Close the client, requests still running are ended
+     */
     @Override
-    public void close() {
-        if (this.httpClient == null) {
-            return;
+    public synchronized void close() {
+        if (pooledClient != null) {
+            retiredClients.add(pooledClient);
+            pooledClient = null;
         }
+        for (PooledClient client : retiredClients) {
+            client.close();
+        }
+        retiredClients.clear();
+        rebuild = true;
+    }
 
-        try {
-            httpClient.close();
-        } catch (IOException e) {
+    /**
+     * A built client and its connections, with the number of requests using it
+     */
+    private static class PooledClient {
+
+        private final CloseableHttpClient                httpClient;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private int                                      users;
+
+        private PooledClient(CloseableHttpClient httpClient, PoolingHttpClientConnectionManager connectionManager) {
+            this.httpClient = httpClient;
+            this.connectionManager = connectionManager;
+        }
+
+        private void close() {
+            try {
+                httpClient.close();
+            } catch (IOException e) { // NOSONAR - closing the connections
+            }
+        }
+    }
+
+    /**
+     * Keep connections for the time the server asks for, but no longer than the maximum
+     */
+    private static class MaximumKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private final long maximum;
+
+        private MaximumKeepAliveStrategy(long maximum) {
+            this.maximum = maximum;
         }
 
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (duration <= 0 || duration > maximum) {
+                return maximum;
+            }
+            return duration;
+        }
     }
 
 }
@@ -7,13 +7,16 @@ package dev.galasa.http.internal;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.HttpDelete;
@@ -26,6 +29,7 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 import org.w3c.dom.Document;
 
@@ -33,7 +37,6 @@ import com.google.gson.JsonObject;
 
 import dev.galasa.http.ContentType;
 import dev.galasa.http.HttpClientException;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 
 /**
@@ -191,6 +194,33 @@ public class HttpClientRequest {
         return this;
     }
 
+    /**
+     * Set the body of the request, the file is read as the request is sent
+     * 
+     * @param data
+     * @return - the updated request
+     */
+    public HttpClientRequest setBody(Path data) {
+        this.content = new PathEntity(data);
+
+        return this;
+    }
+
+    /**
+     * Set the body of the request, the stream is read as the request is sent.  The 
+     * stream is not closed, it remains owned by the caller.
+     * 
+     * @param data
+     * @param length - the length of the body, or -1 if it is not known
+     * @return - the updated request
+     */
+    public HttpClientRequest setBody(InputStream data, long length) {
+        // *** The entity closes the stream once it is sent, so shield the caller's stream
+        this.content = new InputStreamEntity(new CloseShieldInputStream(data), length);
+
+        return this;
+    }
+
     /**
      * Set the body of the request
      * 
@@ -225,8 +255,7 @@ public class HttpClientRequest {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
         try {
-            JAXBContext context = JAXBContext.newInstance(jaxbObject.getClass());
-            context.createMarshaller().marshal(jaxbObject, baos);
+            JaxbContextCache.marshal(jaxbObject, baos, jaxbObject.getClass());
         } catch (JAXBException e) {
             throw new IllegalArgumentException("Body is an instance of " + jaxbObject.getClass().getSimpleName()
                     + " which appears not to be a valid JAXB class", e);
@@ -25,12 +25,26 @@ import dev.galasa.framework.spi.IManager;
 import dev.galasa.framework.spi.ResourceUnavailableException;
 import dev.galasa.framework.spi.language.GalasaTest;
 import dev.galasa.http.HttpClient;
+import dev.galasa.http.HttpClientException;
 import dev.galasa.http.IHttpClient;
+import dev.galasa.http.internal.properties.CircuitBreakerFailures;
+import dev.galasa.http.internal.properties.CircuitBreakerOpenTime;
+import dev.galasa.http.internal.properties.ConnectionIdleTimeout;
+import dev.galasa.http.internal.properties.ConnectionKeepAlive;
+import dev.galasa.http.internal.properties.ConnectionPoolMaxPerRoute;
+import dev.galasa.http.internal.properties.ConnectionPoolMaxTotal;
+import dev.galasa.http.internal.properties.RetryBackoff;
+import dev.galasa.http.internal.properties.RetryDeadline;
+import dev.galasa.http.internal.properties.RetryMaxAttempts;
+import dev.galasa.http.internal.properties.RetryMaxBackoff;
+import dev.galasa.http.internal.properties.HttpPropertiesSingleton;
 import dev.galasa.http.spi.IHttpManagerSpi;
 
 @Component(service = { IManager.class })
 public class HttpManagerImpl extends AbstractManager implements IHttpManagerSpi {
 
+    public static final String NAMESPACE = "http";
+
     private static final Log  logger              = LogFactory.getLog(HttpManagerImpl.class);
     private List<IHttpClient> instantiatedClients = new ArrayList<>();
 
@@ -56,6 +70,13 @@ public class HttpManagerImpl extends AbstractManager implements IHttpManagerSpi
             @NotNull List<IManager> activeManagers, @NotNull GalasaTest galasaTest) throws ManagerException {
         super.initialise(framework, allManagers, activeManagers, galasaTest);
 
+        // *** Other managers create clients without the HTTP Manager being active, so always set the CPS
+        try {
+            HttpPropertiesSingleton.setCps(framework.getConfigurationPropertyService(NAMESPACE));
+        } catch (Exception e) {
+            throw new HttpClientException("Unable to request framework services", e);
+        }
+
         if(galasaTest.isJava()) {
             List<AnnotatedField> ourFields = findAnnotatedFields(HttpManagerField.class);
             if (!ourFields.isEmpty()) {
@@ -76,14 +97,25 @@ public class HttpManagerImpl extends AbstractManager implements IHttpManagerSpi
 
     @Override
     public @NotNull IHttpClient newHttpClient() {
-        IHttpClient client = new HttpClientImpl(180000, logger);
-        instantiatedClients.add(client);
-        return client;
+        return newHttpClient(180000);
     }
     
     @Override
     public @NotNull IHttpClient newHttpClient(int timeout) {
-        IHttpClient client = new HttpClientImpl(timeout, logger);
+        HttpClientImpl client = new HttpClientImpl(timeout, logger);
+        try {
+            client.setConnectionPoolLimits(ConnectionPoolMaxTotal.get(), ConnectionPoolMaxPerRoute.get());
+            client.setConnectionKeepAlive(ConnectionKeepAlive.get() * 1000L, ConnectionIdleTimeout.get() * 1000L);
+        } catch (Exception e) {
+            logger.warn("Unable to read the HTTP connection pool properties, using the defaults", e);
+        }
+        try {
+            client.setRetryPolicy(RetryMaxAttempts.get(), RetryBackoff.get(), RetryMaxBackoff.get() * 1000L,
+                    RetryDeadline.get() * 1000L);
+            client.setCircuitBreaker(CircuitBreakerFailures.get(), CircuitBreakerOpenTime.get() * 1000L);
+        } catch (Exception e) {
+            logger.warn("Unable to read the HTTP retry properties, using the defaults", e);
+        }
         instantiatedClients.add(client);
         return client;
     }
@@ -0,0 +1,185 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+
+/**
+ * When and how long to wait before a failed request is sent again.
+ *
+ * The waits grow exponentially from the initial backoff up to the maximum, and are
+ * jittered so clients that failed together do not retry together.  A Retry-After
+ * from the server is honoured instead.  Once the attempts or the deadline are used
+ * up the failure is given to the caller.
+ *
+ * A request that is not idempotent is only sent again when the server cannot have
+ * acted on it, ie the connection was never made or the server refused it with a
+ * 429 or 503.
+ */
+public class HttpRetryPolicy {
+
+    private final int  maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long deadline;
+
+    /**
+     * @param maxAttempts - the most times a request is sent, 1 for no retries
+     * @param initialBackoff - the longest wait in milliseconds before the first retry
+     * @param maxBackoff - the longest wait in milliseconds before any retry
+     * @param deadline - the milliseconds from the first attempt after which no more retries are started
+     */
+    public HttpRetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff, long deadline) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = Math.max(1, initialBackoff);
+        this.maxBackoff = Math.max(this.initialBackoff, maxBackoff);
+        this.deadline = deadline;
+    }
+
+    public HttpRetryPolicy withMaxAttempts(int maxAttempts) {
+        return new HttpRetryPolicy(maxAttempts, initialBackoff, maxBackoff, deadline);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * How long to wait before the next attempt
+     *
+     * @param attempt - the attempt that failed, from 1
+     * @param started - when the first attempt was sent, in epoch milliseconds
+     * @param retryAfter - the wait asked for by the server in milliseconds, -1 if none
+     * @return the milliseconds to wait, or -1 if there should not be another attempt
+     */
+    public long nextWait(int attempt, long started, long retryAfter) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+
+        long wait;
+        if (retryAfter >= 0) {
+            wait = retryAfter;
+        } else {
+            long ceiling = initialBackoff << Math.min(attempt - 1, 30);
+            if (ceiling <= 0 || ceiling > maxBackoff) {
+                ceiling = maxBackoff;
+            }
+            // *** Full jitter, anywhere from none to the ceiling
+            wait = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+
+        if (deadline > 0 && (System.currentTimeMillis() - started) + wait > deadline) {
+            return -1;
+        }
+
+        return wait;
+    }
+
+    /**
+     * Can the request be sent again without changing the result, the body, if any, must be
+     * repeatable as well
+     */
+    public static boolean isIdempotent(HttpUriRequest request) {
+        switch (request.getMethod()) {
+            case "GET":
+            case "HEAD":
+            case "OPTIONS":
+            case "TRACE":
+            case "PUT":
+            case "DELETE":
+                return isRepeatable(request);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Is the body of the request, if any, able to be sent more than once
+     */
+    public static boolean isRepeatable(HttpUriRequest request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+            return enclosing.getEntity() == null || enclosing.getEntity().isRepeatable();
+        }
+        return true;
+    }
+
+    /**
+     * Is the status one that may succeed if the request is sent again
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+        switch (statusCode) {
+            case HttpStatus.SC_REQUEST_TIMEOUT:
+            case 429: // Too many requests
+            case HttpStatus.SC_BAD_GATEWAY:
+            case HttpStatus.SC_SERVICE_UNAVAILABLE:
+            case HttpStatus.SC_GATEWAY_TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Did the server refuse the request without acting on it
+     */
+    public static boolean isRefusedStatus(int statusCode) {
+        return statusCode == 429 || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Is the status a sign that the server is down or overloaded, rather than an answer
+     */
+    public static boolean isUnavailableStatus(int statusCode) {
+        return statusCode == HttpStatus.SC_BAD_GATEWAY
+                || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Did the request fail before a connection was made, so it was never sent
+     */
+    public static boolean isNotSent(IOException e) {
+        return e instanceof ConnectException || e instanceof ConnectTimeoutException;
+    }
+
+    /**
+     * The Retry-After of a response, as seconds or an HTTP date
+     *
+     * @return the milliseconds to wait, or -1 if there is no valid Retry-After
+     */
+    public static long retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null || header.getValue() == null) {
+            return -1;
+        }
+
+        String value = header.getValue().trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            if (date == null) {
+                return -1;
+            }
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+}
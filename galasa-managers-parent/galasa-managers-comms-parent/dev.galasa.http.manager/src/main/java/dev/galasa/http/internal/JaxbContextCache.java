@@ -0,0 +1,128 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * The JAXB contexts used by the HTTP clients, keyed by the set of classes they were created
+ * for.  Creating a context builds the model of the classes by reflection, so each set of
+ * classes is only done once.
+ *
+ * Marshallers and unmarshallers are not thread safe, so a few of each are pooled per
+ * context and lent out for one call at a time.
+ */
+public class JaxbContextCache {
+
+    private static final int                                             MAX_CONTEXTS = 200;
+    private static final int                                             POOL_SIZE    = 8;
+
+    private static final ConcurrentHashMap<Set<Class<?>>, CachedContext> contexts     = new ConcurrentHashMap<>();
+
+    private JaxbContextCache() {
+    }
+
+    /**
+     * Get the context for the classes, creating it if it is not cached
+     *
+     * @param classes
+     * @return the context
+     * @throws JAXBException - if the classes are not valid JAXB classes
+     */
+    public static JAXBContext getContext(Class<?>... classes) throws JAXBException {
+        return getCachedContext(classes).context;
+    }
+
+    /**
+     * Unmarshal an object straight from a stream
+     *
+     * @param inputStream - not closed
+     * @param classes - the possible classes of the object
+     * @return the object
+     * @throws JAXBException
+     */
+    public static Object unmarshal(InputStream inputStream, Class<?>... classes) throws JAXBException {
+        CachedContext cached = getCachedContext(classes);
+
+        Unmarshaller unmarshaller = cached.unmarshallers.poll();
+        if (unmarshaller == null) {
+            unmarshaller = cached.context.createUnmarshaller();
+        }
+
+        Object object = unmarshaller.unmarshal(inputStream);
+
+        // *** Only returned to the pool if the unmarshal worked, in case it was left in a bad state
+        cached.unmarshallers.offer(unmarshaller);
+        return object;
+    }
+
+    /**
+     * Marshal an object to a stream
+     *
+     * @param object
+     * @param outputStream - not closed
+     * @param classes - the classes for the context
+     * @throws JAXBException
+     */
+    public static void marshal(Object object, OutputStream outputStream, Class<?>... classes) throws JAXBException {
+        CachedContext cached = getCachedContext(classes);
+
+        Marshaller marshaller = cached.marshallers.poll();
+        if (marshaller == null) {
+            marshaller = cached.context.createMarshaller();
+        }
+
+        marshaller.marshal(object, outputStream);
+
+        cached.marshallers.offer(marshaller);
+    }
+
+    private static CachedContext getCachedContext(Class<?>... classes) throws JAXBException {
+        Set<Class<?>> key = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(classes)));
+
+        CachedContext cached = contexts.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // *** Created outside the map so a slow build does not block other keys, a duplicate is harmless
+        cached = new CachedContext(JAXBContext.newInstance(classes));
+
+        // *** Unbounded sets of classes are not expected, but do not let them leak
+        if (contexts.size() >= MAX_CONTEXTS) {
+            contexts.clear();
+        }
+
+        CachedContext existing = contexts.putIfAbsent(key, cached);
+        if (existing != null) {
+            return existing;
+        }
+        return cached;
+    }
+
+    private static class CachedContext {
+        private final JAXBContext                      context;
+        private final ArrayBlockingQueue<Marshaller>   marshallers   = new ArrayBlockingQueue<>(POOL_SIZE);
+        private final ArrayBlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        private CachedContext(JAXBContext context) {
+            this.context = context;
+        }
+    }
+
+}
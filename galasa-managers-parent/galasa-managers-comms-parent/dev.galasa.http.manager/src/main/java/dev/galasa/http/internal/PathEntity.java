@@ -0,0 +1,64 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * A request body read from a file as it is sent.  Unlike FileEntity the file can be on
+ * any file system, such as the RAS.
+ */
+public class PathEntity extends AbstractHttpEntity {
+
+    private final Path path;
+
+    public PathEntity(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Circuit Breaker Failures CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.circuitbreaker.failures
+ * 
+ * @galasa.description The consecutive failed requests to a host, connection failures or 502, 503 or 504 responses, after which requests to the host fail fast
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 5
+ * 
+ * @galasa.valid_values Int value, 0 to never fail fast
+ * 
+ * @galasa.examples 
+ * <code>http.circuitbreaker.failures=10</code>
+ * 
+ */
+public class CircuitBreakerFailures extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 5, "circuitbreaker", "failures");
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Circuit Breaker Open Time CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.circuitbreaker.open.seconds
+ * 
+ * @galasa.description How long requests to a host fail fast before one is let through to see if the host is back
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 30
+ * 
+ * @galasa.valid_values Int value for the number of seconds, greater than 0
+ * 
+ * @galasa.examples 
+ * <code>http.circuitbreaker.open.seconds=60</code>
+ * 
+ */
+public class CircuitBreakerOpenTime extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 30, "circuitbreaker", "open.seconds");
+    }
+
+}
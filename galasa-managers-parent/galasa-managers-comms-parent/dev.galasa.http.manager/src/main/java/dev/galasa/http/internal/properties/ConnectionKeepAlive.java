@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Connection Keep Alive CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.connection.keepalive.seconds
+ * 
+ * @galasa.description The longest an idle connection is kept for reuse, a shorter Keep-Alive timeout from the server is honoured
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 30
+ * 
+ * @galasa.valid_values Int value for the number of seconds, greater than 0
+ * 
+ * @galasa.examples 
+ * <code>http.connection.keepalive.seconds=30</code>
+ * 
+ */
+public class ConnectionKeepAlive extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 30, "connection", "keepalive.seconds");
+    }
+
+}
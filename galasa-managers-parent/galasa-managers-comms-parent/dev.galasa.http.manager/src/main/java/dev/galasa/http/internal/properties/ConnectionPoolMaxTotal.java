@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Connection Pool Max Total CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.connection.pool.max.total
+ * 
+ * @galasa.description The most connections each HTTP client keeps open, across all hosts
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 20
+ * 
+ * @galasa.valid_values Int value greater than 0
+ * 
+ * @galasa.examples 
+ * <code>http.connection.pool.max.total=20</code>
+ * 
+ */
+public class ConnectionPoolMaxTotal extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 20, "connection", "pool.max.total");
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.http.HttpClientException;
+
+@Component(service = HttpPropertiesSingleton.class, immediate = true)
+public class HttpPropertiesSingleton {
+
+    private static HttpPropertiesSingleton     instance;
+
+    private IConfigurationPropertyStoreService cps;
+
+    @Activate
+    public void activate() {
+        instance = this; //NOSONAR
+    }
+
+    @Deactivate
+    public void deacivate() {
+        instance = null; //NOSONAR
+    }
+
+    public static IConfigurationPropertyStoreService cps() throws HttpClientException {
+        if (instance != null) {
+            return instance.cps;
+        }
+
+        throw new HttpClientException("Attempt to access manager CPS before it has been initialised");
+    }
+
+    public static void setCps(IConfigurationPropertyStoreService cps) throws HttpClientException {
+        if (instance != null) {
+            instance.cps = cps;
+            return;
+        }
+
+        throw new HttpClientException("Attempt to set manager CPS before instance created");
+    }
+}
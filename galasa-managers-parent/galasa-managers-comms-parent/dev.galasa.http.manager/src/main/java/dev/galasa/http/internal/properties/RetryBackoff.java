@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Retry Backoff CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.retry.backoff.milliseconds
+ * 
+ * @galasa.description The longest wait before the first retry of a request, doubling for each retry after it. The waits are randomised so clients do not retry together, a Retry-After from the server is used instead
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 500
+ * 
+ * @galasa.valid_values Int value for the number of milliseconds, greater than 0
+ * 
+ * @galasa.examples 
+ * <code>http.retry.backoff.milliseconds=1000</code>
+ * 
+ */
+public class RetryBackoff extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 500, "retry", "backoff.milliseconds");
+    }
+
+}
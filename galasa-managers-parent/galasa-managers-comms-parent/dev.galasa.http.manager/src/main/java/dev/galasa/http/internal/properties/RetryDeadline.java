@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Retry Deadline CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.retry.deadline.seconds
+ * 
+ * @galasa.description No more retries of a request are started after this long from the first attempt
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 60
+ * 
+ * @galasa.valid_values Int value for the number of seconds, 0 for no deadline
+ * 
+ * @galasa.examples 
+ * <code>http.retry.deadline.seconds=120</code>
+ * 
+ */
+public class RetryDeadline extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 60, "retry", "deadline.seconds");
+    }
+
+}
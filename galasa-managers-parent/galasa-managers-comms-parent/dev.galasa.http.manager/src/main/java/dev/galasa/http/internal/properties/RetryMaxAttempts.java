@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Retry Max Attempts CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.retry.max.attempts
+ * 
+ * @galasa.description The most times a request that is safe to repeat is sent before its failure is returned, 1 turns off retries
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 3
+ * 
+ * @galasa.valid_values Int value greater than 0
+ * 
+ * @galasa.examples 
+ * <code>http.retry.max.attempts=5</code>
+ * 
+ */
+public class RetryMaxAttempts extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 3, "retry", "max.attempts");
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP Retry Max Backoff CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.retry.max.backoff.seconds
+ * 
+ * @galasa.description The longest wait before any retry of a request
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 10
+ * 
+ * @galasa.valid_values Int value for the number of seconds, greater than 0
+ * 
+ * @galasa.examples 
+ * <code>http.retry.max.backoff.seconds=30</code>
+ * 
+ */
+public class RetryMaxBackoff extends CpsProperties {
+    
+    public static int get() throws ConfigurationPropertyStoreException, HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 10, "retry", "max.backoff.seconds");
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHttpAsyncDispatcher {
+
+    private static final String HOST = "http://localhost:80";
+
+    @Test
+    public void testHostLimitedToMaximumInFlight() throws Exception {
+        HttpAsyncDispatcher dispatcher = new HttpAsyncDispatcher();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger highest = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int task = i;
+            futures.add(dispatcher.submit(HOST, 2, () -> {
+                highest.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    await(release);
+                    return task;
+                } finally {
+                    running.decrementAndGet();
+                }
+            }));
+        }
+
+        // *** Give any wrongly released tasks the chance to start
+        Thread.sleep(200);
+        Assert.assertEquals("Only the limit should be running", 2, running.get());
+        release.countDown();
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("Every task should complete", i, futures.get(i).get(10, TimeUnit.SECONDS).intValue());
+        }
+        Assert.assertEquals("No more than the limit should have run at once", 2, highest.get());
+    }
+
+    @Test
+    public void testCancelledWaitingTaskSkipped() throws Exception {
+        HttpAsyncDispatcher dispatcher = new HttpAsyncDispatcher();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+
+        CompletableFuture<String> first = dispatcher.submit(HOST, 1, () -> {
+            started.countDown();
+            await(release);
+            return "FIRST";
+        });
+        Assert.assertTrue("The first task should start", started.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<String> cancelled = dispatcher.submit(HOST, 1, () -> {
+            cancelledRan.set(true);
+            return "CANCELLED";
+        });
+        CompletableFuture<String> last = dispatcher.submit(HOST, 1, () -> "LAST");
+
+        Assert.assertTrue("The waiting task should be cancelled", cancelled.cancel(false));
+        release.countDown();
+
+        Assert.assertEquals("The first task should complete", "FIRST", first.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals("The task after the cancelled one should run", "LAST", last.get(10, TimeUnit.SECONDS));
+        Assert.assertFalse("The cancelled task should not run", cancelledRan.get());
+    }
+
+    @Test
+    public void testFailedTaskReleasesHost() throws Exception {
+        HttpAsyncDispatcher dispatcher = new HttpAsyncDispatcher();
+
+        CompletableFuture<String> failed = dispatcher.submit(HOST, 1, () -> {
+            throw new IllegalStateException("task failed");
+        });
+        try {
+            failed.get(10, TimeUnit.SECONDS);
+            Assert.fail("Should have thrown ExecutionException");
+        } catch (ExecutionException e) {
+            Assert.assertEquals("The failure should be the cause", "task failed", e.getCause().getMessage());
+        }
+
+        Assert.assertEquals("The next task should run", "NEXT",
+                dispatcher.submit(HOST, 1, () -> "NEXT").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testHostsLimitedSeparately() throws Exception {
+        HttpAsyncDispatcher dispatcher = new HttpAsyncDispatcher();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> blocked = dispatcher.submit(HOST, 1, () -> {
+            await(release);
+            return "BLOCKED";
+        });
+
+        try {
+            Assert.assertEquals("Another host should not wait", "OTHER",
+                    dispatcher.submit("http://otherhost:80", 1, () -> "OTHER").get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+        Assert.assertEquals("The blocked task should complete", "BLOCKED", blocked.get(10, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.http.HttpClientException;
+
+public class TestHttpCircuitBreaker {
+
+    private static final AtomicInteger hostNumber = new AtomicInteger();
+
+    private HttpCircuitBreaker breaker;
+
+    @Before
+    public void newBreaker() {
+        // *** The breakers are shared by host, so each test has a host of its own
+        breaker = HttpCircuitBreaker.forHost(URI.create("http://breaker" + hostNumber.incrementAndGet() + ":80/path"));
+    }
+
+    @Test
+    public void testSameBreakerForHost() {
+        URI uri = URI.create("http://sharedhost:8080/one");
+        Assert.assertSame("Requests to a host should share the breaker", HttpCircuitBreaker.forHost(uri),
+                HttpCircuitBreaker.forHost(URI.create("http://sharedhost:8080/two?query=1")));
+        Assert.assertNotSame("Another port should have its own breaker", HttpCircuitBreaker.forHost(uri),
+                HttpCircuitBreaker.forHost(URI.create("http://sharedhost:8081/one")));
+    }
+
+    @Test
+    public void testOpensAtThreshold() throws Exception {
+        breaker.failure(2);
+        Assert.assertFalse("One failure should not open the circuit", breaker.allowRequest(60000));
+
+        breaker.failure(2);
+        assertFailsFast(60000);
+    }
+
+    @Test
+    public void testSuccessResetsFailures() throws Exception {
+        breaker.failure(2);
+        breaker.success();
+        breaker.failure(2);
+
+        Assert.assertFalse("Failures should only count if consecutive", breaker.allowRequest(60000));
+    }
+
+    @Test
+    public void testNeverOpensWithoutThreshold() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            breaker.failure(0);
+        }
+
+        Assert.assertFalse("The circuit should stay closed", breaker.allowRequest(60000));
+    }
+
+    @Test
+    public void testTrialSuccessCloses() throws Exception {
+        breaker.failure(1);
+
+        Assert.assertTrue("A trial should be let through once open long enough", breaker.allowRequest(0));
+        assertFailsFast(0);
+
+        breaker.success();
+        Assert.assertFalse("The circuit should be closed", breaker.allowRequest(60000));
+        Assert.assertFalse("The circuit should stay closed", breaker.allowRequest(60000));
+    }
+
+    @Test
+    public void testTrialFailureReopens() throws Exception {
+        breaker.failure(1);
+
+        Assert.assertTrue("A trial should be let through once open long enough", breaker.allowRequest(0));
+        breaker.failure(1);
+
+        assertFailsFast(60000);
+        Assert.assertTrue("Another trial should be let through once open long enough", breaker.allowRequest(0));
+    }
+
+    @Test
+    public void testReleasedTrialLetsAnotherThrough() throws Exception {
+        breaker.failure(1);
+
+        Assert.assertTrue("A trial should be let through once open long enough", breaker.allowRequest(0));
+        breaker.releaseTrial();
+
+        Assert.assertTrue("The next request should be the trial", breaker.allowRequest(0));
+    }
+
+    private void assertFailsFast(long openTime) {
+        try {
+            breaker.allowRequest(openTime);
+            Assert.fail("Should have thrown HttpClientException");
+        } catch (HttpClientException e) {
+            Assert.assertTrue("Should fail fast", e.getMessage().contains("failing fast"));
+        }
+    }
+
+}
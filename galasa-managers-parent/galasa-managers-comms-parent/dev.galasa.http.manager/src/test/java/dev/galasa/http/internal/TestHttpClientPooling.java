@@ -0,0 +1,97 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class TestHttpClientPooling {
+
+    private HttpServer     server;
+    private HttpClientImpl client;
+
+    // *** Each connection comes from its own client port
+    private Set<Integer>   connections = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, null));
+        server.createContext("/short", exchange -> respond(exchange, "timeout=1"));
+        server.start();
+
+        client = new HttpClientImpl(5000, LogFactory.getLog(getClass()));
+        client.setURI(URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()));
+    }
+
+    @After
+    public void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testSequentialRequestsReuseConnection() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("The request should work", "OK", client.getText("/ok").getContent());
+        }
+
+        Assert.assertEquals("Every request should use the pooled connection", 1, connections.size());
+    }
+
+    @Test
+    public void testKeepAliveCapped() throws Exception {
+        client.setConnectionKeepAlive(200, 30000);
+
+        Assert.assertEquals("The request should work", "OK", client.getText("/ok").getContent());
+        Assert.assertEquals("The request should work", "OK", client.getText("/ok").getContent());
+        Assert.assertEquals("Requests within the keep alive should share the connection", 1, connections.size());
+
+        Thread.sleep(500);
+
+        Assert.assertEquals("The request should work", "OK", client.getText("/ok").getContent());
+        Assert.assertEquals("The connection should not be kept past the maximum", 2, connections.size());
+    }
+
+    @Test
+    public void testShorterServerKeepAliveHonoured() throws Exception {
+        Assert.assertEquals("The request should work", "OK", client.getText("/short").getContent());
+
+        Thread.sleep(1300);
+
+        Assert.assertEquals("The request should work", "OK", client.getText("/short").getContent());
+        Assert.assertEquals("The connection should not be kept past the server's timeout", 2, connections.size());
+    }
+
+    private void respond(HttpExchange exchange, String keepAlive) throws IOException {
+        connections.add(exchange.getRemoteAddress().getPort());
+
+        if (keepAlive != null) {
+            exchange.getResponseHeaders().add("Keep-Alive", keepAlive);
+        }
+        byte[] bytes = "OK".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.http.HttpClientResponse;
+
+public class TestHttpClientRebuild {
+
+    private static final int BODY_SIZE = 4 * 1024 * 1024;
+
+    private HttpServer     server;
+    private HttpClientImpl client;
+    private CountDownLatch requestArrived = new CountDownLatch(1);
+    private CountDownLatch releaseRequest = new CountDownLatch(1);
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/slow", exchange -> {
+            requestArrived.countDown();
+            try {
+                releaseRequest.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "SLOW".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.createContext("/ok", exchange -> {
+            byte[] body = "OK".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.createContext("/large", exchange -> {
+            byte[] body = new byte[BODY_SIZE];
+            Arrays.fill(body, (byte) 'X');
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+
+        client = new HttpClientImpl(10000, LogFactory.getLog(getClass()));
+        client.setURI(URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()));
+        client.setRetryPolicy(1, 1, 1, 0);
+    }
+
+    @After
+    public void stopServer() {
+        releaseRequest.countDown();
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testRebuildDoesNotEndRunningRequest() throws Exception {
+        CompletableFuture<HttpClientResponse<String>> slow = client.getTextAsync("/slow");
+        Assert.assertTrue("The request should reach the server", requestArrived.await(10, TimeUnit.SECONDS));
+
+        client.setConnectionPoolLimits(5, 5);
+        client.build();
+
+        releaseRequest.countDown();
+        HttpClientResponse<String> response = slow.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals("The running request should complete", 200, response.getStatusCode());
+        Assert.assertEquals("The body should be read", "SLOW", response.getContent());
+    }
+
+    @Test
+    public void testRebuildDoesNotEndResponseBeingRead() throws Exception {
+        HttpClientResponse<Integer> response = client.getStream("/large", content -> {
+            // *** Read a little, rebuild, then read the rest from the old client's connection
+            byte[] start = new byte[1024];
+            int read = IOUtils.read(content, start);
+
+            client.setConnectionKeepAlive(10000, 10000);
+            client.build();
+
+            return read + countRemaining(content);
+        });
+
+        Assert.assertEquals("The whole body should be read", BODY_SIZE, response.getContent().intValue());
+        Assert.assertEquals("The new client should work", "OK", client.getText("/ok").getContent());
+    }
+
+    private int countRemaining(InputStream content) throws IOException {
+        byte[] buffer = new byte[8192];
+        int total = 0;
+        int read;
+        while ((read = content.read(buffer)) >= 0) {
+            total += read;
+        }
+        return total;
+    }
+
+}
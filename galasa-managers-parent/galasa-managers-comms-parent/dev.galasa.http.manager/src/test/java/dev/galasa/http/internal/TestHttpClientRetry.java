@@ -0,0 +1,112 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.http.ContentType;
+
+public class TestHttpClientRetry {
+
+    private HttpServer     server;
+    private HttpClientImpl client;
+    private AtomicInteger  hits = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "OK"));
+        server.createContext("/badgateway", exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 502, "BAD GATEWAY");
+        });
+        server.createContext("/unavailable", exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 503, "UNAVAILABLE");
+        });
+        server.start();
+
+        client = new HttpClientImpl(5000, LogFactory.getLog(getClass()));
+        client.setURI(URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()));
+        client.setRetryPolicy(3, 1, 1, 0);
+    }
+
+    @After
+    public void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testIdempotentRequestRetried() throws Exception {
+        Assert.assertEquals("The last status should be returned", 502, client.getText("/badgateway").getStatusCode());
+        Assert.assertEquals("The GET should be sent for every attempt", 3, hits.get());
+    }
+
+    @Test
+    public void testPostNotResentAfterBadGateway() throws Exception {
+        Assert.assertEquals("The status should be returned", 502, client.postText("/badgateway", "ORDER").getStatusCode());
+        Assert.assertEquals("The server may have acted on the POST, so it should only be sent once", 1, hits.get());
+    }
+
+    @Test
+    public void testPostResentWhenRefused() throws Exception {
+        Assert.assertEquals("The last status should be returned", 503, client.postText("/unavailable", "ORDER").getStatusCode());
+        Assert.assertEquals("The server refused the POST, so it should be sent again", 3, hits.get());
+    }
+
+    @Test
+    public void testTrialReleasedWhenRequestFails() throws Exception {
+        client.setRetryPolicy(1, 1, 1, 0);
+        client.setCircuitBreaker(1, 0);
+        Assert.assertEquals("Status should be returned", 503, client.getText("/unavailable").getStatusCode());
+
+        // *** The trial request fails with a runtime exception while sending the body
+        try {
+            client.putStream("/ok", new BrokenInputStream(), -1, ContentType.TEXT_PLAIN);
+            Assert.fail("Should have thrown IllegalStateException");
+        } catch (IllegalStateException e) {
+            // *** expected
+        }
+
+        Assert.assertEquals("The next request should be let through as the trial", "OK", client.getText("/ok").getContent());
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        IOUtils.toByteArray(exchange.getRequestBody());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static class BrokenInputStream extends InputStream {
+
+        @Override
+        public int read() {
+            throw new IllegalStateException("stream broken");
+        }
+    }
+
+}
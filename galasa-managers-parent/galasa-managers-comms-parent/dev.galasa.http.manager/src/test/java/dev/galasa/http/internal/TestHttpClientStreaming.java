@@ -0,0 +1,216 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.http.ContentType;
+import dev.galasa.http.HttpClientException;
+import dev.galasa.http.HttpClientResponse;
+
+public class TestHttpClientStreaming {
+
+    private HttpServer                server;
+    private HttpClientImpl            client;
+    private AtomicReference<String>   received = new AtomicReference<>();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "BODY"));
+        server.createContext("/item", exchange -> respond(exchange, 200, "<item><name>streamed</name></item>"));
+        server.createContext("/items", exchange -> {
+            received.set(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            respond(exchange, 201, "<item><name>created</name></item>");
+        });
+        server.createContext("/rejected", exchange -> respond(exchange, 400, "<item><name>rejected</name></item>"));
+        server.createContext("/missing", exchange -> respond(exchange, 404, "NOT FOUND"));
+        server.createContext("/unavailable", exchange -> respond(exchange, 503, "UNAVAILABLE"));
+        server.createContext("/upload", exchange -> {
+            received.set(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            respond(exchange, 200, "STORED");
+        });
+        server.start();
+
+        client = new HttpClientImpl(5000, LogFactory.getLog(getClass()));
+        client.setURI(URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()));
+        // *** One connection, so a response left open would stop the next request
+        client.setConnectionPoolLimits(1, 1);
+        client.setRetryPolicy(1, 1, 1, 0);
+    }
+
+    @After
+    public void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testErrorResponseNotGivenToConsumer() throws Exception {
+        AtomicBoolean consumed = new AtomicBoolean();
+
+        HttpClientResponse<String> response = client.getStream("/missing", content -> {
+            consumed.set(true);
+            return "consumed";
+        });
+
+        Assert.assertEquals("Status should be returned", 404, response.getStatusCode());
+        Assert.assertFalse("The consumer should not be called", consumed.get());
+        Assert.assertNull("There should be no content", response.getContent());
+
+        Assert.assertEquals("The connection should have been released", "BODY", client.getText("/ok").getContent());
+    }
+
+    @Test
+    public void testResponseClosedWhenConsumerFails() throws Exception {
+        try {
+            client.getStream("/ok", content -> {
+                throw new IOException("consumer failed");
+            });
+            Assert.fail("Should have thrown HttpClientException");
+        } catch (HttpClientException e) {
+            Assert.assertEquals("The consumer failure should be the cause", "consumer failed", e.getCause().getMessage());
+        }
+
+        try {
+            client.getStream("/ok", content -> {
+                throw new IllegalStateException("consumer broken");
+            });
+            Assert.fail("Should have thrown IllegalStateException");
+        } catch (IllegalStateException e) {
+            // *** expected
+        }
+
+        Assert.assertEquals("The connection should have been released", "BODY", client.getText("/ok").getContent());
+    }
+
+    @Test
+    public void testJaxbResponseUnmarshalled() throws Exception {
+        HttpClientResponse<Object> response = client.getJaxb("/item", TestJaxbContextCache.Item.class);
+
+        Assert.assertEquals("Status should be returned", 200, response.getStatusCode());
+        Assert.assertEquals("The body should be unmarshalled", "streamed",
+                ((TestJaxbContextCache.Item) response.getContent()).name);
+
+    }
+
+    @Test
+    public void testJaxbResponseReturnedForAnyStatus() throws Exception {
+        TestJaxbContextCache.Item item = new TestJaxbContextCache.Item();
+        item.name = "new";
+
+        HttpClientResponse<Object> response = client.postJaxb("/items", item, TestJaxbContextCache.Item.class);
+        Assert.assertEquals("Status should be returned", 201, response.getStatusCode());
+        Assert.assertTrue("The object should be sent", received.get().contains("<name>new</name>"));
+        Assert.assertEquals("The created body should be unmarshalled", "created",
+                ((TestJaxbContextCache.Item) response.getContent()).name);
+
+        response = client.getJaxb("/rejected", TestJaxbContextCache.Item.class);
+        Assert.assertEquals("Status should be returned", 400, response.getStatusCode());
+        Assert.assertEquals("The error body should be unmarshalled", "rejected",
+                ((TestJaxbContextCache.Item) response.getContent()).name);
+    }
+
+    @Test
+    public void testGetFileWritesToPath() throws Exception {
+        Path destination = Files.createTempFile("galasa", ".test");
+        try {
+            HttpClientResponse<Path> response = client.getFile("/ok", destination, ContentType.APPLICATION_OCTET_STREAM);
+
+            Assert.assertEquals("Status should be returned", 200, response.getStatusCode());
+            Assert.assertEquals("The path should be returned", destination, response.getContent());
+            Assert.assertEquals("The body should be in the file", "BODY",
+                    new String(Files.readAllBytes(destination), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(destination);
+        }
+    }
+
+    @Test
+    public void testPutStreamLeavesStreamOpen() throws Exception {
+        CloseTrackingInputStream content = new CloseTrackingInputStream("UPLOADED".getBytes(StandardCharsets.UTF_8));
+
+        HttpClientResponse<String> response = client.putStream("/upload", content, -1, ContentType.TEXT_PLAIN);
+
+        Assert.assertEquals("Status should be returned", 200, response.getStatusCode());
+        Assert.assertEquals("The stream should be sent", "UPLOADED", received.get());
+        Assert.assertFalse("The caller's stream should not be closed", content.closed);
+    }
+
+    @Test
+    public void testLegacyPutStreamSent() throws Exception {
+        CloseableHttpResponse response = client.putStream("/upload", null, ContentType.TEXT_PLAIN,
+                new ByteArrayInputStream("LEGACY".getBytes(StandardCharsets.UTF_8)),
+                new ContentType[] { ContentType.TEXT_PLAIN }, null, false);
+        try {
+            Assert.assertEquals("Status should be returned", 200, response.getStatusLine().getStatusCode());
+            Assert.assertEquals("The stream should be sent", "LEGACY", received.get());
+        } finally {
+            response.close();
+        }
+    }
+
+    @Test
+    public void testLegacyPutStreamUsesCircuitBreaker() throws Exception {
+        client.setCircuitBreaker(1, 60000);
+        Assert.assertEquals("Status should be returned", 503, client.getText("/unavailable").getStatusCode());
+
+        try {
+            client.putStream("/upload", null, ContentType.TEXT_PLAIN,
+                    new ByteArrayInputStream("LEGACY".getBytes(StandardCharsets.UTF_8)),
+                    new ContentType[] { ContentType.TEXT_PLAIN }, null, false).close();
+            Assert.fail("Should have thrown HttpClientException");
+        } catch (HttpClientException e) {
+            Assert.assertTrue("Should fail fast", e.getMessage().contains("failing fast"));
+        }
+        Assert.assertNull("The stream should not be sent", received.get());
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static class CloseTrackingInputStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        private CloseTrackingInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+}
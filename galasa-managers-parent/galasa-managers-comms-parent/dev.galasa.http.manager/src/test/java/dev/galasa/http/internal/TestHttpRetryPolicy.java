@@ -0,0 +1,144 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Date;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHttpRetryPolicy {
+
+    private static final String URL = "http://localhost:80/path";
+
+    @Test
+    public void testBackoffWithinCeiling() {
+        HttpRetryPolicy policy = new HttpRetryPolicy(10, 100, 400, 0);
+        long now = System.currentTimeMillis();
+
+        for (int attempt = 1; attempt < 10; attempt++) {
+            long ceiling = Math.min(100L << (attempt - 1), 400);
+            for (int i = 0; i < 100; i++) {
+                long wait = policy.nextWait(attempt, now, -1);
+                Assert.assertTrue("Wait " + wait + " for attempt " + attempt + " should be within " + ceiling,
+                        wait >= 0 && wait <= ceiling);
+            }
+        }
+    }
+
+    @Test
+    public void testNoWaitOnceAttemptsUsed() {
+        HttpRetryPolicy policy = new HttpRetryPolicy(3, 100, 400, 0);
+
+        Assert.assertTrue("Should retry after the second attempt", policy.nextWait(2, System.currentTimeMillis(), -1) >= 0);
+        Assert.assertEquals("Should not retry after the last attempt", -1, policy.nextWait(3, System.currentTimeMillis(), -1));
+        Assert.assertEquals("One attempt should mean no retries", -1,
+                new HttpRetryPolicy(1, 100, 400, 0).nextWait(1, System.currentTimeMillis(), -1));
+    }
+
+    @Test
+    public void testDeadlineCutsOffRetries() {
+        HttpRetryPolicy policy = new HttpRetryPolicy(10, 100, 400, 1000);
+        long now = System.currentTimeMillis();
+
+        Assert.assertEquals("Should retry within the deadline", 500, policy.nextWait(1, now, 500));
+        Assert.assertEquals("Should not wait past the deadline", -1, policy.nextWait(1, now, 2000));
+        Assert.assertEquals("Should not retry once the deadline has passed", -1, policy.nextWait(1, now - 2000, -1));
+    }
+
+    @Test
+    public void testRetryAfterHonoured() {
+        HttpRetryPolicy policy = new HttpRetryPolicy(3, 100, 400, 0);
+
+        Assert.assertEquals("The server's wait should be used, even past the maximum backoff", 5000,
+                policy.nextWait(1, System.currentTimeMillis(), 5000));
+    }
+
+    @Test
+    public void testRetryAfterSeconds() {
+        Assert.assertEquals("Seconds should be converted", 5000, HttpRetryPolicy.retryAfter(response(" 5 ")));
+        Assert.assertEquals("Negative seconds should be no wait", 0, HttpRetryPolicy.retryAfter(response("-5")));
+    }
+
+    @Test
+    public void testRetryAfterDate() {
+        long wait = HttpRetryPolicy.retryAfter(response(DateUtils.formatDate(new Date(System.currentTimeMillis() + 10000))));
+        // *** The date is only to the second
+        Assert.assertTrue("Wait " + wait + " should be until the date", wait > 8000 && wait <= 10000);
+
+        Assert.assertEquals("A date passed should be no wait", 0,
+                HttpRetryPolicy.retryAfter(response(DateUtils.formatDate(new Date(System.currentTimeMillis() - 10000)))));
+    }
+
+    @Test
+    public void testRetryAfterMissingOrInvalid() {
+        Assert.assertEquals("No header should be no Retry-After", -1,
+                HttpRetryPolicy.retryAfter(new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Unavailable")));
+        Assert.assertEquals("An invalid header should be ignored", -1, HttpRetryPolicy.retryAfter(response("soon")));
+    }
+
+    @Test
+    public void testIdempotentMethods() {
+        Assert.assertTrue("GET should be idempotent", HttpRetryPolicy.isIdempotent(new HttpGet(URL)));
+        Assert.assertTrue("DELETE should be idempotent", HttpRetryPolicy.isIdempotent(new HttpDelete(URL)));
+        Assert.assertFalse("POST should not be idempotent", HttpRetryPolicy.isIdempotent(new HttpPost(URL)));
+
+        HttpPut put = new HttpPut(URL);
+        put.setEntity(new StringEntity("body", "UTF-8"));
+        Assert.assertTrue("PUT of a repeatable body should be idempotent", HttpRetryPolicy.isIdempotent(put));
+    }
+
+    @Test
+    public void testNonRepeatableBodyNotIdempotent() {
+        HttpPut put = new HttpPut(URL);
+        put.setEntity(new InputStreamEntity(new ByteArrayInputStream(new byte[10])));
+
+        Assert.assertFalse("A streamed body should not be repeatable", HttpRetryPolicy.isRepeatable(put));
+        Assert.assertFalse("PUT of a streamed body should not be idempotent", HttpRetryPolicy.isIdempotent(put));
+    }
+
+    @Test
+    public void testStatusClassification() {
+        Assert.assertTrue("502 should be retryable", HttpRetryPolicy.isRetryableStatus(502));
+        Assert.assertTrue("429 should be retryable", HttpRetryPolicy.isRetryableStatus(429));
+        Assert.assertFalse("500 should not be retryable", HttpRetryPolicy.isRetryableStatus(500));
+
+        Assert.assertTrue("503 should be refused", HttpRetryPolicy.isRefusedStatus(503));
+        Assert.assertFalse("502 may have been acted on", HttpRetryPolicy.isRefusedStatus(502));
+
+        Assert.assertTrue("504 should be unavailable", HttpRetryPolicy.isUnavailableStatus(504));
+        Assert.assertFalse("429 is an answer from the server", HttpRetryPolicy.isUnavailableStatus(429));
+    }
+
+    @Test
+    public void testNotSent() {
+        Assert.assertTrue("A refused connection was not sent", HttpRetryPolicy.isNotSent(new ConnectException()));
+        Assert.assertFalse("A read timeout may have been sent", HttpRetryPolicy.isNotSent(new SocketTimeoutException()));
+        Assert.assertFalse("Other failures may have been sent", HttpRetryPolicy.isNotSent(new IOException()));
+    }
+
+    private HttpResponse response(String retryAfter) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Unavailable");
+        response.addHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        return response;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.http.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+public class TestJaxbContextCache {
+
+    @Test
+    public void testContextCachedForSameClasses() throws Exception {
+        Assert.assertSame("The context should be cached",
+                JaxbContextCache.getContext(Item.class, Order.class),
+                JaxbContextCache.getContext(Order.class, Item.class));
+
+        Assert.assertNotSame("Different classes should have their own context",
+                JaxbContextCache.getContext(Item.class),
+                JaxbContextCache.getContext(Item.class, Order.class));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Item item = new Item();
+        item.name = "galasa";
+
+        Object result = unmarshal(marshal(item, Item.class, Order.class), Item.class, Order.class);
+
+        Assert.assertTrue("The right class should be created", result instanceof Item);
+        Assert.assertEquals("The value should survive", "galasa", ((Item) result).name);
+    }
+
+    @Test
+    public void testFailedUnmarshalDoesNotAffectNextCall() throws Exception {
+        try {
+            unmarshal("<item><name>broken", Item.class);
+            Assert.fail("Should have thrown JAXBException");
+        } catch (JAXBException e) {
+            // *** expected
+        }
+
+        Object result = unmarshal("<item><name>after</name></item>", Item.class);
+        Assert.assertEquals("The next unmarshal should work", "after", ((Item) result).name);
+    }
+
+    @Test
+    public void testPooledMarshallersUsedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String name = "item" + i;
+                futures.add(executor.submit(() -> {
+                    Item item = new Item();
+                    item.name = name;
+                    return ((Item) unmarshal(marshal(item, Item.class), Item.class)).name;
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals("Each call should get its own result", "item" + i,
+                        futures.get(i).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String marshal(Object object, Class<?>... classes) throws JAXBException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        JaxbContextCache.marshal(object, os, classes);
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Object unmarshal(String xml, Class<?>... classes) throws JAXBException {
+        return JaxbContextCache.unmarshal(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), classes);
+    }
+
+    @XmlRootElement(name = "item")
+    public static class Item {
+        public String name;
+    }
+
+    @XmlRootElement(name = "order")
+    public static class Order {
+        public String reference;
+    }
+
+}
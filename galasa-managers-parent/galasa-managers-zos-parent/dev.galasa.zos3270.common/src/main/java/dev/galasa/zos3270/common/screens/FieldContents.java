@@ -1,15 +1,21 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.common.screens;
 
+import java.util.Arrays;
+
 import javax.validation.constraints.NotNull;
 
 /**
  * Pojo to contain the onscreen contents. May contain nulls.
  * 
+ * The contents are held as text, with the nulls replaced by spaces and their
+ * positions recorded as runs of start and length pairs, which is far smaller
+ * in json than an array of characters. Older images hold the character array.
+ * 
  * @author Michael Baylis
  *
  */
@@ -17,6 +23,7 @@ public class FieldContents {
 
     private final Character[] chars;
     private final String      text;
+    private final int[]       nulls;
 
     /**
      * Constructor
@@ -24,27 +31,51 @@ public class FieldContents {
      * @param chars the chars in the relevant places, may contain nulls
      */
     public FieldContents(@NotNull Character[] chars) {
-        boolean containsNulls = false;
-        for (Character c : chars) {
-            if (c == null) {
-                containsNulls = true;
-                break;
-            }
-        }
+        this(unbox(chars));
+    }
 
-        if (containsNulls) {
-            this.chars = chars;
-            this.text = null;
-        } else {
-            this.chars = null;
+    /**
+     * Constructor
+     * 
+     * @param chars the chars in the relevant places, a nul character (0) is a null
+     */
+    public FieldContents(@NotNull char[] chars) {
+        this.chars = null;
 
-            char[] convChars = new char[chars.length];
-            for (int i = 0; i < chars.length; i++) {
+        char[] convChars = new char[chars.length];
+        int[] runs = new int[0];
+        int runCount = 0;
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] != 0) {
                 convChars[i] = chars[i];
+                continue;
+            }
+
+            convChars[i] = ' ';
+            if (runCount > 0 && runs[(runCount - 1) * 2] + runs[(runCount - 1) * 2 + 1] == i) {
+                runs[(runCount - 1) * 2 + 1]++;
+            } else {
+                if (runs.length == runCount * 2) {
+                    runs = Arrays.copyOf(runs, Math.max(4, runs.length * 2));
+                }
+                runs[runCount * 2] = i;
+                runs[runCount * 2 + 1] = 1;
+                runCount++;
             }
+        }
 
-            this.text = new String(convChars);
+        this.text = new String(convChars);
+        this.nulls = (runCount == 0) ? null : Arrays.copyOf(runs, runCount * 2);
+    }
+
+    private static char[] unbox(Character[] chars) {
+        char[] unboxed = new char[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] != null) {
+                unboxed[i] = chars[i];
+            }
         }
+        return unboxed;
     }
 
     /**
@@ -59,6 +90,11 @@ public class FieldContents {
             for (int i = 0; i < tc.length; i++) {
                 ca[i] = tc[i];
             }
+            if (nulls != null) {
+                for (int i = 0; i < nulls.length; i += 2) {
+                    Arrays.fill(ca, nulls[i], nulls[i] + nulls[i + 1], null);
+                }
+            }
             return ca;
         }
 
@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.common.screens;
 
@@ -14,6 +14,9 @@ import javax.validation.constraints.NotNull;
  * Pojo to represent a screen image as received or sent from the client. Inbound
  * means received by the client.
  * 
+ * A delta image only contains the fields that changed since the previous image,
+ * see {@link TerminalImageDeltaEncoder}.
+ * 
  * @author Michael Baylis
  *
  */
@@ -30,6 +33,7 @@ public class TerminalImage {
     private final int                 cursorRow;
 
     private final String              aid;
+    private final boolean             delta;
     private final List<TerminalField> fields = new ArrayList<>();
 
     /**
@@ -48,6 +52,26 @@ public class TerminalImage {
      */
     public TerminalImage(int sequence, @NotNull String id, boolean inbound, String type, String aid,
             TerminalSize imageSize, int cursorColumn, int cursorRow) {
+        this(sequence, id, inbound, type, aid, imageSize, cursorColumn, cursorRow, false);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param sequence     The sequence of the image, for the whole terminal
+     *                     interaction
+     * @param id           Id of this image
+     * @param inbound      inbound = true if received by the client
+     * @param type         Type of interaction, interactions can be labels so can be
+     *                     filtered
+     * @param aid          The AttentionID for outbound messages
+     * @param imageSize    The size of the image if different to the default
+     * @param cursorColumn The position of the cursor on the screen
+     * @param cursorRow    The position of the cursor on the screen
+     * @param delta        The image only contains the fields changed since the previous image
+     */
+    public TerminalImage(int sequence, @NotNull String id, boolean inbound, String type, String aid,
+            TerminalSize imageSize, int cursorColumn, int cursorRow, boolean delta) {
         this.sequence = sequence;
         this.id = id;
         this.inbound = inbound;
@@ -56,6 +80,7 @@ public class TerminalImage {
         this.imageSize = imageSize;
         this.cursorColumn = cursorColumn;
         this.cursorRow = cursorRow;
+        this.delta = delta;
     }
 
     /**
@@ -135,4 +160,11 @@ public class TerminalImage {
         return cursorRow;
     }
 
+    /**
+     * @return true if the image only contains the fields changed since the previous image
+     */
+    public boolean isDelta() {
+        return delta;
+    }
+
 }
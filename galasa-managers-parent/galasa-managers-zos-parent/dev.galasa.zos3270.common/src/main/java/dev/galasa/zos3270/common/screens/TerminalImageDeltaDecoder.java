@@ -0,0 +1,58 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.common.screens;
+
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Rebuilds full terminal images from the keyframes and deltas produced by
+ * {@link TerminalImageDeltaEncoder}. The images must be decoded in sequence,
+ * starting from a keyframe.
+ */
+public class TerminalImageDeltaDecoder {
+
+    private TerminalImage previous;
+
+    /**
+     * Decode the next image
+     *
+     * @param image a keyframe or delta
+     * @return the full image
+     * @throws IllegalStateException if a delta is found before any keyframe
+     */
+    public @NotNull TerminalImage decode(@NotNull TerminalImage image) {
+        if (!image.isDelta()) {
+            this.previous = image;
+            return image;
+        }
+
+        if (this.previous == null) {
+            throw new IllegalStateException("Terminal image " + image.getId() + " is a delta without a keyframe");
+        }
+
+        TerminalImage full = new TerminalImage(image.getSequence(), image.getId(), image.isInbound(), image.getType(),
+                image.getAid(), image.getImageSize(), image.getCursorColumn(), image.getCursorRow());
+
+        // *** The delta fields are in screen order and in the same positions as the previous image
+        List<TerminalField> changedFields = image.getFields();
+        int changed = 0;
+        for (TerminalField field : this.previous.getFields()) {
+            if (changed < changedFields.size() && changedFields.get(changed).getRow() == field.getRow()
+                    && changedFields.get(changed).getColumn() == field.getColumn()) {
+                full.getFields().add(changedFields.get(changed));
+                changed++;
+            } else {
+                full.getFields().add(field);
+            }
+        }
+
+        this.previous = full;
+        return full;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.common.screens;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Reduces a sequence of full terminal images to keyframes and deltas.
+ *
+ * A delta is only produced if the screen has the same size and the same field
+ * positions as the previous image, it then contains just the fields whose
+ * attributes or contents have changed. Anything else, and every keyframe
+ * interval, produces a full image. Use {@link TerminalImageDeltaDecoder} to
+ * rebuild the full images.
+ */
+public class TerminalImageDeltaEncoder {
+
+    private final int     keyframeInterval;
+
+    private TerminalImage previous;
+    private int           sinceKeyframe;
+
+    /**
+     * Constructor
+     *
+     * @param keyframeInterval a full image is produced at least this often
+     */
+    public TerminalImageDeltaEncoder(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Start again, the next image will be a keyframe
+     */
+    public void reset() {
+        this.previous = null;
+        this.sinceKeyframe = 0;
+    }
+
+    /**
+     * Encode the next image
+     *
+     * @param image the full image
+     * @return the image itself if it is a keyframe, or a delta from the previous image
+     */
+    public @NotNull TerminalImage encode(@NotNull TerminalImage image) {
+        if (image.isDelta()) {
+            throw new IllegalArgumentException("Only full images can be encoded");
+        }
+
+        TerminalImage previousImage = this.previous;
+        this.previous = image;
+
+        if (previousImage == null || this.sinceKeyframe + 1 >= this.keyframeInterval
+                || !sameLayout(previousImage, image)) {
+            this.sinceKeyframe = 0;
+            return image;
+        }
+        this.sinceKeyframe++;
+
+        TerminalImage delta = new TerminalImage(image.getSequence(), image.getId(), image.isInbound(),
+                image.getType(), image.getAid(), image.getImageSize(), image.getCursorColumn(), image.getCursorRow(),
+                true);
+
+        List<TerminalField> previousFields = previousImage.getFields();
+        List<TerminalField> fields = image.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (!sameField(previousFields.get(i), fields.get(i))) {
+                delta.getFields().add(fields.get(i));
+            }
+        }
+
+        return delta;
+    }
+
+    private static boolean sameLayout(TerminalImage previous, TerminalImage image) {
+        if (!sameSize(previous.getImageSize(), image.getImageSize())) {
+            return false;
+        }
+
+        List<TerminalField> previousFields = previous.getFields();
+        List<TerminalField> fields = image.getFields();
+        if (previousFields.size() != fields.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < fields.size(); i++) {
+            if (previousFields.get(i).getRow() != fields.get(i).getRow()
+                    || previousFields.get(i).getColumn() != fields.get(i).getColumn()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean sameSize(TerminalSize previous, TerminalSize size) {
+        if (previous == null || size == null) {
+            return previous == size;
+        }
+        return previous.getColumns() == size.getColumns() && previous.getRows() == size.getRows();
+    }
+
+    private static boolean sameField(TerminalField previous, TerminalField field) {
+        if (previous.isUnformatted() != field.isUnformatted()
+                || previous.isFieldProtected() != field.isFieldProtected()
+                || previous.isFieldNumeric() != field.isFieldNumeric()
+                || previous.isFieldDisplay() != field.isFieldDisplay()
+                || previous.isFieldIntenseDisplay() != field.isFieldIntenseDisplay()
+                || previous.isFieldSelectorPen() != field.isFieldSelectorPen()
+                || previous.isFieldModifed() != field.isFieldModifed()) {
+            return false;
+        }
+
+        List<FieldContents> previousContents = previous.getContents();
+        List<FieldContents> contents = field.getContents();
+        if (previousContents.size() != contents.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < contents.size(); i++) {
+            if (!Arrays.equals(previousContents.get(i).getChars(), contents.get(i).getChars())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
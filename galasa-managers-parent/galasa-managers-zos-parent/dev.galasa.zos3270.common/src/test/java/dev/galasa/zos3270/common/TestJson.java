@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.common;
 
@@ -17,6 +17,8 @@ import dev.galasa.zos3270.common.screens.FieldContents;
 import dev.galasa.zos3270.common.screens.Terminal;
 import dev.galasa.zos3270.common.screens.TerminalField;
 import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaDecoder;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaEncoder;
 import dev.galasa.zos3270.common.screens.TerminalSize;
 
 public class TestJson {
@@ -109,4 +111,83 @@ public class TestJson {
         assertThat(testContents.getChars()).isEqualTo(data);
     }
 
+    /**
+     * Check that nulls in the field contents survive the json
+     */
+    @Test
+    public void testFieldContentsWithNulls() {
+        Gson gson = new Gson();
+
+        Character[] data = new Character[] { 'a', null, null, 'b', null };
+
+        String json = gson.toJson(new FieldContents(data));
+        assertThat(json).doesNotContain("\"chars\"");
+
+        FieldContents testContents = gson.fromJson(json, FieldContents.class);
+        assertThat(testContents.getChars()).isEqualTo(data);
+    }
+
+    /**
+     * Check that the deltas only hold the changed fields and can be rebuilt
+     */
+    @Test
+    public void testDeltaImages() {
+        Gson gson = new Gson();
+
+        TerminalImageDeltaEncoder encoder = new TerminalImageDeltaEncoder(3);
+        TerminalImage image1 = createImage(1, "HELLO", "STATUS1");
+        TerminalImage image2 = createImage(2, "HELLO", "STATUS2");
+        TerminalImage image3 = createImage(3, "HELLO", "STATUS3");
+        TerminalImage image4 = createImage(4, "HELLO", "STATUS4");
+
+        Terminal terminal = new Terminal("bob", "eeek", 1, new TerminalSize(80, 24));
+        terminal.addImage(encoder.encode(image1));
+        terminal.addImage(encoder.encode(image2));
+        terminal.addImage(encoder.encode(image3));
+        terminal.addImage(encoder.encode(image4));
+
+        assertThat(terminal.getImages().get(0).isDelta()).isFalse();
+        assertThat(terminal.getImages().get(1).isDelta()).isTrue();
+        assertThat(terminal.getImages().get(1).getFields().size()).isEqualTo(1);
+        assertThat(terminal.getImages().get(2).isDelta()).isTrue();
+        assertThat(terminal.getImages().get(3).isDelta()).as("keyframe interval").isFalse();
+
+        Terminal testTerminal = gson.fromJson(gson.toJson(terminal), Terminal.class);
+
+        TerminalImageDeltaDecoder decoder = new TerminalImageDeltaDecoder();
+        for (TerminalImage testImage : testTerminal.getImages()) {
+            TerminalImage fullImage = decoder.decode(testImage);
+            String status = "STATUS" + fullImage.getSequence();
+
+            assertThat(fullImage.isDelta()).isFalse();
+            assertThat(fullImage.getFields().size()).isEqualTo(2);
+            assertThat(fullImage.getFields().get(0).getContents().get(0).getChars())
+                    .isEqualTo(toCharacters("HELLO"));
+            assertThat(fullImage.getFields().get(1).getContents().get(0).getChars())
+                    .isEqualTo(toCharacters(status));
+        }
+    }
+
+    private TerminalImage createImage(int sequence, String body, String status) {
+        TerminalImage image = new TerminalImage(sequence, "bob-" + sequence, true, null, null, null, 0, 0);
+
+        TerminalField bodyField = new TerminalField(0, 0, false, true, false, true, false, false, false);
+        bodyField.getContents().add(new FieldContents(toCharacters(body)));
+        image.getFields().add(bodyField);
+
+        TerminalField statusField = new TerminalField(23, 0, false, true, false, true, false, false, false);
+        statusField.getContents().add(new FieldContents(toCharacters(status)));
+        image.getFields().add(statusField);
+
+        return image;
+    }
+
+    private Character[] toCharacters(String text) {
+        Character[] chars = new Character[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        return chars;
+    }
+
 }
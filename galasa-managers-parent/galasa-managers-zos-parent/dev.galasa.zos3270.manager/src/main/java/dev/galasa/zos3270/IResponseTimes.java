@@ -0,0 +1,31 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270;
+
+/**
+ * The times from pressing an attention key to the host unlocking the keyboard, all in milliseconds.
+ * The times are held in buckets with a precision of about 2%.
+ */
+public interface IResponseTimes {
+
+    /**
+     * @return the number of responses recorded
+     */
+    long getCount();
+
+    double getMinimum();
+
+    double getMaximum();
+
+    double getMean();
+
+    /**
+     * @param percentile - 0 to 100, eg 99.9
+     * @return the response time that percentile of the responses were at or below, 0 if none recorded
+     */
+    double getPercentile(double percentile);
+
+}
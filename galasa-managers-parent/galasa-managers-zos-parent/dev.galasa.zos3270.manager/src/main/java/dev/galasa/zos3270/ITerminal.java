@@ -1,10 +1,12 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270;
 
+import java.nio.CharBuffer;
+
 import javax.validation.constraints.NotNull;
 
 import dev.galasa.zos3270.spi.NetworkException;
@@ -25,6 +27,64 @@ public interface ITerminal {
 
     ITerminal wfk() throws TimeoutException, KeyboardLockedException, TerminalInterruptedException;
 
+    /**
+     * Wait for the keyboard to be unlocked
+     * 
+     * @param timeoutInMilliseconds - timeout
+     * @return ITerminal for chaining
+     * @throws TimeoutException - The keyboard was not unlocked before the timeout
+     * @throws KeyboardLockedException
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     */
+    ITerminal waitForKeyboard(long timeoutInMilliseconds) throws TimeoutException, KeyboardLockedException, TerminalInterruptedException;
+
+    /**
+     * Wait for the keyboard to be unlocked, returning as soon as the host unlocks it
+     * 
+     * @param timeoutInMilliseconds - timeout
+     * @return true if the keyboard was unlocked before the timeout, false otherwise
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     */
+    boolean isKeyboardUnlocked(long timeoutInMilliseconds) throws TerminalInterruptedException;
+
+    /**
+     * Wait for the keyboard to be unlocked and the host to stop updating the screen, for applications
+     * that send several writes before the final screen
+     * 
+     * @param quietMillis - how long the screen must be unchanged
+     * @param timeoutInMilliseconds - timeout
+     * @return ITerminal for chaining
+     * @throws TimeoutException - The screen did not settle before the timeout
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     */
+    ITerminal waitForScreenStable(long quietMillis, long timeoutInMilliseconds) throws TimeoutException, TerminalInterruptedException;
+
+    /**
+     * @return a hash of the text and attributes on the screen, for use with {@link #waitForScreenChange(long)}
+     */
+    long getScreenFingerprint();
+
+    /**
+     * Wait for the screen to be different to a previous fingerprint, using the default timeout
+     * 
+     * @param previousFingerprint - from {@link #getScreenFingerprint()}
+     * @return the fingerprint of the changed screen
+     * @throws TimeoutException - The screen did not change before the timeout
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     */
+    long waitForScreenChange(long previousFingerprint) throws TimeoutException, TerminalInterruptedException;
+
+    /**
+     * Wait for the screen to be different to a previous fingerprint
+     * 
+     * @param previousFingerprint - from {@link #getScreenFingerprint()}
+     * @param timeoutInMilliseconds - timeout
+     * @return the fingerprint of the changed screen
+     * @throws TimeoutException - The screen did not change before the timeout
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     */
+    long waitForScreenChange(long previousFingerprint, long timeoutInMilliseconds) throws TimeoutException, TerminalInterruptedException;
+
     ITerminal positionCursorToFieldContaining(@NotNull String searchText)
             throws TextNotFoundException, KeyboardLockedException;
     
@@ -32,6 +92,16 @@ public interface ITerminal {
 
     ITerminal waitForTextInField(String string) throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception;
 
+    /**
+     * @param string - The text to find on the screen
+     * @param timeoutInMilliseconds - timeout
+     * @return ITerminal for chaining
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     * @throws TextNotFoundException - The text was not found before the timeout
+     * @throws Zos3270Exception - general zos 3270 error
+     */
+    ITerminal waitForTextInField(String string, long timeoutInMilliseconds) throws TerminalInterruptedException, TextNotFoundException, Zos3270Exception;
+
     /**
      * @param ok - An array of text strings to find on the screen
      * @param error - An array of text strings deemed to be errors
@@ -55,10 +125,39 @@ public interface ITerminal {
      */
     ITerminal waitForTextInField(String[] ok, String[] error, long timeoutInMilliseconds) throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception;
 
+    /**
+     * @param matcher - The ok and error text, compiled once with {@link ScreenMatcher#compile(String[], String[])}
+     * @return the index of the ok string that was found
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     * @throws TextNotFoundException - None of the ok or error strings were found before the timeout
+     * @throws ErrorTextFoundException - One of the error strings were found, index of which is in the exception
+     * @throws Zos3270Exception - general zos 3270 error
+     */
+    int waitForTextInField(@NotNull ScreenMatcher matcher) throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception;
+
+    /**
+     * @param matcher - The ok and error text, compiled once with {@link ScreenMatcher#compile(String[], String[])}
+     * @param timeoutInMilliseconds - timeout
+     * @return the index of the ok string that was found
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     * @throws TextNotFoundException - None of the ok or error strings were found before the timeout
+     * @throws ErrorTextFoundException - One of the error strings were found, index of which is in the exception
+     * @throws Zos3270Exception - general zos 3270 error
+     */
+    int waitForTextInField(@NotNull ScreenMatcher matcher, long timeoutInMilliseconds) throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception;
+
     ITerminal verifyTextInField(String string) throws TextNotFoundException;
 
     boolean isTextInField(String string);
 
+    /**
+     * Wait for text to appear in a field, the screen is checked each time an update is received from the host
+     * 
+     * @param string - The text to find on the screen
+     * @param timeoutInMilliseconds - timeout
+     * @return true if the text was found before the timeout, false otherwise
+     * @throws TerminalInterruptedException - If the wait was interrupted for some reason
+     */
     boolean isTextInField(String string, long timeoutInMilliseconds) throws TerminalInterruptedException;
 
     ITerminal type(String typeText) throws FieldNotFoundException, KeyboardLockedException;
@@ -143,6 +242,18 @@ public interface ITerminal {
 
     ITerminal pa3() throws KeyboardLockedException, NetworkException, TerminalInterruptedException;
 
+    /**
+     * Collect keystrokes to be applied together when an attention key is pressed
+     * 
+     * @return a new batch for this terminal
+     */
+    ITerminalBatch batch();
+
+    /**
+     * @return the response times and traffic for this terminal
+     */
+    ITerminalStatistics getStatistics();
+
     /**
      * Temporary Print to console
      * 
@@ -154,6 +265,54 @@ public interface ITerminal {
 
     String retrieveScreen();
 
+    /**
+     * A read-only view of the screen text without line breaks, read directly from the screen
+     * rather than copied.  The view is valid until the screen is next updated, reading it after
+     * that throws a ConcurrentModificationException.
+     * 
+     * @return the screen text
+     */
+    CharSequence retrieveScreenText();
+
+    /**
+     * A read-only view of a row of the screen, valid until the screen is next updated
+     * 
+     * @param row - the row, starting at 0
+     * @return the text of the row
+     */
+    CharSequence retrieveScreenRow(int row);
+
+    /**
+     * A read-only view of the screen text from a position, continuing onto the following rows
+     * if it is longer than the row.  The view is valid until the screen is next updated.
+     * 
+     * @param row - the row, starting at 0
+     * @param column - the column, starting at 0
+     * @param length - the number of characters
+     * @return the text of the region
+     */
+    CharSequence retrieveScreenRegion(int row, int column, int length);
+
+    /**
+     * Copy the screen text, without line breaks, into a reusable buffer
+     * 
+     * @param dest - the buffer to copy into, its position is advanced
+     * @return the number of characters copied
+     */
+    int retrieveScreen(@NotNull CharBuffer dest);
+
+    /**
+     * Copy the screen text from a position into a reusable buffer, continuing onto the
+     * following rows if it is longer than the row
+     * 
+     * @param dest - the buffer to copy into, its position is advanced
+     * @param row - the row, starting at 0
+     * @param column - the column, starting at 0
+     * @param length - the number of characters
+     * @return the number of characters copied
+     */
+    int retrieveScreen(@NotNull CharBuffer dest, int row, int column, int length);
+
     String retrieveFieldAtCursor();
 
     String retrieveFieldTextAfterFieldWithString(String string) throws TextNotFoundException;
@@ -0,0 +1,83 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * Collects keystrokes to be applied to the screen together, for example
+ * <code>terminal.batch().type("user").tab().type("password").enter().wfk()</code>
+ * <p>
+ * Nothing is applied until an attention key is pressed, then all the keystrokes are applied in one
+ * go, so the host update cannot be mixed in part way through the input, and a single datastream is sent.
+ * If a keystroke fails, the keystrokes before it will have been applied and no attention key is sent.
+ */
+public interface ITerminalBatch {
+
+    ITerminalBatch type(@NotNull String text);
+
+    ITerminalBatch eraseEof();
+
+    ITerminalBatch eraseInput();
+
+    ITerminalBatch tab();
+
+    ITerminalBatch backTab();
+
+    ITerminalBatch cursorUp();
+
+    ITerminalBatch cursorDown();
+
+    ITerminalBatch cursorLeft();
+
+    ITerminalBatch cursorRight();
+
+    ITerminalBatch backSpace();
+
+    ITerminalBatch home();
+
+    ITerminalBatch newLine();
+
+    ITerminalBatch positionCursorToFieldContaining(@NotNull String text);
+
+    /**
+     * Apply the keystrokes and press enter
+     *
+     * @return the terminal for chaining
+     * @throws KeyboardLockedException - if the keyboard is locked
+     * @throws FieldNotFoundException - if a keystroke could not be applied to a field
+     * @throws TextNotFoundException - if the cursor could not be positioned to a field
+     * @throws NetworkException - if the datastream could not be sent
+     * @throws TerminalInterruptedException - if interrupted
+     */
+    ITerminal enter() throws KeyboardLockedException, FieldNotFoundException, TextNotFoundException, NetworkException, TerminalInterruptedException;
+
+    /**
+     * Apply the keystrokes and press an attention key
+     *
+     * @param aid - the attention key
+     * @return the terminal for chaining
+     * @throws KeyboardLockedException - if the keyboard is locked
+     * @throws FieldNotFoundException - if a keystroke could not be applied to a field
+     * @throws TextNotFoundException - if the cursor could not be positioned to a field
+     * @throws NetworkException - if the datastream could not be sent
+     * @throws TerminalInterruptedException - if interrupted
+     */
+    ITerminal aid(@NotNull AttentionIdentification aid) throws KeyboardLockedException, FieldNotFoundException, TextNotFoundException, NetworkException, TerminalInterruptedException;
+
+    /**
+     * Apply the keystrokes without pressing an attention key
+     *
+     * @return the terminal for chaining
+     * @throws KeyboardLockedException - if the keyboard is locked
+     * @throws FieldNotFoundException - if a keystroke could not be applied to a field
+     * @throws TextNotFoundException - if the cursor could not be positioned to a field
+     */
+    ITerminal apply() throws KeyboardLockedException, FieldNotFoundException, TextNotFoundException;
+
+}
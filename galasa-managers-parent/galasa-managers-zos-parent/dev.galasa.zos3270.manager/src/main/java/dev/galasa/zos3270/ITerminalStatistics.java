@@ -0,0 +1,56 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270;
+
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Response times and traffic for a terminal since it was provisioned.
+ * <p>
+ * A transaction is named from the first word on the screen when the attention key is pressed,
+ * for example the transaction id typed on a clear CICS screen, or the title of a menu.
+ */
+public interface ITerminalStatistics {
+
+    /**
+     * @return the response times for all attention keys
+     */
+    IResponseTimes getResponseTimes();
+
+    /**
+     * @param aid - the attention key
+     * @return the response times for the attention key, empty if it has not been pressed
+     */
+    IResponseTimes getResponseTimes(@NotNull AttentionIdentification aid);
+
+    /**
+     * @param transaction - the transaction name
+     * @return the response times for the transaction, empty if it has not been seen
+     */
+    IResponseTimes getResponseTimes(@NotNull String transaction);
+
+    /**
+     * @return the transaction names that have response times
+     */
+    Set<String> getTransactions();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    /**
+     * @return the number of writes received from the host
+     */
+    long getScreensReceived();
+
+    /**
+     * @return the screens received per second, from provisioning to the last screen
+     */
+    double getScreensPerSecond();
+
+}
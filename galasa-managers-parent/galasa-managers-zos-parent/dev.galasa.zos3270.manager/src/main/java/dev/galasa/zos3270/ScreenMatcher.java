@@ -0,0 +1,238 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A compiled set of ok and error texts to search the screen fields for.
+ *
+ * All the texts are searched for together in one pass over each field, using an
+ * Aho-Corasick automaton, so the cost of a search does not grow with the number of
+ * texts. A text is only matched if it is wholly within one field, as with
+ * {@link ITerminal#waitForTextInField(String[], String[])}.
+ *
+ * Compiling is relatively expensive, a matcher is immutable and can be reused by
+ * any number of waits and threads, so compile the common sets of expected text once.
+ */
+public final class ScreenMatcher {
+
+    private static final int   NONE = Integer.MAX_VALUE;
+
+    private final String[]     okText;
+    private final String[]     errorText;
+
+    private final char[]       alphabet;
+    private final int[]        transitions;
+    private final int          alphabetSize;
+    private final int[]        lowestOk;
+    private final int[]        lowestError;
+    private final int          emptyOk;
+    private final int          emptyError;
+
+    private ScreenMatcher(String[] okText, String[] errorText) {
+        this.okText = okText.clone();
+        this.errorText = (errorText == null) ? new String[0] : errorText.clone();
+
+        // *** Build the trie, each pattern id is the ok index, or okText.length + the error index
+        ArrayList<HashMap<Character, Integer>> children = new ArrayList<>();
+        ArrayList<int[]> terminals = new ArrayList<>();
+        children.add(new HashMap<>());
+        terminals.add(new int[] { NONE, NONE });
+
+        int patternCount = this.okText.length + this.errorText.length;
+        int firstEmpty = NONE;
+        int firstEmptyError = NONE;
+        for (int id = 0; id < patternCount; id++) {
+            String pattern = pattern(id);
+            if (pattern == null) {
+                throw new IllegalArgumentException("Null text is not allowed in a screen matcher");
+            }
+
+            if (pattern.isEmpty()) {
+                if (id < this.okText.length) {
+                    firstEmpty = Math.min(firstEmpty, id);
+                } else {
+                    firstEmptyError = Math.min(firstEmptyError, id - this.okText.length);
+                }
+                continue;
+            }
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = children.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    terminals.add(new int[] { NONE, NONE });
+                    children.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            // *** The same text can be both ok and error text, so keep the lowest of each
+            int[] terminal = terminals.get(state);
+            if (id < this.okText.length) {
+                terminal[0] = Math.min(terminal[0], id);
+            } else {
+                terminal[1] = Math.min(terminal[1], id - this.okText.length);
+            }
+        }
+        this.emptyOk = firstEmpty;
+        this.emptyError = firstEmptyError;
+
+        // *** Only the characters used in the texts need a column, everything else goes back to the root
+        TreeSet<Character> chars = new TreeSet<>();
+        for (HashMap<Character, Integer> map : children) {
+            chars.addAll(map.keySet());
+        }
+        this.alphabet = new char[chars.size()];
+        int index = 0;
+        for (Character c : chars) {
+            this.alphabet[index++] = c;
+        }
+        this.alphabetSize = this.alphabet.length + 1;
+
+        int states = children.size();
+        this.transitions = new int[states * this.alphabetSize];
+        this.lowestOk = new int[states];
+        this.lowestError = new int[states];
+        int[] fail = new int[states];
+
+        // *** Breadth first, so the failure state of each state is complete before it is used
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+
+            int[] terminal = terminals.get(state);
+            this.lowestOk[state] = Math.min(state == 0 ? NONE : this.lowestOk[fail[state]], terminal[0]);
+            this.lowestError[state] = Math.min(state == 0 ? NONE : this.lowestError[fail[state]], terminal[1]);
+
+            for (int column = 1; column < this.alphabetSize; column++) {
+                Integer child = children.get(state).get(this.alphabet[column - 1]);
+                if (child != null) {
+                    fail[child] = (state == 0) ? 0 : this.transitions[fail[state] * this.alphabetSize + column];
+                    this.transitions[state * this.alphabetSize + column] = child;
+                    queue.add(child);
+                } else {
+                    this.transitions[state * this.alphabetSize + column] = (state == 0) ? 0
+                            : this.transitions[fail[state] * this.alphabetSize + column];
+                }
+            }
+        }
+    }
+
+    /**
+     * Compile a set of ok texts
+     *
+     * @param okText - the text to search for
+     * @return the matcher
+     */
+    public static ScreenMatcher compile(@NotNull String... okText) {
+        return new ScreenMatcher(okText, null);
+    }
+
+    /**
+     * Compile a set of ok and error texts
+     *
+     * @param okText - the text to search for
+     * @param errorText - text that means an error has occurred, may be null
+     * @return the matcher
+     */
+    public static ScreenMatcher compile(@NotNull String[] okText, String[] errorText) {
+        return new ScreenMatcher(okText, errorText);
+    }
+
+    public String[] getOkText() {
+        return this.okText.clone();
+    }
+
+    public String[] getErrorText() {
+        return this.errorText.clone();
+    }
+
+    /**
+     * Search the fields for all the texts in one pass
+     *
+     * @param fields - the text of each field
+     * @return the lowest index of the ok and error texts found
+     */
+    public Result match(@NotNull Iterable<char[]> fields) {
+        int ok = NONE;
+        int error = NONE;
+        boolean anyField = false;
+
+        for (char[] field : fields) {
+            anyField = true;
+
+            int state = 0;
+            for (char c : field) {
+                state = this.transitions[state * this.alphabetSize + column(c)];
+                if (this.lowestOk[state] < ok) {
+                    ok = this.lowestOk[state];
+                }
+                if (this.lowestError[state] < error) {
+                    error = this.lowestError[state];
+                }
+            }
+        }
+
+        // *** Empty text is in any field, as String.contains
+        if (anyField) {
+            ok = Math.min(ok, this.emptyOk);
+            error = Math.min(error, this.emptyError);
+        }
+
+        return new Result(ok == NONE ? -1 : ok, error == NONE ? -1 : error);
+    }
+
+    private int column(char c) {
+        int index = Arrays.binarySearch(this.alphabet, c);
+        return (index < 0) ? 0 : index + 1;
+    }
+
+    private String pattern(int id) {
+        if (id < this.okText.length) {
+            return this.okText[id];
+        }
+        return this.errorText[id - this.okText.length];
+    }
+
+    /**
+     * The outcome of a search
+     */
+    public static final class Result {
+
+        private final int okIndex;
+        private final int errorIndex;
+
+        private Result(int okIndex, int errorIndex) {
+            this.okIndex = okIndex;
+            this.errorIndex = errorIndex;
+        }
+
+        /**
+         * @return the lowest index of the ok text found, or -1
+         */
+        public int getOkIndex() {
+            return this.okIndex;
+        }
+
+        /**
+         * @return the lowest index of the error text found, or -1
+         */
+        public int getErrorIndex() {
+            return this.errorIndex;
+        }
+    }
+
+}
@@ -9,6 +9,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -36,9 +37,13 @@ import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.Zos3270ManagerException;
 import dev.galasa.zos3270.Zos3270Terminal;
 import dev.galasa.zos3270.internal.gherkin.Gherkin3270Coordinator;
+import dev.galasa.zos3270.internal.metrics.Zos3270Metrics;
+import dev.galasa.zos3270.internal.properties.TerminalConnectThreads;
 import dev.galasa.zos3270.internal.properties.Zos3270PropertiesSingleton;
 import dev.galasa.zos3270.spi.IZos3270ManagerSpi;
 import dev.galasa.zos3270.spi.NetworkException;
+import dev.galasa.zos3270.spi.ParallelTerminalConnector;
+import dev.galasa.zos3270.spi.TerminalStatistics;
 import dev.galasa.zos3270.spi.Zos3270TerminalImpl;
 
 @Component(service = { IManager.class, IGherkinManager.class })
@@ -167,33 +172,73 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
         }
 
         logger.info("Connecting zOS3270 Terminals");
+        ArrayList<Zos3270TerminalImpl> autoConnectTerminals = new ArrayList<>();
         for (Zos3270TerminalImpl terminal : terminals) {
-            try {
-                if (terminal.doAutoConnect()) {
+            if (terminal.doAutoConnect()) {
+                autoConnectTerminals.add(terminal);
+            } else {
+                logger.trace("AutoConnect flag is false for: " + terminal.getId());
+            }
+        }
+
+        ParallelTerminalConnector<Zos3270TerminalImpl> connector = new ParallelTerminalConnector<>(
+                TerminalConnectThreads.get(), "zOS 3270 connect");
+
+        Map<Zos3270TerminalImpl, Exception> failures;
+        try {
+            failures = connector.connectAll(autoConnectTerminals, new ParallelTerminalConnector.IConnector<Zos3270TerminalImpl>() {
+                @Override
+                public void connect(Zos3270TerminalImpl terminal) throws NetworkException {
                     terminal.connect();
                     logger.trace("Connected zOS 3270 Terminal " + terminal.getId());
-                } else {
-                    logger.trace("AutoConnect flag is false for: " + terminal.getId());
                 }
-                
-            } catch (NetworkException e) {
-                logger.info("Failed to connect zOS 3270 Terminal to " + terminal.getHostPort(), e);
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Zos3270ManagerException("Interrupted whilst connecting the zOS 3270 Terminals", e);
+        }
+
+        // *** Network failures are left for the test to find, anything else fails the run as before
+        RuntimeException unexpected = null;
+        for (Map.Entry<Zos3270TerminalImpl, Exception> failure : failures.entrySet()) {
+            logger.info("Failed to connect zOS 3270 Terminal to " + failure.getKey().getHostPort(), failure.getValue());
+            if (unexpected == null && failure.getValue() instanceof RuntimeException) {
+                unexpected = (RuntimeException) failure.getValue();
             }
         }
+        if (!failures.isEmpty()) {
+            logger.info("Failed to connect " + failures.size() + " of " + autoConnectTerminals.size() + " zOS 3270 Terminals");
+        }
+        if (unexpected != null) {
+            throw unexpected;
+        }
     }
 
     @Override
     public void provisionStop() {
         logger.trace("Disconnecting terminals");
+        ArrayList<TerminalStatistics> statistics = new ArrayList<>();
         for (Zos3270TerminalImpl terminal : terminals) {
+            terminal.writeStatistics();
+            statistics.add(terminal.getScreen().getStatistics());
             try {
                 terminal.flushTerminalCache();
+                terminal.closeDatastreamTrace();
                 terminal.disconnect();
+                terminal.closeLiveTerminal();
             } catch (TerminalInterruptedException e) {
                 logger.warn("Thread interrupted whilst disconnecting terminals", e);
                 Thread.currentThread().interrupt();
             }
         }
+
+        if (!statistics.isEmpty()) {
+            try {
+                Zos3270Metrics.recordRun(this.dss, statistics);
+            } catch (Exception e) {
+                logger.warn("Unable to record the 3270 metrics", e);
+            }
+        }
     }
 
     protected IConfigurationPropertyStoreService getCps() {
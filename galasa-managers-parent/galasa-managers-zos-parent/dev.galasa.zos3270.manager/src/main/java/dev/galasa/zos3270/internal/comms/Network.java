@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.zos3270.internal.comms;
 
@@ -9,7 +9,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
@@ -17,6 +19,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -25,6 +28,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import dev.galasa.zos3270.spi.NetworkException;
+import dev.galasa.zos3270.spi.TerminalStatistics;
 
 public class Network {
 
@@ -38,6 +42,7 @@ public class Network {
     private boolean             doStartTls      = true;    
 
     private Socket              socket;
+    private NetworkSelectorSession selectorSession;
     private OutputStream        outputStream;
     private InputStream         inputStream;
 
@@ -48,6 +53,8 @@ public class Network {
 
     private boolean             basicTelnet = false;
 
+    private volatile TerminalStatistics statistics;
+
     public Network(String host, int port, String terminalId) {
         this(host, port, false, terminalId);
     }
@@ -96,6 +103,55 @@ public class Network {
         }
     }
     
+    /**
+     * Connect the terminal using a shared selector rather than a blocking socket and thread.
+     * Inbound messages are passed to the network thread, which is not started.
+     * 
+     * @param networkSelector - the selector to drive the session
+     * @param networkThread - processes the inbound messages
+     * @return true if connected
+     * @throws NetworkException - if the connection failed
+     */
+    public boolean connectClient(NetworkSelector networkSelector, NetworkThread networkThread) throws NetworkException {
+        if (isConnected()) {
+            return true;
+        }
+
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.socket().setTcpNoDelay(true);
+            channel.socket().setKeepAlive(true);
+            channel.connect(new InetSocketAddress(this.host, this.port));
+
+            SSLEngine sslEngine = null;
+            if (this.ssl) {
+                sslEngine = createSslEngine();
+            }
+
+            this.selectorSession = networkSelector.open(channel, this, networkThread, sslEngine);
+            this.outputStream = this.selectorSession.getOutputStream();
+            channel = null;
+
+            // *** Only start reading once the output stream is available for the replies
+            this.selectorSession.start();
+
+            return true;
+        } catch (NetworkException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NetworkException("Unable to connect to Telnet server", e);
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close the channel", e);
+                }
+            }
+        }
+    }
+
     public void setDoStartTls(boolean doStartTls) {
         this.doStartTls = doStartTls;
     }
@@ -105,7 +161,7 @@ public class Network {
     }
 
     public boolean isConnected() {
-        return (this.socket != null);
+        return (this.socket != null || this.selectorSession != null);
     }
 
     public Socket createSocket() throws IOException, NoSuchAlgorithmException, KeyManagementException {
@@ -113,14 +169,7 @@ public class Network {
         if (!ssl) {
             newSocket = new Socket(this.host, this.port);
         } else {
-            boolean ibmJdk = System.getProperty("java.vendor").contains("IBM");
-            SSLContext sslContext;
-            if (ibmJdk) {
-                sslContext = SSLContext.getInstance("SSL_TLSv2");
-            } else {
-                sslContext = SSLContext.getInstance("TLSv1.2");
-            }
-            sslContext.init(null, new TrustManager[] { new TrustAllCerts() }, new java.security.SecureRandom());
+            SSLContext sslContext = createSslContext();
             newSocket = sslContext.getSocketFactory().createSocket(this.host, this.port);
             ((SSLSocket) newSocket).startHandshake();
         }
@@ -131,6 +180,13 @@ public class Network {
     }
 
     public void close() {
+        if (selectorSession != null) {
+            NetworkSelectorSession session = selectorSession;
+            selectorSession = null;
+            outputStream = null;
+            session.close();
+        }
+
         if (socket != null) {
             try {
                 socket.close();
@@ -141,8 +197,11 @@ public class Network {
             inputStream = null;
             outputStream = null;
 
-            this.keepAlive.shutdown = true;
-            this.keepAlive.interrupt();
+            if (this.keepAlive != null) {
+                this.keepAlive.shutdown = true;
+                this.keepAlive.interrupt();
+                this.keepAlive = null;
+            }
         }
     }
 
@@ -151,16 +210,20 @@ public class Network {
     }
 
 
+    /**
+     * Switch the connection to TLS after the host has sent START_TLS FOLLOWS
+     * 
+     * @return the TLS socket, or null if the connection is driven by a selector, which
+     * will already have switched the session to TLS
+     * @throws NetworkException - if the TLS handshake failed
+     */
     public Socket startTls() throws NetworkException {
+        if (this.selectorSession != null) {
+            return null;
+        }
+
         try {
-            boolean ibmJdk = System.getProperty("java.vendor").contains("IBM");
-            SSLContext sslContext;
-            if (ibmJdk) {
-                sslContext = SSLContext.getInstance("SSL_TLSv2");
-            } else {
-                sslContext = SSLContext.getInstance("TLSv1.2");
-            }
-            sslContext.init(null, new TrustManager[] { new TrustAllCerts() }, new java.security.SecureRandom());
+            SSLContext sslContext = createSslContext();
             Socket tlsSocket = sslContext.getSocketFactory().createSocket(socket, this.host, this.port, false);
             ((SSLSocket) tlsSocket).startHandshake();
             tlsSocket.setTcpNoDelay(true);
@@ -176,6 +239,28 @@ public class Network {
 
     }
 
+    private static SSLContext createSslContext() throws NoSuchAlgorithmException, KeyManagementException {
+        boolean ibmJdk = System.getProperty("java.vendor").contains("IBM");
+        SSLContext sslContext;
+        if (ibmJdk) {
+            sslContext = SSLContext.getInstance("SSL_TLSv2");
+        } else {
+            sslContext = SSLContext.getInstance("TLSv1.2");
+        }
+        sslContext.init(null, new TrustManager[] { new TrustAllCerts() }, new java.security.SecureRandom());
+        return sslContext;
+    }
+
+    SSLEngine createSslEngine() throws NetworkException {
+        try {
+            SSLEngine sslEngine = createSslContext().createSSLEngine(this.host, this.port);
+            sslEngine.setUseClientMode(true);
+            return sslEngine;
+        } catch (Exception e) {
+            throw new NetworkException("Unable to create the TLS engine", e);
+        }
+    }
+
     public void sendDatastream(byte[] outboundDatastream) throws NetworkException {
         if (this.errorException != null) {
             throw new NetworkException("Terminal network connection has gone into error state",this.errorException);
@@ -203,6 +288,11 @@ public class Network {
                 outputStream.write(baos.toByteArray());
                 outputStream.flush();
 
+                TerminalStatistics currentStatistics = this.statistics;
+                if (currentStatistics != null) {
+                    currentStatistics.bytesSent(outboundDatastream.length);
+                }
+
                 this.lastSend = Instant.now();
             } catch (IOException e) {
                 throw new NetworkException("Unable to write outbound datastream", e);
@@ -211,6 +301,11 @@ public class Network {
     }
 
     public void sendIac(byte[] outboundIac) throws NetworkException {
+        OutputStream outputStream = this.outputStream;
+        if (outputStream == null) {
+            throw new NetworkException("Attempt to send data to a disconnected terminal " + this.terminalId);
+        }
+
         synchronized(outputStream) {
             try {
                 outputStream.write(outboundIac);
@@ -227,8 +322,9 @@ public class Network {
         return this.ssl;
     }
 
-    private void sendKeepAlive() {
-        if (this.outputStream == null) {
+    void sendKeepAlive() {
+        OutputStream outputStream = this.outputStream;
+        if (outputStream == null) {
             return;
         }
 
@@ -236,7 +332,7 @@ public class Network {
             return;
         }
 
-        synchronized(this.outputStream) {
+        synchronized(outputStream) {
             try {
                 ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 baos.write(NetworkThread.IAC);
@@ -251,6 +347,13 @@ public class Network {
         }
     }
 
+    /**
+     * @param statistics - where to count the bytes sent, the screen's statistics
+     */
+    public void setStatistics(TerminalStatistics statistics) {
+        this.statistics = statistics;
+    }
+
     public String getHostPort() {
         return this.host + ":" + Integer.toString(this.port);
     }
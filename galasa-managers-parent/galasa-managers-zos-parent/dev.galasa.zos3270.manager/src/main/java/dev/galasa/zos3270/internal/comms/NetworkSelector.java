@@ -0,0 +1,247 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLEngine;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * Drives many TN3270 sessions from a small number of selector threads, instead of
+ * a blocking NetworkThread per terminal.
+ *
+ * The selector threads only move bytes, TLS included. Complete telnet commands and 3270 records
+ * are handed to the NetworkThread of the terminal on a dispatcher thread, one at a time and in order
+ * for each session, so a slow screen update listener does not hold up the other sessions.
+ * The dispatcher threads are a fixed number shared by all the sessions, a session with
+ * work waits for a free thread.
+ */
+public class NetworkSelector {
+
+    private static final long             KEEP_ALIVE_INTERVAL = 5000;
+    private static final int              DEFAULT_DISPATCHERS = 8;
+    private static final long             DISPATCHER_IDLE     = 60;
+
+    private static NetworkSelector        sharedSelector;
+
+    private final Log                     logger              = LogFactory.getLog(getClass());
+
+    private final SelectorThread[]        selectorThreads;
+    private final AtomicInteger           nextSelectorThread  = new AtomicInteger();
+    private final ExecutorService         dispatcher;
+
+    public NetworkSelector(int numberOfThreads) throws NetworkException {
+        this(numberOfThreads, DEFAULT_DISPATCHERS);
+    }
+
+    public NetworkSelector(int numberOfThreads, int dispatcherThreads) throws NetworkException {
+        if (numberOfThreads < 1) {
+            throw new NetworkException("The network selector requires at least 1 thread");
+        }
+        if (dispatcherThreads < 1) {
+            throw new NetworkException("The network selector requires at least 1 dispatcher thread");
+        }
+
+        ThreadPoolExecutor dispatcherPool = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads,
+                DISPATCHER_IDLE, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DispatcherThreadFactory());
+        dispatcherPool.allowCoreThreadTimeOut(true);
+        this.dispatcher = dispatcherPool;
+
+        this.selectorThreads = new SelectorThread[numberOfThreads];
+        try {
+            for (int i = 0; i < numberOfThreads; i++) {
+                this.selectorThreads[i] = new SelectorThread(i + 1);
+            }
+        } catch (IOException e) {
+            shutdown();
+            throw new NetworkException("Unable to open the network selector", e);
+        }
+
+        for (SelectorThread selectorThread : this.selectorThreads) {
+            selectorThread.start();
+        }
+    }
+
+    /**
+     * Return the selector shared by all the terminals in this JVM, creating it on first use
+     *
+     * @param numberOfThreads - the number of selector threads if the selector has to be created
+     * @param dispatcherThreads - the number of dispatcher threads if the selector has to be created
+     * @return the shared selector
+     * @throws NetworkException - if the selector could not be opened
+     */
+    public static synchronized NetworkSelector getSharedSelector(int numberOfThreads, int dispatcherThreads) throws NetworkException {
+        if (sharedSelector == null) {
+            sharedSelector = new NetworkSelector(numberOfThreads, dispatcherThreads);
+        }
+        return sharedSelector;
+    }
+
+    /**
+     * Create a session for a connected channel, the selector does not read from it
+     * until {@link NetworkSelectorSession#start()} is called
+     *
+     * @param channel - a connected channel, will be switched to non-blocking
+     * @param network - the network the channel belongs to
+     * @param networkThread - processes the inbound telnet messages
+     * @param sslEngine - the client engine if the connection is TLS from the start, or null
+     * @return the session
+     * @throws NetworkException - if the channel could not be registered
+     */
+    public NetworkSelectorSession open(SocketChannel channel, Network network, NetworkThread networkThread,
+            SSLEngine sslEngine) throws NetworkException {
+        try {
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            throw new NetworkException("Unable to switch the channel to non-blocking", e);
+        }
+
+        int index = Math.abs(this.nextSelectorThread.getAndIncrement() % this.selectorThreads.length);
+        SelectorThread selectorThread = this.selectorThreads[index];
+
+        return new NetworkSelectorSession(this, selectorThread, channel, network, networkThread, sslEngine);
+    }
+
+    public void shutdown() {
+        for (SelectorThread selectorThread : this.selectorThreads) {
+            if (selectorThread != null) {
+                selectorThread.shutdown();
+            }
+        }
+        this.dispatcher.shutdown();
+    }
+
+    void dispatch(Runnable runnable) {
+        this.dispatcher.execute(runnable);
+    }
+
+    /**
+     * One selector and the sessions registered with it. All channel and SSLEngine
+     * work for those sessions happens on this thread.
+     */
+    class SelectorThread extends Thread {
+
+        private final Selector                                      selector;
+        private final ConcurrentLinkedQueue<NetworkSelectorSession> registrations = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<NetworkSelectorSession> flushes       = new ConcurrentLinkedQueue<>();
+        private final HashSet<NetworkSelectorSession>               sessions      = new HashSet<>();
+        private volatile boolean                                    shutdown      = false;
+        private long                                                lastKeepAlive = System.currentTimeMillis();
+
+        private SelectorThread(int number) throws IOException {
+            this.selector = Selector.open();
+            setName("3270 selector " + number);
+            setDaemon(true);
+        }
+
+        void register(NetworkSelectorSession session) {
+            this.registrations.add(session);
+            this.selector.wakeup();
+        }
+
+        void requestFlush(NetworkSelectorSession session) {
+            if (Thread.currentThread() == this) {
+                session.flush();
+                return;
+            }
+            this.flushes.add(session);
+            this.selector.wakeup();
+        }
+
+        private void shutdown() {
+            this.shutdown = true;
+            this.selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (!this.shutdown) {
+                try {
+                    this.selector.select(KEEP_ALIVE_INTERVAL);
+                } catch (IOException e) {
+                    logger.error("Problem with the 3270 network selector", e);
+                    break;
+                }
+
+                NetworkSelectorSession session;
+                while ((session = this.registrations.poll()) != null) {
+                    try {
+                        session.registered(session.getChannel().register(this.selector, SelectionKey.OP_READ, session));
+                        this.sessions.add(session);
+                    } catch (IOException e) {
+                        logger.error("Unable to register the 3270 session with the selector", e);
+                        session.close();
+                    }
+                }
+
+                while ((session = this.flushes.poll()) != null) {
+                    session.flush();
+                }
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    ((NetworkSelectorSession) key.attachment()).processKey(key);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - this.lastKeepAlive >= KEEP_ALIVE_INTERVAL) {
+                    this.lastKeepAlive = now;
+                    Iterator<NetworkSelectorSession> i = this.sessions.iterator();
+                    while (i.hasNext()) {
+                        session = i.next();
+                        if (session.isClosed()) {
+                            i.remove();
+                        } else {
+                            session.getNetwork().sendKeepAlive();
+                        }
+                    }
+                }
+            }
+
+            for (NetworkSelectorSession session : this.sessions) {
+                session.close();
+            }
+            try {
+                this.selector.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the selector", e);
+            }
+        }
+    }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger number = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "3270 dispatcher " + this.number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
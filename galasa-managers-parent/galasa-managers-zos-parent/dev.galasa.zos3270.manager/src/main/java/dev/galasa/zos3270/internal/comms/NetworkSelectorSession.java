@@ -0,0 +1,498 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * A single TN3270 connection driven by a {@link NetworkSelector}.
+ *
+ * Inbound bytes are collected until a complete telnet command or 3270 record is available, which
+ * is then passed to the NetworkThread of the terminal. Outbound data is queued and written
+ * by the selector thread. When the host agrees to START_TLS the session switches to an SSLEngine
+ * without blocking the selector.
+ */
+public class NetworkSelectorSession {
+
+    private static final int                        BUFFER_SIZE     = 16384;
+    private static final ByteBuffer                 EMPTY           = ByteBuffer.allocate(0);
+
+    private final Log                               logger          = LogFactory.getLog(getClass());
+
+    private final NetworkSelector                   networkSelector;
+    private final NetworkSelector.SelectorThread    selectorThread;
+    private final SocketChannel                     channel;
+    private final Network                           network;
+    private final NetworkThread                     networkThread;
+
+    private SelectionKey                            key;
+    private SSLEngine                               sslEngine;
+
+    // *** Buffers owned by the selector thread, all left in write mode
+    private ByteBuffer                              plainInbound    = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer                              netInbound;
+    private ByteBuffer                              netOutbound;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> outbound        = new ConcurrentLinkedQueue<>();
+    private ByteBuffer                              currentOutbound;
+
+    private final ArrayDeque<Runnable>              work            = new ArrayDeque<>();
+    private boolean                                 dispatching     = false;
+
+    private final AtomicBoolean                     closed          = new AtomicBoolean(false);
+
+    private final OutputStream                      outputStream    = new SessionOutputStream();
+
+    NetworkSelectorSession(NetworkSelector networkSelector, NetworkSelector.SelectorThread selectorThread,
+            SocketChannel channel, Network network, NetworkThread networkThread, SSLEngine sslEngine) {
+        this.networkSelector = networkSelector;
+        this.selectorThread = selectorThread;
+        this.channel = channel;
+        this.network = network;
+        this.networkThread = networkThread;
+        this.sslEngine = sslEngine;
+    }
+
+    /**
+     * Register with the selector thread, inbound data will be processed from now on
+     */
+    public void start() {
+        this.selectorThread.register(this);
+    }
+
+    /**
+     * @return a stream that queues data to be written by the selector, flush does not wait
+     */
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    public boolean isClosed() {
+        return this.closed.get();
+    }
+
+    public boolean isTls() {
+        return this.sslEngine != null;
+    }
+
+    /**
+     * Close the channel and tell the NetworkThread the session has ended, once
+     * it has processed everything already received
+     */
+    public void close() {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the channel", e);
+        }
+
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                networkThread.sessionEnded();
+            }
+        });
+    }
+
+    SocketChannel getChannel() {
+        return this.channel;
+    }
+
+    Network getNetwork() {
+        return this.network;
+    }
+
+    void registered(SelectionKey key) {
+        this.key = key;
+
+        if (this.sslEngine != null) {
+            try {
+                beginTls();
+            } catch (IOException e) {
+                logger.error("Unable to start TLS on the 3270 session", e);
+                close();
+                return;
+            }
+        }
+        flush();
+    }
+
+    void send(byte[] data) throws IOException {
+        if (this.closed.get()) {
+            throw new IOException("Socket closed");
+        }
+
+        this.outbound.add(ByteBuffer.wrap(data));
+        this.selectorThread.requestFlush(this);
+    }
+
+    /**
+     * Called on the selector thread when the channel is ready
+     */
+    void processKey(SelectionKey key) {
+        try {
+            if (key.isValid() && key.isReadable()) {
+                read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+        } catch (Exception e) {
+            if (!this.closed.get()) {
+                logger.error("Problem with the 3270 session", e);
+            }
+            close();
+        }
+    }
+
+    private void read() throws IOException, NetworkException {
+        ByteBuffer target;
+        if (this.sslEngine == null) {
+            this.plainInbound = ensureSpace(this.plainInbound, BUFFER_SIZE);
+            target = this.plainInbound;
+        } else {
+            this.netInbound = ensureSpace(this.netInbound, this.sslEngine.getSession().getPacketBufferSize());
+            target = this.netInbound;
+        }
+
+        int length = this.channel.read(target);
+        if (length < 0) {
+            logger.trace("Terminal has been disconnected");
+            close();
+            return;
+        }
+
+        if (this.sslEngine != null) {
+            unwrap();
+        }
+        processPlainInbound();
+    }
+
+    /**
+     * Pass each complete telnet message to the network thread
+     */
+    private void processPlainInbound() throws IOException, NetworkException {
+        boolean switchedToTls = false;
+
+        this.plainInbound.flip();
+        try {
+            while (this.plainInbound.hasRemaining()) {
+                int length = NetworkThread.completeMessageLength(this.plainInbound);
+                if (length < 0) {
+                    break;
+                }
+
+                byte[] message = new byte[length];
+                this.plainInbound.get(message);
+                dispatchMessage(message);
+
+                if (this.sslEngine == null && isStartTlsFollows(message)) {
+                    // *** Anything after FOLLOWS is the start of the TLS handshake
+                    logger.trace("TN3270E switching to TLS");
+                    this.sslEngine = this.network.createSslEngine();
+                    this.netInbound = ByteBuffer.allocate(Math.max(this.sslEngine.getSession().getPacketBufferSize(),
+                            this.plainInbound.remaining()));
+                    this.netInbound.put(this.plainInbound);
+                    switchedToTls = true;
+                    break;
+                }
+            }
+        } finally {
+            this.plainInbound.compact();
+        }
+
+        if (switchedToTls) {
+            beginTls();
+            unwrap();
+            processPlainInbound();
+        }
+    }
+
+    private static boolean isStartTlsFollows(byte[] message) {
+        return message.length == 6 && message[0] == NetworkThread.IAC && message[1] == NetworkThread.SB
+                && message[2] == NetworkThread.START_TLS && message[3] == NetworkThread.FOLLOWS;
+    }
+
+    private void beginTls() throws IOException {
+        if (this.netInbound == null) {
+            this.netInbound = ByteBuffer.allocate(this.sslEngine.getSession().getPacketBufferSize());
+        }
+        this.netOutbound = ByteBuffer.allocate(this.sslEngine.getSession().getPacketBufferSize());
+        this.sslEngine.beginHandshake();
+        flush();
+    }
+
+    private void unwrap() throws IOException {
+        while (this.netInbound.position() > 0) {
+            this.netInbound.flip();
+            SSLEngineResult result;
+            try {
+                result = this.sslEngine.unwrap(this.netInbound, this.plainInbound);
+            } finally {
+                this.netInbound.compact();
+            }
+
+            switch (result.getStatus()) {
+                case BUFFER_OVERFLOW:
+                    this.plainInbound = enlarge(this.plainInbound, this.sslEngine.getSession().getApplicationBufferSize());
+                    continue;
+                case BUFFER_UNDERFLOW:
+                    return;
+                case CLOSED:
+                    close();
+                    return;
+                default:
+                    break;
+            }
+
+            boolean progress = result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+            HandshakeStatus handshakeStatus = result.getHandshakeStatus();
+            if (handshakeStatus == HandshakeStatus.NEED_TASK) {
+                runDelegatedTasks();
+                handshakeStatus = this.sslEngine.getHandshakeStatus();
+                progress = true;
+            }
+            if (handshakeStatus == HandshakeStatus.NEED_WRAP || handshakeStatus == HandshakeStatus.FINISHED) {
+                flush();
+                progress = true;
+            }
+
+            if (!progress) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write as much of the queued outbound data as the channel will take, called on the selector thread
+     */
+    void flush() {
+        if (this.key == null || this.closed.get()) {
+            return;
+        }
+
+        try {
+            boolean pending;
+            if (this.sslEngine == null) {
+                pending = flushPlain();
+            } else {
+                pending = flushTls();
+            }
+
+            int ops = SelectionKey.OP_READ;
+            if (pending) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (this.key.isValid()) {
+                this.key.interestOps(ops);
+            }
+        } catch (Exception e) {
+            if (!this.closed.get()) {
+                logger.error("Unable to write to the 3270 session", e);
+            }
+            close();
+        }
+    }
+
+    private boolean flushPlain() throws IOException {
+        while (true) {
+            if (this.currentOutbound == null) {
+                this.currentOutbound = this.outbound.poll();
+                if (this.currentOutbound == null) {
+                    return false;
+                }
+            }
+
+            this.channel.write(this.currentOutbound);
+            if (this.currentOutbound.hasRemaining()) {
+                return true;
+            }
+            this.currentOutbound = null;
+        }
+    }
+
+    private boolean flushTls() throws IOException {
+        if (!writeNetOutbound()) {
+            return true;
+        }
+
+        while (true) {
+            HandshakeStatus handshakeStatus = this.sslEngine.getHandshakeStatus();
+
+            ByteBuffer source;
+            if (handshakeStatus == HandshakeStatus.NEED_WRAP) {
+                source = EMPTY;
+            } else if (handshakeStatus == HandshakeStatus.NEED_TASK) {
+                runDelegatedTasks();
+                continue;
+            } else if (handshakeStatus == HandshakeStatus.NEED_UNWRAP) {
+                return false;
+            } else {
+                if (this.currentOutbound == null) {
+                    this.currentOutbound = this.outbound.poll();
+                    if (this.currentOutbound == null) {
+                        return false;
+                    }
+                }
+                source = this.currentOutbound;
+            }
+
+            SSLEngineResult result = this.sslEngine.wrap(source, this.netOutbound);
+            switch (result.getStatus()) {
+                case BUFFER_OVERFLOW:
+                    if (!writeNetOutbound()) {
+                        return true;
+                    }
+                    this.netOutbound = enlarge(this.netOutbound, this.sslEngine.getSession().getPacketBufferSize());
+                    continue;
+                case CLOSED:
+                    writeNetOutbound();
+                    return false;
+                default:
+                    break;
+            }
+
+            if (source == this.currentOutbound && !this.currentOutbound.hasRemaining()) {
+                this.currentOutbound = null;
+            }
+
+            if (!writeNetOutbound()) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return true if all the encrypted data has been written
+     */
+    private boolean writeNetOutbound() throws IOException {
+        this.netOutbound.flip();
+        try {
+            this.channel.write(this.netOutbound);
+            return !this.netOutbound.hasRemaining();
+        } finally {
+            this.netOutbound.compact();
+        }
+    }
+
+    private void runDelegatedTasks() {
+        Runnable task;
+        while ((task = this.sslEngine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private void dispatchMessage(final byte[] message) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    networkThread.processMessage(new ByteArrayInputStream(message));
+                } catch (NetworkException | IOException e) {
+                    logger.error("Problem with Network Thread", e);
+                    close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run work on the dispatcher, one item at a time and in order for this session
+     */
+    private void dispatch(Runnable runnable) {
+        synchronized (this.work) {
+            this.work.add(runnable);
+            if (this.dispatching) {
+                return;
+            }
+            this.dispatching = true;
+        }
+
+        this.networkSelector.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable next;
+            synchronized (this.work) {
+                next = this.work.poll();
+                if (next == null) {
+                    this.dispatching = false;
+                    return;
+                }
+            }
+
+            try {
+                next.run();
+            } catch (Exception e) {
+                logger.error("Problem processing the 3270 session", e);
+            }
+        }
+    }
+
+    private static ByteBuffer ensureSpace(ByteBuffer buffer, int size) {
+        if (buffer == null) {
+            return ByteBuffer.allocate(size);
+        }
+        if (buffer.hasRemaining()) {
+            return buffer;
+        }
+        return enlarge(buffer, size);
+    }
+
+    private static ByteBuffer enlarge(ByteBuffer buffer, int size) {
+        ByteBuffer newBuffer = ByteBuffer.allocate(buffer.capacity() + size);
+        buffer.flip();
+        newBuffer.put(buffer);
+        return newBuffer;
+    }
+
+    private class SessionOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            send(new byte[] { (byte) b });
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            send(Arrays.copyOfRange(b, off, off + len));
+        }
+
+        @Override
+        public void close() {
+            NetworkSelectorSession.this.close();
+        }
+    }
+
+}
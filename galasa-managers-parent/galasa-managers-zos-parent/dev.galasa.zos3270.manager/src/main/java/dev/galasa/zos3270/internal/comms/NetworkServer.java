@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.zos3270.internal.comms;
 
@@ -172,6 +172,74 @@ public class NetworkServer /* extends Thread */ {
 
     }
 
+    /**
+     * Wait for the next 3270 message from the client, answering any telnet commands
+     * that arrive before it
+     * 
+     * @return the inbound datastream, without the TN3270E header, or null if the client has disconnected
+     * @throws NetworkException - if the message is invalid
+     */
+    public byte[] receiveDatastream() throws NetworkException {
+        try {
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            boolean lastByteFF = false;
+            int b;
+            while ((b = this.inputStream.read()) != -1) {
+                byte data = (byte) b;
+                if (lastByteFF) {
+                    lastByteFF = false;
+                    if (data == NetworkThread.EOR) {
+                        break;
+                    }
+                    if (data == NetworkThread.IAC) {
+                        message.write(data);
+                        continue;
+                    }
+                    receiveTelnetCommand(data);
+                    continue;
+                }
+
+                if (data == NetworkThread.IAC) {
+                    lastByteFF = true;
+                } else {
+                    message.write(data);
+                }
+            }
+
+            if (b == -1) {
+                return null;
+            }
+
+            byte[] bytes = message.toByteArray();
+            if (bytes.length < 5) {
+                throw new NetworkException("Missing 5 bytes of the TN3270E datastream header");
+            }
+            return Arrays.copyOfRange(bytes, 5, bytes.length);
+        } catch (IOException e) {
+            if (this.socket.isClosed()) {
+                return null;
+            }
+            throw new NetworkException("Unable to read inbound datastream", e);
+        }
+    }
+
+    private void receiveTelnetCommand(byte command) throws IOException, NetworkException {
+        if (command != NetworkThread.DO && command != NetworkThread.DONT && command != NetworkThread.WILL && command != NetworkThread.WONT) {
+            return;
+        }
+
+        int option = this.inputStream.read();
+        if (option == -1) {
+            return;
+        }
+
+        // *** The client keep alive asks for a timing mark
+        if (command == NetworkThread.DO && option == NetworkThread.TIMING_MARK) {
+            this.outputStream.write(new byte[] { NetworkThread.IAC, NetworkThread.WONT, NetworkThread.TIMING_MARK });
+            this.outputStream.flush();
+        }
+    }
+
     public static void expect(InputStream inputStream, byte... expected) throws IOException, NetworkException {
         byte[] received = new byte[expected.length];
 
@@ -5,6 +5,7 @@
  */
 package dev.galasa.zos3270.internal.comms;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -12,7 +13,9 @@ import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.logging.Log;
@@ -23,6 +26,7 @@ import dev.galasa.zos3270.IDatastreamListener.DatastreamDirection;
 import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
 import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.CodePage;
 import dev.galasa.zos3270.internal.datastream.CommandWriteStructured;
 import dev.galasa.zos3270.internal.datastream.OrderCarrageReturn;
 import dev.galasa.zos3270.internal.datastream.OrderEndOfMedium;
@@ -40,6 +44,7 @@ import dev.galasa.zos3270.internal.datastream.OrderText;
 import dev.galasa.zos3270.internal.datastream.StructuredField;
 import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
 import dev.galasa.zos3270.spi.DatastreamException;
+import dev.galasa.zos3270.spi.DatastreamTraceWriter;
 import dev.galasa.zos3270.spi.NetworkException;
 import dev.galasa.zos3270.spi.Screen;
 import dev.galasa.zos3270.spi.Terminal;
@@ -99,9 +104,9 @@ public class NetworkThread extends Thread {
     private InputStream inputStream;
     private final Screen      screen;
     private final Network     network;
-    private final Terminal    terminal;
+    private volatile Terminal terminal;
 
-    private boolean telnetSessionStarted      = false;
+    private volatile boolean telnetSessionStarted = false;
     private boolean basicTelnetDatastream     = false;
 
     private boolean           endOfStream     = false;
@@ -111,7 +116,11 @@ public class NetworkThread extends Thread {
     private final ArrayList<String>  possibleDeviceTypes = new ArrayList<>();
     private String                   selectedDeviceType;
 
-    private ByteArrayOutputStream    commandSoFar;
+    private final ByteArrayOutputStream commandSoFar = new ByteArrayOutputStream();
+
+    private byte[]                   messageBuffer   = new byte[4096];
+
+    private final CountDownLatch     sessionEnded    = new CountDownLatch(1);
 
     public NetworkThread(Terminal terminal, Screen screen, Network network, InputStream inputStream) {
         this(terminal, screen, network, inputStream, null);
@@ -120,7 +129,7 @@ public class NetworkThread extends Thread {
     public NetworkThread(Terminal terminal, Screen screen, Network network, InputStream inputStream, List<String> deviceTypes) {
         this.screen = screen;
         this.network = network;
-        this.inputStream = inputStream;
+        this.inputStream = buffered(inputStream);
         this.terminal = terminal;
 
         if (deviceTypes == null || deviceTypes.isEmpty()) {
@@ -131,6 +140,25 @@ public class NetworkThread extends Thread {
         }
     }
 
+    /**
+     * The session has been adopted by another terminal
+     * 
+     * @param terminal - the terminal now owning the session
+     */
+    public void setTerminal(Terminal terminal) {
+        this.terminal = terminal;
+    }
+
+    /**
+     * The messages are read a byte at a time, so read the socket in blocks
+     */
+    private static InputStream buffered(InputStream inputStream) {
+        if (inputStream == null) {
+            return null;
+        }
+        return new BufferedInputStream(inputStream);
+    }
+
     @Override
     public void run() {
         logger.trace("Starting network thread on terminal " + terminal.getId());
@@ -149,18 +177,44 @@ public class NetworkThread extends Thread {
                 break;
             }
         }
+        sessionEnded();
+    }
+
+    /**
+     * Called when the connection has ended, either at the end of run() or by the 
+     * NetworkSelector when the session is driven by a selector
+     */
+    public void sessionEnded() {
         try {
-            screen.networkClosed();
-        } catch (TerminalInterruptedException e) {
-            logger.error("Problem locking keyboard on network close",e);
+            try {
+                screen.networkClosed();
+            } catch (TerminalInterruptedException e) {
+                logger.error("Problem locking keyboard on network close",e);
+            }
+
+            logger.trace("Ending network thread on terminal " + terminal.getId());
+            terminal.networkClosed();
+        } finally {
+            this.sessionEnded.countDown();
         }
+    }
 
-        logger.trace("Ending network thread on terminal " + terminal.getId());
-        terminal.networkClosed();
+    /**
+     * Wait for the session to end, for a thread this is join(), 
+     * for a selector driven session it waits for sessionEnded()
+     * 
+     * @throws InterruptedException - if the wait is interrupted
+     */
+    public void waitForEnd() throws InterruptedException {
+        if (getState() == State.NEW) {
+            this.sessionEnded.await();
+        } else {
+            join();
+        }
     }
 
     public void processMessage(InputStream messageStream) throws IOException, NetworkException {
-        this.commandSoFar = new ByteArrayOutputStream();
+        this.commandSoFar.reset();
 
         Byte header = readByte(messageStream);
         if (header == null) {
@@ -175,16 +229,14 @@ public class NetworkThread extends Thread {
         if (basicTelnetDatastream) {
             this.telnetSessionStarted = true;  // must be started if receiving 3270
 
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
-
+            ByteBuffer buffer = readMessage(header, messageStream);
 
-            Inbound3270Message inbound3270Message = process3270Data(buffer);
-            this.screen.processInboundMessage(inbound3270Message);
+            processInbound3270Data(buffer);
             return;
         } else {
             this.telnetSessionStarted = true;  // must be started if receiving 3270
 
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+            ByteBuffer buffer = readMessage(header, messageStream);
 
             if (buffer.remaining() < 5) {
                 throw new NetworkException("Missing 5 bytes of the TN3270E datastream header");
@@ -195,10 +247,9 @@ public class NetworkThread extends Thread {
                 throw new NetworkException("Was expecting a TN3270E datastream header of zeros - " + reportCommandSoFar());
             }
 
-            buffer.get(new byte[4]);
+            buffer.position(buffer.position() + 4);
 
-            Inbound3270Message inbound3270Message = process3270Data(buffer);
-            this.screen.processInboundMessage(inbound3270Message);
+            processInbound3270Data(buffer);
             return;
         }
     }
@@ -313,7 +364,10 @@ public class NetworkThread extends Thread {
         logger.trace("TN3270E switching to TLS");
 
         Socket newSocket = this.network.startTls();
-        this.inputStream = newSocket.getInputStream();
+        if (newSocket != null) {
+            // *** The host waits for the TLS handshake after FOLLOWS, so nothing is left in the old buffer
+            this.inputStream = buffered(newSocket.getInputStream());
+        }
         this.network.switchedSSL(true);
 
 
@@ -741,10 +795,43 @@ public class NetworkThread extends Thread {
         return Hex.encodeHexString(this.commandSoFar.toByteArray());
     }
 
+    /**
+     * Apply the 3270 data to the screen.  The write commands are applied straight from the 
+     * buffer by the screen, the rest are built into an Inbound3270Message first.
+     * 
+     * @param buffer - the 3270 data, positioned at the command code
+     * @throws NetworkException - if the datastream is invalid
+     */
+    public void processInbound3270Data(ByteBuffer buffer) throws NetworkException {
+        this.screen.getStatistics().bytesReceived(buffer.remaining());
+        reportInbound(buffer);
+        recordInbound(buffer);
+
+        if (this.screen.processInboundDatastream(buffer)) {
+            return;
+        }
+
+        this.screen.processInboundMessage(decode3270Data(buffer));
+    }
+
     public Inbound3270Message process3270Data(ByteBuffer buffer) throws NetworkException {
+        this.screen.getStatistics().bytesReceived(buffer.remaining());
+        reportInbound(buffer);
+        recordInbound(buffer);
+
+        return decode3270Data(buffer);
+    }
 
+    private void recordInbound(ByteBuffer buffer) {
+        DatastreamTraceWriter datastreamTrace = this.screen.getDatastreamTrace();
+        if (datastreamTrace != null) {
+            datastreamTrace.inbound(buffer);
+        }
+    }
+
+    private void reportInbound(ByteBuffer buffer) {
         if (logger.isTraceEnabled() || !this.screen.getDatastreamListeners().isEmpty()) {
-            String hex = new String(Hex.encodeHex(buffer.array()));
+            String hex = Hex.encodeHexString(Arrays.copyOf(buffer.array(), buffer.limit()));
             if (logger.isTraceEnabled()) {
                 logger.trace("inbound=" + hex);
             }
@@ -753,17 +840,24 @@ public class NetworkThread extends Thread {
                 listener.datastreamUpdate(DatastreamDirection.INBOUND, hex);
             }
         }
+    }
 
+    private Inbound3270Message decode3270Data(ByteBuffer buffer) throws NetworkException {
         AbstractCommandCode commandCode = AbstractCommandCode.getCommandCode(buffer.get());
         if (commandCode instanceof CommandWriteStructured) {
             return processStructuredFields((CommandWriteStructured) commandCode, buffer);
         } else {
-            return process3270Datastream(commandCode, buffer);
+            return process3270Datastream(commandCode, buffer, this.screen.getCodePage());
         }
     }
 
     public static Inbound3270Message process3270Datastream(AbstractCommandCode commandCode, ByteBuffer buffer)
             throws DatastreamException {
+        return process3270Datastream(commandCode, buffer, CodePage.getDefault());
+    }
+
+    public static Inbound3270Message process3270Datastream(AbstractCommandCode commandCode, ByteBuffer buffer, CodePage codePage)
+            throws DatastreamException {
 
         if (!buffer.hasRemaining()) {
             return new Inbound3270Message(commandCode, null, null);
@@ -771,28 +865,28 @@ public class NetworkThread extends Thread {
 
         WriteControlCharacter writeControlCharacter = new WriteControlCharacter(buffer.get());
 
-        List<AbstractOrder> orders = processOrders(buffer);
+        List<AbstractOrder> orders = processOrders(buffer, codePage);
 
         return new Inbound3270Message(commandCode, writeControlCharacter, orders);
     }
 
     public static List<AbstractOrder> processOrders(ByteBuffer buffer) throws DatastreamException {
-        OrderText orderText = null;
+        return processOrders(buffer, CodePage.getDefault());
+    }
 
+    public static List<AbstractOrder> processOrders(ByteBuffer buffer, CodePage codePage) throws DatastreamException {
         ArrayList<AbstractOrder> orders = new ArrayList<>();
         while (buffer.remaining() > 0) {
             byte orderByte = buffer.get();
 
             if (orderByte > 0x00 && orderByte <= 0x3f) {
-                orderText = null;
-
                 AbstractOrder order = null;
                 switch (orderByte) {
                     case OrderSetBufferAddress.ID:
                         order = new OrderSetBufferAddress(buffer);
                         break;
                     case OrderRepeatToAddress.ID:
-                        order = new OrderRepeatToAddress(buffer);
+                        order = new OrderRepeatToAddress(buffer, codePage);
                         break;
                     case OrderStartField.ID:
                         order = new OrderStartField(buffer);
@@ -831,11 +925,20 @@ public class NetworkThread extends Thread {
                 }
                 orders.add(order);
             } else {
-                if (orderText == null) {
-                    orderText = new OrderText();
-                    orders.add(orderText);
+                // *** Find the end of the text run and decode it in one go
+                int textStart = buffer.position() - 1;
+                int textEnd = buffer.position();
+                int limit = buffer.limit();
+                while (textEnd < limit) {
+                    byte textByte = buffer.get(textEnd);
+                    if (textByte > 0x00 && textByte <= 0x3f) {
+                        break;
+                    }
+                    textEnd++;
                 }
-                orderText.append(orderByte);
+                buffer.position(textEnd);
+
+                orders.add(new OrderText(buffer, textStart, textEnd - textStart, codePage));
             }
         }
         return orders;
@@ -863,6 +966,46 @@ public class NetworkThread extends Thread {
         return new Inbound3270Message(commandCode, structuredFields);
     }
 
+    /**
+     * Read a message terminated by IAC EOR into the message buffer, which is reused for 
+     * each message and grown when needed.  The returned buffer is only valid until the 
+     * next message is read.
+     * 
+     * @param header - the first byte of the message, already read
+     * @param messageStream - the stream to read the rest of the message from
+     * @return the message, without the IAC EOR and with any doubled IAC undone
+     * @throws IOException - if the stream fails
+     * @throws NetworkException - if the stream ends before the IAC EOR
+     */
+    private ByteBuffer readMessage(byte header, InputStream messageStream) throws IOException, NetworkException {
+        byte[] message = this.messageBuffer;
+        message[0] = header;
+        int length = 1;
+
+        boolean lastByteFF = false;
+        int b;
+        while ((b = messageStream.read()) != -1) {
+            byte data = (byte) b;
+            if (data == IAC && !lastByteFF) {
+                lastByteFF = true;
+                continue;
+            }
+
+            if (data == EOR && lastByteFF) {
+                return ByteBuffer.wrap(message, 0, length);
+            }
+            lastByteFF = false;
+
+            if (length == message.length) {
+                message = Arrays.copyOf(message, message.length * 2);
+                this.messageBuffer = message;
+            }
+            message[length++] = data;
+        }
+
+        throw new NetworkException("3270 message did not terminate with IAC EOR");
+    }
+
     public static ByteBuffer readTerminatedMessage(byte header, InputStream messageStream) throws IOException, NetworkException {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 
@@ -898,6 +1041,72 @@ public class NetworkThread extends Thread {
         return ByteBuffer.wrap(bytes);
     }
 
+    /**
+     * Work out if the buffer holds a complete message, in the same units that processMessage() reads them, 
+     * so that a selector can pass it complete messages.  Does not change the position of the buffer.
+     * 
+     * @param buffer - the inbound data, from the position to the limit
+     * @return the length of the first message, or -1 if it has not all arrived yet
+     */
+    public static int completeMessageLength(ByteBuffer buffer) {
+        int start = buffer.position();
+        int available = buffer.remaining();
+        if (available < 1) {
+            return -1;
+        }
+
+        if (buffer.get(start) != IAC) {
+            // *** 3270 record, terminated by IAC EOR
+            return terminatedLength(buffer, start, 1, EOR);
+        }
+
+        if (available < 2) {
+            return -1;
+        }
+
+        byte command = buffer.get(start + 1);
+        if (command == SB) {
+            return terminatedLength(buffer, start, 2, SE);
+        }
+
+        if (command == DO || command == DONT || command == WILL || command == WONT) {
+            if (available < 3) {
+                return -1;
+            }
+
+            // *** DO EOR and DO BINARY are read along with the IAC WILL that follows them
+            byte option = buffer.get(start + 2);
+            if (command == DO && (option == TELNET_EOR || option == TELNET_BINARY)) {
+                return (available < 6) ? -1 : 6;
+            }
+            return 3;
+        }
+
+        return 2;
+    }
+
+    private static int terminatedLength(ByteBuffer buffer, int start, int offset, byte terminator) {
+        int limit = buffer.limit();
+        int pos = start + offset;
+        while (pos < limit) {
+            if (buffer.get(pos) == IAC) {
+                if (pos + 1 >= limit) {
+                    return -1;
+                }
+                byte next = buffer.get(pos + 1);
+                if (next == terminator) {
+                    return pos + 2 - start;
+                }
+                if (next == IAC) {
+                    pos += 2;
+                    continue;
+                }
+            }
+            pos++;
+        }
+        return -1;
+    }
+
     public ByteBuffer readTerminatedSB(InputStream messageStream) throws IOException, NetworkException {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 
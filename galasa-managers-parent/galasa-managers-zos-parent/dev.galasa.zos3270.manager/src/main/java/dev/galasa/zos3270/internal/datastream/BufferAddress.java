@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.internal.datastream;
 
@@ -25,28 +25,7 @@ public class BufferAddress {
     private int                   address = 0;
 
     public BufferAddress(ByteBuffer buffer) throws DatastreamException {
-        byte[] data = new byte[4];
-        try {
-            data[0] = 0;
-            data[1] = 0;
-            data[2] = buffer.get();
-            data[3] = buffer.get();
-        } catch (BufferUnderflowException e) {
-            throw new DatastreamException("Buffer Address terminated too early", e);
-        }
-
-        ByteBuffer toInt = ByteBuffer.wrap(data);
-
-        int preConv = toInt.getInt();
-
-        if ((preConv & 0xc000) == 0) {
-            this.address = preConv;
-        } else {
-            int left = (preConv & 0x3f00) >> 2;
-            int right = (preConv & 0x3f);
-
-            this.address = left | right;
-        }
+        this.address = decode(buffer);
     }
 
     public BufferAddress(int address) {
@@ -77,6 +56,32 @@ public class BufferAddress {
         return Integer.toString(address);
     }
 
+    /**
+     * Decode the next two bytes of the datastream as a 12 or 14 bit buffer address
+     * without creating a BufferAddress
+     * 
+     * @param buffer - the datastream, positioned at the address
+     * @return the buffer address
+     * @throws DatastreamException - if the datastream ends within the address
+     */
+    public static int decode(ByteBuffer buffer) throws DatastreamException {
+        int preConv;
+        try {
+            preConv = ((buffer.get() & 0xff) << 8) | (buffer.get() & 0xff);
+        } catch (BufferUnderflowException e) {
+            throw new DatastreamException("Buffer Address terminated too early", e);
+        }
+
+        if ((preConv & 0xc000) == 0) {
+            return preConv;
+        }
+
+        int left = (preConv & 0x3f00) >> 2;
+        int right = (preConv & 0x3f);
+
+        return left | right;
+    }
+
     public static byte[] getAddressChars() {
         return chars;
     }
@@ -0,0 +1,141 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.datastream;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dev.galasa.zos3270.Zos3270Exception;
+
+/**
+ * Table driven translation between a single byte EBCDIC code page and Unicode.
+ *
+ * The tables are built once from the Java charset when the code page is first
+ * requested, after that every translation is an array lookup.
+ */
+public class CodePage {
+
+    public static final String                                DEFAULT_CODE_PAGE = "037";
+
+    private static final ConcurrentHashMap<String, CodePage> codePages         = new ConcurrentHashMap<>();
+
+    private static final CodePage                             defaultCodePage   = new CodePage(DEFAULT_CODE_PAGE,
+            Charset.forName("Cp037"));
+
+    private final String                                      name;
+    private final Charset                                     charset;
+    private final char[]                                      toUnicode         = new char[256];
+    private final byte[]                                      toEbcdic          = new byte[65536];
+
+    private CodePage(String name, Charset charset) {
+        this.name = name;
+        this.charset = charset;
+
+        byte[] allBytes = new byte[256];
+        for (int i = 0; i < allBytes.length; i++) {
+            allBytes[i] = (byte) i;
+        }
+        String decoded = new String(allBytes, charset);
+
+        // *** Characters that are not in the code page are sent as the charset replacement, as String.getBytes() did
+        Arrays.fill(this.toEbcdic, "?".getBytes(charset)[0]);
+
+        for (int i = 0; i < allBytes.length; i++) {
+            char c = decoded.charAt(i);
+            this.toUnicode[i] = c;
+
+            if (String.valueOf(c).getBytes(charset)[0] == allBytes[i]) {
+                this.toEbcdic[c] = allBytes[i];
+            }
+        }
+    }
+
+    /**
+     * @return The code page used when none has been configured, 037
+     */
+    public static CodePage getDefault() {
+        return defaultCodePage;
+    }
+
+    /**
+     * Return the code page, either the number, eg 037, 1047, 285, or the Java charset name
+     *
+     * @param codePageName - the code page
+     * @return the code page
+     * @throws Zos3270Exception - if the code page is not supported or is not a single byte code page
+     */
+    public static CodePage getCodePage(String codePageName) throws Zos3270Exception {
+        if (codePageName == null || codePageName.trim().isEmpty()) {
+            return defaultCodePage;
+        }
+
+        String name = codePageName.trim();
+        CodePage codePage = codePages.get(name);
+        if (codePage != null) {
+            return codePage;
+        }
+
+        String charsetName = name;
+        if (name.matches("\\d+")) {
+            charsetName = String.format("Cp%03d", Integer.parseInt(name));
+        }
+
+        Charset charset;
+        try {
+            charset = Charset.forName(charsetName);
+        } catch (Exception e) {
+            throw new Zos3270Exception("Unsupported code page '" + codePageName + "'", e);
+        }
+
+        if (charset.newEncoder().maxBytesPerChar() != 1 || new String(new byte[256], charset).length() != 256) {
+            throw new Zos3270Exception("Code page '" + codePageName + "' is not a single byte code page");
+        }
+
+        codePage = new CodePage(name, charset);
+        CodePage existing = codePages.putIfAbsent(name, codePage);
+        if (existing != null) {
+            return existing;
+        }
+        return codePage;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    public char decode(byte ebcdic) {
+        return this.toUnicode[ebcdic & 0xff];
+    }
+
+    public byte encode(char c) {
+        return this.toEbcdic[c];
+    }
+
+    /**
+     * Encode a string, each character becomes one byte
+     *
+     * @param text - the text to encode
+     * @return the EBCDIC bytes
+     */
+    public byte[] encode(String text) {
+        byte[] result = new byte[text.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.toEbcdic[text.charAt(i)];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CodePage(" + this.name + ")";
+    }
+
+}
@@ -1,39 +1,44 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.internal.datastream;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
 
 import dev.galasa.zos3270.spi.DatastreamException;
 
 public class OrderRepeatToAddress extends AbstractOrder {
 
-    private static final Charset ebcdic = Charset.forName("Cp037");
-
     public static final byte     ID     = 0x3c;
 
     private final BufferAddress  bufferAddress;
 
     private final char           repeatChar;
 
+    private final CodePage       codePage;
+
     public OrderRepeatToAddress(ByteBuffer buffer) throws DatastreamException {
+        this(buffer, CodePage.getDefault());
+    }
+
+    public OrderRepeatToAddress(ByteBuffer buffer, CodePage codePage) throws DatastreamException {
         this.bufferAddress = new BufferAddress(buffer);
+        this.codePage = codePage;
 
-        byte[] charByte = new byte[] { buffer.get() };
-        if (charByte[0] == -1) {
-            charByte[0] = 0x00;
+        byte charByte = buffer.get();
+        if (charByte == -1) {
+            charByte = 0x00;
         }
 
-        repeatChar = ebcdic.decode(ByteBuffer.wrap(charByte)).array()[0];
+        repeatChar = codePage.decode(charByte);
     }
 
     public OrderRepeatToAddress(char repeatChar, BufferAddress bufferAddress) {
         this.bufferAddress = bufferAddress;
         this.repeatChar = repeatChar;
+        this.codePage = CodePage.getDefault();
     }
 
     @Override
@@ -56,7 +61,7 @@ public class OrderRepeatToAddress extends AbstractOrder {
         buffer[0] = ID;
         buffer[1] = ba[0];
         buffer[2] = ba[1];
-        buffer[3] = String.valueOf(repeatChar).getBytes(ebcdic)[0];
+        buffer[3] = this.codePage.encode(repeatChar);
 
         return buffer;
     }
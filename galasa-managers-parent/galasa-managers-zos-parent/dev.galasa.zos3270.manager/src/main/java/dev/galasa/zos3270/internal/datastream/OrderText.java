@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.internal.datastream;
 
@@ -21,13 +21,33 @@ public class OrderText extends AbstractOrder {
         this.text.append(newText);
     }
 
+    /**
+     * Decode a run of text bytes from the datastream in one go
+     * 
+     * @param buffer - the datastream
+     * @param offset - absolute position of the first text byte
+     * @param length - number of text bytes
+     * @param codePage - the code page of the terminal
+     */
+    public OrderText(ByteBuffer buffer, int offset, int length, CodePage codePage) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            byte data = buffer.get(offset + i);
+            if (data == -1) {
+                chars[i] = 0x00;
+            } else {
+                chars[i] = codePage.decode(data);
+            }
+        }
+        this.text.append(chars);
+    }
+
     public void append(byte data) {
         if (data == -1) {
             data = 0x00;
         }
 
-        byte[] charByte = new byte[] { data };
-        text.append(ebcdic.decode(ByteBuffer.wrap(charByte)).array()[0]);
+        text.append(CodePage.getDefault().decode(data));
     }
 
     @Override
@@ -1,6 +1,6 @@
 package dev.galasa.zos3270.internal.gherkin;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import dev.galasa.ManagerException;
 import dev.galasa.framework.spi.AbstractManager;
@@ -17,8 +17,9 @@ public class Gherkin3270Coordinator {
     
     private final GherkinTest test;
     
-    private final HashMap<String, Zos3270TerminalImpl> terminals = new HashMap<>();
-    private final HashMap<String, String> terminalImageTags = new HashMap<>();
+    //*** Statements may be run from several scenario threads at once
+    private final ConcurrentHashMap<String, Zos3270TerminalImpl> terminals = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> terminalImageTags = new ConcurrentHashMap<>();
     
     public Gherkin3270Coordinator(Zos3270ManagerImpl manager, GherkinTest gherkinTest) {
         this.manager = manager;
@@ -53,8 +54,8 @@ public class Gherkin3270Coordinator {
     }
 
     protected void registerTerminal(String id, Zos3270TerminalImpl terminal, String imageTag) {
-        this.terminals.put(id, terminal);
         this.terminalImageTags.put(id, imageTag);
+        this.terminals.put(id, terminal);
     }
 
     public void provisionGenerate() throws Zos3270ManagerException {
@@ -0,0 +1,188 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.osgi.service.component.annotations.Component;
+
+import dev.galasa.framework.spi.AbstractManager;
+import dev.galasa.framework.spi.DynamicStatusStoreException;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.IMetricsProvider;
+import dev.galasa.framework.spi.IMetricsServer;
+import dev.galasa.framework.spi.MetricsServerException;
+import dev.galasa.zos3270.spi.ResponseHistogram;
+import dev.galasa.zos3270.spi.TerminalStatistics;
+import io.prometheus.client.Gauge;
+
+/**
+ * Publishes the 3270 response times and traffic of all the runs.  Each run adds its
+ * terminal statistics to running totals in the DSS at the end of the test, and the
+ * totals are polled into Prometheus gauges.
+ */
+@Component(service= {IMetricsProvider.class})
+public class Zos3270Metrics implements IMetricsProvider, Runnable {
+
+    private static final Log                   staticLogger     = LogFactory.getLog(Zos3270Metrics.class);
+
+    private static final String                RESPONSES        = "metrics.responses";
+    private static final String                RESPONSE_MILLIS  = "metrics.response.millis";
+    private static final String                RESPONSES_WITHIN = "metrics.responses.within.";
+    private static final String                SCREENS          = "metrics.screens";
+    private static final String                BYTES_SENT       = "metrics.bytes.sent";
+    private static final String                BYTES_RECEIVED   = "metrics.bytes.received";
+
+    private static final long[]                WITHIN_MILLIS    = { 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    private static final int                   UPDATE_ATTEMPTS  = 10;
+
+    private final Log                          logger = LogFactory.getLog(getClass());
+    private IFramework                         framework;
+    private IMetricsServer                     metricsServer;
+    private IDynamicStatusStoreService         dss;
+
+    private Gauge                              responses;
+    private Gauge                              responseSeconds;
+    private Gauge                              responsesWithin;
+    private Gauge                              screens;
+    private Gauge                              bytesSent;
+    private Gauge                              bytesReceived;
+
+    @Override
+    public boolean initialise(IFramework framework, IMetricsServer metricsServer) throws MetricsServerException {
+        this.framework = framework;
+        this.metricsServer = metricsServer;
+        try {
+            this.dss = this.framework.getDynamicStatusStoreService("zos3270");
+        } catch (Exception e) {
+            throw new MetricsServerException("Unable to initialise zOS 3270 Metrics", e);
+        }
+
+        this.responses = Gauge.build()
+                .name("galasa_zos3270_responses_total")
+                .help("How many 3270 attention keys have been answered by the host")
+                .register();
+        this.responseSeconds = Gauge.build()
+                .name("galasa_zos3270_response_seconds_total")
+                .help("The total time from attention key to keyboard unlock")
+                .register();
+        this.responsesWithin = Gauge.build()
+                .name("galasa_zos3270_responses_within_total")
+                .help("How many 3270 responses were within the number of seconds")
+                .labelNames("le")
+                .register();
+        this.screens = Gauge.build()
+                .name("galasa_zos3270_screens_total")
+                .help("How many 3270 screens have been received")
+                .register();
+        this.bytesSent = Gauge.build()
+                .name("galasa_zos3270_sent_bytes_total")
+                .help("How many bytes of 3270 datastream have been sent")
+                .register();
+        this.bytesReceived = Gauge.build()
+                .name("galasa_zos3270_received_bytes_total")
+                .help("How many bytes of 3270 datastream have been received")
+                .register();
+
+        return true;
+    }
+
+    @Override
+    public void start() {
+        this.metricsServer.getScheduledExecutorService().scheduleWithFixedDelay(this,
+                1,
+                10,
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public void run() {
+        logger.info("zOS 3270 Poll");
+
+        try {
+            this.responses.set(getMetric(RESPONSES));
+            this.responseSeconds.set(getMetric(RESPONSE_MILLIS) / 1000.0);
+            for (long within : WITHIN_MILLIS) {
+                this.responsesWithin.labels(Double.toString(within / 1000.0)).set(getMetric(RESPONSES_WITHIN + within));
+            }
+            this.screens.set(getMetric(SCREENS));
+            this.bytesSent.set(getMetric(BYTES_SENT));
+            this.bytesReceived.set(getMetric(BYTES_RECEIVED));
+
+            this.metricsServer.metricsPollSuccessful();
+        } catch(Exception e) {
+            logger.error("Problem with zOS 3270 poll",e);
+        }
+    }
+
+    private double getMetric(String key) throws DynamicStatusStoreException {
+        String value = AbstractManager.nulled(this.dss.get(key));
+        if (value == null) {
+            return 0.0;
+        }
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Add the statistics of a run's terminals to the totals in the DSS
+     *
+     * @param dss - the zos3270 DSS
+     * @param terminals - the statistics of each terminal in the run
+     * @throws DynamicStatusStoreException - if the DSS cannot be read or updated
+     */
+    public static void recordRun(IDynamicStatusStoreService dss, List<TerminalStatistics> terminals) throws DynamicStatusStoreException {
+        LinkedHashMap<String, Long> totals = new LinkedHashMap<>();
+        for (TerminalStatistics terminal : terminals) {
+            ResponseHistogram responseTimes = terminal.getResponseTimes();
+            add(totals, RESPONSES, responseTimes.getCount());
+            add(totals, RESPONSE_MILLIS, Math.round(responseTimes.getTotal()));
+            for (long within : WITHIN_MILLIS) {
+                add(totals, RESPONSES_WITHIN + within, responseTimes.getCountAtOrBelow(within));
+            }
+            add(totals, SCREENS, terminal.getScreensReceived());
+            add(totals, BYTES_SENT, terminal.getBytesSent());
+            add(totals, BYTES_RECEIVED, terminal.getBytesReceived());
+        }
+
+        for (Map.Entry<String, Long> total : totals.entrySet()) {
+            if (total.getValue() > 0) {
+                addToMetric(dss, total.getKey(), total.getValue());
+            }
+        }
+    }
+
+    private static void add(Map<String, Long> totals, String key, long value) {
+        Long total = totals.get(key);
+        totals.put(key, (total == null) ? value : total + value);
+    }
+
+    private static void addToMetric(IDynamicStatusStoreService dss, String key, long amount) throws DynamicStatusStoreException {
+        for (int attempt = 0; attempt < UPDATE_ATTEMPTS; attempt++) {
+            String current = dss.get(key);
+            long value = amount;
+            if (current != null) {
+                value += Long.parseLong(current);
+            }
+            //*** Another run may have updated the total whilst this was running, so try again with the new value
+            if (dss.putSwap(key, current, Long.toString(value))) {
+                return;
+            }
+        }
+        staticLogger.warn("Unable to add to the 3270 metric " + key + ", too many runs updating it");
+    }
+
+}
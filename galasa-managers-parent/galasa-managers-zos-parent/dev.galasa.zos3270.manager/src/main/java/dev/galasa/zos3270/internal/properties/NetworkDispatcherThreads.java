@@ -0,0 +1,35 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The number of threads that apply the inbound datastreams of the selector driven terminals
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.network.dispatcher.threads=8
+ * </p>
+ * <p>
+ * default is 8.  Only used when zos3270.network.selector.threads is set, the threads are 
+ * shared by all the terminals in the JVM
+ * </p>
+ */
+public class NetworkDispatcherThreads extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        String threads = getStringWithDefault(Zos3270PropertiesSingleton.cps(), "8", "network.dispatcher", "threads");
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            throw new Zos3270ManagerException("Invalid value '" + threads + "' for zos3270.network.dispatcher.threads", e);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The number of selector threads to drive the terminal connections with
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.network.selector.threads=4
+ * </p>
+ * <p>
+ * default is 0, which gives each terminal its own network thread.  When set, all the terminals 
+ * in the JVM share a selector with this many threads
+ * </p>
+ */
+public class NetworkSelectorThreads extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        String threads = getStringWithDefault(Zos3270PropertiesSingleton.cps(), "0", "network.selector", "threads");
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            throw new Zos3270ManagerException("Invalid value '" + threads + "' for zos3270.network.selector.threads", e);
+        }
+    }
+
+}
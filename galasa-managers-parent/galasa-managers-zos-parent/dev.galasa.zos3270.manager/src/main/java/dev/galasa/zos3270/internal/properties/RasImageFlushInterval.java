@@ -0,0 +1,34 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The longest time in seconds a terminal image waits before it is written to the RAS, 0 to only write full batches
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.ras.flush.interval=30
+ * </p>
+ * <p>
+ * default is 30
+ * </p>
+ */
+public class RasImageFlushInterval extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        String value = getStringWithDefault(Zos3270PropertiesSingleton.cps(), "30", "terminal.ras", "flush.interval");
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new Zos3270ManagerException("Invalid value '" + value + "' for zos3270.terminal.ras.flush.interval", e);
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * How often a full terminal image is written to the RAS, 1 to write only full images
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.ras.keyframe.interval=10
+ * </p>
+ * <p>
+ * default is 10
+ * </p>
+ */
+public class RasImageKeyframeInterval extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        String value = getStringWithDefault(Zos3270PropertiesSingleton.cps(), "10", "terminal.ras", "keyframe.interval");
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new Zos3270ManagerException("Invalid value '" + value + "' for zos3270.terminal.ras.keyframe.interval", e);
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The number of terminal images that can be waiting to be written to the RAS, images are discarded if the RAS falls this far behind
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.ras.queue.size=1000
+ * </p>
+ * <p>
+ * default is 1000
+ * </p>
+ */
+public class RasImageQueueSize extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        String value = getStringWithDefault(Zos3270PropertiesSingleton.cps(), "1000", "terminal.ras", "queue.size");
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new Zos3270ManagerException("Invalid value '" + value + "' for zos3270.terminal.ras.queue.size", e);
+        }
+    }
+
+}
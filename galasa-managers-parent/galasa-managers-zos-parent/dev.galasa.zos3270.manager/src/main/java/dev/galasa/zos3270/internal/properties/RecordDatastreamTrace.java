@@ -0,0 +1,31 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * Are the raw inbound datastreams of the terminals recorded to the RAS, so the run can be 
+ * replayed offline with DatastreamReplay
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.datastream.trace=true
+ * </p>
+ * <p>
+ * default is FALSE
+ * </p>
+ */
+public class RecordDatastreamTrace extends CpsProperties {
+
+    public static boolean get() throws Zos3270ManagerException {
+        return Boolean.parseBoolean(
+                getStringWithDefault(Zos3270PropertiesSingleton.cps(), "false", "terminal.datastream", "trace"));
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.Zos3270ManagerException;
+import dev.galasa.zos3270.internal.datastream.CodePage;
+
+/**
+ * The EBCDIC code page the 3270 datastream is translated with
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.image.xxxxxx.codepage=1047
+ * </p>
+ * <p>
+ * default is 037, any single byte code page supported by the JVM may be used, eg 037, 1047, 285, 500
+ * </p>
+ */
+public class TerminalCodePage extends CpsProperties {
+
+    public static CodePage get(IZosImage image) throws Zos3270ManagerException {
+        String codePage = getStringWithDefault(Zos3270PropertiesSingleton.cps(), CodePage.DEFAULT_CODE_PAGE, "image", "codepage", image.getImageID());
+        try {
+            return CodePage.getCodePage(codePage);
+        } catch (Zos3270Exception e) {
+            throw new Zos3270ManagerException("Invalid code page for image " + image.getImageID(), e);
+        }
+    }
+
+}
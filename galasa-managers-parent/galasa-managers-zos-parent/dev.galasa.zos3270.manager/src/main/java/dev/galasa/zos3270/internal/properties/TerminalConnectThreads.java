@@ -0,0 +1,34 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The number of terminals to connect at the same time when the test starts
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.terminal.connect.threads=10
+ * </p>
+ * <p>
+ * default is 10, 1 connects the terminals one at a time
+ * </p>
+ */
+public class TerminalConnectThreads extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        String threads = getStringWithDefault(Zos3270PropertiesSingleton.cps(), "10", "terminal.connect", "threads");
+        try {
+            return Integer.parseInt(threads.trim());
+        } catch (NumberFormatException e) {
+            throw new Zos3270ManagerException("Invalid value '" + threads + "' for zos3270.terminal.connect.threads", e);
+        }
+    }
+
+}
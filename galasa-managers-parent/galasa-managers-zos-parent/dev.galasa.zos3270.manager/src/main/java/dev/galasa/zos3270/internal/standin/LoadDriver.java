@@ -0,0 +1,268 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.standin;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IScreenUpdateListener;
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.spi.Terminal;
+
+/**
+ * Drives a number of terminal sessions against a host, usually a StandInHost,
+ * pressing keys as fast as the host answers them, and reports the throughput and
+ * response times.
+ *
+ * All the sessions connect and wait for the first screen before the measurement
+ * starts, so the report only covers the interactions.
+ */
+public class LoadDriver {
+
+    /**
+     * Creates the terminals for the sessions, so the managers own terminal, eg Zos3270TerminalImpl,
+     * can be measured
+     */
+    public interface ITerminalFactory {
+        Terminal newTerminal(String id, String host, int port) throws Zos3270Exception, TerminalInterruptedException;
+    }
+
+    private final Log                 logger       = LogFactory.getLog(getClass());
+
+    private final String              host;
+    private final int                 port;
+    private final int                 sessionCount;
+
+    private int                       interactions = 100;
+    private AttentionIdentification[] aids         = new AttentionIdentification[] { AttentionIdentification.ENTER };
+    private long                      timeout      = 30_000;
+    private ITerminalFactory          terminalFactory = new ITerminalFactory() {
+        @Override
+        public Terminal newTerminal(String id, String host, int port) throws TerminalInterruptedException {
+            return new Terminal(id, host, port);
+        }
+    };
+
+    /**
+     * @param host - the host to connect to
+     * @param port - the port
+     * @param sessions - the number of terminal sessions to drive at the same time
+     */
+    public LoadDriver(String host, int port, int sessions) {
+        this.host = host;
+        this.port = port;
+        this.sessionCount = sessions;
+    }
+
+    /**
+     * @param interactions - the number of keys each session presses, default 100
+     */
+    public void setInteractions(int interactions) {
+        this.interactions = interactions;
+    }
+
+    /**
+     * @param aids - the keys to press in turn, default ENTER
+     */
+    public void setAids(AttentionIdentification... aids) {
+        if (aids == null || aids.length == 0) {
+            throw new IllegalArgumentException("At least one AID is required");
+        }
+        this.aids = aids.clone();
+    }
+
+    /**
+     * @param timeout - milliseconds to wait for the keyboard to unlock, default 30 seconds
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public void setTerminalFactory(ITerminalFactory terminalFactory) {
+        this.terminalFactory = terminalFactory;
+    }
+
+    /**
+     * Run the sessions and wait for them all to finish
+     *
+     * @return the measurements
+     * @throws TerminalInterruptedException - if interrupted while waiting
+     */
+    public LoadReport run() throws TerminalInterruptedException {
+        CountDownLatch ready = new CountDownLatch(this.sessionCount);
+        CountDownLatch go = new CountDownLatch(1);
+
+        ArrayList<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < this.sessionCount; i++) {
+            Session session = new Session(String.format("LOAD%04d", i + 1), ready, go);
+            sessions.add(session);
+            session.start();
+        }
+
+        long startTime;
+        try {
+            ready.await();
+            startTime = System.nanoTime();
+            go.countDown();
+
+            for (Session session : sessions) {
+                session.join();
+            }
+        } catch (InterruptedException e) {
+            for (Session session : sessions) {
+                session.interrupt();
+            }
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Interrupted waiting for the load sessions", e);
+        }
+
+        long endTime = startTime;
+        int failed = 0;
+        long screens = 0;
+        int interactionCount = 0;
+        for (Session session : sessions) {
+            if (session.failed) {
+                failed++;
+            }
+            endTime = Math.max(endTime, session.endTime);
+            screens += session.timer.getScreens();
+            interactionCount += session.completed;
+        }
+
+        long[] roundTrips = new long[interactionCount];
+        long[] unlocks = new long[interactionCount];
+        int index = 0;
+        for (Session session : sessions) {
+            System.arraycopy(session.roundTrips, 0, roundTrips, index, session.completed);
+            System.arraycopy(session.unlocks, 0, unlocks, index, session.completed);
+            index += session.completed;
+        }
+
+        return new LoadReport(this.sessionCount, failed, screens, endTime - startTime, roundTrips, unlocks);
+    }
+
+    /**
+     * Notes when the first screen arrives after an AID, and counts the screens
+     */
+    private static class ResponseTimer implements IScreenUpdateListener {
+        private volatile boolean measuring;
+        private long             firstResponse;
+        private long             screens;
+
+        synchronized void aidSending() {
+            this.firstResponse = 0;
+        }
+
+        @Override
+        public synchronized void screenUpdated(Direction direction, AttentionIdentification aid) {
+            if (direction != Direction.RECEIVED || !this.measuring) {
+                return;
+            }
+
+            this.screens++;
+            if (this.firstResponse == 0) {
+                this.firstResponse = System.nanoTime();
+                notifyAll();
+            }
+        }
+
+        /**
+         * The screen listeners are called after the keyboard is unlocked, so wait for
+         * the listener to have seen the reply
+         */
+        synchronized long waitForResponse(long timeout) throws InterruptedException {
+            long expire = System.currentTimeMillis() + timeout;
+            while (this.firstResponse == 0) {
+                long remaining = expire - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return 0;
+                }
+                wait(remaining);
+            }
+            return this.firstResponse;
+        }
+
+        synchronized long getScreens() {
+            return this.screens;
+        }
+    }
+
+    private class Session extends Thread {
+        private final String         terminalId;
+        private final CountDownLatch ready;
+        private final CountDownLatch go;
+
+        private final ResponseTimer  timer      = new ResponseTimer();
+        private final long[]         roundTrips = new long[interactions];
+        private final long[]         unlocks    = new long[interactions];
+        private int                  completed;
+        private boolean              failed;
+        private long                 endTime;
+
+        Session(String terminalId, CountDownLatch ready, CountDownLatch go) {
+            super("3270 load " + terminalId);
+            this.terminalId = terminalId;
+            this.ready = ready;
+            this.go = go;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Terminal terminal = null;
+            boolean counted = false;
+            try {
+                terminal = terminalFactory.newTerminal(this.terminalId, host, port);
+                terminal.getScreen().registerScreenUpdateListener(this.timer);
+                terminal.connect();
+                terminal.waitForKeyboard(timeout);
+
+                this.ready.countDown();
+                counted = true;
+                this.go.await();
+
+                this.timer.measuring = true;
+                for (int i = 0; i < interactions; i++) {
+                    this.timer.aidSending();
+                    long sent = System.nanoTime();
+                    terminal.aid(aids[i % aids.length]);
+                    terminal.waitForKeyboard(timeout);
+                    long unlocked = System.nanoTime();
+
+                    long response = this.timer.waitForResponse(timeout);
+                    this.roundTrips[i] = ((response == 0) ? unlocked : response) - sent;
+                    this.unlocks[i] = unlocked - sent;
+                    this.completed++;
+                }
+            } catch (InterruptedException e) {
+                this.failed = true;
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                this.failed = true;
+                logger.error("Load session " + this.terminalId + " failed", e);
+            } finally {
+                this.endTime = System.nanoTime();
+                this.timer.measuring = false;
+                if (!counted) {
+                    this.ready.countDown();
+                }
+                if (terminal != null) {
+                    try {
+                        terminal.disconnect();
+                    } catch (TerminalInterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+}
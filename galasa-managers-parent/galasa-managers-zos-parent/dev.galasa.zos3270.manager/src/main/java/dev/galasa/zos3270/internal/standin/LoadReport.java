@@ -0,0 +1,110 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.standin;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput and response times measured by a LoadDriver run
+ */
+public class LoadReport {
+
+    private final int    sessions;
+    private final int    failedSessions;
+    private final long   screens;
+    private final long   elapsedNanos;
+    private final long[] aidRoundTrips;
+    private final long[] keyboardUnlocks;
+
+    public LoadReport(int sessions, int failedSessions, long screens, long elapsedNanos, long[] aidRoundTrips,
+            long[] keyboardUnlocks) {
+        this.sessions = sessions;
+        this.failedSessions = failedSessions;
+        this.screens = screens;
+        this.elapsedNanos = elapsedNanos;
+        this.aidRoundTrips = aidRoundTrips.clone();
+        this.keyboardUnlocks = keyboardUnlocks.clone();
+        Arrays.sort(this.aidRoundTrips);
+        Arrays.sort(this.keyboardUnlocks);
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public int getFailedSessions() {
+        return failedSessions;
+    }
+
+    /**
+     * @return the number of AIDs that were answered
+     */
+    public int getInteractions() {
+        return this.keyboardUnlocks.length;
+    }
+
+    /**
+     * @return the screens received by all the sessions while measuring
+     */
+    public long getScreens() {
+        return screens;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+    }
+
+    public double getScreensPerSecond() {
+        if (this.elapsedNanos <= 0) {
+            return 0;
+        }
+        return this.screens * 1_000_000_000.0 / this.elapsedNanos;
+    }
+
+    /**
+     * Time from sending the AID to the first screen update in reply
+     *
+     * @param percentile - 0 to 100
+     * @return milliseconds
+     */
+    public double getAidRoundTrip(double percentile) {
+        return percentile(this.aidRoundTrips, percentile);
+    }
+
+    /**
+     * Time from sending the AID until the keyboard is unlocked
+     *
+     * @param percentile - 0 to 100
+     * @return milliseconds
+     */
+    public double getKeyboardUnlock(double percentile) {
+        return percentile(this.keyboardUnlocks, percentile);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        rank = Math.max(1, Math.min(sorted.length, rank));
+        return sorted[rank - 1] / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "sessions=%d failed=%d interactions=%d screens=%d elapsed=%dms screens/s=%.1f "
+                        + "aid round trip ms p50=%.2f p95=%.2f p99=%.2f max=%.2f "
+                        + "keyboard unlock ms p50=%.2f p95=%.2f p99=%.2f max=%.2f",
+                this.sessions, this.failedSessions, getInteractions(), this.screens, getElapsedMillis(),
+                getScreensPerSecond(),
+                getAidRoundTrip(50), getAidRoundTrip(95), getAidRoundTrip(99), getAidRoundTrip(100),
+                getKeyboardUnlock(50), getKeyboardUnlock(95), getKeyboardUnlock(99), getKeyboardUnlock(100));
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.standin;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.internal.comms.NetworkServer;
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * An in-process TN3270E host that plays a script to every client that connects,
+ * so the 3270 stack can be driven and measured without a mainframe.
+ *
+ * Each client gets its own thread and its own run through the script. The response
+ * latency is added before each screen sent in reply to the client, to stand in for
+ * the time the real application would take.
+ */
+public class StandInHost {
+
+    private final Log                                 logger    = LogFactory.getLog(getClass());
+
+    private final StandInScript                       script;
+    private volatile long                             responseLatency;
+
+    private ServerSocket                              serverSocket;
+    private Thread                                    acceptThread;
+    private volatile boolean                          closed    = false;
+
+    private final List<NetworkServer>                 sessions  = new CopyOnWriteArrayList<>();
+    private final AtomicInteger                       connected = new AtomicInteger();
+    private final AtomicInteger                       sessionId = new AtomicInteger();
+
+    /**
+     * @param script - the screen flow to play to each client
+     * @throws Zos3270Exception - if the script cannot be played
+     */
+    public StandInHost(StandInScript script) throws Zos3270Exception {
+        script.validate();
+        this.script = script;
+    }
+
+    /**
+     * @param milliseconds - the time to wait before replying to the client
+     */
+    public void setResponseLatency(long milliseconds) {
+        this.responseLatency = milliseconds;
+    }
+
+    /**
+     * Listen for clients on a free port of the loopback address
+     *
+     * @throws NetworkException - if the host cannot listen
+     */
+    public synchronized void start() throws NetworkException {
+        if (this.serverSocket != null) {
+            return;
+        }
+
+        try {
+            this.serverSocket = new ServerSocket();
+            this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 100);
+        } catch (IOException e) {
+            throw new NetworkException("Unable to start the stand-in host", e);
+        }
+
+        this.acceptThread = new Thread("3270 stand-in host") {
+            @Override
+            public void run() {
+                acceptClients();
+            }
+        };
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+    }
+
+    public String getHost() {
+        return this.serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of clients that have completed negotiation
+     */
+    public int getConnectedCount() {
+        return this.connected.get();
+    }
+
+    /**
+     * Stop listening and disconnect all the clients
+     */
+    public synchronized void close() {
+        this.closed = true;
+        if (this.serverSocket != null) {
+            try {
+                this.serverSocket.close();
+            } catch (IOException e) {
+                logger.warn("Problem closing the stand-in host", e);
+            }
+        }
+
+        for (NetworkServer session : this.sessions) {
+            session.close();
+        }
+        this.sessions.clear();
+
+        if (this.acceptThread != null) {
+            try {
+                this.acceptThread.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void acceptClients() {
+        while (!this.closed) {
+            final Socket socket;
+            try {
+                socket = this.serverSocket.accept();
+            } catch (IOException e) {
+                if (!this.closed) {
+                    logger.error("Stand-in host failed to accept a client", e);
+                }
+                return;
+            }
+
+            Thread sessionThread = new Thread("3270 stand-in session " + this.sessionId.incrementAndGet()) {
+                @Override
+                public void run() {
+                    playScript(socket);
+                }
+            };
+            sessionThread.setDaemon(true);
+            sessionThread.start();
+        }
+    }
+
+    private void playScript(Socket socket) {
+        NetworkServer session = null;
+        try {
+            session = new NetworkServer(socket);
+            this.sessions.add(session);
+            this.connected.incrementAndGet();
+
+            List<StandInScript.Step> steps = this.script.getSteps();
+            int loopStart = this.script.getLoopStart();
+
+            boolean replying = false;
+            byte[] lastScreen = null;
+            int index = 0;
+            while (!this.closed) {
+                if (index >= steps.size()) {
+                    if (loopStart < 0) {
+                        // *** Hold the session open like a real host, closing it would lock the client keyboard
+                        while (session.receiveDatastream() != null) {
+                            // *** Ignore anything more from the client
+                        }
+                        break;
+                    }
+                    index = loopStart;
+                }
+
+                StandInScript.Step step = steps.get(index++);
+                switch (step.getType()) {
+                    case SEND:
+                        if (replying) {
+                            pause(this.responseLatency);
+                            replying = false;
+                        }
+                        session.sendDatastream(step.getDatastream());
+                        lastScreen = step.getDatastream();
+                        break;
+                    case RECEIVE:
+                        if (!receive(session, step.getAid(), lastScreen)) {
+                            return;
+                        }
+                        replying = true;
+                        break;
+                    case DELAY:
+                        pause(step.getDelay());
+                        break;
+                }
+            }
+        } catch (NetworkException e) {
+            if (!this.closed && !socket.isClosed()) {
+                logger.error("Stand-in host session failed", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (session != null) {
+                this.sessions.remove(session);
+                session.close();
+            } else {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    logger.warn("Problem closing stand-in client socket", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for the client to press the expected key, anything else redisplays the
+     * last screen as a real application would, so the client keyboard is unlocked again
+     *
+     * @param lastScreen - the last datastream sent, a script always starts with a send
+     * @return false if the client has disconnected
+     */
+    private boolean receive(NetworkServer session, AttentionIdentification expected, byte[] lastScreen)
+            throws NetworkException, InterruptedException {
+        while (true) {
+            byte[] inbound = session.receiveDatastream();
+            if (inbound == null) {
+                return false;
+            }
+
+            if (expected == null) {
+                return true;
+            }
+
+            if (inbound.length > 0 && inbound[0] == expected.getKeyValue()) {
+                return true;
+            }
+
+            if (logger.isDebugEnabled()) {
+                AttentionIdentification received = (inbound.length > 0) ? AttentionIdentification.valueOfAid(inbound[0]) : null;
+                logger.debug("Stand-in host expected " + expected + " but received " + received + ", redisplaying the screen");
+            }
+
+            pause(this.responseLatency);
+            session.sendDatastream(lastScreen);
+        }
+    }
+
+    private void pause(long milliseconds) throws InterruptedException {
+        if (milliseconds > 0) {
+            Thread.sleep(milliseconds);
+        }
+    }
+
+}
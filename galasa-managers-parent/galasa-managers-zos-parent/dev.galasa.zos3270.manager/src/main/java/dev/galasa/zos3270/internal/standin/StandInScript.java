@@ -0,0 +1,233 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.standin;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.internal.datastream.CodePage;
+import dev.galasa.zos3270.internal.datastream.OrderInsertCursor;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+
+/**
+ * The screen flow played by a stand-in host to each client that connects.
+ *
+ * The steps are played in order, sending screens, waiting for the client to
+ * press a key and pausing. The steps after loop() are repeated until the client
+ * disconnects, so a flow can be driven for as long as a load test needs.
+ *
+ * A script can be built in code, or loaded from text, one step per line:-<br>
+ * <code>send f5c3...</code> - send the datastream, in hex, as recorded from the trace<br>
+ * <code>receive ENTER</code> - wait for the AID, or any AID if none is given<br>
+ * <code>delay 100</code> - pause for the milliseconds<br>
+ * <code>loop</code> - repeat the steps that follow<br>
+ * Blank lines and lines starting # are ignored.
+ */
+public class StandInScript {
+
+    public enum StepType {
+        SEND,
+        RECEIVE,
+        DELAY
+    }
+
+    public static class Step {
+        private final StepType                type;
+        private final byte[]                  datastream;
+        private final AttentionIdentification aid;
+        private final long                    delay;
+
+        private Step(StepType type, byte[] datastream, AttentionIdentification aid, long delay) {
+            this.type = type;
+            this.datastream = datastream;
+            this.aid = aid;
+            this.delay = delay;
+        }
+
+        public StepType getType() {
+            return type;
+        }
+
+        public byte[] getDatastream() {
+            return datastream;
+        }
+
+        /**
+         * @return the expected AID, or null for any
+         */
+        public AttentionIdentification getAid() {
+            return aid;
+        }
+
+        public long getDelay() {
+            return delay;
+        }
+    }
+
+    private final ArrayList<Step> steps     = new ArrayList<>();
+    private int                   loopStart = -1;
+
+    /**
+     * Send a datastream to the client
+     *
+     * @param datastream - the command code, write control character and orders
+     * @return this script
+     */
+    public StandInScript send(byte[] datastream) {
+        this.steps.add(new Step(StepType.SEND, datastream.clone(), null, 0));
+        return this;
+    }
+
+    /**
+     * Send a screen of protected text with an input field after it, erasing the
+     * screen and unlocking the keyboard
+     *
+     * @param text - the text to show
+     * @return this script
+     */
+    public StandInScript sendScreen(String text) {
+        ByteArrayOutputStream datastream = new ByteArrayOutputStream();
+        datastream.write(AbstractCommandCode.ERASE_WRITE);
+        datastream.write(new WriteControlCharacter(false, false, false, false, false, false, true, true).getBytes()[0]);
+
+        byte[] sf = new OrderStartField(true, false, true, false, false, false).getBytes();
+        datastream.write(sf, 0, sf.length);
+        byte[] encoded = CodePage.getDefault().encode(text);
+        datastream.write(encoded, 0, encoded.length);
+
+        sf = new OrderStartField(false, false, true, false, false, false).getBytes();
+        datastream.write(sf, 0, sf.length);
+        datastream.write(OrderInsertCursor.ID);
+
+        return send(datastream.toByteArray());
+    }
+
+    /**
+     * Wait for the client to press a key
+     *
+     * @param aid - the expected key, or null for any
+     * @return this script
+     */
+    public StandInScript receive(AttentionIdentification aid) {
+        this.steps.add(new Step(StepType.RECEIVE, null, aid, 0));
+        return this;
+    }
+
+    /**
+     * Pause the flow
+     *
+     * @param milliseconds - how long to pause
+     * @return this script
+     */
+    public StandInScript delay(long milliseconds) {
+        this.steps.add(new Step(StepType.DELAY, null, null, milliseconds));
+        return this;
+    }
+
+    /**
+     * Repeat the steps that follow until the client disconnects
+     *
+     * @return this script
+     */
+    public StandInScript loop() {
+        this.loopStart = this.steps.size();
+        return this;
+    }
+
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(this.steps);
+    }
+
+    /**
+     * @return the index of the first repeated step, or -1 if the flow ends after the last step
+     */
+    public int getLoopStart() {
+        return this.loopStart;
+    }
+
+    /**
+     * Check the script can be played
+     *
+     * @throws Zos3270Exception - if the script does not start with a screen, or loops without waiting for the client
+     */
+    public void validate() throws Zos3270Exception {
+        if (this.steps.isEmpty() || this.steps.get(0).getType() != StepType.SEND) {
+            throw new Zos3270Exception("A stand-in script has to start by sending a screen");
+        }
+
+        if (this.loopStart >= 0) {
+            for (int i = this.loopStart; i < this.steps.size(); i++) {
+                if (this.steps.get(i).getType() == StepType.RECEIVE) {
+                    return;
+                }
+            }
+            throw new Zos3270Exception("The loop of a stand-in script has to wait for the client");
+        }
+    }
+
+    /**
+     * Load a script from text
+     *
+     * @param reader - the script
+     * @return the script
+     * @throws Zos3270Exception - if the script is invalid
+     */
+    public static StandInScript load(Reader reader) throws Zos3270Exception {
+        StandInScript script = new StandInScript();
+
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        try {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split("\\s+", 2);
+                String operand = (parts.length > 1) ? parts[1].trim() : "";
+                switch (parts[0].toLowerCase()) {
+                    case "send":
+                        script.send(Hex.decodeHex(operand.replaceAll("\\s", "")));
+                        break;
+                    case "receive":
+                        script.receive(operand.isEmpty() ? null : AttentionIdentification.valueOf(operand.toUpperCase()));
+                        break;
+                    case "delay":
+                        script.delay(Long.parseLong(operand));
+                        break;
+                    case "loop":
+                        script.loop();
+                        break;
+                    default:
+                        throw new Zos3270Exception("Unrecognised stand-in script step '" + parts[0] + "'");
+                }
+            }
+        } catch (IOException e) {
+            throw new Zos3270Exception("Unable to read the stand-in script", e);
+        } catch (DecoderException | IllegalArgumentException e) {
+            throw new Zos3270Exception("Invalid stand-in script step on line " + lineNumber, e);
+        }
+
+        script.validate();
+        return script;
+    }
+
+}
@@ -0,0 +1,369 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import dev.galasa.framework.spi.IConfidentialTextService;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaEncoder;
+import dev.galasa.zos3270.spi.Zos3270TerminalImpl;
+
+/**
+ * Streams the terminal images to the live terminal view over one long running
+ * chunked PUT, instead of a new connection for each screen update.
+ *
+ * Each chunk is a line of compact json holding a Terminal with the images
+ * queued since the last one, as keyframes and deltas. The images are sent from
+ * a background thread, if the view falls behind the oldest queued images are dropped,
+ * the view only needs to keep up with the latest screen.
+ *
+ * The view is asked first, with an OPTIONS request, whether it accepts the stream.  A
+ * view that does not list the stream in its Accept-Put header is sent a PUT of a single
+ * Terminal of full images for each set, as the older views expect.
+ *
+ * A stream that has been quiet for a while is ended, so the view does not time it out,
+ * and the next images start a new one.  If the stream breaks it is reopened, starting
+ * again with a keyframe, but if the new stream breaks before anything is sent on it
+ * the live terminal is abandoned.
+ */
+public class LiveTerminalPublisher extends Thread {
+
+    public static final String                     CONTENT_TYPE      = "application/x-ndjson";
+    public static final String                     ACCEPT_PUT        = "Accept-Put";
+
+    private static final String                    SINGLE_CONTENT_TYPE = "application/json";
+    private static final int                       KEYFRAME_INTERVAL = 20;
+    private static final long                      STREAM_IDLE_TIME  = 20000;
+
+    private final Log                              logger            = LogFactory.getLog(getClass());
+
+    private final Gson                             gson              = new Gson();
+
+    private final URL                              liveTerminalUrl;
+    private final String                           terminalId;
+    private final String                           runId;
+    private final IConfidentialTextService         cts;
+
+    private final LinkedBlockingDeque<TerminalImageCapture> queue;
+    private volatile boolean                       closed            = false;
+    private volatile boolean                       failed            = false;
+    private int                                    dropped;
+
+    private final TerminalImageDeltaEncoder        deltaEncoder      = new TerminalImageDeltaEncoder(KEYFRAME_INTERVAL);
+    private HttpURLConnection                      connection;
+    private OutputStream                           outputStream;
+    private int                                    liveTerminalSequence;
+    private int                                    liveImageSequence;
+    private boolean                                reconnected       = false;
+    private Boolean                                streaming;
+    private long                                   lastSent;
+
+    /**
+     * @param liveTerminalUrl - the url of the live terminal view
+     * @param terminalId - the terminal
+     * @param runId - the test run
+     * @param cts - the confidential text service, or null if the images are not to be filtered
+     * @param queueSize - the number of images that can be waiting to be sent
+     */
+    public LiveTerminalPublisher(URL liveTerminalUrl, String terminalId, String runId, IConfidentialTextService cts,
+            int queueSize) {
+        this.liveTerminalUrl = liveTerminalUrl;
+        this.terminalId = terminalId;
+        this.runId = runId;
+        this.cts = cts;
+        this.queue = new LinkedBlockingDeque<>(Math.max(1, queueSize));
+
+        setName("3270 live terminal " + terminalId);
+        setDaemon(true);
+    }
+
+    /**
+     * Queue an image to be sent, does not block
+     *
+     * @param image - the image, must not be changed after it is queued
+     */
+    public void publish(TerminalImage image) {
+        publish(TerminalImageCapture.of(image));
+    }
+
+    /**
+     * Queue a captured screen to be sent, the image is built on the publisher thread, does not block
+     *
+     * @param capture - the captured screen
+     */
+    public void publish(TerminalImageCapture capture) {
+        if (this.closed || this.failed) {
+            return;
+        }
+
+        while (!this.queue.offerLast(capture)) {
+            if (this.queue.pollFirst() != null) {
+                synchronized (this) {
+                    this.dropped++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the images still queued and end the stream
+     *
+     * @param timeout - how long to wait in milliseconds for the stream to end
+     */
+    public void close(long timeout) {
+        this.closed = true;
+        interrupt();
+        try {
+            join(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isFailed() {
+        return this.failed;
+    }
+
+    @Override
+    public void run() {
+        ArrayList<TerminalImageCapture> images = new ArrayList<>();
+        while (!this.failed) {
+            try {
+                if (!this.closed) {
+                    TerminalImageCapture image = this.queue.pollFirst(5, TimeUnit.SECONDS);
+                    if (image != null) {
+                        images.add(image);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // *** Interrupted by close, send what is left
+            }
+
+            this.queue.drainTo(images);
+            if (!images.isEmpty()) {
+                send(images);
+                images.clear();
+            } else if (this.outputStream != null && System.currentTimeMillis() - this.lastSent >= STREAM_IDLE_TIME) {
+                // *** End the quiet stream before the view times it out, the next images start a new one
+                endStream();
+            }
+
+            if (this.closed && this.queue.isEmpty()) {
+                break;
+            }
+        }
+
+        endStream();
+    }
+
+    private void send(ArrayList<TerminalImageCapture> images) {
+        int droppedImages;
+        synchronized (this) {
+            droppedImages = this.dropped;
+            this.dropped = 0;
+        }
+        if (droppedImages > 0) {
+            logger.debug("Live terminal " + this.terminalId + " dropped " + droppedImages + " images to keep up");
+        }
+
+        while (!this.failed) {
+            int terminalSequence = this.liveTerminalSequence;
+            int imageSequence = this.liveImageSequence;
+            try {
+                if (this.streaming == null) {
+                    this.streaming = isStreamAccepted();
+                }
+
+                if (!this.streaming) {
+                    putImages(images);
+                    return;
+                }
+
+                if (this.outputStream == null) {
+                    openStream();
+                }
+
+                this.liveTerminalSequence++;
+                Terminal liveTerminal = new Terminal(this.terminalId, this.runId, this.liveTerminalSequence,
+                        images.get(0).getImage().getImageSize());
+
+                // *** The view numbers images as it receives them, so renumber to hide any gaps from dropped images
+                for (TerminalImageCapture capture : images) {
+                    TerminalImage image = capture.getImage();
+                    this.liveImageSequence++;
+                    TerminalImage liveImage = new TerminalImage(this.liveImageSequence, image.getId(),
+                            image.isInbound(), image.getType(), image.getAid(), image.getImageSize(),
+                            image.getCursorColumn(), image.getCursorRow());
+                    liveImage.getFields().addAll(image.getFields());
+                    liveTerminal.getImages().add(this.deltaEncoder.encode(liveImage));
+                }
+
+                JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
+                Zos3270TerminalImpl.stripFalseBooleans(intermediateJson);
+                String tempJson = gson.toJson(intermediateJson);
+
+                if (this.cts != null) {
+                    tempJson = this.cts.removeConfidentialText(tempJson);
+                }
+
+                this.outputStream.write((tempJson + "\n").getBytes(StandardCharsets.UTF_8));
+                this.outputStream.flush();
+
+                // *** The stream is working, so a later break can be reconnected
+                this.lastSent = System.currentTimeMillis();
+                this.reconnected = false;
+                return;
+            } catch (IOException e) {
+                this.liveTerminalSequence = terminalSequence;
+                this.liveImageSequence = imageSequence;
+                abandonStream();
+
+                if (this.reconnected || Boolean.FALSE.equals(this.streaming)) {
+                    logger.error("Failed to write live terminal images, live terminal abandoned", e);
+                    this.failed = true;
+                    this.queue.clear();
+                } else {
+                    logger.warn("Live terminal stream broken, reconnecting", e);
+                    this.reconnected = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ask the view if it accepts the images as a stream
+     */
+    private boolean isStreamAccepted() throws IOException {
+        HttpURLConnection optionsConnection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
+        try {
+            optionsConnection.setRequestMethod("OPTIONS");
+            // *** A streamed PUT is not resent if it is given a kept alive connection the server has dropped, so do not keep this one
+            optionsConnection.addRequestProperty("Connection", "close");
+            optionsConnection.setDoInput(true);
+            optionsConnection.setDoOutput(false);
+            optionsConnection.connect();
+
+            String accepted = optionsConnection.getHeaderField(ACCEPT_PUT);
+            if (optionsConnection.getResponseCode() == 200 && accepted != null) {
+                for (String type : accepted.split(",")) {
+                    if (type.trim().startsWith(CONTENT_TYPE)) {
+                        return true;
+                    }
+                }
+            }
+
+            logger.debug("Live terminal view does not accept streams, images will be sent with a PUT for each set");
+            return false;
+        } finally {
+            optionsConnection.disconnect();
+        }
+    }
+
+    /**
+     * Send the images as a single Terminal of full images in one PUT
+     */
+    private void putImages(ArrayList<TerminalImageCapture> images) throws IOException {
+        this.liveTerminalSequence++;
+        Terminal liveTerminal = new Terminal(this.terminalId, this.runId, this.liveTerminalSequence,
+                images.get(0).getImage().getImageSize());
+
+        for (TerminalImageCapture capture : images) {
+            TerminalImage image = capture.getImage();
+            this.liveImageSequence++;
+            TerminalImage liveImage = new TerminalImage(this.liveImageSequence, image.getId(),
+                    image.isInbound(), image.getType(), image.getAid(), image.getImageSize(),
+                    image.getCursorColumn(), image.getCursorRow());
+            liveImage.getFields().addAll(image.getFields());
+            liveTerminal.getImages().add(liveImage);
+        }
+
+        JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
+        Zos3270TerminalImpl.stripFalseBooleans(intermediateJson);
+        String tempJson = gson.toJson(intermediateJson);
+
+        if (this.cts != null) {
+            tempJson = this.cts.removeConfidentialText(tempJson);
+        }
+
+        HttpURLConnection putConnection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
+        try {
+            putConnection.setRequestMethod("PUT");
+            putConnection.addRequestProperty("Content-Type", SINGLE_CONTENT_TYPE);
+            putConnection.setDoInput(true);
+            putConnection.setDoOutput(true);
+            putConnection.connect();
+            try (OutputStream os = putConnection.getOutputStream()) {
+                os.write(tempJson.getBytes(StandardCharsets.UTF_8));
+            }
+            if (putConnection.getResponseCode() != 200) {
+                throw new IOException("Unable to write live terminal due to " + putConnection.getResponseCode() + " - "
+                        + putConnection.getResponseMessage());
+            }
+        } finally {
+            putConnection.disconnect();
+        }
+    }
+
+    private void openStream() throws IOException {
+        HttpURLConnection newConnection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
+        newConnection.setRequestMethod("PUT");
+        newConnection.addRequestProperty("Content-Type", CONTENT_TYPE);
+        newConnection.setChunkedStreamingMode(0);
+        newConnection.setDoInput(true);
+        newConnection.setDoOutput(true);
+        newConnection.connect();
+
+        this.outputStream = newConnection.getOutputStream();
+        this.connection = newConnection;
+
+        // *** A new stream has to start with a full image
+        this.deltaEncoder.reset();
+    }
+
+    private void endStream() {
+        if (this.outputStream == null) {
+            return;
+        }
+
+        try {
+            this.outputStream.close();
+            if (this.connection.getResponseCode() != 200) {
+                logger.warn("Live terminal " + this.terminalId + " ended with " + this.connection.getResponseCode()
+                        + " - " + this.connection.getResponseMessage());
+            }
+        } catch (IOException e) {
+            logger.warn("Problem ending the live terminal stream", e);
+        } finally {
+            this.connection.disconnect();
+            this.outputStream = null;
+            this.connection = null;
+        }
+    }
+
+    private void abandonStream() {
+        if (this.connection != null) {
+            this.connection.disconnect();
+        }
+        this.outputStream = null;
+        this.connection = null;
+    }
+
+}
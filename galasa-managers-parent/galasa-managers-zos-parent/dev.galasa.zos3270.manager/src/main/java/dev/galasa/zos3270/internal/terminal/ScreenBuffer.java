@@ -0,0 +1,419 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import dev.galasa.zos3270.internal.datastream.CodePage;
+
+/**
+ * The 3270 presentation space held as parallel primitive arrays, so that
+ * applying inbound orders does not allocate an object per buffer position.
+ *
+ * Each position has a type, a display character, a field attribute byte and
+ * a packed extended attribute.  For start of field positions the attribute byte
+ * holds the FA_ flags, for graphics escape and control positions it holds the
+ * raw EBCDIC byte.
+ *
+ * Every change to the buffer increments the generation, so that information
+ * derived from the buffer, such as the field list, can be cached until the
+ * buffer is next updated.
+ *
+ * Not thread safe, access is controlled by the owning Screen.
+ */
+public class ScreenBuffer {
+
+    public static final byte TYPE_NULL              = 0;
+    public static final byte TYPE_CHAR              = 1;
+    public static final byte TYPE_START_OF_FIELD    = 2;
+    public static final byte TYPE_GRAPHICS_ESCAPE   = 3;
+    public static final byte TYPE_NEW_LINE          = 4;
+    public static final byte TYPE_FORM_FEED         = 5;
+    public static final byte TYPE_CARRAGE_RETURN    = 6;
+    public static final byte TYPE_END_OF_MEDIUM     = 7;
+
+    public static final byte FA_PROTECTED           = 0x01;
+    public static final byte FA_NUMERIC             = 0x02;
+    public static final byte FA_DISPLAY             = 0x04;
+    public static final byte FA_INTENSE_DISPLAY     = 0x08;
+    public static final byte FA_SELECTOR_PEN        = 0x10;
+    public static final byte FA_MODIFIED            = 0x20;
+
+    private static final long FNV_OFFSET_BASIS      = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME             = 0x100000001b3L;
+
+    private final int     size;
+    private final byte[]  types;
+    private final char[]  chars;
+    private final byte[]  attributes;
+    private final short[] extendedAttributes;
+
+    private int           generation;
+
+    public ScreenBuffer(int size) {
+        this.size               = size;
+        this.types              = new byte[size];
+        this.chars              = new char[size];
+        this.attributes         = new byte[size];
+        this.extendedAttributes = new short[size];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return a counter that changes whenever the contents of the buffer change
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    public void clear() {
+        this.generation++;
+        Arrays.fill(this.types, TYPE_NULL);
+        Arrays.fill(this.chars, (char) 0);
+        Arrays.fill(this.attributes, (byte) 0);
+        Arrays.fill(this.extendedAttributes, (short) 0);
+    }
+
+    public byte getType(int pos) {
+        return this.types[pos];
+    }
+
+    public boolean isNull(int pos) {
+        return this.types[pos] == TYPE_NULL;
+    }
+
+    public boolean isStartOfField(int pos) {
+        return this.types[pos] == TYPE_START_OF_FIELD;
+    }
+
+    /**
+     * @param pos buffer position
+     * @return true if the position holds a character, graphics escape or control character, ie not null and not a field start
+     */
+    public boolean isCharacter(int pos) {
+        byte type = this.types[pos];
+        return type != TYPE_NULL && type != TYPE_START_OF_FIELD;
+    }
+
+    /**
+     * @param pos buffer position
+     * @return the character as it is held in a field, nulls are returned as 0x00
+     */
+    public char getFieldChar(int pos) {
+        return this.chars[pos];
+    }
+
+    /**
+     * @param pos buffer position
+     * @return the character as it would be displayed, nulls are returned as a space
+     */
+    public char getDisplayChar(int pos) {
+        char c = this.chars[pos];
+        if (c == 0) {
+            return ' ';
+        }
+        return c;
+    }
+
+    public short getExtendedAttributes(int pos) {
+        return this.extendedAttributes[pos];
+    }
+
+    public void setNull(int pos) {
+        this.generation++;
+        this.types[pos]              = TYPE_NULL;
+        this.chars[pos]              = 0;
+        this.attributes[pos]         = 0;
+        this.extendedAttributes[pos] = 0;
+    }
+
+    public void setNull(int from, int to) {
+        this.generation++;
+        Arrays.fill(this.types, from, to, TYPE_NULL);
+        Arrays.fill(this.chars, from, to, (char) 0);
+        Arrays.fill(this.attributes, from, to, (byte) 0);
+        Arrays.fill(this.extendedAttributes, from, to, (short) 0);
+    }
+
+    public void setChar(int pos, char c, short extended) {
+        this.generation++;
+        this.types[pos]              = TYPE_CHAR;
+        this.chars[pos]              = c;
+        this.attributes[pos]         = 0;
+        this.extendedAttributes[pos] = extended;
+    }
+
+    public void setChar(int from, int to, char c, short extended) {
+        this.generation++;
+        Arrays.fill(this.types, from, to, TYPE_CHAR);
+        Arrays.fill(this.chars, from, to, c);
+        Arrays.fill(this.attributes, from, to, (byte) 0);
+        Arrays.fill(this.extendedAttributes, from, to, extended);
+    }
+
+    public void setStartOfField(int pos, byte fieldAttributes, short extended) {
+        this.generation++;
+        this.types[pos]              = TYPE_START_OF_FIELD;
+        this.chars[pos]              = ' ';
+        this.attributes[pos]         = fieldAttributes;
+        this.extendedAttributes[pos] = extended;
+    }
+
+    /**
+     * Set a graphics escape or one of the control characters (NL, FF, CR, EM),
+     * which display as a space but are returned to the host as the original byte
+     *
+     * @param pos buffer position
+     * @param type the TYPE_ of the position
+     * @param data the EBCDIC byte
+     */
+    public void setControl(int pos, byte type, byte data) {
+        this.generation++;
+        this.types[pos]              = type;
+        this.chars[pos]              = ' ';
+        this.attributes[pos]         = data;
+        this.extendedAttributes[pos] = 0;
+    }
+
+    /**
+     * Copy a single position to another, used by backspace
+     *
+     * @param from source position
+     * @param to target position
+     */
+    public void copy(int from, int to) {
+        this.generation++;
+        this.types[to]              = this.types[from];
+        this.chars[to]              = this.chars[from];
+        this.attributes[to]         = this.attributes[from];
+        this.extendedAttributes[to] = this.extendedAttributes[from];
+    }
+
+    /**
+     * @param from first position, inclusive
+     * @param to last position, exclusive
+     * @return the field characters in the range, nulls are 0x00
+     */
+    public char[] getFieldChars(int from, int to) {
+        return Arrays.copyOfRange(this.chars, from, to);
+    }
+
+    public byte getFieldAttributes(int pos) {
+        return this.attributes[pos];
+    }
+
+    public boolean isProtected(int pos) {
+        return (this.attributes[pos] & FA_PROTECTED) != 0;
+    }
+
+    public boolean isFieldModified(int pos) {
+        return (this.attributes[pos] & FA_MODIFIED) != 0;
+    }
+
+    public void setFieldModified(int pos) {
+        this.generation++;
+        this.attributes[pos] |= FA_MODIFIED;
+    }
+
+    public void clearFieldModified(int pos) {
+        this.generation++;
+        this.attributes[pos] &= ~FA_MODIFIED;
+    }
+
+    /**
+     * Clear the MDT on every field in the buffer
+     */
+    public void resetMdt() {
+        this.generation++;
+        for (int i = 0; i < this.size; i++) {
+            if (this.types[i] == TYPE_START_OF_FIELD) {
+                this.attributes[i] &= ~FA_MODIFIED;
+            }
+        }
+    }
+
+    /**
+     * A 64 bit FNV-1a hash of the text and attributes of every position.  The modified
+     * flag is left out, so typing into a field and clearing it again gives the same value.
+     *
+     * @return the fingerprint of the buffer contents
+     */
+    public long fingerprint() {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < this.size; i++) {
+            hash = (hash ^ this.types[i]) * FNV_PRIME;
+            hash = (hash ^ this.chars[i]) * FNV_PRIME;
+            hash = (hash ^ (this.attributes[i] & ~FA_MODIFIED)) * FNV_PRIME;
+            hash = (hash ^ this.extendedAttributes[i]) * FNV_PRIME;
+        }
+        return (hash ^ this.size) * FNV_PRIME;
+    }
+
+    /**
+     * Locate the start of field that controls a position, searching backwards and wrapping
+     *
+     * @param pos buffer position
+     * @return the position of the start of field or -1 if the screen is unformatted
+     */
+    public int findStartOfField(int pos) {
+        int sfPos = pos - 1;
+        if (sfPos < 0) {
+            sfPos = this.size - 1;
+        }
+        while (sfPos != pos) {
+            if (this.types[sfPos] == TYPE_START_OF_FIELD) {
+                return sfPos;
+            }
+
+            sfPos--;
+            if (sfPos < 0) {
+                sfPos = this.size - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the position of the last start of field in the buffer, or -1 if the screen is unformatted
+     */
+    public int findLastStartOfField() {
+        for (int i = this.size - 1; i >= 0; i--) {
+            if (this.types[i] == TYPE_START_OF_FIELD) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the position of the first start of field in the buffer, or -1 if the screen is unformatted
+     */
+    public int findFirstStartOfField() {
+        for (int i = 0; i < this.size; i++) {
+            if (this.types[i] == TYPE_START_OF_FIELD) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isClear() {
+        for (int i = 0; i < this.size; i++) {
+            if (this.types[i] != TYPE_NULL) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The byte to return to the host for a character position. Only valid for
+     * non start of field positions
+     *
+     * @param pos buffer position
+     * @param codePage the code page of the terminal
+     * @return the EBCDIC byte, 0x00 for nulls
+     */
+    public byte getEbcdic(int pos, CodePage codePage) {
+        switch (this.types[pos]) {
+            case TYPE_NULL:
+                return 0;
+            case TYPE_CHAR:
+                char c = this.chars[pos];
+                if (c == 0) {
+                    return 0;
+                }
+                return codePage.encode(c);
+            default:
+                return this.attributes[pos];
+        }
+    }
+
+    /**
+     * Copy the display characters of the buffer into an array, nulls become spaces
+     *
+     * @param target the array to copy into, must be at least size() long
+     * @param offset the offset in the target
+     */
+    public void getDisplayChars(char[] target, int offset) {
+        for (int i = 0; i < this.size; i++) {
+            char c = this.chars[i];
+            target[offset + i] = (c == 0) ? ' ' : c;
+        }
+    }
+
+    /**
+     * Copy part of the buffer as display characters into a CharBuffer, nulls become spaces
+     *
+     * @param target the buffer to copy into, its position is advanced by the length
+     * @param from the first buffer position
+     * @param length the number of positions to copy
+     */
+    public void getDisplayChars(CharBuffer target, int from, int length) {
+        if (target.hasArray()) {
+            char[] array = target.array();
+            int offset = target.arrayOffset() + target.position();
+            for (int i = 0; i < length; i++) {
+                char c = this.chars[from + i];
+                array[offset + i] = (c == 0) ? ' ' : c;
+            }
+            target.position(target.position() + length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                char c = this.chars[from + i];
+                target.put((c == 0) ? ' ' : c);
+            }
+        }
+    }
+
+    public static byte buildFieldAttributes(boolean fieldProtected, boolean fieldNumeric, boolean fieldDisplay,
+            boolean fieldIntenseDisplay, boolean fieldSelectorPen, boolean fieldModifed) {
+        int fa = 0;
+        if (fieldProtected) {
+            fa |= FA_PROTECTED;
+        }
+        if (fieldNumeric) {
+            fa |= FA_NUMERIC;
+        }
+        if (fieldDisplay) {
+            fa |= FA_DISPLAY;
+        }
+        if (fieldIntenseDisplay) {
+            fa |= FA_INTENSE_DISPLAY;
+        }
+        if (fieldSelectorPen) {
+            fa |= FA_SELECTOR_PEN;
+        }
+        if (fieldModifed) {
+            fa |= FA_MODIFIED;
+        }
+        return (byte) fa;
+    }
+
+    /**
+     * Pack a foreground colour and extended highlighting into a single extended attribute
+     *
+     * @param foregroundColour the 3270 colour byte, 0 for default
+     * @param highlighting the 3270 highlighting byte, 0 for default
+     * @return the packed value
+     */
+    public static short buildExtendedAttributes(byte foregroundColour, byte highlighting) {
+        return (short) (((foregroundColour & 0xff) << 8) | (highlighting & 0xff));
+    }
+
+    public static byte getForegroundColour(short extended) {
+        return (byte) ((extended >> 8) & 0xff);
+    }
+
+    public static byte getHighlighting(short extended) {
+        return (byte) (extended & 0xff);
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.util.concurrent.TimeUnit;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IScreenUpdateListener;
+import dev.galasa.zos3270.spi.Screen;
+
+/**
+ * Waits for the screen to change from a fingerprint, or to stop changing.  The
+ * waits are woken by the screen update notifications, so the screen is never polled.
+ */
+public class ScreenStabilityListener implements IScreenUpdateListener {
+
+    private final Screen screen;
+    private final Long   previousFingerprint;
+    private long         lastUpdate;
+    private long         fingerprint;
+    private boolean      changed;
+
+    private ScreenStabilityListener(Screen screen, Long previousFingerprint) {
+        this.screen = screen;
+        this.previousFingerprint = previousFingerprint;
+
+        synchronized (this.screen) {
+            screenUpdated(Direction.RECEIVED, null);
+            this.lastUpdate = this.screen.getLastUpdated();
+            this.screen.registerScreenUpdateListener(this);
+        }
+    }
+
+    @Override
+    public void screenUpdated(Direction direction, AttentionIdentification aid) {
+        // *** Called with the screen locked, so the fingerprint is of the completed update
+        long newFingerprint = this.screen.getFingerprint();
+        synchronized (this) {
+            this.lastUpdate = System.nanoTime();
+            this.fingerprint = newFingerprint;
+            if (this.previousFingerprint != null && newFingerprint != this.previousFingerprint) {
+                this.changed = true;
+            }
+            notifyAll();
+        }
+    }
+
+    private boolean awaitStable(long quietMillis, long maxWait) throws InterruptedException {
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+        try {
+            while (true) {
+                // *** Checked outside the listener lock, an unlock is always followed by an update notification
+                boolean locked = this.screen.isKeyboardLocked();
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    long quietUntil = this.lastUpdate + quietNanos;
+                    if (!locked && now - quietUntil >= 0) {
+                        return true;
+                    }
+                    if (now - deadline >= 0) {
+                        return false;
+                    }
+
+                    long waitUntil = locked ? deadline : Math.min(deadline, quietUntil);
+                    TimeUnit.NANOSECONDS.timedWait(this, Math.max(waitUntil - now, 1));
+                }
+            }
+        } finally {
+            this.screen.unregisterScreenUpdateListener(this);
+        }
+    }
+
+    private Long awaitChange(long maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+        try {
+            synchronized (this) {
+                while (!this.changed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                return this.fingerprint;
+            }
+        } finally {
+            // *** Outside the listener lock, the screen is locked before the listener when notifying
+            this.screen.unregisterScreenUpdateListener(this);
+        }
+    }
+
+    /**
+     * Wait until the keyboard is unlocked and no update has been received or sent for the quiet time
+     *
+     * @param screen - the screen to watch
+     * @param quietMillis - how long the screen must be unchanged
+     * @param maxWait - time in milliseconds
+     * @return true if the screen became stable before the timeout
+     * @throws InterruptedException - if the wait was interrupted
+     */
+    public static boolean waitForStable(Screen screen, long quietMillis, long maxWait) throws InterruptedException {
+        return new ScreenStabilityListener(screen, null).awaitStable(quietMillis, maxWait);
+    }
+
+    /**
+     * Wait until the screen fingerprint is different to a previous one
+     *
+     * @param screen - the screen to watch
+     * @param previousFingerprint - the fingerprint to change from
+     * @param maxWait - time in milliseconds
+     * @return the new fingerprint, or null if the screen did not change before the timeout
+     * @throws InterruptedException - if the wait was interrupted
+     */
+    public static Long waitForChange(Screen screen, long previousFingerprint, long maxWait) throws InterruptedException {
+        return new ScreenStabilityListener(screen, previousFingerprint).awaitChange(maxWait);
+    }
+
+}
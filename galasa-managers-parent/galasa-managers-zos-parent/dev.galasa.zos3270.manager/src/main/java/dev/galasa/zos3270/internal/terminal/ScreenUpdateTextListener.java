@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
- * 
- * (c) Copyright IBM Corp. 2019.
+ *
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.internal.terminal;
 
@@ -11,28 +11,38 @@ import java.util.concurrent.TimeUnit;
 import dev.galasa.zos3270.AttentionIdentification;
 import dev.galasa.zos3270.ErrorTextFoundException;
 import dev.galasa.zos3270.IScreenUpdateListener;
+import dev.galasa.zos3270.ScreenMatcher;
 import dev.galasa.zos3270.TextNotFoundException;
 import dev.galasa.zos3270.Zos3270Exception;
 import dev.galasa.zos3270.spi.Screen;
 
+/**
+ * Waits for text to appear on the screen, the screen is only searched when an
+ * update has been applied, so the wait completes as soon as the datastream that
+ * satisfies it has been processed
+ */
 public class ScreenUpdateTextListener implements IScreenUpdateListener {
 
-    private final Screen screen;
-    private final String[] okText;
-    private final String[] errorText;
-    private int foundItem = -1;
-    private ErrorTextFoundException errorFound = null;
-    private Semaphore    textFound = new Semaphore(1, true);
+    private final Screen                     screen;
+    private final ScreenMatcher              matcher;
+    private volatile int                     foundItem = -1;
+    private volatile ErrorTextFoundException errorFound = null;
+    private volatile boolean                 complete = false;
+    private volatile boolean                 used = false;
+    private final Semaphore                  textFound = new Semaphore(1, true);
 
     public ScreenUpdateTextListener(Screen screen, String ok[], String error[]) throws InterruptedException {
+        this(screen, ScreenMatcher.compile(ok, error));
+    }
+
+    public ScreenUpdateTextListener(Screen screen, ScreenMatcher matcher) throws InterruptedException {
         this.screen = screen;
-        this.okText = ok;
-        this.errorText = error;
+        this.matcher = matcher;
         this.textFound.acquire();
 
         synchronized (this.screen) {
             screenUpdated(Direction.RECEIVED, null);
-            if (this.textFound.availablePermits() > 0) {
+            if (this.complete) {
                 return;
             }
             this.screen.registerScreenUpdateListener(this);
@@ -41,26 +51,30 @@ public class ScreenUpdateTextListener implements IScreenUpdateListener {
 
     @Override
     public void screenUpdated(Direction direction, AttentionIdentification aid) {
+        if (this.complete) {
+            return;
+        }
+
         try {
-            this.foundItem = screen.searchFieldContaining(okText, errorText);
+            this.foundItem = screen.searchFieldContaining(matcher);
+            this.complete = true;
             this.textFound.release();
         } catch (TextNotFoundException e) {
             // IGNORE
         } catch (ErrorTextFoundException e) {
             this.errorFound = e;
+            this.complete = true;
             this.textFound.release();
         }
 
     }
 
     public int waitForText(long maxWait) throws InterruptedException, ErrorTextFoundException, Zos3270Exception {
-        if (this.textFound == null) {
+        if (this.used) {
             throw new Zos3270Exception("Not allowed to use this listener more than once");
         }
-        this.textFound.tryAcquire(1, maxWait, TimeUnit.MILLISECONDS);
-        this.textFound = null;
-        screen.unregisterScreenUpdateListener(this);
-        
+        await(maxWait);
+
         if (errorFound != null) {
             throw errorFound;
         }
@@ -68,9 +82,49 @@ public class ScreenUpdateTextListener implements IScreenUpdateListener {
         return foundItem;
     }
 
+    /**
+     * Wait for any of the ok text without raising an error for the error text or a timeout
+     *
+     * @param maxWait - time in milliseconds
+     * @return true if one of the ok texts was found before the timeout
+     * @throws InterruptedException - if the wait was interrupted
+     */
+    public boolean isTextFound(long maxWait) throws InterruptedException {
+        if (this.used) {
+            return this.foundItem >= 0;
+        }
+        await(maxWait);
+
+        return foundItem >= 0;
+    }
+
+    private void await(long maxWait) throws InterruptedException {
+        try {
+            if (!this.complete) {
+                this.textFound.tryAcquire(1, maxWait, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            this.used = true;
+            // *** Under the screen lock so the network thread is not part way through an update
+            synchronized (this.screen) {
+                this.complete = true;
+                this.screen.unregisterScreenUpdateListener(this);
+            }
+        }
+    }
+
     public static int waitForText(Screen screen, String ok[], String error[], long maxWait)
             throws InterruptedException, Zos3270Exception {
         return new ScreenUpdateTextListener(screen, ok, error).waitForText(maxWait);
     }
 
+    public static int waitForText(Screen screen, ScreenMatcher matcher, long maxWait)
+            throws InterruptedException, Zos3270Exception {
+        return new ScreenUpdateTextListener(screen, matcher).waitForText(maxWait);
+    }
+
+    public static boolean isTextFound(Screen screen, String ok[], long maxWait) throws InterruptedException {
+        return new ScreenUpdateTextListener(screen, ok, null).isTextFound(maxWait);
+    }
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.util.ArrayList;
+
+import dev.galasa.zos3270.common.screens.FieldContents;
+import dev.galasa.zos3270.common.screens.TerminalField;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+
+/**
+ * A copy of the screen taken on the network thread, holding only the field attributes and
+ * a copy of the field characters.  The TerminalImage is built from it the first time it is
+ * asked for, on the RAS writer or live terminal thread, and then shared.
+ */
+public class TerminalImageCapture {
+
+    private final int                     sequence;
+    private final String                  id;
+    private final boolean                 inbound;
+    private final String                  aid;
+    private final TerminalSize            imageSize;
+    private final int                     cursorColumn;
+    private final int                     cursorRow;
+    private final ArrayList<CapturedField> fields = new ArrayList<>();
+
+    private TerminalImage                 image;
+
+    public TerminalImageCapture(int sequence, String id, boolean inbound, String aid, TerminalSize imageSize,
+            int cursorColumn, int cursorRow) {
+        this.sequence = sequence;
+        this.id = id;
+        this.inbound = inbound;
+        this.aid = aid;
+        this.imageSize = imageSize;
+        this.cursorColumn = cursorColumn;
+        this.cursorRow = cursorRow;
+    }
+
+    private TerminalImageCapture(TerminalImage image) {
+        this(image.getSequence(), image.getId(), image.isInbound(), image.getAid(), image.getImageSize(),
+                image.getCursorColumn(), image.getCursorRow());
+        this.image = image;
+    }
+
+    /**
+     * Wrap an image that has already been built
+     */
+    public static TerminalImageCapture of(TerminalImage image) {
+        return new TerminalImageCapture(image);
+    }
+
+    /**
+     * Add a field
+     *
+     * @param text - a copy of the field characters, nul characters are nulls, must not be changed after
+     */
+    public void addField(int row, int column, boolean unformatted, boolean fieldProtected, boolean fieldNumeric,
+            boolean fieldDisplay, boolean fieldIntenseDisplay, boolean fieldSelectorPen, boolean fieldModifed,
+            char[] text) {
+        this.fields.add(new CapturedField(new TerminalField(row, column, unformatted, fieldProtected, fieldNumeric,
+                fieldDisplay, fieldIntenseDisplay, fieldSelectorPen, fieldModifed), text));
+    }
+
+    /**
+     * @return the image, built on the first call
+     */
+    public synchronized TerminalImage getImage() {
+        if (this.image == null) {
+            TerminalImage newImage = new TerminalImage(this.sequence, this.id, this.inbound, null, this.aid,
+                    this.imageSize, this.cursorColumn, this.cursorRow);
+            for (CapturedField field : this.fields) {
+                field.terminalField.getContents().add(new FieldContents(field.text)); // TODO needs to be expanded when we record
+                // extended attributes
+                newImage.getFields().add(field.terminalField);
+            }
+            this.fields.clear();
+            this.image = newImage;
+        }
+        return this.image;
+    }
+
+    private static class CapturedField {
+        private final TerminalField terminalField;
+        private final char[]        text;
+
+        private CapturedField(TerminalField terminalField, char[] text) {
+            this.terminalField = terminalField;
+            this.text = text;
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import dev.galasa.ResultArchiveStoreContentType;
+import dev.galasa.SetContentType;
+import dev.galasa.framework.spi.IConfidentialTextService;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaEncoder;
+import dev.galasa.zos3270.spi.Zos3270TerminalImpl;
+
+/**
+ * Writes terminal images to the RAS in the background, so the thread processing
+ * the datastream only has to queue a snapshot of the screen.
+ *
+ * Images are written in batches, as soon as a batch is full or when the oldest queued
+ * image has waited for the flush interval, whichever comes first. All writers share
+ * one background thread, so the files of a terminal are always written in sequence.
+ *
+ * Each file starts with a full image, followed by deltas holding only the changed
+ * fields, with a full image again every keyframe interval. The json is not pretty printed.
+ *
+ * If the queue fills because the RAS cannot keep up, further images are discarded
+ * rather than holding up the terminal.
+ */
+public class TerminalImageWriter {
+
+    private static final ScheduledExecutorService writerThread  = Executors
+            .newSingleThreadScheduledExecutor(new WriterThreadFactory());
+
+    private static final long                     FLUSH_TIMEOUT = 60;
+
+    private final Log                             logger        = LogFactory.getLog(getClass());
+
+    private final Gson                            gson          = new Gson();
+
+    private final String                          terminalId;
+    private final String                          runId;
+    private final Path                            terminalRasDirectory;
+    private final IConfidentialTextService        cts;
+    private final int                             batchSize;
+    private final long                            flushInterval;
+
+    private final ArrayBlockingQueue<TerminalImageCapture> queue;
+    private final AtomicBoolean                   batchScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean                   timerScheduled = new AtomicBoolean(false);
+    private final AtomicInteger                   discarded      = new AtomicInteger();
+
+    // *** Only used on the writer thread
+    private final ArrayList<TerminalImageCapture> pending        = new ArrayList<>();
+    private int                                   rasTerminalSequence;
+    private final TerminalImageDeltaEncoder       deltaEncoder;
+
+    private final Runnable                        batchDrain     = new Runnable() {
+        @Override
+        public void run() {
+            batchScheduled.set(false);
+            drain();
+        }
+    };
+
+    private final Runnable                        timedDrain     = new Runnable() {
+        @Override
+        public void run() {
+            timerScheduled.set(false);
+            drain();
+        }
+    };
+
+    /**
+     * @param terminalId - the terminal id, used to name the files
+     * @param runId - the test run
+     * @param terminalRasDirectory - the RAS directory for this terminal
+     * @param cts - the confidential text service, or null if the images are not to be filtered
+     * @param batchSize - the number of images to write to each file
+     * @param flushInterval - the longest time in milliseconds an image waits in the queue, 0 to only write full batches
+     * @param queueSize - the number of images that can be waiting to be written
+     * @param keyframeInterval - how often a full image is written, 1 to write only full images
+     */
+    public TerminalImageWriter(String terminalId, String runId, Path terminalRasDirectory,
+            IConfidentialTextService cts, int batchSize, long flushInterval, int queueSize, int keyframeInterval) {
+        this.terminalId = terminalId;
+        this.runId = runId;
+        this.terminalRasDirectory = terminalRasDirectory;
+        this.cts = cts;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = flushInterval;
+        this.queue = new ArrayBlockingQueue<>(Math.max(this.batchSize, queueSize));
+        this.deltaEncoder = new TerminalImageDeltaEncoder(keyframeInterval);
+    }
+
+    /**
+     * Queue an image to be written, does not block
+     *
+     * @param image - the image, must not be changed after it is queued
+     */
+    public void write(TerminalImage image) {
+        write(TerminalImageCapture.of(image));
+    }
+
+    /**
+     * Queue a captured screen to be written, the image is built on the writer thread, does not block
+     *
+     * @param capture - the captured screen
+     */
+    public void write(TerminalImageCapture capture) {
+        if (!this.queue.offer(capture)) {
+            if (this.discarded.incrementAndGet() == 1) {
+                logger.warn("The RAS is not keeping up with terminal " + this.terminalId
+                        + ", terminal images are being discarded");
+            }
+            return;
+        }
+
+        if (this.queue.size() >= this.batchSize) {
+            if (this.batchScheduled.compareAndSet(false, true)) {
+                writerThread.execute(this.batchDrain);
+            }
+        } else if (this.flushInterval > 0 && this.timerScheduled.compareAndSet(false, true)) {
+            writerThread.schedule(this.timedDrain, this.flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write all the queued images, waiting until they are in the RAS
+     */
+    public void flush() {
+        Future<?> future = writerThread.submit(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+
+        try {
+            future.get(FLUSH_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted waiting for the terminal images of " + this.terminalId + " to be written");
+        } catch (ExecutionException | TimeoutException e) {
+            logger.error("Unable to flush the terminal images of " + this.terminalId + " to the RAS", e);
+        }
+    }
+
+    private void drain() {
+        int discardedImages = this.discarded.getAndSet(0);
+        if (discardedImages > 0) {
+            logger.warn(discardedImages + " terminal images of " + this.terminalId
+                    + " were discarded as the RAS could not keep up");
+        }
+
+        while (true) {
+            // *** A batch that failed is retried before anything else is taken from the queue
+            if (this.pending.isEmpty()) {
+                this.queue.drainTo(this.pending, this.batchSize);
+                if (this.pending.isEmpty()) {
+                    return;
+                }
+            }
+
+            if (!writeBatch(this.pending)) {
+                return;
+            }
+            this.pending.clear();
+        }
+    }
+
+    private boolean writeBatch(List<TerminalImageCapture> images) {
+        rasTerminalSequence++;
+
+        try {
+            Terminal rasTerminal = new Terminal(this.terminalId, this.runId, rasTerminalSequence,
+                    images.get(0).getImage().getImageSize());
+            // *** Each file starts with a keyframe so it can be read on its own
+            this.deltaEncoder.reset();
+            for (TerminalImageCapture image : images) {
+                rasTerminal.getImages().add(this.deltaEncoder.encode(image.getImage()));
+            }
+
+            JsonObject intermediateJson = (JsonObject) gson.toJsonTree(rasTerminal);
+            Zos3270TerminalImpl.stripFalseBooleans(intermediateJson);
+            String tempJson = gson.toJson(intermediateJson);
+
+            if (this.cts != null) {
+                tempJson = this.cts.removeConfidentialText(tempJson);
+            }
+
+            String terminalFilename = this.terminalId + "-" + String.format("%05d", rasTerminalSequence) + ".gz";
+            Path terminalPath = terminalRasDirectory.resolve(terminalFilename);
+
+            try (GZIPOutputStream gos = new GZIPOutputStream(newOutputStream(terminalPath))) {
+                IOUtils.write(tempJson, gos, "utf-8");
+            }
+        } catch (Exception e) {
+            logger.error("Unable to write terminal cache to the RAS", e);
+            rasTerminalSequence--;
+            return false;
+        }
+
+        return true;
+    }
+
+    protected OutputStream newOutputStream(Path terminalPath) throws IOException {
+        return Files.newOutputStream(terminalPath,
+                new SetContentType(new ResultArchiveStoreContentType("application/zos3270terminal")),
+                StandardOpenOption.CREATE);
+    }
+
+    private static class WriterThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "3270 RAS image writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
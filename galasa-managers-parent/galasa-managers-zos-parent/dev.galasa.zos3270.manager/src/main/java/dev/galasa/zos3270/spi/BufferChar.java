@@ -1,16 +1,14 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019,2020.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.spi;
 
-import java.nio.charset.Charset;
+import dev.galasa.zos3270.internal.datastream.CodePage;
 
 public class BufferChar implements IBufferHolder {
 
-    private static final Charset ebcdic = Charset.forName("Cp037");
-
     private final char           character;
 
     public BufferChar(char character) {
@@ -44,9 +42,7 @@ public class BufferChar implements IBufferHolder {
             return 0;
         }
 
-        String value = new String(new char[] { this.character });
-
-        return value.getBytes(ebcdic)[0];
+        return CodePage.getDefault().encode(this.character);
     }
 
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.internal.comms.Network;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+
+/**
+ * Feeds the inbound datastreams of a trace recorded by DatastreamTraceWriter into a screen,
+ * without a host, to benchmark the datastream processing or to reproduce a failure offline.
+ *
+ * The datastreams are processed the same way as they are by the network thread, either as
+ * fast as possible or spaced out as they were received.
+ */
+public class DatastreamReplay {
+
+    private static final Log logger = LogFactory.getLog(DatastreamReplay.class);
+
+    private DatastreamReplay() {
+    }
+
+    /**
+     * Create a screen the size of the traced screen.  Anything the screen sends back,
+     * such as the response to a read command, is discarded.
+     *
+     * @param reader - the trace
+     * @return the screen
+     * @throws TerminalInterruptedException - if interrupted creating the screen
+     */
+    public static Screen createScreen(DatastreamTraceReader reader) throws TerminalInterruptedException {
+        Network network = new Network("replay", 0, "replay") {
+            @Override
+            public void sendDatastream(byte[] outboundDatastream) throws NetworkException {
+                // *** There is no host to reply to
+            }
+        };
+
+        return new Screen(reader.getPrimaryColumns(), reader.getPrimaryRows(),
+                reader.getAlternateColumns(), reader.getAlternateRows(), network);
+    }
+
+    /**
+     * Replay the rest of a trace into a screen
+     *
+     * @param reader - the trace
+     * @param screen - the screen to update
+     * @param realTime - true to wait between the datastreams as long as the host did, false to replay at full speed
+     * @return the number of datastreams replayed
+     * @throws IOException - if the trace cannot be read
+     * @throws NetworkException - if a datastream is invalid
+     * @throws TerminalInterruptedException - if interrupted waiting for the next datastream
+     */
+    public static long replay(DatastreamTraceReader reader, Screen screen, boolean realTime)
+            throws IOException, NetworkException, TerminalInterruptedException {
+        NetworkThread networkThread = new NetworkThread(null, screen, null, null);
+
+        long replayed = 0;
+        long firstOffset = -1;
+        long startedNanos = System.nanoTime();
+
+        DatastreamTraceRecord record;
+        while ((record = reader.next()) != null) {
+            if (realTime) {
+                if (firstOffset < 0) {
+                    firstOffset = record.getOffsetNanos();
+                }
+                long wait = (record.getOffsetNanos() - firstOffset) - (System.nanoTime() - startedNanos);
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new TerminalInterruptedException("Interrupted whilst replaying the 3270 datastream trace", e);
+                    }
+                }
+            }
+
+            networkThread.processInbound3270Data(record.getBuffer());
+            replayed++;
+        }
+
+        if (reader.isTruncated()) {
+            logger.warn("The 3270 datastream trace ended part way through a record, replayed the " + replayed + " complete records");
+        }
+
+        return replayed;
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Reads the records of a datastream trace written by DatastreamTraceWriter one at a time,
+ * so a long trace does not have to fit on the heap.
+ *
+ * A trace that ends part way through a record, because the run ended before the trace was
+ * closed, is read up to the last complete record.
+ */
+public class DatastreamTraceReader implements Closeable {
+
+    private static final int      BUFFER_SIZE          = 64 * 1024;
+    private static final int      RECORD_HEADER_LENGTH = 12;
+
+    private final DataInputStream input;
+
+    private final int             primaryColumns;
+    private final int             primaryRows;
+    private final int             alternateColumns;
+    private final int             alternateRows;
+    private final Instant         started;
+
+    private final byte[]          recordHeader = new byte[RECORD_HEADER_LENGTH];
+
+    private boolean               truncated;
+
+    public DatastreamTraceReader(InputStream inputStream) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
+
+        try {
+            byte[] magic = new byte[DatastreamTraceWriter.MAGIC.length];
+            this.input.readFully(magic);
+            if (!Arrays.equals(magic, DatastreamTraceWriter.MAGIC)) {
+                throw new IOException("Not a 3270 datastream trace");
+            }
+
+            short version = this.input.readShort();
+            if (version != DatastreamTraceWriter.VERSION) {
+                throw new IOException("Unsupported 3270 datastream trace version " + version);
+            }
+
+            this.primaryColumns = this.input.readShort();
+            this.primaryRows = this.input.readShort();
+            this.alternateColumns = this.input.readShort();
+            this.alternateRows = this.input.readShort();
+            this.started = Instant.ofEpochMilli(this.input.readLong());
+        } catch (EOFException e) {
+            throw new IOException("The 3270 datastream trace header is incomplete", e);
+        }
+    }
+
+    public static DatastreamTraceReader open(Path path) throws IOException {
+        return new DatastreamTraceReader(Files.newInputStream(path));
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return the record, or null at the end of the trace
+     * @throws IOException - if the trace cannot be read
+     */
+    public DatastreamTraceRecord next() throws IOException {
+        if (this.truncated) {
+            return null;
+        }
+
+        int first = this.input.read();
+        if (first < 0) {
+            return null;
+        }
+
+        try {
+            this.recordHeader[0] = (byte) first;
+            this.input.readFully(this.recordHeader, 1, RECORD_HEADER_LENGTH - 1);
+            ByteBuffer header = ByteBuffer.wrap(this.recordHeader);
+            long offsetNanos = header.getLong();
+            int length = header.getInt();
+            if (length < 0) {
+                throw new IOException("Invalid 3270 datastream trace record length " + length);
+            }
+
+            byte[] datastream = new byte[length];
+            this.input.readFully(datastream);
+            return new DatastreamTraceRecord(offsetNanos, datastream);
+        } catch (EOFException e) {
+            this.truncated = true;
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the trace ended part way through a record
+     */
+    public boolean isTruncated() {
+        return this.truncated;
+    }
+
+    public int getPrimaryColumns() {
+        return this.primaryColumns;
+    }
+
+    public int getPrimaryRows() {
+        return this.primaryRows;
+    }
+
+    public int getAlternateColumns() {
+        return this.alternateColumns;
+    }
+
+    public int getAlternateRows() {
+        return this.alternateRows;
+    }
+
+    /**
+     * @return when the trace was started
+     */
+    public Instant getStarted() {
+        return this.started;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+}
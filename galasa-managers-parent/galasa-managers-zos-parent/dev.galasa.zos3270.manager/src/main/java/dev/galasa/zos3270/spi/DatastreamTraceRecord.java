@@ -0,0 +1,44 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An inbound datastream read from a datastream trace
+ */
+public class DatastreamTraceRecord {
+
+    private final long   offsetNanos;
+    private final byte[] datastream;
+
+    public DatastreamTraceRecord(long offsetNanos, byte[] datastream) {
+        this.offsetNanos = offsetNanos;
+        this.datastream = datastream;
+    }
+
+    /**
+     * @return when the datastream was received, in nanoseconds since the trace was started
+     */
+    public long getOffsetNanos() {
+        return this.offsetNanos;
+    }
+
+    /**
+     * @return the datastream, from the command code
+     */
+    public byte[] getDatastream() {
+        return this.datastream;
+    }
+
+    /**
+     * @return a new buffer over the datastream, positioned at the command code
+     */
+    public ByteBuffer getBuffer() {
+        return ByteBuffer.wrap(this.datastream);
+    }
+
+}
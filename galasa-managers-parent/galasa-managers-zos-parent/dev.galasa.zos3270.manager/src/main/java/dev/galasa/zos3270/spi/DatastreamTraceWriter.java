@@ -0,0 +1,150 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.ResultArchiveStoreContentType;
+import dev.galasa.SetContentType;
+
+/**
+ * Records the raw inbound 3270 datastreams of a screen so they can be replayed
+ * offline with DatastreamReplay.
+ *
+ * The trace is written append-only, a header followed by one record per inbound
+ * datastream:-
+ * <pre>
+ *   header - "G3270TRC", version (short), primary columns, primary rows,
+ *            alternate columns, alternate rows (shorts), started epoch millis (long)
+ *   record - nanoseconds since started (long), length (int), the datastream from the command code
+ * </pre>
+ * All numbers are big endian.  The datastream is recorded as received, confidential
+ * text filtering is not applied.
+ *
+ * A failure to write stops the recording rather than the terminal.
+ */
+public class DatastreamTraceWriter implements Closeable {
+
+    static final byte[]            MAGIC         = "G3270TRC".getBytes(StandardCharsets.US_ASCII);
+    static final short             VERSION       = 1;
+
+    private static final int       BUFFER_SIZE   = 64 * 1024;
+
+    private final Log              logger        = LogFactory.getLog(getClass());
+
+    private final DataOutputStream output;
+    private final long             startedNanos;
+
+    private long                   records;
+    private boolean                closed;
+
+    public DatastreamTraceWriter(OutputStream outputStream, Screen screen) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        this.startedNanos = System.nanoTime();
+
+        this.output.write(MAGIC);
+        this.output.writeShort(VERSION);
+        this.output.writeShort(screen.getPrimaryColumns());
+        this.output.writeShort(screen.getPrimaryRows());
+        this.output.writeShort(screen.getAlternateColumns());
+        this.output.writeShort(screen.getAlternateRows());
+        this.output.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Create a trace file in the RAS
+     *
+     * @param path - the trace file
+     * @param screen - the screen being traced, for the screen sizes
+     * @return the writer
+     * @throws IOException - if the file cannot be created
+     */
+    public static DatastreamTraceWriter create(Path path, Screen screen) throws IOException {
+        Files.createDirectories(path.getParent());
+        OutputStream outputStream = Files.newOutputStream(path,
+                new SetContentType(new ResultArchiveStoreContentType("application/octet-stream")),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new DatastreamTraceWriter(outputStream, screen);
+    }
+
+    /**
+     * Append an inbound datastream, the buffer position is not changed
+     *
+     * @param buffer - the datastream, positioned at the command code
+     */
+    public synchronized void inbound(ByteBuffer buffer) {
+        if (this.closed) {
+            return;
+        }
+
+        long offset = System.nanoTime() - this.startedNanos;
+        try {
+            this.output.writeLong(offset);
+            this.output.writeInt(buffer.remaining());
+            if (buffer.hasArray()) {
+                this.output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                byte[] datastream = new byte[buffer.remaining()];
+                buffer.duplicate().get(datastream);
+                this.output.write(datastream);
+            }
+            this.records++;
+        } catch (IOException e) {
+            logger.warn("Unable to write the 3270 datastream trace, recording stopped", e);
+            close();
+        }
+    }
+
+    /**
+     * @return the number of datastreams recorded
+     */
+    public synchronized long getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Write the buffered records
+     */
+    public synchronized void flush() {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            this.output.flush();
+        } catch (IOException e) {
+            logger.warn("Unable to flush the 3270 datastream trace, recording stopped", e);
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close the 3270 datastream trace", e);
+        }
+    }
+
+}
@@ -1,20 +1,23 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.spi;
 
-import java.nio.charset.Charset;
 import java.util.Arrays;
 
-public class Field {
+import dev.galasa.zos3270.internal.datastream.CodePage;
+import dev.galasa.zos3270.internal.terminal.ScreenBuffer;
 
-    private static final Charset ebcdic = Charset.forName("Cp037");
+public class Field {
 
     private final int            start;
 
+    private final CodePage       codePage;
+
     private char[]               text;
+    private String               textString;
 
     private final boolean        fieldProtected;
     private final boolean        fieldNumeric;
@@ -32,23 +35,46 @@ public class Field {
         this.fieldSelectorPen = sf.isSelectorPen();
         this.fieldModifed = sf.isFieldModifed();
         this.text = new char[0];
+        this.codePage = CodePage.getDefault();
+    }
+
+    protected Field(int start, byte fieldAttributes) {
+        this(start, fieldAttributes, new char[0], CodePage.getDefault());
+    }
+
+    protected Field(int start, byte fieldAttributes, char[] text, CodePage codePage) {
+        this.start = start;
+        this.codePage = codePage;
+        this.fieldProtected = (fieldAttributes & ScreenBuffer.FA_PROTECTED) != 0;
+        this.fieldNumeric = (fieldAttributes & ScreenBuffer.FA_NUMERIC) != 0;
+        this.fieldDisplay = (fieldAttributes & ScreenBuffer.FA_DISPLAY) != 0;
+        this.fieldIntenseDisplay = (fieldAttributes & ScreenBuffer.FA_INTENSE_DISPLAY) != 0;
+        this.fieldSelectorPen = (fieldAttributes & ScreenBuffer.FA_SELECTOR_PEN) != 0;
+        this.fieldModifed = (fieldAttributes & ScreenBuffer.FA_MODIFIED) != 0;
+        this.text = text;
     }
 
     public Field() {
+        this(new char[0], CodePage.getDefault());
+    }
+
+    protected Field(char[] text, CodePage codePage) {
         this.start = -1;
+        this.codePage = codePage;
         this.fieldProtected = false;
         this.fieldNumeric = false;
         this.fieldDisplay = true;
         this.fieldIntenseDisplay = false;
         this.fieldSelectorPen = false;
         this.fieldModifed = false;
-        this.text = new char[0];
+        this.text = text;
     }
 
     protected void appendChar(char newChar) {
         char[] newText = Arrays.copyOf(this.text, this.text.length + 1);
         newText[newText.length - 1] = newChar;
         this.text = newText;
+        this.textString = null;
     }
 
     @Override
@@ -78,8 +104,17 @@ public class Field {
         return text.length + 1;
     }
 
+    char[] getText() {
+        return this.text;
+    }
+
     public boolean containsText(String searchText) {
-        return new String(this.text).contains(searchText);
+        String fieldText = this.textString;
+        if (fieldText == null) {
+            fieldText = new String(this.text);
+            this.textString = fieldText;
+        }
+        return fieldText.contains(searchText);
     }
 
     public int getStart() {
@@ -136,8 +171,11 @@ public class Field {
     }
 
     public byte[] getFieldWithNulls() {
-        String otext = new String(text);
-        return otext.getBytes(ebcdic);
+        byte[] ebcdic = new byte[text.length];
+        for (int i = 0; i < text.length; i++) {
+            ebcdic[i] = this.codePage.encode(text[i]);
+        }
+        return ebcdic;
     }
 
     public Character[] getFieldCharsWithNulls() {
@@ -0,0 +1,120 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Connects a list of terminals using a bounded pool of threads, so a test with
+ * many terminals does not wait for each negotiation and logon in turn.
+ *
+ * Every terminal is attempted, and the failures are returned together in the
+ * order of the list, so the caller can report them as before.
+ *
+ * @param <T> the type of terminal
+ */
+public class ParallelTerminalConnector<T> {
+
+    public interface IConnector<T> {
+        void connect(T terminal) throws Exception;
+    }
+
+    private final int          threads;
+    private final String       threadName;
+
+    /**
+     * @param threads - the most terminals to connect at the same time, 1 or less connects them one at a time on the calling thread
+     * @param threadName - the name of the pool threads
+     */
+    public ParallelTerminalConnector(int threads, @NotNull String threadName) {
+        this.threads = threads;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Connect all the terminals, waiting for them all to finish
+     *
+     * @param terminals - the terminals, in the order failures are to be reported
+     * @param connector - connects one terminal
+     * @return the terminals that failed with the reason, in list order, empty if all connected
+     * @throws InterruptedException - if interrupted while waiting, the outstanding connections are cancelled
+     */
+    public LinkedHashMap<T, Exception> connectAll(@NotNull List<T> terminals, @NotNull IConnector<T> connector)
+            throws InterruptedException {
+        LinkedHashMap<T, Exception> failures = new LinkedHashMap<>();
+
+        if (this.threads <= 1 || terminals.size() <= 1) {
+            for (T terminal : terminals) {
+                try {
+                    connector.connect(terminal);
+                } catch (Exception e) {
+                    failures.put(terminal, e);
+                }
+            }
+            return failures;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.threads, terminals.size()),
+                new NamedThreadFactory(this.threadName));
+        try {
+            ArrayList<Future<Void>> futures = new ArrayList<>();
+            for (final T terminal : terminals) {
+                futures.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        connector.connect(terminal);
+                        return null;
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    failures.put(terminals.get(i), (Exception) cause);
+                }
+            }
+        } finally {
+            // *** Only has work left if interrupted
+            pool.shutdownNow();
+        }
+
+        return failures;
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String        name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, this.name + " " + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import dev.galasa.zos3270.IResponseTimes;
+
+/**
+ * A fixed size histogram of response times in the style of HdrHistogram, the times are
+ * recorded in microseconds into log-linear buckets, exact below 128us and within 1/64 above,
+ * so recording is cheap and the memory used does not grow with the number of responses.
+ */
+public class ResponseHistogram implements IResponseTimes {
+
+    private static final int  LINEAR_BUCKETS = 128;
+    private static final int  SUB_BUCKETS    = 64;
+    private static final int  SUB_BITS       = 6;
+    private static final int  BUCKETS        = 2048;
+    private static final long HIGHEST_VALUE  = (1L << 37) - 1;
+
+    private final long[]      counts         = new long[BUCKETS];
+    private long              count;
+    private long              total;
+    private long              minimum        = Long.MAX_VALUE;
+    private long              maximum;
+
+    /**
+     * @param micros - the response time in microseconds, values over about 38 hours are recorded as 38 hours
+     */
+    public synchronized void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), HIGHEST_VALUE);
+
+        this.counts[bucket(value)]++;
+        this.count++;
+        this.total += value;
+        this.minimum = Math.min(this.minimum, value);
+        this.maximum = Math.max(this.maximum, value);
+    }
+
+    @Override
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public synchronized double getMinimum() {
+        if (this.count == 0) {
+            return 0;
+        }
+        return this.minimum / 1000.0;
+    }
+
+    @Override
+    public synchronized double getMaximum() {
+        return this.maximum / 1000.0;
+    }
+
+    @Override
+    public synchronized double getMean() {
+        if (this.count == 0) {
+            return 0;
+        }
+        return (this.total / (double) this.count) / 1000.0;
+    }
+
+    @Override
+    public synchronized double getPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil((Math.min(Math.max(percentile, 0), 100) / 100.0) * this.count);
+        rank = Math.max(rank, 1);
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), this.maximum) / 1000.0;
+            }
+        }
+        return this.maximum / 1000.0;
+    }
+
+    /**
+     * @param millis - the response time limit
+     * @return the number of responses at or below the limit, to within the bucket precision
+     */
+    public synchronized long getCountAtOrBelow(double millis) {
+        long limit = (long) (millis * 1000);
+        if (limit < 0) {
+            return 0;
+        }
+        int last = bucket(Math.min(limit, HIGHEST_VALUE));
+
+        long seen = 0;
+        for (int i = 0; i <= last; i++) {
+            seen += this.counts[i];
+        }
+        return seen;
+    }
+
+    /**
+     * @return the total of all the responses in milliseconds
+     */
+    public synchronized double getTotal() {
+        return this.total / 1000.0;
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+        int sub = (int) (value >>> shift);
+        return LINEAR_BUCKETS + ((shift - 1) * SUB_BUCKETS) + (sub - SUB_BUCKETS);
+    }
+
+    private static long lowestInBucket(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = ((bucket - LINEAR_BUCKETS) / SUB_BUCKETS) + 1;
+        long sub = ((bucket - LINEAR_BUCKETS) % SUB_BUCKETS) + SUB_BUCKETS;
+        return sub << shift;
+    }
+
+    private static long highestInBucket(int bucket) {
+        if (bucket >= BUCKETS - 1) {
+            return HIGHEST_VALUE;
+        }
+        return lowestInBucket(bucket + 1) - 1;
+    }
+
+}
@@ -1,13 +1,18 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.zos3270.spi;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -28,6 +33,7 @@ import dev.galasa.zos3270.IDatastreamListener.DatastreamDirection;
 import dev.galasa.zos3270.IScreenUpdateListener;
 import dev.galasa.zos3270.IScreenUpdateListener.Direction;
 import dev.galasa.zos3270.KeyboardLockedException;
+import dev.galasa.zos3270.ScreenMatcher;
 import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.TextNotFoundException;
 import dev.galasa.zos3270.TimeoutException;
@@ -37,7 +43,16 @@ import dev.galasa.zos3270.internal.comms.Network;
 import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
 import dev.galasa.zos3270.internal.datastream.AbstractOrder;
 import dev.galasa.zos3270.internal.datastream.AbstractQueryReply;
+import dev.galasa.zos3270.internal.datastream.AttributeBackgroundColour;
+import dev.galasa.zos3270.internal.datastream.AttributeCharacterSet;
+import dev.galasa.zos3270.internal.datastream.AttributeExtendedHighlighting;
+import dev.galasa.zos3270.internal.datastream.AttributeFieldOutlining;
+import dev.galasa.zos3270.internal.datastream.AttributeFieldValidation;
+import dev.galasa.zos3270.internal.datastream.AttributeForegroundColour;
+import dev.galasa.zos3270.internal.datastream.AttributeResetAllAttributes;
+import dev.galasa.zos3270.internal.datastream.AttributeTransparency;
 import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CodePage;
 import dev.galasa.zos3270.internal.datastream.CommandEraseWrite;
 import dev.galasa.zos3270.internal.datastream.CommandEraseWriteAlternate;
 import dev.galasa.zos3270.internal.datastream.CommandReadBuffer;
@@ -67,6 +82,8 @@ import dev.galasa.zos3270.internal.datastream.StructuredField;
 import dev.galasa.zos3270.internal.datastream.StructuredField3270DS;
 import dev.galasa.zos3270.internal.datastream.StructuredFieldReadPartition;
 import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.internal.terminal.ScreenBuffer;
+import dev.galasa.zos3270.internal.terminal.ScreenStabilityListener;
 import dev.galasa.zos3270.internal.terminal.ScreenUpdateTextListener;
 
 /**
@@ -84,7 +101,7 @@ public class Screen {
     private final Network                           network;
 
     private boolean                                 usingAlternate;
-    private IBufferHolder[]                         buffer;
+    private ScreenBuffer                            buffer;
     private int                                     screenSize;
     private int                                     columns;
     private int                                     rows;
@@ -98,6 +115,22 @@ public class Screen {
     private int                                     workingCursor   = 0;
     private int                                     screenCursor    = 0;
 
+    private short                                   characterAttributes = 0;
+
+    private CodePage                                codePage        = CodePage.getDefault();
+
+    private Field[]                                 cachedFields;
+    private ScreenBuffer                            cachedFieldsBuffer;
+    private int                                     cachedFieldsGeneration;
+
+    private long                                    cachedFingerprint;
+    private ScreenBuffer                            cachedFingerprintBuffer;
+    private int                                     cachedFingerprintGeneration;
+
+    private ScreenTextView                          cachedScreenText;
+
+    private volatile long                           lastUpdated     = System.nanoTime();
+
     private Semaphore                               keyboardLock    = new Semaphore(1, true);
     private boolean                                 keyboardLockSet = false;
 
@@ -107,6 +140,10 @@ public class Screen {
 
     private AttentionIdentification                 lastAid = AttentionIdentification.NONE;
 
+    private final TerminalStatistics                statistics      = new TerminalStatistics();
+
+    private volatile DatastreamTraceWriter          datastreamTrace;
+
     public Screen() throws TerminalInterruptedException {
         this(80, 24, null);
     }
@@ -155,6 +192,7 @@ public class Screen {
             logger.trace("Unlocking keyboard");
             keyboardLockSet = false;
             keyboardLock.release();
+            statistics.keyboardUnlocked();
         }
     }
 
@@ -171,6 +209,11 @@ public class Screen {
         } else {
             WriteControlCharacter writeControlCharacter = inbound.getWriteControlCharacter();
             List<AbstractOrder> orders = inbound.getOrders();
+            if (writeControlCharacter == null) {
+                // *** A write with no WCC, so nothing is reset
+                writeControlCharacter = new WriteControlCharacter();
+                orders = Collections.emptyList();
+            }
 
             if (commandCode instanceof CommandEraseWrite) {
                 erase();
@@ -190,14 +233,67 @@ public class Screen {
 
     }
 
-    private void resetMdt() {
-        for(int i = 0; i < this.screenSize; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField sof = (BufferStartOfField) bh;
-                sof.clearFieldModified();
-            }
+    /**
+     * Apply a write command straight from the inbound datastream.  The orders are decoded
+     * and applied to the screen buffer as they are reached, without building the
+     * order objects first, which is what processInboundMessage would be given.
+     * 
+     * Only the Write, Erase/Write and Erase/Write Alternate commands are applied this way,
+     * the read and structured field commands are left for processInboundMessage.
+     * 
+     * @param buffer - the datastream, positioned at the command code
+     * @return true if the command was applied, false if the buffer has not been touched
+     * @throws DatastreamException - if the datastream is invalid
+     */
+    public synchronized boolean processInboundDatastream(ByteBuffer buffer) throws DatastreamException {
+        if (!buffer.hasRemaining()) {
+            return false;
         }
+
+        switch (buffer.get(buffer.position())) {
+            case AbstractCommandCode.WRITE:
+            case AbstractCommandCode.NONSNA_WRITE:
+                buffer.get();
+                break;
+            case AbstractCommandCode.ERASE_WRITE:
+            case AbstractCommandCode.NONSNA_ERASE_WRITE:
+                buffer.get();
+                erase();
+                break;
+            case AbstractCommandCode.ERASE_WRITE_ALTERNATE:
+            case AbstractCommandCode.NONSNA_ERASE_WRITE_ALTERNATE:
+                buffer.get();
+                eraseAlternate();
+                break;
+            default:
+                return false;
+        }
+
+        if (!buffer.hasRemaining()) {
+            // *** No WCC, so nothing is reset, but the write still happened
+            writeCompleted(new WriteControlCharacter());
+            return true;
+        }
+
+        WriteControlCharacter writeControlCharacter = new WriteControlCharacter(buffer.get());
+        if (writeControlCharacter.isResetMDT()) {
+            resetMdt();
+        }
+
+        this.workingCursor = this.screenCursor;
+
+        try {
+            processOrders(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new DatastreamException("3270 datastream terminated within an order", e);
+        }
+
+        writeCompleted(writeControlCharacter);
+        return true;
+    }
+
+    private void resetMdt() {
+        this.buffer.resetMdt();
     }
 
     private synchronized void processReadBuffer() throws DatastreamException {
@@ -209,22 +305,22 @@ public class Screen {
             BufferAddress cursor = new BufferAddress(this.screenCursor);
             outboundBuffer.write(cursor.getCharRepresentation());
 
-            for(IBufferHolder bh : this.buffer) {
-                if (bh == null) {
-                    outboundBuffer.write(0);
-                } else if (bh instanceof BufferGraphicsEscape) {
-                    BufferGraphicsEscape bc = (BufferGraphicsEscape) bh;
-                    outboundBuffer.write(OrderGraphicsEscape.ID);
-                    outboundBuffer.write(bc.getFieldEbcdic());
-                } else if (bh instanceof BufferChar) {
-                    BufferChar bc = (BufferChar) bh;
-                    outboundBuffer.write(bc.getFieldEbcdic());
-                } else if (bh instanceof BufferStartOfField) {
-                    BufferStartOfField sf = (BufferStartOfField) bh;
-                    OrderStartField osf = new OrderStartField(sf.isProtected(), sf.isNumeric(), sf.isDisplay(), sf.isIntenseDisplay(), sf.isSelectorPen(), sf.isFieldModifed());
+            for(int i = 0; i < this.screenSize; i++) {
+                byte type = this.buffer.getType(i);
+                if (type == ScreenBuffer.TYPE_START_OF_FIELD) {
+                    byte fa = this.buffer.getFieldAttributes(i);
+                    OrderStartField osf = new OrderStartField((fa & ScreenBuffer.FA_PROTECTED) != 0,
+                            (fa & ScreenBuffer.FA_NUMERIC) != 0,
+                            (fa & ScreenBuffer.FA_DISPLAY) != 0,
+                            (fa & ScreenBuffer.FA_INTENSE_DISPLAY) != 0,
+                            (fa & ScreenBuffer.FA_SELECTOR_PEN) != 0,
+                            (fa & ScreenBuffer.FA_MODIFIED) != 0);
                     outboundBuffer.write(osf.getBytes());
                 } else {
-                    throw new DatastreamException("Unrecognised Buffer Holder - " + bh.getClass().getName());
+                    if (type == ScreenBuffer.TYPE_GRAPHICS_ESCAPE) {
+                        outboundBuffer.write(OrderGraphicsEscape.ID);
+                    }
+                    outboundBuffer.write(this.buffer.getEbcdic(i, this.codePage));
                 }
             }
             writeTrace(outboundBuffer);
@@ -279,17 +375,12 @@ public class Screen {
         // *** Locate the first StartOfField in the buffer, if absent, then unformatted,
         // send everything back.
 
-        int start = 0;
+        int start = this.buffer.findFirstStartOfField();
         int end = 0;
-        for (; start < buffer.length; start++) {
-            if (buffer[start] instanceof BufferStartOfField) {
-                break;
-            }
-        }
 
-        if (start >= buffer.length) { // indicates unfromatted, send it all
+        if (start < 0) { // indicates unfromatted, send it all
             start = 0;
-            end = buffer.length - 1;
+            end = this.screenSize - 1;
 
             // OrderSetBufferAddress sba = new OrderSetBufferAddress(new BufferAddress(0));
             // outboundBuffer.write(sba.getCharRepresentation());
@@ -297,32 +388,28 @@ public class Screen {
         } else { // formatted
             end = start - 1;
             if (end < 0) {
-                end = buffer.length - 1;
+                end = this.screenSize - 1;
             }
         }
 
         int pos = start;
         while (true) {
-            IBufferHolder bh = buffer[pos];
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField bsf = (BufferStartOfField) bh;
-                fieldModified = bsf.isFieldModifed();
+            byte type = this.buffer.getType(pos);
+            if (type == ScreenBuffer.TYPE_START_OF_FIELD) {
+                fieldModified = this.buffer.isFieldModified(pos);
 
                 if (fieldModified) { // Send whether unprotected or not
                     OrderSetBufferAddress sba = new OrderSetBufferAddress(new BufferAddress(pos + 1));
                     outboundBuffer.write(sba.getCharRepresentation());
                 }
-            } else if (bh instanceof BufferGraphicsEscape) {
-                BufferGraphicsEscape bc = (BufferGraphicsEscape) bh;
+            } else if (type == ScreenBuffer.TYPE_GRAPHICS_ESCAPE) {
                 if (fieldModified) {
                     outboundBuffer.write(OrderGraphicsEscape.ID);
-                    byte value = bc.getFieldEbcdic();
-                    outboundBuffer.write(value);
+                    outboundBuffer.write(this.buffer.getEbcdic(pos, this.codePage));
                 }
-            } else if (bh instanceof BufferChar) {
-                BufferChar bc = (BufferChar) bh;
+            } else if (type != ScreenBuffer.TYPE_NULL) {
                 if (fieldModified) {
-                    byte value = bc.getFieldEbcdic();
+                    byte value = this.buffer.getEbcdic(pos, this.codePage);
                     if (value != 0) {
                         outboundBuffer.write(value);
                     }
@@ -334,7 +421,7 @@ public class Screen {
             }
 
             pos++;
-            if (pos >= buffer.length) {
+            if (pos >= this.screenSize) {
                 pos = 0;
             }
         }
@@ -477,13 +564,92 @@ public class Screen {
             }
         }
 
+        writeCompleted(writeControlCharacter);
+    }
+
+    /**
+     * Decode and apply the orders from the datastream, the same as processOrders(List) does 
+     * for the order objects
+     * 
+     * @param buffer - the datastream, positioned after the write control character
+     * @throws DatastreamException - if the datastream holds an invalid order
+     */
+    private void processOrders(ByteBuffer buffer) throws DatastreamException {
+        CodePage currentCodePage = this.codePage;
+        while (buffer.hasRemaining()) {
+            byte orderByte = buffer.get();
+
+            if (orderByte <= 0x00 || orderByte > 0x3f) {
+                // *** Text is by far the most common, so put it straight into the buffer
+                char c = (orderByte == -1) ? 0x00 : currentCodePage.decode(orderByte);
+                this.buffer.setChar(this.workingCursor, c, this.characterAttributes);
+                incrementWorkingCursor();
+                continue;
+            }
+
+            switch (orderByte) {
+                case OrderSetBufferAddress.ID:
+                    processSBA(BufferAddress.decode(buffer));
+                    break;
+                case OrderRepeatToAddress.ID:
+                    int endOfRepeat = BufferAddress.decode(buffer);
+                    byte charByte = buffer.get();
+                    if (charByte == -1) {
+                        charByte = 0x00;
+                    }
+                    processRA(endOfRepeat, currentCodePage.decode(charByte));
+                    break;
+                case OrderStartField.ID:
+                    processSF(fieldAttributes(buffer.get()), (short) 0);
+                    break;
+                case OrderStartFieldExtended.ID:
+                    processSFE(buffer);
+                    break;
+                case OrderSetAttribute.ID:
+                    processSA(buffer.get(), buffer.get());
+                    break;
+                case OrderInsertCursor.ID:
+                    this.screenCursor = this.workingCursor;
+                    break;
+                case OrderEraseUnprotectedToAddress.ID:
+                    processEUA(BufferAddress.decode(buffer));
+                    break;
+                case OrderNewLine.ID:
+                    processNewLine();
+                    break;
+                case OrderFormFeed.ID:
+                    processFormFeed();
+                    break;
+                case OrderCarrageReturn.ID:
+                    processCarrageReturn();
+                    break;
+                case OrderEndOfMedium.ID:
+                    processEndOfMedium();
+                    break;
+                case OrderGraphicsEscape.ID:
+                    processGraphicsEscape(buffer.get());
+                    break;
+                default:
+                    if (logger.isTraceEnabled()) {
+                        String byteHex = Hex.encodeHexString(new byte[] { orderByte });
+                        logger.trace("Invalid byte detected in datastream, unrecognised byte order or text byte - 0x" + byteHex);
+                    }
+                    this.buffer.setChar(this.workingCursor, ' ', this.characterAttributes);
+                    incrementWorkingCursor();
+            }
+        }
+    }
 
+    private void writeCompleted(WriteControlCharacter writeControlCharacter) {
         if (writeControlCharacter.isKeyboardReset()) {
             this.lastAid = AttentionIdentification.NONE;
             unlockKeyboard();
             this.workingCursor = 0;
         }
 
+        statistics.screenReceived();
+        this.lastUpdated = System.nanoTime();
+
         synchronized (updateListeners) {
             for (IScreenUpdateListener listener : updateListeners) {
                 listener.screenUpdated(Direction.RECEIVED, null);
@@ -499,11 +665,10 @@ public class Screen {
             allocateBuffer();
 
             this.usingAlternate = false;
+        } else {
+            this.buffer.clear();
         }
-
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        this.characterAttributes = 0;
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -522,11 +687,10 @@ public class Screen {
             allocateBuffer();
 
             this.usingAlternate = true;
+        } else {
+            this.buffer.clear();
         }
-
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        this.characterAttributes = 0;
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -534,7 +698,7 @@ public class Screen {
 
     private void allocateBuffer() {
         this.screenSize = this.columns * this.rows;
-        this.buffer = new IBufferHolder[this.screenSize];        
+        this.buffer = new ScreenBuffer(this.screenSize);
     }
 
     /**
@@ -543,7 +707,11 @@ public class Screen {
      * @param order - the order to process
      */
     private synchronized void processSBA(OrderSetBufferAddress order) {
-        this.workingCursor = order.getBufferAddress();
+        processSBA(order.getBufferAddress());
+    }
+
+    private void processSBA(int bufferAddress) {
+        this.workingCursor = bufferAddress;
         if (this.workingCursor >= this.screenSize) {
             this.workingCursor = this.workingCursor - this.screenSize;
         }
@@ -556,22 +724,27 @@ public class Screen {
      * @throws DatastreamException
      */
     private synchronized void processRA(OrderRepeatToAddress order) throws DatastreamException {
-        int endOfRepeat = order.getBufferAddress();
+        processRA(order.getBufferAddress(), order.getChar());
+    }
+
+    private void processRA(int endOfRepeat, char repeatChar) throws DatastreamException {
 
         if (endOfRepeat > this.screenSize || endOfRepeat < 0) {
             throw new DatastreamException(
                     "Impossible RA end address " + endOfRepeat + ", screen size is " + screenSize);
         }
 
-        boolean firstPosition = true;
-        while (firstPosition || this.workingCursor != endOfRepeat) {
-            this.buffer[this.workingCursor] = new BufferChar(order.getChar());
-            if (endOfRepeat == this.screenSize && this.workingCursor == (this.screenSize - 1)) {
-                endOfRepeat = 0;
-                break;
-            }
-            firstPosition = false;
-            incrementWorkingCursor();
+        if (endOfRepeat == this.screenSize) {
+            endOfRepeat = 0;
+        }
+
+        // *** Fill in at most two runs, up to the end of the buffer and then from the start if wrapped
+        int from = this.workingCursor;
+        if (endOfRepeat > from) {
+            this.buffer.setChar(from, endOfRepeat, repeatChar, this.characterAttributes);
+        } else {
+            this.buffer.setChar(from, this.screenSize, repeatChar, this.characterAttributes);
+            this.buffer.setChar(0, endOfRepeat, repeatChar, this.characterAttributes);
         }
 
         this.workingCursor = endOfRepeat;
@@ -585,69 +758,104 @@ public class Screen {
     }
 
     private void processSF(OrderStartField order) {
-        this.buffer[this.workingCursor] = new BufferStartOfField(this.workingCursor, order.isFieldProtected(),
-                order.isFieldNumeric(), order.isFieldDisplay(), order.isFieldIntenseDisplay(),
-                order.isFieldSelectorPen(), order.isFieldModifed());
+        processSF(fieldAttributes(order), (short) 0);
+    }
+
+    private void processSF(byte fieldAttributes, short extendedAttributes) {
+        this.buffer.setStartOfField(this.workingCursor, fieldAttributes, extendedAttributes);
         incrementWorkingCursor();
     }
 
     private void processSFE(OrderStartFieldExtended order) {
         List<IAttribute> attributes = order.getAttributes();
 
-        BufferStartOfField bsf = null;
+        byte fa = ScreenBuffer.buildFieldAttributes(false, false, true, false, false, false);
+        byte foregroundColour = 0;
+        byte highlighting = 0;
         for (IAttribute attr : attributes) {
             if (attr instanceof OrderStartField) {
-                OrderStartField sf = (OrderStartField) attr;
-                bsf = new BufferStartOfField(this.workingCursor, sf.isFieldProtected(), sf.isFieldNumeric(),
-                        sf.isFieldDisplay(), sf.isFieldIntenseDisplay(), sf.isFieldSelectorPen(), sf.isFieldModifed());
+                fa = fieldAttributes((OrderStartField) attr);
+            } else if (attr instanceof AttributeForegroundColour) {
+                foregroundColour = ((AttributeForegroundColour) attr).getColour();
+            } else if (attr instanceof AttributeExtendedHighlighting) {
+                highlighting = ((AttributeExtendedHighlighting) attr).getColour();
             }
-            // TODO add processing for character attributes
         }
 
-        if (bsf == null) {
-            bsf = new BufferStartOfField(this.workingCursor, false, false, true, false, false, false);
+        processSF(fa, ScreenBuffer.buildExtendedAttributes(foregroundColour, highlighting));
+    }
+
+    private void processSFE(ByteBuffer datastream) throws DatastreamException {
+        int fieldAttributeCount = datastream.get() & 0xff;
+
+        byte fa = ScreenBuffer.buildFieldAttributes(false, false, true, false, false, false);
+        byte foregroundColour = 0;
+        byte highlighting = 0;
+        for (int i = 0; i < fieldAttributeCount; i++) {
+            byte attributeId = datastream.get();
+            byte value = datastream.get();
+            switch (attributeId) {
+                case OrderStartField.ATTRIBUTE_ID:
+                    fa = fieldAttributes(value);
+                    break;
+                case AttributeForegroundColour.ATTRIBUTE_ID:
+                    foregroundColour = value;
+                    break;
+                case AttributeExtendedHighlighting.ATTRIBUTE_ID:
+                    highlighting = value;
+                    break;
+                case AttributeFieldValidation.ATTRIBUTE_ID:
+                case AttributeFieldOutlining.ATTRIBUTE_ID:
+                case AttributeCharacterSet.ATTRIBUTE_ID:
+                case AttributeBackgroundColour.ATTRIBUTE_ID:
+                case AttributeTransparency.ATTRIBUTE_ID:
+                    break;
+                default:
+                    throw new DatastreamException("Unrecognised attribute in SFE, '" + attributeId + "'");
+            }
         }
 
-        this.buffer[this.workingCursor] = bsf;
-        incrementWorkingCursor();
+        processSF(fa, ScreenBuffer.buildExtendedAttributes(foregroundColour, highlighting));
+    }
+
+    private static byte fieldAttributes(OrderStartField sf) {
+        return ScreenBuffer.buildFieldAttributes(sf.isFieldProtected(), sf.isFieldNumeric(), sf.isFieldDisplay(),
+                sf.isFieldIntenseDisplay(), sf.isFieldSelectorPen(), sf.isFieldModifed());
+    }
+
+    /**
+     * Field attributes from the datastream byte, decoded the same as OrderStartField does
+     */
+    private static byte fieldAttributes(byte attributes) {
+        return ScreenBuffer.buildFieldAttributes((attributes & 0x20) == 0x20, 
+                (attributes & 0x10) == 0x10, 
+                (attributes & 0x08) == 0x00,
+                (attributes & 0x0c) == 0x08, 
+                ((attributes & 0x0c) == 0x04) || ((attributes & 0x0c) == 0x08), 
+                (attributes & 0x01) == 0x01);
     }
 
     private void processEUA(OrderEraseUnprotectedToAddress order) {
+        processEUA(order.getBufferAddress());
+    }
+
+    private void processEUA(int toAddress) {
         boolean charProtected = true;
-        IBufferHolder bh = this.buffer[this.workingCursor];
         // are we on a SF, if so take the protected setting
-        if (bh instanceof BufferStartOfField) {
-            charProtected = ((BufferStartOfField)bh).isProtected();
+        if (this.buffer.isStartOfField(this.workingCursor)) {
+            charProtected = this.buffer.isProtected(this.workingCursor);
         } else {
             // we have to go looking backwards for it
-            int searchCursor = this.workingCursor - 1;
-            if (searchCursor < 0) {
-                searchCursor = this.screenSize - 1;
-            }
-            boolean found = false;
-            while(searchCursor != this.workingCursor) {
-                bh = this.buffer[searchCursor];
-
-                if (bh instanceof BufferStartOfField) {
-                    charProtected = ((BufferStartOfField)bh).isProtected();
-                    found = true;
-                    break;
-                }
-
-                searchCursor--;
-                if (searchCursor < 0) {
-                    searchCursor = this.screenSize - 1;
-                }
-            }
-
-            if (!found) {
+            int sfPos = this.buffer.findStartOfField(this.workingCursor);
+            if (sfPos >= 0) {
+                charProtected = this.buffer.isProtected(sfPos);
+            } else {
                 // assume no fields, so unprotected;
                 charProtected = false;
             }
         }
 
 
-        int toAddress = order.getBufferAddress();
         if (toAddress >= this.screenSize) {
             toAddress = this.screenSize - 1;
         }
@@ -657,12 +865,11 @@ public class Screen {
 
         int eraseCursor = this.workingCursor;
         while(true) {
-            bh = this.buffer[eraseCursor];
-            if (bh instanceof BufferStartOfField) {
-                charProtected = ((BufferStartOfField)bh).isProtected();
+            if (this.buffer.isStartOfField(eraseCursor)) {
+                charProtected = this.buffer.isProtected(eraseCursor);
             } else {
                 if (!charProtected) {
-                    this.buffer[eraseCursor] = null;
+                    this.buffer.setNull(eraseCursor);
                 }
             }
 
@@ -681,81 +888,104 @@ public class Screen {
 
 
     private void processSA(OrderSetAttribute order) {
-        // TODO add processing for character attributes
+        IAttribute attribute = order.getAttribute();
+        if (attribute instanceof AttributeResetAllAttributes) {
+            this.characterAttributes = 0;
+        } else if (attribute instanceof AttributeForegroundColour) {
+            this.characterAttributes = ScreenBuffer.buildExtendedAttributes(
+                    ((AttributeForegroundColour) attribute).getColour(),
+                    ScreenBuffer.getHighlighting(this.characterAttributes));
+        } else if (attribute instanceof AttributeExtendedHighlighting) {
+            this.characterAttributes = ScreenBuffer.buildExtendedAttributes(
+                    ScreenBuffer.getForegroundColour(this.characterAttributes),
+                    ((AttributeExtendedHighlighting) attribute).getColour());
+        }
+        // TODO add processing for the remaining character attributes
+    }
+
+    private void processSA(byte attributeId, byte value) throws DatastreamException {
+        switch (attributeId) {
+            case AttributeResetAllAttributes.ATTRIBUTE_ID:
+                this.characterAttributes = 0;
+                break;
+            case AttributeForegroundColour.ATTRIBUTE_ID:
+                this.characterAttributes = ScreenBuffer.buildExtendedAttributes(value,
+                        ScreenBuffer.getHighlighting(this.characterAttributes));
+                break;
+            case AttributeExtendedHighlighting.ATTRIBUTE_ID:
+                this.characterAttributes = ScreenBuffer.buildExtendedAttributes(
+                        ScreenBuffer.getForegroundColour(this.characterAttributes), value);
+                break;
+            case AttributeCharacterSet.ATTRIBUTE_ID:
+            case AttributeBackgroundColour.ATTRIBUTE_ID:
+            case AttributeTransparency.ATTRIBUTE_ID:
+                break;
+            default:
+                throw new DatastreamException("Unrecognised attribute in SA, '" + attributeId + "'");
+        }
     }
 
     private void processNewLine() {
-        this.buffer[this.workingCursor] = new BufferNewLine();
+        this.buffer.setControl(this.workingCursor, ScreenBuffer.TYPE_NEW_LINE, (byte) 0x15);
         incrementWorkingCursor();
     }
 
     private void processFormFeed() {
-        this.buffer[this.workingCursor] = new BufferFormFeed();
+        this.buffer.setControl(this.workingCursor, ScreenBuffer.TYPE_FORM_FEED, (byte) 0x0c);
         incrementWorkingCursor();
     }
 
     private void processCarrageReturn() {
-        this.buffer[this.workingCursor] = new BufferCarrageReturn();
+        this.buffer.setControl(this.workingCursor, ScreenBuffer.TYPE_CARRAGE_RETURN, (byte) 0x0d);
         incrementWorkingCursor();
     }
 
     private void processEndOfMedium() {
-        this.buffer[this.workingCursor] = new BufferEndOfMedium();
+        this.buffer.setControl(this.workingCursor, ScreenBuffer.TYPE_END_OF_MEDIUM, (byte) 0x19);
         incrementWorkingCursor();
     }
 
     private void processGraphicsEscape(OrderGraphicsEscape order) {
-        this.buffer[this.workingCursor] = new BufferGraphicsEscape(order.getByte());
+        processGraphicsEscape(order.getByte());
+    }
+
+    private void processGraphicsEscape(byte data) {
+        this.buffer.setControl(this.workingCursor, ScreenBuffer.TYPE_GRAPHICS_ESCAPE, data);
         incrementWorkingCursor();
     }
 
     private void processText(OrderText order) {
         String text = order.getText();
         for (int i = 0; i < text.length(); i++) {
-            this.buffer[this.workingCursor] = new BufferChar(text.charAt(i));
+            this.buffer.setChar(this.workingCursor, text.charAt(i), this.characterAttributes);
             incrementWorkingCursor();
         }
 
     }
 
-    public String printScreen() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
+    public synchronized String printScreen() {
+        char[] screenChars = new char[this.screenSize + this.rows];
+        int pos = 0;
+        for (int i = 0; i < this.screenSize; i++) {
+            screenChars[pos++] = this.buffer.getDisplayChar(i);
+            if ((i + 1) % this.columns == 0) {
+                screenChars[pos++] = '\n';
             }
         }
-
-        StringBuilder screenSB = new StringBuilder();
-        String screenString = sb.toString();
-        for (int i = 0; i < this.screenSize; i += this.columns) {
-            screenSB.append(screenString.substring(i, i + this.columns));
-            screenSB.append('\n');
-        }
-        return screenSB.toString();
+        return new String(screenChars, 0, pos);
     }
 
-    public String printScreenTextWithCursor() {
+    public synchronized String printScreenTextWithCursor() {
         int cursorRow = screenCursor / columns;
         int cursorCol = screenCursor % columns;
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
-        }
-
-        StringBuilder screenSB = new StringBuilder();
-        String screenString = sb.toString();
+        StringBuilder screenSB = new StringBuilder(((this.columns + 4) * (this.rows + 1)) + 100);
         int row = 0;
         for (int i = 0; i < this.screenSize; i += this.columns) {
             screenSB.append("=|");
-            screenSB.append(screenString.substring(i, i + this.columns));
+            for (int j = i; j < i + this.columns; j++) {
+                screenSB.append(this.buffer.getDisplayChar(j));
+            }
             screenSB.append("|");
             screenSB.append('\n');
             if (row == cursorRow) {
@@ -807,61 +1037,150 @@ public class Screen {
         return operator.toString();
     }
 
-    public String retrieveFlatScreen() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
+    public synchronized String retrieveFlatScreen() {
+        char[] screenChars = new char[this.screenSize];
+        this.buffer.getDisplayChars(screenChars, 0);
+        return new String(screenChars);
+    }
+
+    /**
+     * A read-only view of the screen text without line breaks, it is not copied from the
+     * screen buffer.  The view is valid until the screen is next updated.
+     * 
+     * @return the screen text
+     */
+    public synchronized @NotNull CharSequence retrieveScreenText() {
+        if (this.cachedScreenText == null 
+                || !isCurrent(this.cachedScreenText.getBuffer(), this.cachedScreenText.getGeneration())) {
+            this.cachedScreenText = new ScreenTextView(this, this.buffer, this.buffer.getGeneration(), 0, this.screenSize);
         }
-        return sb.toString();
+        return this.cachedScreenText;
+    }
+
+    /**
+     * A read-only view of a row of the screen, valid until the screen is next updated
+     * 
+     * @param row - the row, starting at 0
+     * @return the text of the row
+     */
+    public synchronized @NotNull CharSequence retrieveScreenRow(int row) {
+        return retrieveScreenRegion(row, 0, this.columns);
+    }
+
+    /**
+     * A read-only view of the screen text from a position, continuing onto the following
+     * rows if it is longer than the row.  The view is valid until the screen is next updated.
+     * 
+     * @param row - the row, starting at 0
+     * @param column - the column, starting at 0
+     * @param length - the number of characters
+     * @return the text of the region
+     */
+    public synchronized @NotNull CharSequence retrieveScreenRegion(int row, int column, int length) {
+        int start = regionStart(row, column, length);
+        return new ScreenTextView(this, this.buffer, this.buffer.getGeneration(), start, length);
+    }
+
+    /**
+     * Copy the screen text, without line breaks, into a buffer
+     * 
+     * @param dest - the buffer to copy into
+     * @return the number of characters copied
+     * @throws BufferOverflowException - if there is not enough room in the buffer for the screen
+     */
+    public synchronized int retrieveScreen(@NotNull CharBuffer dest) {
+        return retrieveScreen(dest, 0, 0, this.screenSize);
+    }
+
+    /**
+     * Copy the screen text from a position into a buffer, continuing onto the following
+     * rows if it is longer than the row
+     * 
+     * @param dest - the buffer to copy into
+     * @param row - the row, starting at 0
+     * @param column - the column, starting at 0
+     * @param length - the number of characters
+     * @return the number of characters copied
+     * @throws BufferOverflowException - if there is not enough room in the buffer for the region
+     */
+    public synchronized int retrieveScreen(@NotNull CharBuffer dest, int row, int column, int length) {
+        int start = regionStart(row, column, length);
+        if (dest.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        this.buffer.getDisplayChars(dest, start, length);
+        return length;
+    }
+
+    private int regionStart(int row, int column, int length) {
+        if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Position " + row + "x" + column + " is outside the screen of " + this.rows + "x" + this.columns);
+        }
+        int start = (row * this.columns) + column;
+        if (length < 0 || start + length > this.screenSize) {
+            throw new IndexOutOfBoundsException("Length " + length + " from " + row + "x" + column + " is past the end of the screen");
+        }
+        return start;
+    }
+
+    /**
+     * @return true if the buffer is still the screen and has not been updated since the generation
+     */
+    synchronized boolean isCurrent(ScreenBuffer viewBuffer, int generation) {
+        return viewBuffer == this.buffer && generation == this.buffer.getGeneration();
     }
 
 
 
+    /**
+     * Return the fields on the screen.  The field list is only rebuilt when the buffer
+     * has changed since the last call, so repeated searches of the same screen are cheap.
+     * 
+     * @return the fields on the screen
+     */
     public synchronized @NotNull Field[] calculateFields() {
-        ArrayList<Field> fields = new ArrayList<>();
+        if (this.cachedFields == null 
+                || this.cachedFieldsBuffer != this.buffer 
+                || this.cachedFieldsGeneration != this.buffer.getGeneration()) {
+            this.cachedFields = buildFields();
+            this.cachedFieldsBuffer = this.buffer;
+            this.cachedFieldsGeneration = this.buffer.getGeneration();
+        }
 
-        Field currentField = null;
+        return this.cachedFields.clone();
+    }
 
-        // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
-                    break;
-                }
-            }
+    private Field[] buildFields() {
+        ArrayList<Field> fields = new ArrayList<>();
 
-            if (wrapSoField == null) {
-                currentField = new Field();
+        // *** Check to see if the screen is wrapped or unformatted
+        int fieldStart = 0;
+        int textStart = 0;
+        byte fieldAttributes = 0;
+        boolean unformatted = false;
+        if (!this.buffer.isStartOfField(0)) {
+            int wrapSoField = this.buffer.findLastStartOfField();
+
+            if (wrapSoField < 0) {
+                unformatted = true;
             } else {
-                currentField = new Field(-1, wrapSoField);
+                fieldAttributes = this.buffer.getFieldAttributes(wrapSoField);
             }
+            fieldStart = -1;
         }
 
-        for (int i = 0; i < this.buffer.length; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh == null) {
-                currentField.appendChar((char) 0x00); // NOSONAR, can't be null
-            } else if (bh instanceof BufferStartOfField) {
-                if (currentField != null) {
-                    fields.add(currentField);
+        for (int i = 0; i < this.screenSize; i++) {
+            if (this.buffer.isStartOfField(i)) {
+                if (fieldStart != 0 || i != 0) {
+                    fields.add(buildField(fieldStart, fieldAttributes, unformatted, textStart, i));
                 }
-                currentField = new Field(i, (BufferStartOfField) bh);
-            } else if (bh instanceof BufferChar) {
-                currentField.appendChar(((BufferChar) bh).getChar());// NOSONAR, can't be null
-            } else {
-                throw new UnsupportedOperationException("Unrecognised buffer type " + bh.getClass().getName());
+                fieldStart = i;
+                textStart = i + 1;
+                fieldAttributes = this.buffer.getFieldAttributes(i);
+                unformatted = false;
             }
         }
-        if (currentField != null) {
-            fields.add(currentField);
-        }
+        fields.add(buildField(fieldStart, fieldAttributes, unformatted, textStart, this.screenSize));
 
         // *** If the SBA were not in order, possibility that the safeguard first field
         // was left there
@@ -874,6 +1193,14 @@ public class Screen {
         return fields.toArray(new Field[fields.size()]);
     }
 
+    private Field buildField(int fieldStart, byte fieldAttributes, boolean unformatted, int textStart, int textEnd) {
+        char[] text = this.buffer.getFieldChars(textStart, textEnd);
+        if (unformatted) {
+            return new Field(text, this.codePage);
+        }
+        return new Field(fieldStart, fieldAttributes, text, this.codePage);
+    }
+
     public void searchFieldContaining(String text) throws TextNotFoundException {
         for (Field field : calculateFields()) {
             if (field.containsText(text)) {
@@ -885,22 +1212,30 @@ public class Screen {
     }
 
     public int searchFieldContaining(@NotNull String[] okText, String[] errorText) throws TextNotFoundException, ErrorTextFoundException {
-        if (errorText != null) {
-            for(int i = 0; i < errorText.length; i++) {
-                for (Field field : calculateFields()) {
-                    if (field.containsText(errorText[i])) {
-                        throw new ErrorTextFoundException("Found error text '" + errorText[i] + "' on screen", i);
-                    }
-                }
-            }
+        return searchFieldContaining(ScreenMatcher.compile(okText, errorText));
+    }
+
+    /**
+     * Search the fields for all the text of the matcher in one pass
+     * 
+     * @param matcher - the compiled ok and error text
+     * @return the index of the ok text found
+     * @throws TextNotFoundException - if none of the ok or error text is on the screen
+     * @throws ErrorTextFoundException - if any of the error text is on the screen
+     */
+    public int searchFieldContaining(@NotNull ScreenMatcher matcher) throws TextNotFoundException, ErrorTextFoundException {
+        Field[] fields = calculateFields();
+        ArrayList<char[]> fieldText = new ArrayList<>(fields.length);
+        for (Field field : fields) {
+            fieldText.add(field.getText());
         }
 
-        for(int i = 0; i < okText.length; i++) {
-            for (Field field : calculateFields()) {
-                if (field.containsText(okText[i])) {
-                    return i;
-                }
-            }
+        ScreenMatcher.Result result = matcher.match(fieldText);
+        if (result.getErrorIndex() >= 0) {
+            throw new ErrorTextFoundException("Found error text '" + matcher.getErrorText()[result.getErrorIndex()] + "' on screen", result.getErrorIndex());
+        }
+        if (result.getOkIndex() >= 0) {
+            return result.getOkIndex();
         }
 
         throw new TextNotFoundException("Unable to locate text on sreen");
@@ -916,6 +1251,23 @@ public class Screen {
         return false;
     }
 
+    /**
+     * Wait for text to appear in a field, the screen is only rescanned when an update has been applied
+     * 
+     * @param text - the text to search for
+     * @param maxWait - time in milliseconds
+     * @return true if the text was found before the timeout
+     * @throws TerminalInterruptedException
+     */
+    public boolean isTextInField(String text, long maxWait) throws TerminalInterruptedException {
+        try {
+            return ScreenUpdateTextListener.isTextFound(this, new String[] {text}, maxWait);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Wait for text was interrupted", e);
+        }
+    }
+
     /**
      * Wait on the keyboard being free
      * 
@@ -924,14 +1276,103 @@ public class Screen {
      * @throws InterruptedException
      */
     public void waitForKeyboard(int maxWait) throws TimeoutException, TerminalInterruptedException {
+        if (!isKeyboardUnlocked(maxWait)) {
+            throw new TimeoutException("Wait for keyboard took longer than " + maxWait + "ms");
+        }
+    }
+
+    /**
+     * Wait on the keyboard being free, without failing on a timeout
+     * 
+     * @param maxWait - time in milliseconds
+     * @return true if the keyboard was unlocked before the timeout
+     * @throws TerminalInterruptedException
+     */
+    public boolean isKeyboardUnlocked(long maxWait) throws TerminalInterruptedException {
         try {
             if (!keyboardLock.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
-                throw new TimeoutException("Wait for keyboard took longer than " + maxWait + "ms");
+                return false;
             }
         } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new TerminalInterruptedException("Wait for keyboard was interrupted", e);
         }
         keyboardLock.release();
+        return true;
+    }
+
+    /**
+     * Is the keyboard locked right now, without waiting
+     * 
+     * @return true if the keyboard is locked
+     */
+    public synchronized boolean isKeyboardLocked() {
+        return this.keyboardLockSet;
+    }
+
+    /**
+     * A hash of the text and attributes on the screen, only recalculated when the screen
+     * has changed since the last call.  Use it to tell if the screen has been updated.
+     * 
+     * @return the fingerprint of the screen
+     */
+    public synchronized long getFingerprint() {
+        if (this.cachedFingerprintBuffer != this.buffer 
+                || this.cachedFingerprintGeneration != this.buffer.getGeneration()) {
+            this.cachedFingerprint = this.buffer.fingerprint();
+            this.cachedFingerprintBuffer = this.buffer;
+            this.cachedFingerprintGeneration = this.buffer.getGeneration();
+        }
+
+        return this.cachedFingerprint;
+    }
+
+    /**
+     * @return the System.nanoTime() of the last write received or attention key sent
+     */
+    public long getLastUpdated() {
+        return this.lastUpdated;
+    }
+
+    /**
+     * Wait for the keyboard to be unlocked and the host to stop updating the screen
+     * 
+     * @param quietMillis - how long the screen must be unchanged
+     * @param maxWait - time in milliseconds
+     * @throws TimeoutException - if the screen did not settle before the timeout
+     * @throws TerminalInterruptedException
+     */
+    public void waitForScreenStable(long quietMillis, long maxWait) throws TimeoutException, TerminalInterruptedException {
+        try {
+            if (!ScreenStabilityListener.waitForStable(this, quietMillis, maxWait)) {
+                throw new TimeoutException("Screen did not stay unchanged for " + quietMillis + "ms within " + maxWait + "ms");
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Wait for stable screen was interrupted", e);
+        }
+    }
+
+    /**
+     * Wait for the screen to be different to a previous fingerprint
+     * 
+     * @param previousFingerprint - from {@link #getFingerprint()}
+     * @param maxWait - time in milliseconds
+     * @return the fingerprint of the changed screen
+     * @throws TimeoutException - if the screen did not change before the timeout
+     * @throws TerminalInterruptedException
+     */
+    public long waitForScreenChange(long previousFingerprint, long maxWait) throws TimeoutException, TerminalInterruptedException {
+        try {
+            Long fingerprint = ScreenStabilityListener.waitForChange(this, previousFingerprint, maxWait);
+            if (fingerprint == null) {
+                throw new TimeoutException("Screen did not change within " + maxWait + "ms");
+            }
+            return fingerprint;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Wait for screen change was interrupted", e);
+        }
     }
 
     public void waitForTextInField(String text, long maxWait) throws TerminalInterruptedException, TextNotFoundException, Zos3270Exception {
@@ -939,14 +1380,29 @@ public class Screen {
     }
 
     public void waitForTextInField(String[] ok, String[] error, long timeoutInMilliseconds) throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception {
+        waitForTextInField(ScreenMatcher.compile(ok, error), timeoutInMilliseconds);
+    }
+
+    /**
+     * Wait for any of the text of the matcher to appear in a field
+     * 
+     * @param matcher - the compiled ok and error text
+     * @param timeoutInMilliseconds - timeout
+     * @return the index of the ok text found
+     */
+    public int waitForTextInField(@NotNull ScreenMatcher matcher, long timeoutInMilliseconds) throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception {
         try {
-            if (ScreenUpdateTextListener.waitForText(this, ok, error, timeoutInMilliseconds) < 0) {
-                if (ok != null && ok.length == 1 && error == null) {
+            int found = ScreenUpdateTextListener.waitForText(this, matcher, timeoutInMilliseconds);
+            if (found < 0) {
+                String[] ok = matcher.getOkText();
+                if (ok.length == 1 && matcher.getErrorText().length == 0) {
                     throw new TextNotFoundException(CANT_FIND_TEXT + ok[0] + "'");
                 }
                 throw new TextNotFoundException("Unable to find a field containing any of the request text");
             }
+            return found;
         } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new TerminalInterruptedException("Wait for text was interrupted", e);
         }
     }
@@ -974,40 +1430,25 @@ public class Screen {
             throw new KeyboardLockedException("Unable to move cursor as keyboard is locked");
         }
 
-        if (buffer[screenCursor] != null && !(buffer[screenCursor] instanceof BufferChar)) {
+        if (this.buffer.isStartOfField(screenCursor)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + this.screenCursor);
         }
 
-        BufferStartOfField sf = null;
-        int sfPos = screenCursor - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != screenCursor) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
-        }
+        int sfPos = this.buffer.findStartOfField(screenCursor);
 
         // *** if no field found, assume unprotected
-        if (sf != null && sf.isProtected()) {
+        if (sfPos >= 0 && this.buffer.isProtected(sfPos)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + screenCursor);
         }
 
         //*** Set this and following characters to null
         int pos = this.screenCursor;
         while(true) {
-            if (!(buffer[pos] instanceof BufferChar)) {
+            if (!this.buffer.isCharacter(pos)) {
                 break;
             }
 
-            buffer[pos] = new BufferChar((char) 0);
+            this.buffer.setChar(pos, (char) 0, (short) 0);
             pos++;
             if (pos >= this.screenSize) {
                 pos = 0;
@@ -1018,8 +1459,8 @@ public class Screen {
             }
         }
 
-        if (sf != null) {
-            sf.setFieldModified();
+        if (sfPos >= 0) {
+            this.buffer.setFieldModified(sfPos);
         }
     }
 
@@ -1030,23 +1471,16 @@ public class Screen {
         }
 
         boolean unprotected = false;
-        BufferStartOfField startOfFieldUnprotected = null;
+        int startOfFieldUnprotected = -1;
 
         // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
-                    break;
-                }
-            }
+        if (!this.buffer.isStartOfField(0)) {
+            int wrapSoField = this.buffer.findLastStartOfField();
 
-            if (wrapSoField == null) {
+            if (wrapSoField < 0) {
                 unprotected = true;  // unformatted, screen, so all unprotected
             } else {
-                unprotected = !wrapSoField.isProtected();
+                unprotected = !this.buffer.isProtected(wrapSoField);
                 startOfFieldUnprotected = wrapSoField;
             }
         }
@@ -1054,21 +1488,18 @@ public class Screen {
 
 
         for(int i = 0; i < this.screenSize; i++) {
-            IBufferHolder bh = this.buffer[i];
-
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField sof = (BufferStartOfField) bh;
-                unprotected = !sof.isProtected();
+            if (this.buffer.isStartOfField(i)) {
+                unprotected = !this.buffer.isProtected(i);
                 if (unprotected) {
-                    startOfFieldUnprotected = sof;
+                    startOfFieldUnprotected = i;
                 } else {
-                    startOfFieldUnprotected = null;
+                    startOfFieldUnprotected = -1;
                 }
             } else {
                 if (unprotected) {
-                    this.buffer[i] = null;
-                    if (startOfFieldUnprotected != null) {
-                        startOfFieldUnprotected.setFieldModified();
+                    this.buffer.setNull(i);
+                    if (startOfFieldUnprotected >= 0) {
+                        this.buffer.setFieldModified(startOfFieldUnprotected);
                     }
                 }
             }
@@ -1085,9 +1516,8 @@ public class Screen {
         int startPosition = this.screenCursor;
         boolean foundUnprotectedField = false;
 
-        IBufferHolder sfCheck = this.buffer[this.screenCursor];    
-        if (sfCheck instanceof BufferStartOfField) {
-            foundUnprotectedField = !((BufferStartOfField)sfCheck).isProtected();
+        if (this.buffer.isStartOfField(this.screenCursor)) {
+            foundUnprotectedField = !this.buffer.isProtected(this.screenCursor);
         }
         while(true) {
             // advance the cursor
@@ -1097,19 +1527,14 @@ public class Screen {
             }
 
             // Get the entry at this position
-            IBufferHolder previousBuffer = this.buffer[this.screenCursor];
-            if (previousBuffer == null || previousBuffer instanceof BufferChar) {
+            if (!this.buffer.isStartOfField(this.screenCursor)) {
                 // if this is a character and we are in an unprotected field, use it
                 if (foundUnprotectedField) {
                     return;
                 }
-            } else  if (previousBuffer instanceof BufferStartOfField) {
-                // we have a start of field
-                BufferStartOfField sof = (BufferStartOfField) previousBuffer;
-                // record if it is unprotected or not
-                foundUnprotectedField = !sof.isProtected();
             } else {
-                throw new FieldNotFoundException("Unrecognised buffer type at pos " + this.screenCursor);
+                // we have a start of field, record if it is unprotected or not
+                foundUnprotectedField = !this.buffer.isProtected(this.screenCursor);
             }
 
             if (this.screenCursor == startPosition) {
@@ -1137,15 +1562,13 @@ public class Screen {
             }
 
             // Get the entry in the previous position
-            IBufferHolder previousBuffer = this.buffer[previousPositionInBuffer];
-            if (previousBuffer == null || previousBuffer instanceof BufferChar) {
+            if (!this.buffer.isStartOfField(previousPositionInBuffer)) {
                 // if it is null or a character, mark position as the last valid position whether unprotected or not
                 lastCharField = previousPositionInBuffer;
-            } else  if (previousBuffer instanceof BufferStartOfField) {
+            } else {
                 // we have a start of field
-                BufferStartOfField sof = (BufferStartOfField) previousBuffer;
                 //if it is protected, invalidate the last valid char position
-                if (sof.isProtected()) {
+                if (this.buffer.isProtected(previousPositionInBuffer)) {
                     lastCharField = -1;
                 } else {
                     // as unprotected field,  indicate that there is atleast one on the screen
@@ -1156,8 +1579,6 @@ public class Screen {
                         return;
                     }
                 }
-            } else {
-                throw new FieldNotFoundException("Unrecognised buffer type at pos " + previousPositionInBuffer);
             }
 
             this.screenCursor = previousPositionInBuffer;
@@ -1317,29 +1738,14 @@ public class Screen {
 
         int position = this.screenCursor;
 
-        if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+        if (this.buffer.isStartOfField(position)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + this.screenCursor);
         }
 
-        BufferStartOfField sf = null;
-        int sfPos = position - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != position) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
-        }
+        int sfPos = this.buffer.findStartOfField(position);
 
         // *** if no field found, assume unprotected
-        if (sf != null && sf.isProtected()) {
+        if (sfPos >= 0 && this.buffer.isProtected(sfPos)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
@@ -1352,15 +1758,15 @@ public class Screen {
         }
 
         while(true) {
-            this.buffer[position - 1] = this.buffer[position];
-            this.buffer[position] = null;
+            this.buffer.copy(position, position - 1);
+            this.buffer.setNull(position);
 
             position++;
             if (position >= this.screenSize) {
                 break;
             }
 
-            if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+            if (this.buffer.isStartOfField(position)) {
                 break;
             }
         }
@@ -1440,29 +1846,14 @@ public class Screen {
             throw new KeyboardLockedException("Unable to type as keyboard is locked");
         }
 
-        if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+        if (this.buffer.isStartOfField(position)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
-        BufferStartOfField sf = null;
-        int sfPos = position - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != position) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
-        }
+        int sf = this.buffer.findStartOfField(position);
 
         // *** if no field found, assume unprotected
-        if (sf != null && sf.isProtected()) {
+        if (sf >= 0 && this.buffer.isProtected(sf)) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
@@ -1471,16 +1862,15 @@ public class Screen {
         }
 
         for (int i = 0; i < text.length(); i++) {
-            IBufferHolder bh = buffer[position];
-            if (bh != null && !(bh instanceof BufferChar)) {
+            if (this.buffer.isStartOfField(position)) {
                 throw new FieldNotFoundException(
                         "Unable to type where the cursor is pointing to - " + position);
             }
 
-            buffer[position] = new BufferChar(text.charAt(i));
+            this.buffer.setChar(position, text.charAt(i), (short) 0);
 
-            if (sf != null) {
-                sf.setFieldModified();
+            if (sf >= 0) {
+                this.buffer.setFieldModified(sf);
             }
 
             // We have successfully typed a character, so make sure the cursor is positioned
@@ -1494,17 +1884,16 @@ public class Screen {
                 }
 
                 this.screenCursor = position;
-                bh = buffer[position];
+                boolean startOfField = this.buffer.isStartOfField(position);
 
-                if (unprotected && (bh == null || (bh instanceof BufferChar))) {
+                if (unprotected && !startOfField) {
                     break;
                 }
 
-                if (bh != null && (bh instanceof BufferStartOfField)) {
-                    BufferStartOfField sof = (BufferStartOfField) bh;
-                    unprotected = !sof.isProtected();
+                if (startOfField) {
+                    unprotected = !this.buffer.isProtected(position);
                     if (unprotected) {
-                        sf = sof;
+                        sf = position;
                     }
                 }
             }
@@ -1515,6 +1904,7 @@ public class Screen {
 
     public synchronized byte[] aid(AttentionIdentification aid) throws DatastreamException, TerminalInterruptedException {
         lockKeyboard();
+        statistics.aidSent(aid, transactionName());
 
         try {
             ByteArrayOutputStream outboundBuffer = new ByteArrayOutputStream();
@@ -1534,6 +1924,7 @@ public class Screen {
             }
             writeTrace(outboundBuffer);
 
+            this.lastUpdated = System.nanoTime();
             for (IScreenUpdateListener listener : updateListeners) {
                 listener.screenUpdated(Direction.SENDING, aid);
             }
@@ -1546,6 +1937,64 @@ public class Screen {
         }
     }
 
+    /**
+     * Name the transaction from the first word on the screen, for a clear CICS screen
+     * this is the transaction id typed, otherwise usually the title of the panel.
+     * Words in non-display fields are skipped so passwords are never used.
+     */
+    private String transactionName() {
+        StringBuilder word = new StringBuilder();
+        boolean hidden = false;
+        for (int pos = 0; pos < this.screenSize; pos++) {
+            if (this.buffer.isStartOfField(pos)) {
+                hidden = (this.buffer.getFieldAttributes(pos) & (ScreenBuffer.FA_DISPLAY | ScreenBuffer.FA_INTENSE_DISPLAY)) == 0;
+            }
+
+            char c = ' ';
+            if (!hidden && this.buffer.isCharacter(pos)) {
+                c = this.buffer.getDisplayChar(pos);
+            }
+
+            if (Character.isWhitespace(c)) {
+                if (word.length() > 0) {
+                    break;
+                }
+                continue;
+            }
+
+            word.append(c);
+            if (word.length() >= 8) {
+                break;
+            }
+        }
+
+        if (word.length() == 0) {
+            return null;
+        }
+        return word.toString();
+    }
+
+    /**
+     * @return the response times and traffic for this screen
+     */
+    public TerminalStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * @param datastreamTrace - where to record the inbound datastreams, null to stop recording
+     */
+    public void setDatastreamTrace(DatastreamTraceWriter datastreamTrace) {
+        this.datastreamTrace = datastreamTrace;
+    }
+
+    /**
+     * @return where the inbound datastreams are recorded, or null if they are not
+     */
+    public DatastreamTraceWriter getDatastreamTrace() {
+        return this.datastreamTrace;
+    }
+
     public int getScreenSize() {
         return this.screenSize;
     }
@@ -1562,26 +2011,47 @@ public class Screen {
         return sb.toString();
     }
 
-    public void setBuffer(IBufferHolder[] newBuffer) {
-        for (int i = 0; i < this.buffer.length && i < newBuffer.length; i++) {
-            this.buffer[i] = newBuffer[i];
+    /**
+     * Load the screen from buffer holders, converting them to the internal buffer representation
+     * 
+     * @param newBuffer - the buffer holders, nulls are null positions
+     */
+    public synchronized void setBuffer(IBufferHolder[] newBuffer) {
+        for (int i = 0; i < this.screenSize && i < newBuffer.length; i++) {
+            IBufferHolder bh = newBuffer[i];
+            if (bh == null) {
+                this.buffer.setNull(i);
+            } else if (bh instanceof BufferStartOfField) {
+                BufferStartOfField sf = (BufferStartOfField) bh;
+                this.buffer.setStartOfField(i, ScreenBuffer.buildFieldAttributes(sf.isProtected(), sf.isNumeric(),
+                        sf.isDisplay(), sf.isIntenseDisplay(), sf.isSelectorPen(), sf.isFieldModifed()), (short) 0);
+            } else if (bh instanceof BufferGraphicsEscape) {
+                this.buffer.setControl(i, ScreenBuffer.TYPE_GRAPHICS_ESCAPE, ((BufferGraphicsEscape) bh).getFieldEbcdic());
+            } else if (bh instanceof BufferNewLine) {
+                this.buffer.setControl(i, ScreenBuffer.TYPE_NEW_LINE, ((BufferNewLine) bh).getFieldEbcdic());
+            } else if (bh instanceof BufferFormFeed) {
+                this.buffer.setControl(i, ScreenBuffer.TYPE_FORM_FEED, ((BufferFormFeed) bh).getFieldEbcdic());
+            } else if (bh instanceof BufferCarrageReturn) {
+                this.buffer.setControl(i, ScreenBuffer.TYPE_CARRAGE_RETURN, ((BufferCarrageReturn) bh).getFieldEbcdic());
+            } else if (bh instanceof BufferEndOfMedium) {
+                this.buffer.setControl(i, ScreenBuffer.TYPE_END_OF_MEDIUM, ((BufferEndOfMedium) bh).getFieldEbcdic());
+            } else {
+                this.buffer.setChar(i, bh.getChar(), (short) 0);
+            }
         }
     }
 
-    public void setBuffer(int col, int row, String text) {
+    public synchronized void setBuffer(int col, int row, String text) {
         int pos = (row * columns) + col;
         for (int i = 0; i < text.length(); i++) {
-            buffer[pos] = new BufferChar(text.charAt(i));
+            this.buffer.setChar(pos, text.charAt(i), (short) 0);
             pos++;
         }
     }
 
-    public void nullify(int col, int row, int len) {
+    public synchronized void nullify(int col, int row, int len) {
         int pos = (row * columns) + col;
-        for (int i = 0; i < len; i++) {
-            buffer[pos] = null;
-            pos++;
-        }
+        this.buffer.setNull(pos, pos + len);
     }
 
     public Field getFieldAt(int col, int row) {
@@ -1625,6 +2095,21 @@ public class Screen {
         return this.datastreamListeners;
     }
 
+    /**
+     * @return the code page used to translate the datastream
+     */
+    public CodePage getCodePage() {
+        return this.codePage;
+    }
+
+    public synchronized void setCodePage(CodePage codePage) {
+        if (codePage == null) {
+            codePage = CodePage.getDefault();
+        }
+        this.codePage = codePage;
+        this.cachedFields = null;
+    }
+
     public int getPrimaryColumns() {
         return this.primaryColumns;
     }
@@ -1646,13 +2131,7 @@ public class Screen {
     }
 
     public synchronized boolean isClearScreen() {
-        for(IBufferHolder bh : buffer) {
-            if (bh != null) {
-                return false;
-            }
-        }
-        
-        return true;
+        return this.buffer.isClear();
     }
 
 }
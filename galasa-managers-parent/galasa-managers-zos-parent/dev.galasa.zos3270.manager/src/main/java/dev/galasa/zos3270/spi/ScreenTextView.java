@@ -0,0 +1,86 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.ConcurrentModificationException;
+
+import dev.galasa.zos3270.internal.terminal.ScreenBuffer;
+
+/**
+ * A read-only view of part of the screen text that reads the screen buffer directly,
+ * so scraping the screen does not copy it.  The view is only valid until the screen is
+ * next updated, after which reading it throws a ConcurrentModificationException rather
+ * than mixing text from two screens.
+ */
+class ScreenTextView implements CharSequence {
+
+    private final Screen       screen;
+    private final ScreenBuffer buffer;
+    private final int          generation;
+    private final int          start;
+    private final int          length;
+
+    ScreenTextView(Screen screen, ScreenBuffer buffer, int generation, int start, int length) {
+        this.screen = screen;
+        this.buffer = buffer;
+        this.generation = generation;
+        this.start = start;
+        this.length = length;
+    }
+
+    ScreenBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    int getGeneration() {
+        return this.generation;
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the screen text of length " + this.length);
+        }
+
+        synchronized (this.screen) {
+            checkCurrent();
+            return this.buffer.getDisplayChar(this.start + index);
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to > this.length || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + "-" + to + " is outside the screen text of length " + this.length);
+        }
+
+        return new ScreenTextView(this.screen, this.buffer, this.generation, this.start + from, to - from);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[this.length];
+        synchronized (this.screen) {
+            checkCurrent();
+            for (int i = 0; i < this.length; i++) {
+                chars[i] = this.buffer.getDisplayChar(this.start + i);
+            }
+        }
+        return new String(chars);
+    }
+
+    private void checkCurrent() {
+        if (!this.screen.isCurrent(this.buffer, this.generation)) {
+            throw new ConcurrentModificationException("The screen has been updated since the screen text was retrieved");
+        }
+    }
+
+}
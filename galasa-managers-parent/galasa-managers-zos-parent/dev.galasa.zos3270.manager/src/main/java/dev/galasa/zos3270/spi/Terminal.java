@@ -5,6 +5,7 @@
  */
 package dev.galasa.zos3270.spi;
 
+import java.nio.CharBuffer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -19,18 +20,23 @@ import dev.galasa.zos3270.ErrorTextFoundException;
 import dev.galasa.zos3270.FieldNotFoundException;
 import dev.galasa.zos3270.IDatastreamListener;
 import dev.galasa.zos3270.ITerminal;
+import dev.galasa.zos3270.ITerminalBatch;
+import dev.galasa.zos3270.ITerminalStatistics;
 import dev.galasa.zos3270.KeyboardLockedException;
+import dev.galasa.zos3270.ScreenMatcher;
 import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.TextNotFoundException;
 import dev.galasa.zos3270.TimeoutException;
 import dev.galasa.zos3270.Zos3270Exception;
 import dev.galasa.zos3270.internal.comms.Network;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
 import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.CodePage;
 
 public class Terminal implements ITerminal {
 
-    private final Screen  screen;
-    private final Network network;
+    private Screen        screen;
+    private Network       network;
     private final String  id;
     private NetworkThread networkThread;
     private boolean connected = false;
@@ -43,6 +49,8 @@ public class Terminal implements ITerminal {
     
     private List<String>  deviceTypes;
 
+    private NetworkSelector networkSelector;
+
     public Terminal(String id, String host, int port) throws TerminalInterruptedException {
         this(id, host, port, false, 80, 24, 0, 0);
     }
@@ -54,6 +62,7 @@ public class Terminal implements ITerminal {
     public Terminal(String id, String host, int port, boolean ssl, int primaryColumns, int primaryRows, int alternateColumns, int alternateRows) throws TerminalInterruptedException {
         network = new Network(host, port, ssl, id);
         screen = new Screen(primaryColumns, primaryRows, alternateColumns, alternateRows, this.network);
+        network.setStatistics(screen.getStatistics());
         this.id = id;
     }
     
@@ -65,11 +74,30 @@ public class Terminal implements ITerminal {
         this.deviceTypes = deviceTypes;
     }
 
+    public void setCodePage(CodePage codePage) {
+        this.screen.setCodePage(codePage);
+    }
+
+    /**
+     * Drive the connection from a shared selector instead of a network thread per terminal,
+     * takes effect on the next connect
+     * 
+     * @param networkSelector - the selector, or null to use a network thread
+     */
+    public void setNetworkSelector(NetworkSelector networkSelector) {
+        this.networkSelector = networkSelector;
+    }
+
     @Override
     public synchronized void connect() throws NetworkException {
-        connected = network.connectClient();
-        networkThread = new NetworkThread(this, screen, network, network.getInputStream(), this.deviceTypes);
-        networkThread.start();
+        if (this.networkSelector == null) {
+            connected = network.connectClient();
+            networkThread = new NetworkThread(this, screen, network, network.getInputStream(), this.deviceTypes);
+            networkThread.start();
+        } else {
+            networkThread = new NetworkThread(this, screen, network, null, this.deviceTypes);
+            connected = network.connectClient(this.networkSelector, networkThread);
+        }
         
         Instant expire = Instant.now().plus(60, ChronoUnit.SECONDS);
         boolean started = false;
@@ -103,12 +131,13 @@ public class Terminal implements ITerminal {
         autoReconnect = false;
         
         connected = false;
+        NetworkThread oldNetworkThread = networkThread;
         if (network != null) {
             network.close();
         }
-        if (networkThread != null) {
+        if (oldNetworkThread != null) {
             try {
-                networkThread.join();
+                oldNetworkThread.waitForEnd();
             } catch (InterruptedException e) {
                 throw new TerminalInterruptedException("Join of the network thread was interrupted",e);
             }
@@ -118,6 +147,34 @@ public class Terminal implements ITerminal {
         autoReconnect = oldAutoReconnect;
     }
     
+    /**
+     * Take over the connected session of another terminal, so a session that has already
+     * been negotiated and logged on can be used without connecting again.  The other
+     * terminal is left disconnected and must not be used again.
+     * 
+     * @param session - the terminal holding the session
+     * @throws TerminalInterruptedException - if interrupted disconnecting the current session
+     */
+    public synchronized void adoptSession(@NotNull Terminal session) throws TerminalInterruptedException {
+        if (this.connected) {
+            disconnect();
+        }
+
+        synchronized (session) {
+            this.network = session.network;
+            this.screen = session.screen;
+            this.networkThread = session.networkThread;
+            this.connected = session.connected;
+            if (this.networkThread != null) {
+                this.networkThread.setTerminal(this);
+            }
+
+            session.network = null;
+            session.networkThread = null;
+            session.connected = false;
+        }
+    }
+    
     public void networkClosed() {
         connected = false;
         if (network != null) {
@@ -155,6 +212,44 @@ public class Terminal implements ITerminal {
         return this;
     }
 
+    @Override
+    public ITerminal waitForKeyboard(long timeoutInMilliseconds) throws TimeoutException, KeyboardLockedException, TerminalInterruptedException {
+        logger.trace("Waiting for keyboard");
+        if (!screen.isKeyboardUnlocked(timeoutInMilliseconds)) {
+            throw new TimeoutException("Wait for keyboard took longer than " + timeoutInMilliseconds + "ms");
+        }
+        logger.trace("Wait for keyboard complete");
+        return this;
+    }
+
+    @Override
+    public boolean isKeyboardUnlocked(long timeoutInMilliseconds) throws TerminalInterruptedException {
+        return screen.isKeyboardUnlocked(timeoutInMilliseconds);
+    }
+
+    @Override
+    public ITerminal waitForScreenStable(long quietMillis, long timeoutInMilliseconds) throws TimeoutException, TerminalInterruptedException {
+        logger.trace("Waiting for stable screen");
+        screen.waitForScreenStable(quietMillis, timeoutInMilliseconds);
+        logger.trace("Wait for stable screen complete");
+        return this;
+    }
+
+    @Override
+    public long getScreenFingerprint() {
+        return screen.getFingerprint();
+    }
+
+    @Override
+    public long waitForScreenChange(long previousFingerprint) throws TimeoutException, TerminalInterruptedException {
+        return screen.waitForScreenChange(previousFingerprint, defaultWaitTime);
+    }
+
+    @Override
+    public long waitForScreenChange(long previousFingerprint, long timeoutInMilliseconds) throws TimeoutException, TerminalInterruptedException {
+        return screen.waitForScreenChange(previousFingerprint, timeoutInMilliseconds);
+    }
+
     @Override
     public ITerminal wfk() throws TimeoutException, KeyboardLockedException, TerminalInterruptedException {
         return waitForKeyboard();
@@ -184,25 +279,7 @@ public class Terminal implements ITerminal {
     
     @Override
     public boolean isTextInField(String text, long timeoutInMilliseconds) throws TerminalInterruptedException {
-        if (isTextInField(text)) {
-            return true;
-        }
-        
-        Instant expire = Instant.now().plus(timeoutInMilliseconds, ChronoUnit.MILLIS);
-        while(expire.isAfter(Instant.now())) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new TerminalInterruptedException("Wait for text was interrupted",e);
-            }
-            
-            if (isTextInField(text)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return screen.isTextInField(text, timeoutInMilliseconds);
     }
 
 
@@ -212,6 +289,12 @@ public class Terminal implements ITerminal {
         return this;
     }
 
+    @Override
+    public ITerminal waitForTextInField(String text, long timeoutInMilliseconds) throws TerminalInterruptedException, TextNotFoundException, Zos3270Exception {
+        screen.waitForTextInField(text, timeoutInMilliseconds);
+        return this;
+    }
+
     @Override
     public ITerminal waitForTextInField(String[] ok, String[] error)
             throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception {
@@ -225,6 +308,18 @@ public class Terminal implements ITerminal {
         return this;
     }
 
+    @Override
+    public int waitForTextInField(ScreenMatcher matcher)
+            throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception {
+        return waitForTextInField(matcher, this.defaultWaitTime);
+    }
+
+    @Override
+    public int waitForTextInField(ScreenMatcher matcher, long timeoutInMilliseconds)
+            throws TerminalInterruptedException, TextNotFoundException, ErrorTextFoundException, Zos3270Exception {
+        return screen.waitForTextInField(matcher, timeoutInMilliseconds);
+    }
+
     @Override
     public ITerminal type(String text) throws KeyboardLockedException, FieldNotFoundException {
         screen.type(text);
@@ -471,6 +566,34 @@ public class Terminal implements ITerminal {
         return this;
     }
 
+    /**
+     * Press any attention key
+     * 
+     * @param aid - the key
+     * @return this terminal
+     * @throws KeyboardLockedException - if the keyboard is locked
+     * @throws NetworkException - if the datastream cannot be sent
+     * @throws TerminalInterruptedException - if interrupted
+     */
+    public ITerminal aid(AttentionIdentification aid) throws KeyboardLockedException, NetworkException, TerminalInterruptedException {
+        network.sendDatastream(screen.aid(aid));
+        return this;
+    }
+
+    @Override
+    public ITerminalStatistics getStatistics() {
+        return this.screen.getStatistics();
+    }
+
+    @Override
+    public ITerminalBatch batch() {
+        return new TerminalBatch(this);
+    }
+
+    void sendDatastream(byte[] datastream) throws NetworkException {
+        network.sendDatastream(datastream);
+    }
+
     @Override
     public ITerminal reportScreen() {
         logger.info("\n" + screen.printScreen());
@@ -497,6 +620,31 @@ public class Terminal implements ITerminal {
         return screen.printScreen();
     }
 
+    @Override
+    public CharSequence retrieveScreenText() {
+        return screen.retrieveScreenText();
+    }
+
+    @Override
+    public CharSequence retrieveScreenRow(int row) {
+        return screen.retrieveScreenRow(row);
+    }
+
+    @Override
+    public CharSequence retrieveScreenRegion(int row, int column, int length) {
+        return screen.retrieveScreenRegion(row, column, length);
+    }
+
+    @Override
+    public int retrieveScreen(@NotNull CharBuffer dest) {
+        return screen.retrieveScreen(dest);
+    }
+
+    @Override
+    public int retrieveScreen(@NotNull CharBuffer dest, int row, int column, int length) {
+        return screen.retrieveScreen(dest, row, column, length);
+    }
+
     /**
      * Return a String of the contents of the current Field. Current field is the
      * one which the cursor is at.
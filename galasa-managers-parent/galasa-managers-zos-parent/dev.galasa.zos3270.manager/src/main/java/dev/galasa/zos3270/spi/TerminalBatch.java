@@ -0,0 +1,213 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.ArrayList;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.FieldNotFoundException;
+import dev.galasa.zos3270.ITerminal;
+import dev.galasa.zos3270.ITerminalBatch;
+import dev.galasa.zos3270.KeyboardLockedException;
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.TextNotFoundException;
+
+/**
+ * Records the keystrokes and applies them under a single screen lock, building the
+ * outbound datastream before the lock is released and sending it afterwards
+ */
+public class TerminalBatch implements ITerminalBatch {
+
+    private enum Key {
+        TYPE,
+        ERASE_EOF,
+        ERASE_INPUT,
+        TAB,
+        BACK_TAB,
+        CURSOR_UP,
+        CURSOR_DOWN,
+        CURSOR_LEFT,
+        CURSOR_RIGHT,
+        BACK_SPACE,
+        HOME,
+        NEW_LINE,
+        POSITION_CURSOR
+    }
+
+    private static class Keystroke {
+        private final Key    key;
+        private final String text;
+
+        Keystroke(Key key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+
+    private final Terminal             terminal;
+    private final ArrayList<Keystroke> keystrokes = new ArrayList<>();
+
+    public TerminalBatch(@NotNull Terminal terminal) {
+        this.terminal = terminal;
+    }
+
+    @Override
+    public ITerminalBatch type(@NotNull String text) {
+        return add(Key.TYPE, text);
+    }
+
+    @Override
+    public ITerminalBatch eraseEof() {
+        return add(Key.ERASE_EOF, null);
+    }
+
+    @Override
+    public ITerminalBatch eraseInput() {
+        return add(Key.ERASE_INPUT, null);
+    }
+
+    @Override
+    public ITerminalBatch tab() {
+        return add(Key.TAB, null);
+    }
+
+    @Override
+    public ITerminalBatch backTab() {
+        return add(Key.BACK_TAB, null);
+    }
+
+    @Override
+    public ITerminalBatch cursorUp() {
+        return add(Key.CURSOR_UP, null);
+    }
+
+    @Override
+    public ITerminalBatch cursorDown() {
+        return add(Key.CURSOR_DOWN, null);
+    }
+
+    @Override
+    public ITerminalBatch cursorLeft() {
+        return add(Key.CURSOR_LEFT, null);
+    }
+
+    @Override
+    public ITerminalBatch cursorRight() {
+        return add(Key.CURSOR_RIGHT, null);
+    }
+
+    @Override
+    public ITerminalBatch backSpace() {
+        return add(Key.BACK_SPACE, null);
+    }
+
+    @Override
+    public ITerminalBatch home() {
+        return add(Key.HOME, null);
+    }
+
+    @Override
+    public ITerminalBatch newLine() {
+        return add(Key.NEW_LINE, null);
+    }
+
+    @Override
+    public ITerminalBatch positionCursorToFieldContaining(@NotNull String text) {
+        return add(Key.POSITION_CURSOR, text);
+    }
+
+    @Override
+    public ITerminal enter() throws KeyboardLockedException, FieldNotFoundException, TextNotFoundException,
+            NetworkException, TerminalInterruptedException {
+        return aid(AttentionIdentification.ENTER);
+    }
+
+    @Override
+    public ITerminal aid(@NotNull AttentionIdentification aid) throws KeyboardLockedException,
+            FieldNotFoundException, TextNotFoundException, NetworkException, TerminalInterruptedException {
+        Screen screen = this.terminal.getScreen();
+        byte[] datastream;
+        synchronized (screen) {
+            applyKeystrokes(screen);
+            datastream = screen.aid(aid);
+        }
+
+        this.terminal.sendDatastream(datastream);
+        return this.terminal;
+    }
+
+    @Override
+    public ITerminal apply() throws KeyboardLockedException, FieldNotFoundException, TextNotFoundException {
+        Screen screen = this.terminal.getScreen();
+        synchronized (screen) {
+            applyKeystrokes(screen);
+        }
+        return this.terminal;
+    }
+
+    private ITerminalBatch add(Key key, String text) {
+        this.keystrokes.add(new Keystroke(key, text));
+        return this;
+    }
+
+    /**
+     * The keystrokes are cleared whether or not they all apply, so the batch can be reused
+     */
+    private void applyKeystrokes(Screen screen) throws KeyboardLockedException, FieldNotFoundException, TextNotFoundException {
+        try {
+            for (Keystroke keystroke : this.keystrokes) {
+                switch (keystroke.key) {
+                    case TYPE:
+                        screen.type(keystroke.text);
+                        break;
+                    case ERASE_EOF:
+                        screen.eraseEof();
+                        break;
+                    case ERASE_INPUT:
+                        screen.eraseInput();
+                        break;
+                    case TAB:
+                        screen.tab();
+                        break;
+                    case BACK_TAB:
+                        screen.backTab();
+                        break;
+                    case CURSOR_UP:
+                        screen.cursorUp();
+                        break;
+                    case CURSOR_DOWN:
+                        screen.cursorDown();
+                        break;
+                    case CURSOR_LEFT:
+                        screen.cursorLeft();
+                        break;
+                    case CURSOR_RIGHT:
+                        screen.cursorRight();
+                        break;
+                    case BACK_SPACE:
+                        screen.backSpace();
+                        break;
+                    case HOME:
+                        screen.home();
+                        break;
+                    case NEW_LINE:
+                        screen.newLine();
+                        break;
+                    case POSITION_CURSOR:
+                        screen.positionCursorToFieldContaining(keystroke.text);
+                        break;
+                    default:
+                        throw new IllegalStateException("Keystroke " + keystroke.key + " has not been added to the batch replay");
+                }
+            }
+        } finally {
+            this.keystrokes.clear();
+        }
+    }
+
+}
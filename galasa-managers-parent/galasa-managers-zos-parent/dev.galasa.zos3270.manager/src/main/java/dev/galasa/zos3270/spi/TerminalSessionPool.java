@@ -0,0 +1,176 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.TerminalInterruptedException;
+
+/**
+ * Keeps connected, logged on terminal sessions between test runs in the same JVM,
+ * so the next run can adopt a session instead of negotiating and logging on again.
+ *
+ * Sessions are keyed by whatever makes them interchangeable, for example the host,
+ * the application and the user logged on.  The pool does not reset a session, the
+ * manager taking it is expected to return it to a known screen, and to disconnect it
+ * if that fails.
+ *
+ * Idle sessions hold their network connection until taken, expired or the JVM ends.
+ */
+public class TerminalSessionPool {
+
+    private static final Log                   logger     = LogFactory.getLog(TerminalSessionPool.class);
+
+    private static final TerminalSessionPool   sharedPool = new TerminalSessionPool();
+
+    private final HashMap<String, ArrayDeque<IdleSession>> idleSessions = new HashMap<>();
+
+    private boolean                            shutdownHookAdded;
+
+    /**
+     * @return the pool shared by all the managers in this JVM
+     */
+    public static TerminalSessionPool getSharedPool() {
+        return sharedPool;
+    }
+
+    /**
+     * Take an idle session that is still connected, the longest idle first
+     *
+     * @param key - the key the session was pooled under
+     * @param maxIdleSeconds - sessions idle longer than this are disconnected rather than returned
+     * @return the terminal holding the session, or null if none are available
+     */
+    public Terminal take(@NotNull String key, long maxIdleSeconds) {
+        ArrayList<Terminal> expired = new ArrayList<>();
+        Terminal session = null;
+        synchronized (this) {
+            ArrayDeque<IdleSession> sessions = this.idleSessions.get(key);
+            Instant expireBefore = Instant.now().minusSeconds(maxIdleSeconds);
+            while (sessions != null && !sessions.isEmpty()) {
+                IdleSession idle = sessions.poll();
+                if (idle.pooled.isBefore(expireBefore) || !idle.terminal.isConnected()) {
+                    expired.add(idle.terminal);
+                    continue;
+                }
+                session = idle.terminal;
+                break;
+            }
+            if (sessions != null && sessions.isEmpty()) {
+                this.idleSessions.remove(key);
+            }
+        }
+
+        disconnect(expired);
+        return session;
+    }
+
+    /**
+     * Offer a session to the pool at the end of a run
+     *
+     * @param key - the key the session can be taken with
+     * @param session - the terminal holding the connected session
+     * @param maxIdle - the most sessions to keep for the key
+     * @return true if pooled, false if the pool is full or the session is not connected, the caller still owns the session
+     */
+    public synchronized boolean offer(@NotNull String key, @NotNull Terminal session, int maxIdle) {
+        if (!session.isConnected()) {
+            return false;
+        }
+
+        ArrayDeque<IdleSession> sessions = this.idleSessions.get(key);
+        if (sessions == null) {
+            sessions = new ArrayDeque<>();
+            this.idleSessions.put(key, sessions);
+        }
+        if (sessions.size() >= maxIdle) {
+            return false;
+        }
+
+        sessions.add(new IdleSession(session));
+        addShutdownHook();
+        return true;
+    }
+
+    /**
+     * @param key - the session key
+     * @return the number of sessions idle in the pool for the key
+     */
+    public synchronized int getIdleCount(@NotNull String key) {
+        ArrayDeque<IdleSession> sessions = this.idleSessions.get(key);
+        if (sessions == null) {
+            return 0;
+        }
+        return sessions.size();
+    }
+
+    /**
+     * Disconnect all the idle sessions
+     */
+    public void clear() {
+        ArrayList<Terminal> sessions = new ArrayList<>();
+        synchronized (this) {
+            for (ArrayDeque<IdleSession> idle : this.idleSessions.values()) {
+                for (IdleSession session : idle) {
+                    sessions.add(session.terminal);
+                }
+            }
+            this.idleSessions.clear();
+        }
+
+        disconnect(sessions);
+    }
+
+    private static void disconnect(List<Terminal> sessions) {
+        for (Terminal session : sessions) {
+            try {
+                session.disconnect();
+            } catch (TerminalInterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.debug("Problem disconnecting pooled terminal " + session.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * The network threads are not daemons, so log off the idle sessions
+     * cleanly when the JVM is asked to exit
+     */
+    private void addShutdownHook() {
+        if (this.shutdownHookAdded) {
+            return;
+        }
+        this.shutdownHookAdded = true;
+
+        Runtime.getRuntime().addShutdownHook(new Thread("3270 terminal pool shutdown") {
+            @Override
+            public void run() {
+                clear();
+            }
+        });
+    }
+
+    private static class IdleSession {
+        private final Terminal terminal;
+        private final Instant  pooled = Instant.now();
+
+        IdleSession(Terminal terminal) {
+            this.terminal = terminal;
+        }
+    }
+
+}
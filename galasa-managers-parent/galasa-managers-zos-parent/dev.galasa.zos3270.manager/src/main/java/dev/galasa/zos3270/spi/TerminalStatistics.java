@@ -0,0 +1,224 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.spi;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.validation.constraints.NotNull;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IResponseTimes;
+import dev.galasa.zos3270.ITerminalStatistics;
+
+/**
+ * Collects the response times and traffic for a terminal session.  The screen starts a response
+ * when an attention key locks the keyboard and ends it when a write from the host unlocks it.
+ */
+public class TerminalStatistics implements ITerminalStatistics {
+
+    private static final int                                        MAX_TRANSACTIONS  = 100;
+    private static final String                                     OTHER_TRANSACTION = "*OTHER";
+
+    private static final double[]                                   RAS_PERCENTILES   = { 50, 90, 95, 99, 99.9 };
+
+    private final AtomicLong                                        bytesSent         = new AtomicLong();
+    private final AtomicLong                                        bytesReceived     = new AtomicLong();
+    private final AtomicLong                                        screensReceived   = new AtomicLong();
+
+    private ResponseHistogram                                       all;
+    private EnumMap<AttentionIdentification, ResponseHistogram>     byAid;
+    private HashMap<String, ResponseHistogram>                      byTransaction;
+
+    private long                                                    started;
+    private volatile long                                           lastScreen;
+
+    private AttentionIdentification                                 outstandingAid;
+    private String                                                  outstandingTransaction;
+    private long                                                    outstandingSince;
+
+    public TerminalStatistics() {
+        reset();
+    }
+
+    /**
+     * Start again, for when a session is handed to a new run
+     */
+    public synchronized void reset() {
+        this.bytesSent.set(0);
+        this.bytesReceived.set(0);
+        this.screensReceived.set(0);
+        this.all = new ResponseHistogram();
+        this.byAid = new EnumMap<>(AttentionIdentification.class);
+        this.byTransaction = new HashMap<>();
+        this.started = System.nanoTime();
+        this.lastScreen = this.started;
+        this.outstandingAid = null;
+    }
+
+    /**
+     * An attention key has been pressed and the keyboard locked
+     *
+     * @param aid - the attention key
+     * @param transaction - the transaction name, or null if the screen was blank
+     */
+    public synchronized void aidSent(@NotNull AttentionIdentification aid, String transaction) {
+        this.outstandingAid = aid;
+        this.outstandingTransaction = transaction;
+        this.outstandingSince = System.nanoTime();
+    }
+
+    /**
+     * The host has unlocked the keyboard, completing the response if an attention key was pressed
+     */
+    public synchronized void keyboardUnlocked() {
+        if (this.outstandingAid == null) {
+            return;
+        }
+
+        long micros = (System.nanoTime() - this.outstandingSince) / 1000;
+
+        this.all.record(micros);
+
+        ResponseHistogram aidHistogram = this.byAid.get(this.outstandingAid);
+        if (aidHistogram == null) {
+            aidHistogram = new ResponseHistogram();
+            this.byAid.put(this.outstandingAid, aidHistogram);
+        }
+        aidHistogram.record(micros);
+
+        if (this.outstandingTransaction != null) {
+            String transaction = this.outstandingTransaction;
+            ResponseHistogram transactionHistogram = this.byTransaction.get(transaction);
+            if (transactionHistogram == null) {
+                // *** Screens without a transaction id could have any first word, so limit the number kept
+                if (this.byTransaction.size() >= MAX_TRANSACTIONS) {
+                    transaction = OTHER_TRANSACTION;
+                    transactionHistogram = this.byTransaction.get(transaction);
+                }
+                if (transactionHistogram == null) {
+                    transactionHistogram = new ResponseHistogram();
+                    this.byTransaction.put(transaction, transactionHistogram);
+                }
+            }
+            transactionHistogram.record(micros);
+        }
+
+        this.outstandingAid = null;
+        this.outstandingTransaction = null;
+    }
+
+    public void screenReceived() {
+        this.screensReceived.incrementAndGet();
+        this.lastScreen = System.nanoTime();
+    }
+
+    public void bytesSent(int length) {
+        this.bytesSent.addAndGet(length);
+    }
+
+    public void bytesReceived(int length) {
+        this.bytesReceived.addAndGet(length);
+    }
+
+    @Override
+    public synchronized ResponseHistogram getResponseTimes() {
+        return this.all;
+    }
+
+    @Override
+    public synchronized IResponseTimes getResponseTimes(@NotNull AttentionIdentification aid) {
+        ResponseHistogram histogram = this.byAid.get(aid);
+        if (histogram == null) {
+            return new ResponseHistogram();
+        }
+        return histogram;
+    }
+
+    @Override
+    public synchronized IResponseTimes getResponseTimes(@NotNull String transaction) {
+        ResponseHistogram histogram = this.byTransaction.get(transaction);
+        if (histogram == null) {
+            return new ResponseHistogram();
+        }
+        return histogram;
+    }
+
+    @Override
+    public synchronized Set<String> getTransactions() {
+        return new TreeSet<>(this.byTransaction.keySet());
+    }
+
+    @Override
+    public long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return this.bytesReceived.get();
+    }
+
+    @Override
+    public long getScreensReceived() {
+        return this.screensReceived.get();
+    }
+
+    @Override
+    public synchronized double getScreensPerSecond() {
+        long elapsed = this.lastScreen - this.started;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        return this.screensReceived.get() / (elapsed / 1_000_000_000.0);
+    }
+
+    /**
+     * @return the statistics as written to the RAS
+     */
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("bytesSent", getBytesSent());
+        json.addProperty("bytesReceived", getBytesReceived());
+        json.addProperty("screensReceived", getScreensReceived());
+        json.addProperty("screensPerSecond", getScreensPerSecond());
+        json.add("responseTimes", toJson(this.all));
+
+        JsonObject aids = new JsonObject();
+        for (Map.Entry<AttentionIdentification, ResponseHistogram> entry : this.byAid.entrySet()) {
+            aids.add(entry.getKey().name(), toJson(entry.getValue()));
+        }
+        json.add("aids", aids);
+
+        JsonObject transactions = new JsonObject();
+        for (String transaction : getTransactions()) {
+            transactions.add(transaction, toJson(this.byTransaction.get(transaction)));
+        }
+        json.add("transactions", transactions);
+
+        return json;
+    }
+
+    private static JsonObject toJson(ResponseHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("minimumMs", histogram.getMinimum());
+        json.addProperty("meanMs", histogram.getMean());
+        for (double percentile : RAS_PERCENTILES) {
+            json.addProperty("p" + (percentile == (long) percentile ? Long.toString((long) percentile) : Double.toString(percentile)) + "Ms",
+                    histogram.getPercentile(percentile));
+        }
+        json.addProperty("maximumMs", histogram.getMaximum());
+        return json;
+    }
+
+}
@@ -5,7 +5,6 @@
  */
 package dev.galasa.zos3270.spi;
 
-import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -13,15 +12,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map.Entry;
-import java.util.zip.GZIPOutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -34,23 +30,34 @@ import dev.galasa.framework.spi.IConfidentialTextService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IResponseTimes;
 import dev.galasa.zos3270.IScreenUpdateListener;
 import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.Zos3270ManagerException;
-import dev.galasa.zos3270.common.screens.FieldContents;
-import dev.galasa.zos3270.common.screens.TerminalField;
-import dev.galasa.zos3270.common.screens.TerminalImage;
 import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
 import dev.galasa.zos3270.internal.properties.ApplyConfidentialTextFiltering;
 import dev.galasa.zos3270.internal.properties.LiveTerminalUrl;
 import dev.galasa.zos3270.internal.properties.LogConsoleTerminals;
+import dev.galasa.zos3270.internal.properties.NetworkDispatcherThreads;
+import dev.galasa.zos3270.internal.properties.NetworkSelectorThreads;
+import dev.galasa.zos3270.internal.properties.RasImageBatchSize;
+import dev.galasa.zos3270.internal.properties.RasImageFlushInterval;
+import dev.galasa.zos3270.internal.properties.RasImageKeyframeInterval;
+import dev.galasa.zos3270.internal.properties.RasImageQueueSize;
+import dev.galasa.zos3270.internal.properties.RecordDatastreamTrace;
+import dev.galasa.zos3270.internal.properties.TerminalCodePage;
 import dev.galasa.zos3270.internal.properties.TerminalDeviceTypes;
+import dev.galasa.zos3270.internal.terminal.LiveTerminalPublisher;
+import dev.galasa.zos3270.internal.terminal.TerminalImageCapture;
+import dev.galasa.zos3270.internal.terminal.TerminalImageWriter;
 
 public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListener {
 
-    private Log                            logger       = LogFactory.getLog(getClass());
+    private static final int               LIVE_TERMINAL_QUEUE_SIZE = 100;
+    private static final long              LIVE_TERMINAL_CLOSE_WAIT = 10000;
 
-    private final Gson                     gson         = new GsonBuilder().setPrettyPrinting().create();
+    private Log                            logger       = LogFactory.getLog(getClass());
 
     private final String                   terminalId;
     private int                            updateId;
@@ -59,12 +66,12 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
     private final IConfidentialTextService cts;
     private final boolean                  applyCtf;
 
-    private final ArrayList<TerminalImage> cachedImages = new ArrayList<>();
-
+    private final TerminalImageWriter      imageWriter;
     private final Path                     terminalRasDirectory;
-    private int                            rasTerminalSequence;
-    private URL                            liveTerminalUrl;
-    private int                            liveTerminalSequence;
+
+    private DatastreamTraceWriter          datastreamTrace;
+
+    private LiveTerminalPublisher          liveTerminalPublisher;
     private boolean                        logConsoleTerminals;
     private boolean                        autoConnect;
 
@@ -81,12 +88,23 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         getScreen().registerScreenUpdateListener(this);
 
         Path storedArtifactsRoot = framework.getResultArchiveStore().getStoredArtifactsRoot();
-        terminalRasDirectory = storedArtifactsRoot.resolve("zos3270").resolve("terminals").resolve(this.terminalId);
+        this.terminalRasDirectory = storedArtifactsRoot.resolve("zos3270").resolve("terminals").resolve(this.terminalId);
+        this.imageWriter = new TerminalImageWriter(this.terminalId, this.runId, this.terminalRasDirectory,
+                this.applyCtf ? this.cts : null, RasImageBatchSize.get(), RasImageFlushInterval.get() * 1000L,
+                RasImageQueueSize.get(), RasImageKeyframeInterval.get());
+
+        if (RecordDatastreamTrace.get()) {
+            try {
+                this.datastreamTrace = DatastreamTraceWriter.create(
+                        this.terminalRasDirectory.resolve(this.terminalId + ".3270trace"), getScreen());
+                getScreen().setDatastreamTrace(this.datastreamTrace);
+            } catch (Exception e) {
+                logger.warn("Unable to create the 3270 datastream trace for terminal " + this.terminalId, e);
+            }
+        }
 
         URL propLiveTerminalUrl = LiveTerminalUrl.get();
-        if (propLiveTerminalUrl == null) {
-            liveTerminalUrl = null;
-        } else {
+        if (propLiveTerminalUrl != null) {
             try {
                 // *** Register the terminal to the UI which will own the terminal view
                 HttpURLConnection connection = (HttpURLConnection) propLiveTerminalUrl.openConnection();
@@ -100,8 +118,11 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
                     logger.warn("Unable to activate live terminal due to " + connection.getResponseCode() + " - "
                             + connection.getResponseMessage());
                 } else {
-                    this.liveTerminalUrl = new URL(
+                    URL liveTerminalUrl = new URL(
                             propLiveTerminalUrl.toString() + "/" + this.runId + "/" + this.terminalId);
+                    this.liveTerminalPublisher = new LiveTerminalPublisher(liveTerminalUrl, this.terminalId,
+                            this.runId, this.applyCtf ? this.cts : null, LIVE_TERMINAL_QUEUE_SIZE);
+                    this.liveTerminalPublisher.start();
                 }
             } catch (Exception e) {
                 throw new Zos3270ManagerException("Unable to create the live terminal directory", e);
@@ -109,6 +130,16 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         }
         
         setDeviceTypes(TerminalDeviceTypes.get(image));
+        setCodePage(TerminalCodePage.get(image));
+
+        int selectorThreads = NetworkSelectorThreads.get();
+        if (selectorThreads > 0) {
+            try {
+                setNetworkSelector(NetworkSelector.getSharedSelector(selectorThreads, NetworkDispatcherThreads.get()));
+            } catch (NetworkException e) {
+                throw new Zos3270ManagerException("Unable to create the 3270 network selector", e);
+            }
+        }
 
         logConsoleTerminals = LogConsoleTerminals.get();
     }
@@ -117,6 +148,24 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         return this.autoConnect;
     }
 
+    /**
+     * Move the RAS, datastream trace and live terminal recording to the adopted screen
+     */
+    @Override
+    public synchronized void adoptSession(Terminal session) throws TerminalInterruptedException {
+        getScreen().unregisterScreenUpdateListener(this);
+        getScreen().setDatastreamTrace(null);
+        if (session instanceof IScreenUpdateListener) {
+            session.getScreen().unregisterScreenUpdateListener((IScreenUpdateListener) session);
+        }
+
+        super.adoptSession(session);
+
+        getScreen().registerScreenUpdateListener(this);
+        getScreen().setDatastreamTrace(this.datastreamTrace);
+        getScreen().getStatistics().reset();
+    }
+
     @Override
     public synchronized void screenUpdated(Direction direction, AttentionIdentification aid) {
         updateId++;
@@ -143,47 +192,14 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         // out
         // alt
         // sizes
-        TerminalImage terminalImage = new TerminalImage(updateId, update, direction == Direction.RECEIVED, null,
+        // *** Only the field characters are copied here, the image is built off the network thread
+        TerminalImageCapture capture = new TerminalImageCapture(updateId, update, direction == Direction.RECEIVED,
                 aidText, terminalSize, cursorCol, cursorRow);
-        terminalImage.getFields().addAll(buildTerminalFields(getScreen()));
-        cachedImages.add(terminalImage);
-        if (cachedImages.size() >= 10) {
-            flushTerminalCache();
-        }
-
-        if (liveTerminalUrl != null) {
-            try {
-                liveTerminalSequence++;
-                dev.galasa.zos3270.common.screens.Terminal liveTerminal = new dev.galasa.zos3270.common.screens.Terminal(
-                        this.terminalId, this.runId, liveTerminalSequence, terminalSize);
-                liveTerminal.getImages().add(terminalImage);
-
-                JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
-                stripFalseBooleans(intermediateJson);
-                String tempJson = gson.toJson(intermediateJson);
+        captureFields(getScreen(), capture);
+        imageWriter.write(capture);
 
-                if (applyCtf) {
-                    tempJson = cts.removeConfidentialText(tempJson);
-                }
-
-                HttpURLConnection connection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
-                connection.setRequestMethod("PUT");
-                connection.addRequestProperty("Content-Type", "application/json");
-                connection.setDoInput(true);
-                connection.setDoOutput(true);
-                connection.connect();
-                try (OutputStream os = connection.getOutputStream()) {
-                    IOUtils.write(tempJson, os, StandardCharsets.UTF_8);
-                }
-                if (connection.getResponseCode() != 200) {
-                    logger.warn("Unable to write live terminal due to " + connection.getResponseCode() + " - "
-                            + connection.getResponseMessage());
-                    this.liveTerminalUrl = null;
-                }
-            } catch (Exception e) {
-                logger.error("Failed to write live terminal image, image lost", e);
-                this.liveTerminalUrl = null;
-            }
+        if (liveTerminalPublisher != null) {
+            liveTerminalPublisher.publish(capture);
         }
 
         if (logConsoleTerminals) {
@@ -199,67 +215,78 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         }
     }
 
-    public synchronized void flushTerminalCache() {
-        if (cachedImages.isEmpty()) {
-            return;
+    /**
+     * Write the terminal images still queued to the RAS, waits until they have been written
+     */
+    public void flushTerminalCache() {
+        imageWriter.flush();
+
+        DatastreamTraceWriter currentTrace = this.datastreamTrace;
+        if (currentTrace != null) {
+            currentTrace.flush();
         }
+    }
 
-        rasTerminalSequence++;
+    /**
+     * Stop recording the datastream trace and close it, before the session is disconnected or pooled
+     */
+    public synchronized void closeDatastreamTrace() {
+        if (this.datastreamTrace != null) {
+            getScreen().setDatastreamTrace(null);
+            this.datastreamTrace.close();
+            logger.debug("Recorded " + this.datastreamTrace.getRecords() + " inbound datastreams for 3270 terminal " + this.terminalId);
+            this.datastreamTrace = null;
+        }
+    }
 
-        try {
-            TerminalSize terminalSize = new TerminalSize(getScreen().getNoOfColumns(), getScreen().getNoOfRows()); // TODO
-            // sort
-            // out
-            // alt
-            // sizes
-            dev.galasa.zos3270.common.screens.Terminal rasTerminal = new dev.galasa.zos3270.common.screens.Terminal(
-                    this.terminalId, this.runId, rasTerminalSequence, terminalSize);
-            rasTerminal.getImages().addAll(this.cachedImages);
-
-            JsonObject intermediateJson = (JsonObject) gson.toJsonTree(rasTerminal);
-            stripFalseBooleans(intermediateJson);
-            String tempJson = gson.toJson(intermediateJson);
+    /**
+     * Write the response times and traffic to the RAS and log a summary
+     */
+    public void writeStatistics() {
+        TerminalStatistics statistics = getScreen().getStatistics();
+        IResponseTimes responseTimes = statistics.getResponseTimes();
 
-            if (applyCtf) {
-                tempJson = cts.removeConfidentialText(tempJson);
-            }
+        logger.info(String.format("3270 terminal %s, %d responses, mean %.1fms, 95th %.1fms, max %.1fms, %d screens, %d bytes sent, %d bytes received",
+                this.terminalId, responseTimes.getCount(), responseTimes.getMean(), responseTimes.getPercentile(95),
+                responseTimes.getMaximum(), statistics.getScreensReceived(), statistics.getBytesSent(), statistics.getBytesReceived()));
 
-            String terminalFilename = this.terminalId + "-" + String.format("%05d", rasTerminalSequence) + ".gz";
-            Path terminalPath = terminalRasDirectory.resolve(terminalFilename);
+        String json = new GsonBuilder().setPrettyPrinting().create().toJson(statistics.toJson());
+        if (this.applyCtf) {
+            json = this.cts.removeConfidentialText(json);
+        }
 
-            try (GZIPOutputStream gos = new GZIPOutputStream(Files.newOutputStream(terminalPath,
-                    new SetContentType(new ResultArchiveStoreContentType("application/zos3270terminal")),
-                    StandardOpenOption.CREATE))) {
-                IOUtils.write(tempJson, gos, "utf-8");
-            }
+        Path statisticsPath = this.terminalRasDirectory.resolve(this.terminalId + "-statistics.json");
+        try {
+            Files.createDirectories(this.terminalRasDirectory);
+            Files.write(statisticsPath, json.getBytes(StandardCharsets.UTF_8),
+                    new SetContentType(new ResultArchiveStoreContentType("application/json")), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
         } catch (Exception e) {
-            logger.error("Unable to write terminal cache to the RAS", e);
-            rasTerminalSequence--;
-            return;
+            logger.warn("Unable to write the terminal statistics to the RAS", e);
         }
-
-        this.cachedImages.clear();
     }
 
-    private static List<TerminalField> buildTerminalFields(Screen screen) {
-        ArrayList<TerminalField> terminalFields = new ArrayList<>();
+    /**
+     * Send the remaining images to the live terminal view and end the stream
+     */
+    public void closeLiveTerminal() {
+        if (liveTerminalPublisher != null) {
+            liveTerminalPublisher.close(LIVE_TERMINAL_CLOSE_WAIT);
+            liveTerminalPublisher = null;
+        }
+    }
 
+    private static void captureFields(Screen screen, TerminalImageCapture capture) {
         Field[] screenFields = screen.calculateFields();
         for (Field screenField : screenFields) {
             int row = screenField.getStart() / screen.getNoOfColumns();
             int column = screenField.getStart() % screen.getNoOfColumns();
 
-            TerminalField terminalField = new TerminalField(row, column, screenField.isUnformatted(),
-                    screenField.isProtected(), screenField.isNumeric(), screenField.isDisplay(),
-                    screenField.isIntenseDisplay(), screenField.isSelectorPen(), screenField.isFieldModifed());
-
-            Character[] chars = screenField.getFieldCharsWithNulls();
-            terminalField.getContents().add(new FieldContents(chars)); // TODO needs to be expanded when we record
-            // extended attributes
-            terminalFields.add(terminalField);
+            char[] text = screenField.getText();
+            capture.addField(row, column, screenField.isUnformatted(), screenField.isProtected(),
+                    screenField.isNumeric(), screenField.isDisplay(), screenField.isIntenseDisplay(),
+                    screenField.isSelectorPen(), screenField.isFieldModifed(), Arrays.copyOf(text, text.length));
         }
-
-        return terminalFields;
     }
 
     public String getId() {
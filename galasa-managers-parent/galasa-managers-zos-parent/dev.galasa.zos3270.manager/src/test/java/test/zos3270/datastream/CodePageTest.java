@@ -0,0 +1,67 @@
+/*
+ * Licensed Materials - Property of IBM
+ * 
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.datastream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.CodePage;
+import dev.galasa.zos3270.internal.datastream.OrderText;
+
+public class CodePageTest {
+
+    @Test
+    public void testTablesMatchCharset() throws Zos3270Exception {
+        for (String name : new String[] { "037", "1047", "285", "500" }) {
+            CodePage codePage = CodePage.getCodePage(name);
+            Charset charset = codePage.getCharset();
+
+            for (int i = 0; i < 256; i++) {
+                byte b = (byte) i;
+                char c = new String(new byte[] { b }, charset).charAt(0);
+                Assert.assertEquals("Decode of " + i + " in " + name + " is incorrect", c, codePage.decode(b));
+                Assert.assertEquals("Encode of " + c + " in " + name + " is incorrect",
+                        String.valueOf(c).getBytes(charset)[0], codePage.encode(c));
+            }
+        }
+    }
+
+    @Test
+    public void testNationalCharacters() throws Zos3270Exception {
+        Assert.assertEquals("037 0x5b should be a dollar", '$', CodePage.getCodePage("037").decode((byte) 0x5b));
+        Assert.assertEquals("285 0x5b should be a pound", '\u00a3', CodePage.getCodePage("285").decode((byte) 0x5b));
+        Assert.assertEquals("1047 [ should be 0xad", (byte) 0xad, CodePage.getCodePage("1047").encode('['));
+    }
+
+    @Test
+    public void testUnsupportedCodePage() {
+        try {
+            CodePage.getCodePage("99999");
+            Assert.fail("Should have rejected the code page");
+        } catch (Zos3270Exception e) {
+            Assert.assertTrue("Incorrect message", e.getMessage().contains("99999"));
+        }
+    }
+
+    @Test
+    public void testTextRunDecodedWithCodePage() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { (byte) 0x5b, (byte) 0xf1, (byte) 0xff, 0x13, (byte) 0x5b });
+
+        List<AbstractOrder> orders = NetworkThread.processOrders(buffer, CodePage.getCodePage("285"));
+
+        Assert.assertEquals("Should be text, insert cursor, text", 3, orders.size());
+        Assert.assertEquals("Text incorrect", "\u00a31\u0000", ((OrderText) orders.get(0)).getText());
+        Assert.assertEquals("Text incorrect", "\u00a3", ((OrderText) orders.get(2)).getText());
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.datastream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.spi.DatastreamReplay;
+import dev.galasa.zos3270.spi.DatastreamTraceReader;
+import dev.galasa.zos3270.spi.DatastreamTraceRecord;
+import dev.galasa.zos3270.spi.DatastreamTraceWriter;
+import dev.galasa.zos3270.spi.Screen;
+
+public class DatastreamTraceTest {
+
+    @Test
+    public void testReplayGivesSameScreen() throws Exception {
+        Screen screen = new Screen();
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        DatastreamTraceWriter writer = new DatastreamTraceWriter(trace, screen);
+        screen.setDatastreamTrace(writer);
+
+        NetworkThread networkThread = new NetworkThread(null, screen, null, null);
+        networkThread.processInbound3270Data(ByteBuffer.wrap(vampStream()));
+        // *** Read commands are replayed too, the reply is discarded
+        networkThread.process3270Data(ByteBuffer.wrap(new byte[] { AbstractCommandCode.READ_MODIFIED }));
+        writer.close();
+        Assert.assertEquals(2, writer.getRecords());
+
+        DatastreamTraceReader reader = new DatastreamTraceReader(new ByteArrayInputStream(trace.toByteArray()));
+        Assert.assertEquals(80, reader.getPrimaryColumns());
+        Assert.assertEquals(24, reader.getPrimaryRows());
+
+        Screen replayScreen = DatastreamReplay.createScreen(reader);
+        Assert.assertEquals(2, DatastreamReplay.replay(reader, replayScreen, false));
+        Assert.assertFalse(reader.isTruncated());
+
+        Assert.assertEquals(screen.retrieveFlatScreen(), replayScreen.retrieveFlatScreen());
+        Assert.assertEquals(screen.getFingerprint(), replayScreen.getFingerprint());
+    }
+
+    @Test
+    public void testTruncatedTraceReadToLastRecord() throws Exception {
+        Screen screen = new Screen();
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        DatastreamTraceWriter writer = new DatastreamTraceWriter(trace, screen);
+        writer.inbound(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+        writer.inbound(ByteBuffer.wrap(new byte[] { 4, 5, 6 }));
+        writer.close();
+
+        byte[] bytes = trace.toByteArray();
+        DatastreamTraceReader reader = new DatastreamTraceReader(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)));
+
+        DatastreamTraceRecord record = reader.next();
+        Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, record.getDatastream());
+        Assert.assertNull(reader.next());
+        Assert.assertTrue(reader.isTruncated());
+    }
+
+    @Test
+    public void testRealTimeReplayKeepsGaps() throws Exception {
+        Screen screen = new Screen();
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        DatastreamTraceWriter writer = new DatastreamTraceWriter(trace, screen);
+        writer.inbound(ByteBuffer.wrap(vampStream()));
+        Thread.sleep(200);
+        writer.inbound(ByteBuffer.wrap(vampStream()));
+        writer.close();
+
+        DatastreamTraceReader reader = new DatastreamTraceReader(new ByteArrayInputStream(trace.toByteArray()));
+        long started = System.nanoTime();
+        DatastreamReplay.replay(reader, DatastreamReplay.createScreen(reader), true);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        Assert.assertTrue("Replay took " + elapsedMillis + "ms", elapsedMillis >= 200);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotATrace() throws Exception {
+        new DatastreamTraceReader(new ByteArrayInputStream("not a trace file".getBytes("us-ascii")));
+    }
+
+    private byte[] vampStream() throws Exception {
+        URL vampFile = getClass().getClassLoader().getResource("vampstream.txt");
+        String vampHex = IOUtils.toString(vampFile.openStream(), "utf-8");
+        return Hex.decodeHex(vampHex);
+    }
+
+}
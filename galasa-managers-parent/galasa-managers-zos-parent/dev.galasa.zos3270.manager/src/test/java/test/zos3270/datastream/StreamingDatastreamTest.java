@@ -0,0 +1,126 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.datastream;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IScreenUpdateListener;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CodePage;
+import dev.galasa.zos3270.spi.Screen;
+
+public class StreamingDatastreamTest {
+
+    @Test
+    public void testVampScreenSameAsOrders() throws Exception {
+        URL vampFile = getClass().getClassLoader().getResource("vampstream.txt");
+        String vampHex = IOUtils.toString(vampFile.openStream(), "utf-8");
+
+        assertSameAsOrders(Hex.decodeHex(vampHex));
+    }
+
+    @Test
+    public void testAllOrdersSameAsOrders() throws Exception {
+        CodePage codePage = CodePage.getDefault();
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(AbstractCommandCode.ERASE_WRITE);
+        stream.write(0xc3);
+        stream.write(0x11);
+        stream.write(new BufferAddress(0).getCharRepresentation());
+        stream.write(new byte[] { 0x1d, (byte) 0xf0 });
+        stream.write(codePage.encode("TITLE"));
+        stream.write(new byte[] { 0x28, 0x42, (byte) 0xf2 });
+        stream.write(codePage.encode("RED"));
+        stream.write(new byte[] { 0x28, 0x00, 0x00 });
+        stream.write(new byte[] { 0x29, 0x02, (byte) 0xc0, (byte) 0xc1, 0x41, (byte) 0xf4 });
+        stream.write(0x13);
+        stream.write(codePage.encode("INPUT"));
+        stream.write(0xff);
+        stream.write(0x01);
+        stream.write(new byte[] { 0x08, (byte) 0xad });
+        stream.write(0x3c);
+        stream.write(new BufferAddress(200).getCharRepresentation());
+        stream.write(codePage.encode("*"));
+        stream.write(new byte[] { 0x1d, 0x40 });
+        stream.write(codePage.encode("CLEARED"));
+        stream.write(0x11);
+        stream.write(new BufferAddress(1910).getCharRepresentation());
+        stream.write(new byte[] { 0x1d, 0x40 });
+        stream.write(codePage.encode("WRAPPED AROUND"));
+        stream.write(0x11);
+        stream.write(new BufferAddress(201).getCharRepresentation());
+        stream.write(0x12);
+        stream.write(new BufferAddress(205).getCharRepresentation());
+
+        assertSameAsOrders(stream.toByteArray());
+    }
+
+    @Test
+    public void testReadCommandNotStreamed() throws Exception {
+        Screen screen = new Screen();
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { AbstractCommandCode.READ_MODIFIED });
+
+        Assert.assertFalse("Read commands should be left for the order objects", screen.processInboundDatastream(buffer));
+        Assert.assertEquals("Buffer should not have been touched", 0, buffer.position());
+    }
+
+    @Test
+    public void testWriteWithoutWccCompleted() throws Exception {
+        byte[] stream = new byte[] { AbstractCommandCode.ERASE_WRITE };
+
+        Screen orderScreen = new Screen();
+        AtomicInteger orderUpdates = countUpdates(orderScreen);
+        NetworkThread networkThread = new NetworkThread(null, orderScreen, null, null);
+        orderScreen.processInboundMessage(networkThread.process3270Data(ByteBuffer.wrap(stream)));
+
+        Screen streamedScreen = new Screen();
+        AtomicInteger streamedUpdates = countUpdates(streamedScreen);
+        Assert.assertTrue("Write should be applied straight from the datastream",
+                streamedScreen.processInboundDatastream(ByteBuffer.wrap(stream)));
+
+        Assert.assertEquals("Write should be completed from the order objects", 1, orderUpdates.get());
+        Assert.assertEquals("Write should be completed from the datastream", 1, streamedUpdates.get());
+        Assert.assertEquals("Screen text should be the same", orderScreen.printScreen(), streamedScreen.printScreen());
+    }
+
+    private AtomicInteger countUpdates(Screen screen) {
+        AtomicInteger updates = new AtomicInteger();
+        screen.registerScreenUpdateListener(new IScreenUpdateListener() {
+            @Override
+            public void screenUpdated(Direction direction, AttentionIdentification aid) {
+                updates.incrementAndGet();
+            }
+        });
+        return updates;
+    }
+
+    private void assertSameAsOrders(byte[] stream) throws Exception {
+        Screen orderScreen = new Screen();
+        NetworkThread networkThread = new NetworkThread(null, orderScreen, null, null);
+        orderScreen.processInboundMessage(networkThread.process3270Data(ByteBuffer.wrap(stream)));
+
+        Screen streamedScreen = new Screen();
+        Assert.assertTrue("Write should be applied straight from the datastream",
+                streamedScreen.processInboundDatastream(ByteBuffer.wrap(stream)));
+
+        Assert.assertEquals("Screen text should be the same", orderScreen.printScreen(), streamedScreen.printScreen());
+        Assert.assertEquals("Fields should be the same", orderScreen.printFields(), streamedScreen.printFields());
+        Assert.assertEquals("Cursor should be the same", orderScreen.getCursor(), streamedScreen.getCursor());
+    }
+
+}
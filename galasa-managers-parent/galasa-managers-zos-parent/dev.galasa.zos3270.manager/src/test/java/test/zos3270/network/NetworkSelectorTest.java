@@ -0,0 +1,189 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
+import dev.galasa.zos3270.internal.comms.NetworkServer;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.internal.datastream.OrderText;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.spi.Terminal;
+
+public class NetworkSelectorTest {
+
+    @Test
+    public void testCompleteMessageLength() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { NetworkThread.IAC, NetworkThread.DO });
+        Assert.assertEquals("Partial IAC DO should be incomplete", -1, NetworkThread.completeMessageLength(buffer));
+
+        buffer = ByteBuffer.wrap(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.TN3270E, 0x01 });
+        Assert.assertEquals("IAC DO TN3270E is 3 bytes", 3, NetworkThread.completeMessageLength(buffer));
+
+        buffer = ByteBuffer.wrap(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.TELNET_EOR,
+                NetworkThread.IAC, NetworkThread.WILL });
+        Assert.assertEquals("IAC DO EOR needs the IAC WILL EOR", -1, NetworkThread.completeMessageLength(buffer));
+
+        buffer = ByteBuffer.wrap(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.TN3270E,
+                NetworkThread.IAC, NetworkThread.IAC, NetworkThread.IAC, NetworkThread.SE, 0x00 });
+        Assert.assertEquals("SB should end at the unescaped IAC SE", 7, NetworkThread.completeMessageLength(buffer));
+
+        buffer = ByteBuffer.wrap(new byte[] { 0x00, 0x01, NetworkThread.IAC, NetworkThread.IAC, 0x02, NetworkThread.IAC });
+        Assert.assertEquals("Record without IAC EOR is incomplete", -1, NetworkThread.completeMessageLength(buffer));
+
+        buffer = ByteBuffer.wrap(new byte[] { 0x00, 0x01, NetworkThread.IAC, NetworkThread.IAC, NetworkThread.IAC, NetworkThread.EOR, 0x00 });
+        buffer.position(0);
+        Assert.assertEquals("Record should end at IAC EOR", 6, NetworkThread.completeMessageLength(buffer));
+        Assert.assertEquals("Position should not move", 0, buffer.position());
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSelectorDrivenTerminal() throws Exception {
+        assertSelectorDrivenTerminal(false, false);
+    }
+
+    @Test
+    public void testSelectorDrivenTlsTerminal() throws Exception {
+        assertSelectorDrivenTerminal(true, false);
+    }
+
+    @Test
+    public void testSelectorDrivenStartTls() throws Exception {
+        assertSelectorDrivenTerminal(false, true);
+    }
+
+    /**
+     * Connect a selector driven terminal to a host, which will use TLS from the start,
+     * switch to TLS after IAC SB START_TLS FOLLOWS, or stay plain
+     */
+    private void assertSelectorDrivenTerminal(boolean tls, final boolean startTls) throws Exception {
+        final SSLContext sslContext = (tls || startTls) ? createServerSslContext() : null;
+        final AtomicReference<Throwable> hostFailure = new AtomicReference<>();
+
+        NetworkSelector networkSelector = new NetworkSelector(1);
+        try (ServerSocket serverSocket = (tls) ? sslContext.getServerSocketFactory().createServerSocket(0, 1, InetAddress.getLoopbackAddress())
+                : new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread host = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        if (startTls) {
+                            socket = startTls(socket, sslContext);
+                        }
+                        NetworkServer server = new NetworkServer(socket);
+
+                        ByteArrayOutputStream datastream = new ByteArrayOutputStream();
+                        datastream.write(AbstractCommandCode.ERASE_WRITE);
+                        datastream.write(new WriteControlCharacter(false, false, false, false, false, false, true, true).getBytes());
+                        datastream.write("HELLO FROM THE SELECTOR".getBytes(OrderText.ebcdic));
+                        server.sendDatastream(datastream.toByteArray());
+                    } catch (Throwable e) {
+                        hostFailure.set(e);
+                    }
+                }
+            };
+            host.start();
+
+            Terminal terminal = new Terminal("selector", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), tls);
+            terminal.setNetworkSelector(networkSelector);
+            terminal.connect();
+
+            Assert.assertTrue("Text should have been received through the selector",
+                    terminal.isTextInField("SELECTOR", 10000));
+
+            terminal.disconnect();
+            Assert.assertFalse("Terminal should be disconnected", terminal.isConnected());
+            host.join(10000);
+            if (hostFailure.get() != null) {
+                throw new AssertionError("The host failed", hostFailure.get());
+            }
+        } finally {
+            networkSelector.shutdown();
+        }
+    }
+
+    /**
+     * Ask the client to START_TLS and switch the socket to TLS once it agrees
+     */
+    private static Socket startTls(Socket socket, SSLContext sslContext) throws IOException {
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.START_TLS });
+        outputStream.flush();
+
+        byte[] expected = new byte[] { NetworkThread.IAC, NetworkThread.WILL, NetworkThread.START_TLS,
+                NetworkThread.IAC, NetworkThread.SB, NetworkThread.START_TLS, NetworkThread.FOLLOWS, NetworkThread.IAC, NetworkThread.SE };
+        byte[] reply = new byte[expected.length];
+        new DataInputStream(socket.getInputStream()).readFully(reply);
+        Assert.assertArrayEquals("Client should agree to START_TLS", expected, reply);
+
+        outputStream.write(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.START_TLS, NetworkThread.FOLLOWS,
+                NetworkThread.IAC, NetworkThread.SE });
+        outputStream.flush();
+
+        SSLSocket tlsSocket = (SSLSocket) sslContext.getSocketFactory().createSocket(socket, null, socket.getPort(), true);
+        tlsSocket.setUseClientMode(false);
+        tlsSocket.startHandshake();
+        return tlsSocket;
+    }
+
+    /**
+     * The client trusts any certificate, so a self-signed one generated by keytool will do
+     */
+    private SSLContext createServerSslContext() throws Exception {
+        File keystoreFile = new File(this.temporaryFolder.getRoot(), "host.p12");
+        char[] password = "password".toCharArray();
+
+        File keytool = new File(new File(System.getProperty("java.home"), "bin"), "keytool");
+        Process process = new ProcessBuilder(keytool.getAbsolutePath(), "-genkeypair", "-alias", "host", "-keyalg", "RSA",
+                "-keysize", "2048", "-dname", "CN=localhost", "-validity", "1", "-storetype", "PKCS12",
+                "-keystore", keystoreFile.getAbsolutePath(), "-storepass", "password", "-keypass", "password")
+                .redirectErrorStream(true)
+                .start();
+        String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+        Assert.assertEquals("keytool failed - " + output, 0, process.waitFor());
+
+        KeyStore keystore = KeyStore.getInstance("PKCS12");
+        try (FileInputStream keystoreStream = new FileInputStream(keystoreFile)) {
+            keystore.load(keystoreStream, password);
+        }
+
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keystore, password);
+
+        SSLContext sslContext = SSLContext.getInstance("TLSv1.2");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        return sslContext;
+    }
+
+}
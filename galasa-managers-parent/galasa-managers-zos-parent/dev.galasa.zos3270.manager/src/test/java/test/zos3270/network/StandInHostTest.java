@@ -0,0 +1,141 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.network;
+
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.Zos3270Exception;
+import dev.galasa.zos3270.internal.standin.LoadDriver;
+import dev.galasa.zos3270.internal.standin.LoadReport;
+import dev.galasa.zos3270.internal.standin.StandInHost;
+import dev.galasa.zos3270.internal.standin.StandInScript;
+import dev.galasa.zos3270.spi.Terminal;
+
+public class StandInHostTest {
+
+    @Test
+    public void testScriptedFlow() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGON SCREEN")
+                .receive(AttentionIdentification.ENTER)
+                .loop()
+                .sendScreen("MAIN MENU")
+                .receive(AttentionIdentification.PF3)
+                .sendScreen("GOODBYE")
+                .receive(null);
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal terminal = new Terminal("standin", host.getHost(), host.getPort());
+            terminal.connect();
+            terminal.waitForTextInField("LOGON");
+
+            terminal.enter();
+            terminal.waitForKeyboard(10000);
+            terminal.waitForTextInField("MAIN MENU");
+
+            terminal.enter();
+            terminal.pf3();
+            terminal.waitForKeyboard(10000);
+            terminal.waitForTextInField("GOODBYE");
+
+            terminal.clear();
+            terminal.waitForKeyboard(10000);
+            terminal.waitForTextInField("MAIN MENU");
+
+            terminal.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    @Test
+    public void testWrongKeyRedisplaysScreen() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("MAIN MENU")
+                .receive(AttentionIdentification.PF3)
+                .sendScreen("GOODBYE")
+                .receive(null);
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal terminal = new Terminal("standin", host.getHost(), host.getPort());
+            terminal.connect();
+            terminal.waitForTextInField("MAIN MENU");
+
+            terminal.enter();
+            terminal.waitForKeyboard(10000);
+            Assert.assertTrue("Should still be on the menu", terminal.isTextInField("MAIN MENU"));
+
+            terminal.pf3();
+            terminal.waitForKeyboard(10000);
+            terminal.waitForTextInField("GOODBYE");
+
+            terminal.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    @Test
+    public void testLoadedScript() throws Exception {
+        StandInScript script = StandInScript.load(new StringReader(
+                "# logon and loop on enter\n"
+                + "send f5c31d60d3d6c7d6d5\n"
+                + "receive\n"
+                + "delay 1\n"
+                + "loop\n"
+                + "send f1c2\n"
+                + "receive ENTER\n"));
+
+        Assert.assertEquals("Should have all the steps", 5, script.getSteps().size());
+        Assert.assertEquals("Should loop from the second send", 3, script.getLoopStart());
+        Assert.assertArrayEquals("Datastream should be decoded", new byte[] { (byte) 0xf1, (byte) 0xc2 },
+                script.getSteps().get(3).getDatastream());
+    }
+
+    @Test(expected = Zos3270Exception.class)
+    public void testLoopMustWaitForClient() throws Exception {
+        new StandInScript().sendScreen("FLOOD").loop().sendScreen("FLOOD").validate();
+    }
+
+    @Test
+    public void testLoadDriver() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("READY")
+                .loop()
+                .receive(AttentionIdentification.ENTER)
+                .sendScreen("ANSWER");
+
+        StandInHost host = new StandInHost(script);
+        host.setResponseLatency(5);
+        host.start();
+        try {
+            LoadDriver driver = new LoadDriver(host.getHost(), host.getPort(), 3);
+            driver.setInteractions(10);
+            driver.setTimeout(10000);
+
+            LoadReport report = driver.run();
+
+            Assert.assertEquals("No session should fail", 0, report.getFailedSessions());
+            Assert.assertEquals("All the interactions should complete", 30, report.getInteractions());
+            Assert.assertEquals("Every interaction should be answered with a screen", 30, report.getScreens());
+            Assert.assertTrue("Round trip should include the latency", report.getAidRoundTrip(50) >= 5.0);
+            Assert.assertTrue("Unlock should not be before the first response",
+                    report.getKeyboardUnlock(100) >= report.getAidRoundTrip(100));
+            Assert.assertTrue("Should report throughput", report.getScreensPerSecond() > 0);
+        } finally {
+            host.close();
+        }
+    }
+
+}
@@ -143,4 +143,34 @@ public class FindTextTest {
         }
     }
 
+    @Test
+    public void testIsTextInFieldWaitsForUpdate() throws Exception {
+        Screen screen = new Screen(10, 2, null);
+        screen.erase();
+
+        Assert.assertFalse("Should have timed out without the text", screen.isTextInField("message", 10));
+
+        Thread updater = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                ArrayList<AbstractOrder> orders = new ArrayList<>();
+                orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+                orders.add(new OrderStartField(false, false, true, false, false, false));
+                orders.add(new OrderText("Find this message here"));
+
+                screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                        new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+            } catch (Exception e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        updater.start();
+
+        long start = System.currentTimeMillis();
+        Assert.assertTrue("Should have found the text once the update arrived", screen.isTextInField("message", 10_000));
+        Assert.assertTrue("Should have returned as soon as the update arrived", System.currentTimeMillis() - start < 5_000);
+
+        updater.join();
+    }
+
 }
@@ -0,0 +1,137 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import dev.galasa.zos3270.internal.gherkin.Gherkin3270Coordinator;
+import dev.galasa.zos3270.spi.Zos3270TerminalImpl;
+
+public class Gherkin3270CoordinatorTest {
+
+    private static final int THREADS   = 8;
+    private static final int TERMINALS = 200;
+
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+        final Coordinator coordinator = new Coordinator();
+
+        final List<List<Zos3270TerminalImpl>> registered = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Zos3270TerminalImpl> terminals = new ArrayList<>();
+            for (int i = 0; i < TERMINALS; i++) {
+                terminals.add(Mockito.mock(Zos3270TerminalImpl.class));
+            }
+            registered.add(terminals);
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean registering = new AtomicBoolean(true);
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        // *** A statement that finds a terminal must also find its image tag
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                await(start);
+                while (registering.get()) {
+                    for (int t = 0; t < THREADS; t++) {
+                        for (int i = 0; i < TERMINALS; i++) {
+                            String id = id(t, i);
+                            if (coordinator.getTerminal(id) != null && coordinator.getImageTagForTerminal(id) == null) {
+                                failures.add("Terminal " + id + " was visible before its image tag");
+                            }
+                        }
+                    }
+                }
+            }
+        };
+        reader.start();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            Thread writer = new Thread() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (int i = 0; i < TERMINALS; i++) {
+                        coordinator.registerTerminal(id(thread, i), registered.get(thread).get(i), tag(thread));
+                    }
+                }
+            };
+            writer.start();
+            writers.add(writer);
+        }
+
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join(10000);
+        }
+        registering.set(false);
+        reader.join(10000);
+
+        Assert.assertTrue("Lookups failed during registration - " + failures, failures.isEmpty());
+
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < TERMINALS; i++) {
+                String id = id(t, i);
+                Assert.assertSame("Terminal " + id + " should be registered", registered.get(t).get(i), coordinator.getTerminal(id));
+                Assert.assertEquals("Terminal " + id + " should have its image tag", tag(t), coordinator.getImageTagForTerminal(id));
+            }
+        }
+    }
+
+    private static String id(int thread, int index) {
+        return "T" + thread + "_" + index;
+    }
+
+    private static String tag(int thread) {
+        return "IMAGE" + thread;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Expose the registry, which the Gherkin statements use from the same package
+     */
+    private static class Coordinator extends Gherkin3270Coordinator {
+
+        public Coordinator() {
+            super(null, null);
+        }
+
+        @Override
+        public Zos3270TerminalImpl getTerminal(String id) {
+            return super.getTerminal(id);
+        }
+
+        @Override
+        public void registerTerminal(String id, Zos3270TerminalImpl terminal, String imageTag) {
+            super.registerTerminal(id, terminal, imageTag);
+        }
+
+        @Override
+        public String getImageTagForTerminal(String id) {
+            return super.getImageTagForTerminal(id);
+        }
+    }
+
+}
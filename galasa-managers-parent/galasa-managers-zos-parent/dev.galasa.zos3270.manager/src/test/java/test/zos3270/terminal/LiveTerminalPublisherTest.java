@@ -0,0 +1,256 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.zos3270.common.screens.FieldContents;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalField;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaDecoder;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.terminal.LiveTerminalPublisher;
+
+public class LiveTerminalPublisherTest {
+
+    @Test
+    public void testImagesStreamedOverOneConnection() throws Exception {
+        AtomicInteger connections = new AtomicInteger();
+        List<String> lines = new CopyOnWriteArrayList<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/live", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if ("OPTIONS".equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().add(LiveTerminalPublisher.ACCEPT_PUT, LiveTerminalPublisher.CONTENT_TYPE);
+                    exchange.getResponseHeaders().add("Connection", "close");
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                    return;
+                }
+                connections.incrementAndGet();
+                Assert.assertEquals(LiveTerminalPublisher.CONTENT_TYPE,
+                        exchange.getRequestHeaders().getFirst("Content-Type"));
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            URL url = new URL("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/live");
+            LiveTerminalPublisher publisher = new LiveTerminalPublisher(url, "term1", "run1", null, 100);
+            publisher.start();
+
+            publisher.publish(image(10, "FIRST"));
+            publisher.publish(image(11, "SECOND"));
+            publisher.publish(image(12, "THIRD"));
+            publisher.close(10000);
+
+            Assert.assertFalse("Publisher should have ended", publisher.isAlive());
+            Assert.assertFalse("Publisher should not have failed", publisher.isFailed());
+        } finally {
+            server.stop(0);
+        }
+
+        Assert.assertEquals("All the images should use one connection", 1, connections.get());
+
+        Gson gson = new Gson();
+        TerminalImageDeltaDecoder decoder = new TerminalImageDeltaDecoder();
+        ArrayList<TerminalImage> images = new ArrayList<>();
+        int previousSequence = 0;
+        for (String line : lines) {
+            Terminal terminal = gson.fromJson(line, Terminal.class);
+            Assert.assertTrue("Each set should have a new sequence", terminal.getSequence() > previousSequence);
+            previousSequence = terminal.getSequence();
+            for (TerminalImage image : terminal.getImages()) {
+                images.add(decoder.decode(image));
+            }
+        }
+
+        Assert.assertEquals("All the images should be received", 3, images.size());
+        Assert.assertEquals("Images should be numbered for the view", 1, images.get(0).getSequence());
+        Assert.assertEquals("Images should be in order", "term1-12", images.get(2).getId());
+        Assert.assertEquals("Delta should be rebuilt", "THIRD",
+                new String(toChars(images.get(2).getFields().get(1).getContents().get(0).getChars())));
+    }
+
+    @Test
+    public void testFullImagesPutToViewWithoutStreams() throws Exception {
+        List<String> contentTypes = new CopyOnWriteArrayList<>();
+        List<Terminal> terminals = new CopyOnWriteArrayList<>();
+
+        // *** Behaves like the older views, no Accept-Put and the body is read as a single Terminal
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/live", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if ("PUT".equals(exchange.getRequestMethod())) {
+                    contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+                    try {
+                        terminals.add(new Gson().fromJson(
+                                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), Terminal.class));
+                    } catch (Exception e) {
+                        exchange.sendResponseHeaders(500, -1);
+                        exchange.close();
+                        return;
+                    }
+                }
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            URL url = new URL("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/live");
+            LiveTerminalPublisher publisher = new LiveTerminalPublisher(url, "term1", "run1", null, 100);
+            publisher.start();
+
+            publisher.publish(image(10, "FIRST"));
+            publisher.publish(image(11, "SECOND"));
+            publisher.publish(image(12, "THIRD"));
+            publisher.close(10000);
+
+            Assert.assertFalse("Publisher should have ended", publisher.isAlive());
+            Assert.assertFalse("Publisher should not have failed", publisher.isFailed());
+        } finally {
+            server.stop(0);
+        }
+
+        ArrayList<TerminalImage> images = new ArrayList<>();
+        for (Terminal terminal : terminals) {
+            images.addAll(terminal.getImages());
+        }
+        for (String contentType : contentTypes) {
+            Assert.assertEquals("Should be sent as a single Terminal", "application/json", contentType);
+        }
+
+        Assert.assertEquals("All the images should be received", 3, images.size());
+        Assert.assertEquals("Images should be in order", "term1-12", images.get(2).getId());
+        Assert.assertEquals("Images should be full images", "THIRD",
+                new String(toChars(images.get(2).getFields().get(1).getContents().get(0).getChars())));
+    }
+
+    @Test
+    public void testStreamReconnectedAfterEachBreak() throws Exception {
+        AtomicInteger streams = new AtomicInteger();
+
+        // *** Ends every stream after the first set of images, as a view timing out a quiet stream would
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread serverThread = new Thread() {
+            @Override
+            public void run() {
+                while (!server.isClosed()) {
+                    try (Socket socket = server.accept()) {
+                        BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        String requestLine = reader.readLine();
+                        String line;
+                        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                            // *** skip the headers
+                        }
+
+                        String response = "HTTP/1.1 200 OK\r\nContent-Length: 0\r\nConnection: close\r\n";
+                        if (requestLine != null && requestLine.startsWith("OPTIONS")) {
+                            response += LiveTerminalPublisher.ACCEPT_PUT + ": " + LiveTerminalPublisher.CONTENT_TYPE + "\r\n";
+                        } else {
+                            while ((line = reader.readLine()) != null && !line.startsWith("{")) {
+                                // *** skip the chunk size
+                            }
+                            streams.incrementAndGet();
+                        }
+                        socket.getOutputStream().write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                        socket.getOutputStream().flush();
+                    } catch (IOException e) {
+                        // *** closed
+                    }
+                }
+            }
+        };
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        LiveTerminalPublisher publisher = null;
+        try {
+            URL url = new URL("http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/live");
+            publisher = new LiveTerminalPublisher(url, "term1", "run1", null, 100);
+            publisher.start();
+
+            long timeout = System.currentTimeMillis() + 20000;
+            int sequence = 10;
+            while (streams.get() < 3 && System.currentTimeMillis() < timeout && !publisher.isFailed()) {
+                publisher.publish(image(sequence++, "UPDATE"));
+                Thread.sleep(100);
+            }
+
+            Assert.assertFalse("Publisher should not have given up", publisher.isFailed());
+            Assert.assertTrue("Each broken stream should be reconnected", streams.get() >= 3);
+        } finally {
+            if (publisher != null) {
+                publisher.close(10000);
+            }
+            server.close();
+        }
+    }
+
+    private TerminalImage image(int sequence, String text) {
+        TerminalImage image = new TerminalImage(sequence, "term1-" + sequence, true, null, null,
+                new TerminalSize(80, 24), 0, 0);
+
+        TerminalField title = new TerminalField(0, 0, false, true, false, true, false, false, false);
+        title.getContents().add(new FieldContents(new Character[] { 'T', 'I', 'T', 'L', 'E' }));
+        image.getFields().add(title);
+
+        TerminalField body = new TerminalField(1, 0, false, true, false, true, false, false, false);
+        Character[] chars = new Character[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        body.getContents().add(new FieldContents(chars));
+        image.getFields().add(body);
+
+        return image;
+    }
+
+    private char[] toChars(Character[] characters) {
+        char[] chars = new char[characters.length];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = characters[i];
+        }
+        return chars;
+    }
+
+}
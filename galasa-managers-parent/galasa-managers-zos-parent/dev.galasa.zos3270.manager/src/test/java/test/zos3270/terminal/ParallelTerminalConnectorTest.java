@@ -0,0 +1,68 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.spi.ParallelTerminalConnector;
+
+public class ParallelTerminalConnectorTest {
+
+    @Test
+    public void testBoundedAndFailuresInOrder() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger highest = new AtomicInteger();
+        CountDownLatch allStarted = new CountDownLatch(3);
+
+        List<String> terminals = Arrays.asList("term1", "term2", "term3", "term4", "term5", "term6");
+
+        ParallelTerminalConnector<String> connector = new ParallelTerminalConnector<>(3, "test connect");
+        LinkedHashMap<String, Exception> failures = connector.connectAll(terminals, terminal -> {
+            int now = active.incrementAndGet();
+            highest.accumulateAndGet(now, Math::max);
+            allStarted.countDown();
+            try {
+                // *** Hold the first connections until the pool is full
+                allStarted.await(10, TimeUnit.SECONDS);
+                if (terminal.equals("term5") || terminal.equals("term2")) {
+                    throw new Exception(terminal + " failed");
+                }
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+
+        Assert.assertEquals("Should use the whole pool", 3, highest.get());
+        Assert.assertEquals("Failures should be in terminal order", new ArrayList<>(Arrays.asList("term2", "term5")),
+                new ArrayList<>(failures.keySet()));
+        Assert.assertEquals("term5 failed", failures.get("term5").getMessage());
+    }
+
+    @Test
+    public void testOneThreadIsSerial() throws Exception {
+        ArrayList<String> order = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+
+        ParallelTerminalConnector<String> connector = new ParallelTerminalConnector<>(1, "test connect");
+        LinkedHashMap<String, Exception> failures = connector.connectAll(Arrays.asList("term1", "term2", "term3"), terminal -> {
+            Assert.assertSame("Should connect on the calling thread", caller, Thread.currentThread());
+            order.add(terminal);
+        });
+
+        Assert.assertTrue("No failures", failures.isEmpty());
+        Assert.assertEquals("Should connect in order", Arrays.asList("term1", "term2", "term3"), order);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.internal.comms.Inbound3270Message;
+import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CommandEraseWrite;
+import dev.galasa.zos3270.internal.datastream.OrderRepeatToAddress;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.internal.terminal.ScreenBuffer;
+import dev.galasa.zos3270.spi.BufferChar;
+import dev.galasa.zos3270.spi.BufferNewLine;
+import dev.galasa.zos3270.spi.BufferStartOfField;
+import dev.galasa.zos3270.spi.DatastreamException;
+import dev.galasa.zos3270.spi.Field;
+import dev.galasa.zos3270.spi.IBufferHolder;
+import dev.galasa.zos3270.spi.Screen;
+
+public class ScreenBufferTest {
+
+    @Test
+    public void testRepeatToAddressWraps() throws DatastreamException, TerminalInterruptedException {
+        Screen screen = new Screen(10, 2, null);
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(15)));
+        orders.add(new OrderRepeatToAddress('W', new BufferAddress(3)));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        Assert.assertEquals("Repeat should have wrapped the buffer", "WWW            WWWWW", screen.retrieveFlatScreen());
+    }
+
+    @Test
+    public void testSetBufferConvertsHolders() throws TerminalInterruptedException {
+        Screen screen = new Screen(10, 1, null);
+
+        IBufferHolder[] holders = new IBufferHolder[10];
+        holders[0] = new BufferStartOfField(0, false, false, true, false, false, false);
+        holders[1] = new BufferChar('A');
+        holders[2] = new BufferNewLine();
+        holders[3] = new BufferChar('B');
+        screen.setBuffer(holders);
+
+        Assert.assertEquals("Fields are incorrect",
+                "Field(pos=0,p=false,n=false,d=true,i=false,s=false,m=false,A B      )\n",
+                screen.printFields());
+        Assert.assertFalse("Screen should not be clear", screen.isClearScreen());
+
+        screen.nullify(0, 0, 10);
+        Assert.assertTrue("Screen should be clear", screen.isClearScreen());
+    }
+
+    @Test
+    public void testFieldsCachedUntilBufferChanges() throws Exception {
+        Screen screen = new Screen(10, 1, null);
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderSetBufferAddress(new BufferAddress(5)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        Field[] first = screen.calculateFields();
+        Field[] second = screen.calculateFields();
+        Assert.assertNotSame("Callers should get their own array", first, second);
+        Assert.assertSame("Fields should be reused when the buffer has not changed", first[0], second[0]);
+
+        screen.setCursorPosition(1);
+        screen.type("B");
+
+        Field[] third = screen.calculateFields();
+        Assert.assertNotSame("Fields should be rebuilt after the buffer changed", first[0], third[0]);
+        Assert.assertEquals("Field text is incorrect", "B   ", third[0].getFieldWithoutNulls());
+        Assert.assertTrue("Field should be modified", third[0].isFieldModifed());
+        Assert.assertEquals("Field count is incorrect", 2, third.length);
+    }
+
+    @Test
+    public void testExtendedAttributesPacking() {
+        short extended = ScreenBuffer.buildExtendedAttributes((byte) 0xf2, (byte) 0xf4);
+
+        Assert.assertEquals("Foreground colour is incorrect", (byte) 0xf2, ScreenBuffer.getForegroundColour(extended));
+        Assert.assertEquals("Highlighting is incorrect", (byte) 0xf4, ScreenBuffer.getHighlighting(extended));
+    }
+
+}
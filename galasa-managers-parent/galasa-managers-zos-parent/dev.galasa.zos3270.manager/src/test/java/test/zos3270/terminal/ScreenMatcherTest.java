@@ -0,0 +1,150 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.ErrorTextFoundException;
+import dev.galasa.zos3270.ScreenMatcher;
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.internal.comms.Inbound3270Message;
+import dev.galasa.zos3270.internal.datastream.AbstractOrder;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CommandEraseWrite;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.OrderText;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.spi.Screen;
+
+public class ScreenMatcherTest {
+
+    @Test
+    public void testOverlappingText() {
+        ScreenMatcher matcher = ScreenMatcher.compile(new String[] { "SHE", "HERS", "HE" }, new String[] { "RS" });
+
+        ScreenMatcher.Result result = matcher.match(fields("USHERS"));
+        Assert.assertEquals("Lowest ok index should be reported", 0, result.getOkIndex());
+        Assert.assertEquals("Error text inside another text should be found", 0, result.getErrorIndex());
+
+        result = matcher.match(fields("XHEX"));
+        Assert.assertEquals("Suffix text should be found", 2, result.getOkIndex());
+        Assert.assertEquals("No error text", -1, result.getErrorIndex());
+    }
+
+    @Test
+    public void testTextMustBeInOneField() {
+        ScreenMatcher matcher = ScreenMatcher.compile("LOGON");
+
+        Assert.assertEquals("Text split across fields should not match", -1,
+                matcher.match(fields("LOG", "ON")).getOkIndex());
+        Assert.assertEquals("Text in a field should match", 0,
+                matcher.match(fields("LOG", "PLEASE LOGON")).getOkIndex());
+    }
+
+    @Test
+    public void testSameAsContains() {
+        Random random = new Random(3270);
+        for (int run = 0; run < 200; run++) {
+            String[] ok = randomTexts(random, 1 + random.nextInt(20));
+            String[] error = randomTexts(random, random.nextInt(10));
+            String[] fieldText = randomTexts(random, 1 + random.nextInt(5));
+            for (int i = 0; i < fieldText.length; i++) {
+                fieldText[i] = fieldText[i] + randomText(random, 40);
+            }
+
+            ScreenMatcher.Result result = ScreenMatcher.compile(ok, error).match(fields(fieldText));
+
+            Assert.assertEquals("Ok index for " + Arrays.toString(ok) + " in " + Arrays.toString(fieldText),
+                    firstContained(ok, fieldText), result.getOkIndex());
+            Assert.assertEquals("Error index for " + Arrays.toString(error) + " in " + Arrays.toString(fieldText),
+                    firstContained(error, fieldText), result.getErrorIndex());
+        }
+    }
+
+    @Test
+    public void testScreenSearch() throws Exception {
+        Screen screen = new Screen(10, 2, null);
+        screen.erase();
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("Find this message here"));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        ScreenMatcher matcher = ScreenMatcher.compile(new String[] { "missing", "message" }, new String[] { "ABEND" });
+        Assert.assertEquals("Should find the second ok text", 1, screen.waitForTextInField(matcher, 0));
+
+        matcher = ScreenMatcher.compile(new String[] { "message" }, new String[] { "ABEND", "this" });
+        try {
+            screen.waitForTextInField(matcher, 0);
+            Assert.fail("Should have thrown ErrorTextFoundException");
+        } catch (ErrorTextFoundException e) {
+            Assert.assertEquals("Should report the error index", 1, e.getErrorId());
+        }
+    }
+
+    @Test
+    public void testInterruptedWaitKeepsInterrupt() throws Exception {
+        Screen screen = new Screen(10, 2, null);
+        screen.erase();
+
+        Thread.currentThread().interrupt();
+        try {
+            screen.waitForTextInField(ScreenMatcher.compile("missing"), 10000);
+            Assert.fail("Should have thrown TerminalInterruptedException");
+        } catch (TerminalInterruptedException e) {
+            Assert.assertTrue("The thread should still be interrupted", Thread.interrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private List<char[]> fields(String... text) {
+        ArrayList<char[]> fields = new ArrayList<>();
+        for (String field : text) {
+            fields.add(field.toCharArray());
+        }
+        return fields;
+    }
+
+    private int firstContained(String[] texts, String[] fieldText) {
+        for (int i = 0; i < texts.length; i++) {
+            for (String field : fieldText) {
+                if (field.contains(texts[i])) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private String[] randomTexts(Random random, int count) {
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            texts[i] = randomText(random, 1 + random.nextInt(4));
+        }
+        return texts;
+    }
+
+    private String randomText(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append("ABC ".charAt(random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.TimeoutException;
+import dev.galasa.zos3270.internal.standin.StandInHost;
+import dev.galasa.zos3270.internal.standin.StandInScript;
+import dev.galasa.zos3270.spi.Terminal;
+
+public class ScreenStabilityTest {
+
+    @Test
+    public void testWaitForStableAfterSeveralWrites() throws Exception {
+        // *** Each write unlocks the keyboard, so a wait for keyboard would return on the first
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGON")
+                .receive(AttentionIdentification.ENTER)
+                .sendScreen("PAINTING")
+                .delay(100)
+                .sendScreen("PARTIAL")
+                .delay(100)
+                .sendScreen("FINAL");
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal terminal = new Terminal("stable", host.getHost(), host.getPort());
+            terminal.connect();
+            terminal.waitForTextInField("LOGON");
+
+            terminal.enter().waitForScreenStable(400, 10000);
+            Assert.assertTrue("Should have waited for the final write", terminal.isTextInField("FINAL"));
+
+            terminal.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    @Test
+    public void testWaitForScreenChange() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGON")
+                .receive(AttentionIdentification.ENTER)
+                .delay(50)
+                .sendScreen("WELCOME");
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal terminal = new Terminal("change", host.getHost(), host.getPort());
+            terminal.connect();
+            terminal.waitForTextInField("LOGON");
+
+            long logon = terminal.getScreenFingerprint();
+            terminal.enter();
+            long welcome = terminal.waitForScreenChange(logon, 10000);
+
+            Assert.assertNotEquals(logon, welcome);
+            Assert.assertTrue(terminal.isTextInField("WELCOME"));
+            Assert.assertEquals(welcome, terminal.getScreenFingerprint());
+
+            terminal.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testScreenChangeTimeout() throws Exception {
+        Terminal terminal = new Terminal("timeout", "localhost", 0);
+        terminal.waitForScreenChange(terminal.getScreenFingerprint(), 100);
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testStableNeedsKeyboard() throws Exception {
+        // *** A new screen has the keyboard locked until the host unlocks it
+        Terminal terminal = new Terminal("locked", "localhost", 0);
+        terminal.waitForScreenStable(10, 200);
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        Terminal first = new Terminal("first", "localhost", 0);
+        Terminal second = new Terminal("second", "localhost", 0);
+        Assert.assertEquals("Same screen should give the same fingerprint", first.getScreenFingerprint(), second.getScreenFingerprint());
+
+        long blank = first.getScreenFingerprint();
+        first.getScreen().setBuffer(0, 0, "HELLO");
+        Assert.assertNotEquals(blank, first.getScreenFingerprint());
+
+        first.getScreen().nullify(0, 0, 5);
+        Assert.assertEquals(blank, first.getScreenFingerprint());
+    }
+
+}
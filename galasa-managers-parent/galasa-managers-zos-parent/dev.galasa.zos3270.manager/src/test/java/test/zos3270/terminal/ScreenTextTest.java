@@ -0,0 +1,90 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ConcurrentModificationException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.TerminalInterruptedException;
+import dev.galasa.zos3270.spi.Screen;
+
+public class ScreenTextTest {
+
+    @Test
+    public void testViewsMatchFlatScreen() throws TerminalInterruptedException {
+        Screen screen = screen();
+
+        CharSequence text = screen.retrieveScreenText();
+        Assert.assertEquals(screen.retrieveFlatScreen(), text.toString());
+        Assert.assertEquals(20, text.length());
+        Assert.assertEquals('H', text.charAt(0));
+        Assert.assertEquals(' ', text.charAt(5));
+
+        Assert.assertEquals("HELLO     ", screen.retrieveScreenRow(0).toString());
+        Assert.assertEquals("  WORLD   ", screen.retrieveScreenRow(1).toString());
+        Assert.assertEquals("WORLD", screen.retrieveScreenRegion(1, 2, 5).toString());
+        Assert.assertEquals("LO       WO", screen.retrieveScreenRegion(0, 3, 11).toString());
+        Assert.assertEquals("ELL", text.subSequence(1, 4).toString());
+
+        Assert.assertSame("Unchanged screen should reuse the view", text, screen.retrieveScreenText());
+    }
+
+    @Test
+    public void testCopyToCharBuffer() throws TerminalInterruptedException {
+        Screen screen = screen();
+
+        CharBuffer dest = CharBuffer.allocate(100);
+        Assert.assertEquals(20, screen.retrieveScreen(dest));
+        Assert.assertEquals(5, screen.retrieveScreen(dest, 1, 2, 5));
+        dest.flip();
+        Assert.assertEquals(screen.retrieveFlatScreen() + "WORLD", dest.toString());
+
+        // *** Direct buffers have no backing array
+        CharBuffer direct = ByteBuffer.allocateDirect(40).asCharBuffer();
+        screen.retrieveScreen(direct, 0, 0, 5);
+        direct.flip();
+        Assert.assertEquals("HELLO", direct.toString());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testCharBufferTooSmall() throws TerminalInterruptedException {
+        screen().retrieveScreen(CharBuffer.allocate(10));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRegionPastEnd() throws TerminalInterruptedException {
+        screen().retrieveScreenRegion(1, 5, 6);
+    }
+
+    @Test
+    public void testViewInvalidatedByUpdate() throws TerminalInterruptedException {
+        Screen screen = screen();
+        CharSequence row = screen.retrieveScreenRow(0);
+
+        screen.setBuffer(0, 0, "BYE");
+
+        try {
+            row.charAt(0);
+            Assert.fail("Should not read a view of a changed screen");
+        } catch (ConcurrentModificationException e) {
+            // *** Expected
+        }
+        Assert.assertEquals("BYELO     ", screen.retrieveScreenRow(0).toString());
+    }
+
+    private static Screen screen() throws TerminalInterruptedException {
+        Screen screen = new Screen(10, 2, null);
+        screen.setBuffer(0, 0, "HELLO");
+        screen.setBuffer(2, 1, "WORLD");
+        return screen;
+    }
+
+}
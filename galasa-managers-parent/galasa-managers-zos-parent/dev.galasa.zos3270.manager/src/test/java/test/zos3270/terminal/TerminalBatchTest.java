@@ -0,0 +1,118 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.KeyboardLockedException;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.internal.datastream.BufferAddress;
+import dev.galasa.zos3270.internal.datastream.CodePage;
+import dev.galasa.zos3270.internal.datastream.OrderInsertCursor;
+import dev.galasa.zos3270.internal.datastream.OrderSetBufferAddress;
+import dev.galasa.zos3270.internal.datastream.OrderStartField;
+import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.internal.standin.StandInHost;
+import dev.galasa.zos3270.internal.standin.StandInScript;
+import dev.galasa.zos3270.spi.Terminal;
+
+public class TerminalBatchTest {
+
+    @Test
+    public void testBatchSendsSameDatastream() throws Exception {
+        Terminal single = formTerminal("single");
+        single.type("USER1").tab().type("SECRET");
+        byte[] expected = single.getScreen().aid(AttentionIdentification.ENTER);
+
+        Terminal batched = formTerminal("batched");
+        batched.batch().type("USER1").tab().type("SECRET").apply();
+        byte[] actual = batched.getScreen().aid(AttentionIdentification.ENTER);
+
+        Assert.assertArrayEquals("Batch should build the same read modified", expected, actual);
+        Assert.assertEquals("Should have typed into the second field", "SECRET",
+                batched.retrieveFieldTextAfterFieldWithString("PASS").trim());
+    }
+
+    @Test
+    public void testNothingAppliedUntilAid() throws Exception {
+        Terminal terminal = formTerminal("deferred");
+        terminal.batch().type("USER1");
+
+        Assert.assertFalse("Keystrokes should not be applied yet", terminal.isTextInField("USER1"));
+    }
+
+    @Test(expected = KeyboardLockedException.class)
+    public void testLockedKeyboard() throws Exception {
+        Terminal terminal = formTerminal("locked");
+        terminal.getScreen().lockKeyboard();
+
+        terminal.batch().type("USER1").tab().type("SECRET").apply();
+    }
+
+    @Test
+    public void testBatchEnter() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGON")
+                .receive(AttentionIdentification.ENTER)
+                .sendScreen("WELCOME");
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal terminal = new Terminal("batch", host.getHost(), host.getPort());
+            terminal.connect();
+            terminal.waitForTextInField("LOGON");
+
+            terminal.batch().type("USER1").enter().waitForKeyboard(10000);
+            terminal.waitForTextInField("WELCOME");
+
+            terminal.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    /**
+     * A screen with user and password input fields, cursor on the user field
+     */
+    private static Terminal formTerminal(String id) throws Exception {
+        ByteArrayOutputStream datastream = new ByteArrayOutputStream();
+        datastream.write(AbstractCommandCode.ERASE_WRITE);
+        datastream.write(new WriteControlCharacter(false, false, false, false, false, false, true, true).getBytes()[0]);
+
+        writeField(datastream, 0, "USER", true);
+        writeField(datastream, 20, "PASS", false);
+        writeField(datastream, 40, "", false);
+
+        Terminal terminal = new Terminal(id, "localhost", 0);
+        terminal.getScreen().processInboundDatastream(ByteBuffer.wrap(datastream.toByteArray()));
+        return terminal;
+    }
+
+    private static void writeField(ByteArrayOutputStream datastream, int position, String label, boolean cursor) {
+        byte[] sba = new OrderSetBufferAddress(new BufferAddress(position)).getBytes();
+        datastream.write(sba, 0, sba.length);
+
+        byte[] sf = new OrderStartField(true, false, true, false, false, false).getBytes();
+        datastream.write(sf, 0, sf.length);
+        byte[] encoded = CodePage.getDefault().encode(label);
+        datastream.write(encoded, 0, encoded.length);
+
+        if (!label.isEmpty()) {
+            sf = new OrderStartField(false, false, true, false, false, false).getBytes();
+            datastream.write(sf, 0, sf.length);
+        }
+        if (cursor) {
+            datastream.write(OrderInsertCursor.ID);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.awaitility.Awaitility;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.terminal.TerminalImageCapture;
+import dev.galasa.zos3270.internal.terminal.TerminalImageWriter;
+
+public class TerminalImageWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFullBatchesWrittenInBackground() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        TerminalImageWriter writer = new TestWriter(directory, 2, 0);
+
+        writer.write(image(1));
+        Assert.assertFalse("A partial batch should not be written", Files.exists(directory.resolve("term1-00001.gz")));
+
+        writer.write(image(2));
+        Awaitility.await().until(() -> Files.exists(directory.resolve("term1-00001.gz")));
+
+        writer.write(image(3));
+        writer.flush();
+
+        Terminal first = read(directory.resolve("term1-00001.gz"));
+        Assert.assertEquals("First file should have the first batch", 2, first.getImages().size());
+        Assert.assertEquals("Images should be in order", 1, first.getImages().get(0).getSequence());
+
+        Terminal second = read(directory.resolve("term1-00002.gz"));
+        Assert.assertEquals("Flush should write the partial batch", 1, second.getImages().size());
+        Assert.assertEquals("Images should be in order", 3, second.getImages().get(0).getSequence());
+    }
+
+    @Test
+    public void testPartialBatchWrittenAfterInterval() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        TerminalImageWriter writer = new TestWriter(directory, 10, 50);
+
+        writer.write(image(1));
+        Awaitility.await().until(() -> Files.exists(directory.resolve("term1-00001.gz")));
+        writer.flush();
+
+        Assert.assertEquals("Timed flush should write the queued image", 1,
+                read(directory.resolve("term1-00001.gz")).getImages().size());
+    }
+
+    @Test
+    public void testCapturedScreenBuiltOnWriterThread() throws Exception {
+        Path directory = temporaryFolder.getRoot().toPath();
+        TerminalImageWriter writer = new TestWriter(directory, 1, 0);
+
+        TerminalImageCapture capture = new TerminalImageCapture(1, "term1-1", true, null, new TerminalSize(80, 24), 0, 0);
+        capture.addField(0, 0, false, true, false, true, false, false, false, new char[] { 'A', 0, 0, 'B' });
+        writer.write(capture);
+        writer.flush();
+
+        TerminalImage image = read(directory.resolve("term1-00001.gz")).getImages().get(0);
+        Character[] chars = image.getFields().get(0).getContents().get(0).getChars();
+        Assert.assertArrayEquals("Nul characters should be written as nulls", new Character[] { 'A', null, null, 'B' }, chars);
+        Assert.assertTrue("The field attributes should be kept", image.getFields().get(0).isFieldProtected());
+    }
+
+    private TerminalImage image(int sequence) {
+        return new TerminalImage(sequence, "term1-" + sequence, true, null, null, new TerminalSize(80, 24), 0, 0);
+    }
+
+    private Terminal read(Path path) throws IOException {
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(path))) {
+            return new Gson().fromJson(IOUtils.toString(is, StandardCharsets.UTF_8), Terminal.class);
+        }
+    }
+
+    private static class TestWriter extends TerminalImageWriter {
+
+        public TestWriter(Path directory, int batchSize, long flushInterval) {
+            super("term1", "run1", directory, null, batchSize, flushInterval, 100, 10);
+        }
+
+        @Override
+        protected OutputStream newOutputStream(Path terminalPath) throws IOException {
+            return Files.newOutputStream(terminalPath);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.internal.standin.StandInHost;
+import dev.galasa.zos3270.internal.standin.StandInScript;
+import dev.galasa.zos3270.spi.Terminal;
+import dev.galasa.zos3270.spi.TerminalSessionPool;
+
+public class TerminalSessionPoolTest {
+
+    @Test
+    public void testAdoptPooledSession() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGGED ON")
+                .loop()
+                .receive(AttentionIdentification.ENTER)
+                .sendScreen("STILL LOGGED ON");
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal first = new Terminal("first", host.getHost(), host.getPort());
+            first.connect();
+            first.waitForTextInField("LOGGED ON");
+
+            TerminalSessionPool pool = new TerminalSessionPool();
+            Assert.assertTrue("Connected session should be pooled", pool.offer("standin", first, 1));
+            Assert.assertNull("Different key should not share the session", pool.take("other", 60));
+
+            Terminal pooled = pool.take("standin", 60);
+            Assert.assertSame("Should take the pooled session", first, pooled);
+            Assert.assertEquals("Pool should be empty", 0, pool.getIdleCount("standin"));
+
+            Terminal second = new Terminal("second", host.getHost(), host.getPort());
+            second.adoptSession(pooled);
+
+            Assert.assertFalse("Old terminal should be left disconnected", first.isConnected());
+            Assert.assertTrue("Should have the session", second.isConnected());
+            Assert.assertTrue("Should have the screen", second.isTextInField("LOGGED ON"));
+
+            second.enter();
+            second.waitForKeyboard(10000);
+            second.waitForTextInField("STILL LOGGED ON");
+
+            Assert.assertEquals("Should not have logged on again", 1, host.getConnectedCount());
+
+            second.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    @Test
+    public void testPoolLimitsAndExpiry() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGGED ON")
+                .receive(null);
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal first = new Terminal("first", host.getHost(), host.getPort());
+            first.connect();
+            Terminal second = new Terminal("second", host.getHost(), host.getPort());
+            second.connect();
+            Terminal notConnected = new Terminal("third", host.getHost(), host.getPort());
+
+            TerminalSessionPool pool = new TerminalSessionPool();
+            Assert.assertFalse("Disconnected terminal should not be pooled", pool.offer("standin", notConnected, 2));
+            Assert.assertTrue("Should pool the first", pool.offer("standin", first, 1));
+            Assert.assertFalse("Pool should be full", pool.offer("standin", second, 1));
+
+            Thread.sleep(1100);
+            Assert.assertNull("Expired session should not be reused", pool.take("standin", 1));
+            Assert.assertFalse("Expired session should be disconnected", first.isConnected());
+
+            second.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+}
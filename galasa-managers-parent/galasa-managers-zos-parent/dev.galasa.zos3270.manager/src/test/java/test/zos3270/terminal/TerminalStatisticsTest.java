@@ -0,0 +1,97 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package test.zos3270.terminal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IResponseTimes;
+import dev.galasa.zos3270.ITerminalStatistics;
+import dev.galasa.zos3270.internal.standin.StandInHost;
+import dev.galasa.zos3270.internal.standin.StandInScript;
+import dev.galasa.zos3270.spi.ResponseHistogram;
+import dev.galasa.zos3270.spi.Terminal;
+
+public class TerminalStatisticsTest {
+
+    @Test
+    public void testResponseTimesRecorded() throws Exception {
+        StandInScript script = new StandInScript()
+                .sendScreen("LOGON")
+                .receive(AttentionIdentification.ENTER)
+                .delay(50)
+                .sendScreen("MENU")
+                .receive(AttentionIdentification.PF3)
+                .delay(50)
+                .sendScreen("LOGON");
+
+        StandInHost host = new StandInHost(script);
+        host.start();
+        try {
+            Terminal terminal = new Terminal("stats", host.getHost(), host.getPort());
+            terminal.connect();
+            terminal.waitForTextInField("LOGON");
+
+            terminal.enter().waitForKeyboard(10000);
+            terminal.waitForTextInField("MENU");
+            terminal.pf3().waitForKeyboard(10000);
+            terminal.waitForTextInField("LOGON");
+
+            ITerminalStatistics statistics = terminal.getStatistics();
+            IResponseTimes responseTimes = statistics.getResponseTimes();
+            Assert.assertEquals("Should have timed both responses", 2, responseTimes.getCount());
+            Assert.assertTrue("Responses should include the host delay", responseTimes.getMinimum() >= 50);
+            Assert.assertTrue("Percentile should be within the range", responseTimes.getPercentile(95) <= responseTimes.getMaximum());
+
+            Assert.assertEquals(1, statistics.getResponseTimes(AttentionIdentification.ENTER).getCount());
+            Assert.assertEquals(1, statistics.getResponseTimes(AttentionIdentification.PF3).getCount());
+            Assert.assertEquals(0, statistics.getResponseTimes(AttentionIdentification.PF1).getCount());
+
+            Assert.assertEquals("Should be keyed by the screen the aid was sent from", 1, statistics.getResponseTimes("LOGON").getCount());
+            Assert.assertEquals(1, statistics.getResponseTimes("MENU").getCount());
+
+            Assert.assertEquals(3, statistics.getScreensReceived());
+            Assert.assertTrue(statistics.getBytesSent() > 0);
+            Assert.assertTrue(statistics.getBytesReceived() > 0);
+
+            terminal.disconnect();
+        } finally {
+            host.close();
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        ResponseHistogram histogram = new ResponseHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1000);
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1.0, histogram.getMinimum(), 0);
+        Assert.assertEquals(1000.0, histogram.getMaximum(), 0);
+        Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+
+        // *** Buckets are within 1/64 of the value
+        Assert.assertEquals(500.0, histogram.getPercentile(50), 500.0 / 64);
+        Assert.assertEquals(990.0, histogram.getPercentile(99), 990.0 / 64);
+        Assert.assertEquals(1000.0, histogram.getPercentile(100), 0);
+
+        Assert.assertEquals(100, histogram.getCountAtOrBelow(100), 2);
+        Assert.assertEquals(1000, histogram.getCountAtOrBelow(5000));
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        ResponseHistogram histogram = new ResponseHistogram();
+
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0.0, histogram.getMinimum(), 0);
+        Assert.assertEquals(0.0, histogram.getPercentile(99), 0);
+    }
+
+}
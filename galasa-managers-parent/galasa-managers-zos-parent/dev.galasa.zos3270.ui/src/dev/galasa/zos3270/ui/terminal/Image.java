@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.ui.terminal;
 
@@ -13,8 +13,6 @@ public class Image {
     private final int imageSequence;
     private final Images images;
 
-    private TerminalImage terminalImage;
-
     private final TerminalSize size;
 
     public Image(TerminalImage terminalImage, Images images) {
@@ -25,30 +23,21 @@ public class Image {
         this.size = terminalImage.getImageSize();
     }
 
+    /**
+     * @return the decoded image, or null if it has not been decoded or has been dropped from the cache
+     */
     public TerminalImage getTerminalImage() {
-        return this.terminalImage;
+        return this.images.getCachedImage(this.imageSequence);
     }
 
     public Images getImages() {
         return this.images;
     }
 
-    public void clearCache() {
-        this.terminalImage = null;
-    }
-
     public int getSequence() {
         return this.imageSequence;
     }
 
-    public boolean updateImage(TerminalImage terminalImage) {
-        if (this.terminalImage != null) {
-            return false;
-        }
-        this.terminalImage = terminalImage;
-        return true;
-    }
-
     public TerminalSize getSize() {
         if (this.size == null) {
             return this.images.getSize();
@@ -0,0 +1,51 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.ui.terminal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import dev.galasa.zos3270.common.screens.TerminalImage;
+
+/**
+ * The decoded terminal images, the least recently viewed are dropped when the cache is
+ * full so the heap used does not depend on the length of the run
+ */
+public class ImageCache {
+
+    private final LinkedHashMap<Integer, TerminalImage> images;
+
+    public ImageCache(final int capacity) {
+        this.images = new LinkedHashMap<Integer, TerminalImage>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TerminalImage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized TerminalImage get(int sequence) {
+        return this.images.get(sequence);
+    }
+
+    public synchronized boolean contains(int sequence) {
+        return this.images.containsKey(sequence);
+    }
+
+    /**
+     * @return true if the image was not already cached
+     */
+    public synchronized boolean put(int sequence, TerminalImage image) {
+        return this.images.put(sequence, image) == null;
+    }
+
+    public synchronized void clear() {
+        this.images.clear();
+    }
+
+}
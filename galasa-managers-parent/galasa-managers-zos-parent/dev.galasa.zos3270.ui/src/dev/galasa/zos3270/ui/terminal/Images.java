@@ -1,21 +1,16 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.ui.terminal;
 
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.zip.GZIPInputStream;
-
-import com.google.gson.Gson;
 
 import dev.galasa.zos3270.common.screens.Terminal;
 import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaDecoder;
 import dev.galasa.zos3270.common.screens.TerminalSize;
 import dev.galasa.zos3270.ui.Zos3270Activator;
 
@@ -24,16 +19,15 @@ public class Images {
     private final int  sequence;
     private final Path imagesFile;
 
-    private final Gson         gson = new Gson();
-
-    private Terminal terminal;
+    private final ImageCache imageCache;
     
     private final TerminalSize size;
 
     private final ArrayList<Image> images = new ArrayList<>();
 
-    public Images(Path path, Terminal terminal) {
+    public Images(Path path, Terminal terminal, ImageCache imageCache) {
         this.imagesFile = path;
+        this.imageCache = imageCache;
         this.sequence = (int) terminal.getSequence() - 1;
         if (terminal.getDefaultSize() == null) {
             this.size = new TerminalSize(80, 24);
@@ -50,20 +44,28 @@ public class Images {
         return this.sequence;
     }
 
+    /**
+     * Decode the images of the file into the cache, unless they are all there already
+     * 
+     * @param currentImageSequence - the image being displayed
+     * @return true if the image being displayed has been decoded
+     */
     public boolean cacheImages(int currentImageSequence) {
-        boolean updatedCurrentSequence = false; 
-        try {
-            if (this.terminal == null) {
-                try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(imagesFile)))) {
-                    this.terminal = gson.fromJson(reader, Terminal.class);
-                }
-            }
+        if (isCached()) {
+            return false;
+        }
 
-            for(TerminalImage ti : this.terminal.getImages()) {
+        boolean updatedCurrentSequence = false; 
+        try (ImagesReader reader = new ImagesReader(imagesFile)) {
+            //*** Deltas only hold the changed fields, so rebuild every image in order, one at a time
+            TerminalImageDeltaDecoder decoder = new TerminalImageDeltaDecoder();
+            TerminalImage encodedImage;
+            while ((encodedImage = reader.nextImage(true)) != null) {
+                TerminalImage ti = decoder.decode(encodedImage);
                 int seq = (int)ti.getSequence() - 1;
                 for(Image image : images) {
                     if (image.getSequence() == seq) {
-                        boolean cacheUpdated = image.updateImage(ti);
+                        boolean cacheUpdated = this.imageCache.put(seq, ti);
                         
                         if (seq == currentImageSequence && cacheUpdated) {
                             updatedCurrentSequence = true;
@@ -80,11 +82,17 @@ public class Images {
         return updatedCurrentSequence;
     }
 
-    public void clearCache() {
-        this.terminal = null;
+    private boolean isCached() {
         for(Image image : images) {
-            image.clearCache();
+            if (!this.imageCache.contains(image.getSequence())) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    protected TerminalImage getCachedImage(int imageSequence) {
+        return this.imageCache.get(imageSequence);
     }
     
     public TerminalSize getSize() {
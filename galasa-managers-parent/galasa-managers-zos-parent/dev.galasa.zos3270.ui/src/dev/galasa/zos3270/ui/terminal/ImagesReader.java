@@ -0,0 +1,184 @@
+/*
+ * Licensed Materials - Property of IBM
+ *
+ * (c) Copyright IBM Corp. 2021.
+ */
+package dev.galasa.zos3270.ui.terminal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+
+/**
+ * Streams the images out of a gzip terminal images file one at a time, so a file
+ * can be indexed or decoded without holding all of it on the heap
+ */
+public class ImagesReader implements Closeable {
+
+    private final Gson         gson = new Gson();
+    private final JsonReader   reader;
+
+    private String             id;
+    private String             runId;
+    private int                sequence;
+    private TerminalSize       defaultSize;
+
+    private boolean            inImages;
+
+    public ImagesReader(Path path) throws IOException {
+        this.reader = new JsonReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8));
+        this.reader.beginObject();
+    }
+
+    /**
+     * Read the next image in the file
+     *
+     * @param withFields - false to skip the screen contents, for indexing
+     * @return the image, or null when there are no more
+     * @throws IOException - if the file cannot be read
+     */
+    public TerminalImage nextImage(boolean withFields) throws IOException {
+        while (true) {
+            if (this.inImages) {
+                if (this.reader.hasNext()) {
+                    if (withFields) {
+                        return gson.fromJson(this.reader, TerminalImage.class);
+                    }
+                    return readImageHeader();
+                }
+                this.reader.endArray();
+                this.inImages = false;
+                continue;
+            }
+
+            if (!this.reader.hasNext()) {
+                return null;
+            }
+
+            String name = this.reader.nextName();
+            if (this.reader.peek() == JsonToken.NULL) {
+                this.reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    this.id = this.reader.nextString();
+                    break;
+                case "runId":
+                    this.runId = this.reader.nextString();
+                    break;
+                case "sequence":
+                    this.sequence = this.reader.nextInt();
+                    break;
+                case "defaultSize":
+                    this.defaultSize = gson.fromJson(this.reader, TerminalSize.class);
+                    break;
+                case "images":
+                    this.reader.beginArray();
+                    this.inImages = true;
+                    break;
+                default:
+                    this.reader.skipValue();
+            }
+        }
+    }
+
+    private TerminalImage readImageHeader() throws IOException {
+        int imageSequence = 0;
+        String imageId = null;
+        boolean inbound = false;
+        String type = null;
+        String aid = null;
+        TerminalSize imageSize = null;
+        int cursorColumn = 0;
+        int cursorRow = 0;
+        boolean delta = false;
+
+        this.reader.beginObject();
+        while (this.reader.hasNext()) {
+            String name = this.reader.nextName();
+            if (this.reader.peek() == JsonToken.NULL) {
+                this.reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "sequence":
+                    imageSequence = this.reader.nextInt();
+                    break;
+                case "id":
+                    imageId = this.reader.nextString();
+                    break;
+                case "inbound":
+                    inbound = this.reader.nextBoolean();
+                    break;
+                case "type":
+                    type = this.reader.nextString();
+                    break;
+                case "aid":
+                    aid = this.reader.nextString();
+                    break;
+                case "imageSize":
+                    imageSize = gson.fromJson(this.reader, TerminalSize.class);
+                    break;
+                case "cursorColumn":
+                    cursorColumn = this.reader.nextInt();
+                    break;
+                case "cursorRow":
+                    cursorRow = this.reader.nextInt();
+                    break;
+                case "delta":
+                    delta = this.reader.nextBoolean();
+                    break;
+                default:
+                    //*** Includes the fields, which are the bulk of the file
+                    this.reader.skipValue();
+            }
+        }
+        this.reader.endObject();
+
+        return new TerminalImage(imageSequence, imageId, inbound, type, aid, imageSize, cursorColumn, cursorRow, delta);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * Read the terminal details and the image sequence numbers and sizes of a file, without
+     * the screen contents
+     *
+     * @param path - the gzip terminal images file
+     * @return the terminal with images that have no fields
+     * @throws IOException - if the file cannot be read
+     */
+    public static Terminal readIndex(Path path) throws IOException {
+        try (ImagesReader imagesReader = new ImagesReader(path)) {
+            ArrayList<TerminalImage> images = new ArrayList<>();
+            TerminalImage image;
+            while ((image = imagesReader.nextImage(false)) != null) {
+                images.add(image);
+            }
+
+            Terminal terminal = new Terminal(imagesReader.id, imagesReader.runId, imagesReader.sequence, imagesReader.defaultSize);
+            for (TerminalImage terminalImage : images) {
+                terminal.addImage(terminalImage);
+            }
+            return terminal;
+        }
+    }
+
+}
@@ -1,12 +1,14 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.ui.terminal;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -16,10 +18,14 @@ import javax.servlet.http.HttpServletResponse;
 import com.google.gson.Gson;
 
 import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltaDecoder;
 import dev.galasa.zos3270.ui.Zos3270Activator;
 
 public class LiveTerminalServlet extends HttpServlet {
     
+    private static final String STREAM_CONTENT_TYPE = "application/x-ndjson";
+
     private TerminalView terminalView;
 
     private Gson gson = new Gson();
@@ -28,6 +34,16 @@ public class LiveTerminalServlet extends HttpServlet {
         this.terminalView = terminalView;
     }
     
+    /**
+     * Tell the run the images can be streamed, older views do not send the header
+     * so the run falls back to a PUT for each set of images
+     */
+    @Override
+    protected void doOptions(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        resp.setHeader("Accept-Put", STREAM_CONTENT_TYPE + ", application/json");
+        super.doOptions(req, resp);
+    }
+    
     @Override
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         if (terminalView == null) {
@@ -35,6 +51,12 @@ public class LiveTerminalServlet extends HttpServlet {
             return;
         }
         
+        String contentType = req.getContentType();
+        if (contentType != null && contentType.startsWith(STREAM_CONTENT_TYPE)) {
+            receiveStream(req, resp);
+            return;
+        }
+        
         try {
             Terminal terminal = gson.fromJson(new InputStreamReader(req.getInputStream()), Terminal.class);
             
@@ -48,6 +70,43 @@ public class LiveTerminalServlet extends HttpServlet {
         
     }
     
+    /**
+     * Read the images as they are streamed, one line of json for each set of images,
+     * until the run ends the request.  The deltas are rebuilt here so each set
+     * cached by the view holds full images.
+     */
+    private void receiveStream(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        TerminalImageDeltaDecoder decoder = new TerminalImageDeltaDecoder();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(req.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                TerminalView view = this.terminalView;
+                if (view == null) {
+                    resp.sendError(HttpServletResponse.SC_NOT_FOUND, "Terminal view closed");
+                    return;
+                }
+
+                Terminal received = gson.fromJson(line, Terminal.class);
+                Terminal terminal = new Terminal(received.getId(), received.getRunId(), received.getSequence(), received.getDefaultSize());
+                for(TerminalImage image : received.getImages()) {
+                    terminal.addImage(decoder.decode(image));
+                }
+
+                view.addLiveTerminal(terminal);
+            }
+
+            resp.setStatus(HttpServletResponse.SC_OK);
+        } catch(Exception e) {
+            Zos3270Activator.log(e);
+            throw new IOException("Unable to read live terminal stream",e);
+        }
+    }
+    
     public void dispose() {
         this.terminalView = null;
     }
@@ -1,14 +1,12 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zos3270.ui.terminal;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.Reader;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -16,7 +14,6 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -61,6 +58,8 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
 
     public static final String  ID                   = "dev.galasa.zos3270.ui.terminal.TerminalView";
 
+    private static final int    IMAGE_CACHE_SIZE     = 1000;
+
     private Shell               shell;
     private Canvas              canvas;
     private Action              firstFrameAction;
@@ -81,6 +80,7 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
 
     private ArrayList<Images>   imageFiles           = new ArrayList<>();
     private ArrayList<Image>    images               = new ArrayList<>();
+    private final ImageCache    imageCache           = new ImageCache(IMAGE_CACHE_SIZE);
 
     private final Gson          gson                 = new Gson();
 
@@ -220,10 +220,15 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
         }
 
         Image image = this.images.get(currentImageSequence);
-        if (image == null || image.getTerminalImage() == null) {
+        if (image == null) {
             displayMessage(event, "Image " + (currentImageSequence + 1) + " is missing");
             return;
         }
+        if (image.getTerminalImage() == null) {
+            //*** Redrawn when the check cache job has decoded it
+            displayMessage(event, "Loading image " + (currentImageSequence + 1) + "...");
+            return;
+        }
 
         displayImage(event, image);
     }
@@ -349,6 +354,8 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
             }
         }
 
+        this.imageCache.clear();
+
         if (this.cachePath != null) {
             new DeleteTerminalCache(this.viewId, this.cachePath).schedule();
         }
@@ -478,8 +485,9 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
 
     public synchronized void addTerminalImageFile(Path path, Terminal terminal) {
         if (terminal == null) {
-            try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(path)))) {
-                terminal = gson.fromJson(reader, Terminal.class);
+            //*** Only the image sequences are needed, the screens are decoded when they are viewed
+            try {
+                terminal = ImagesReader.readIndex(path);
             } catch (Exception e) {
                 Zos3270Activator.log(e);
                 return;
@@ -503,7 +511,7 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
             return;
         }
 
-        Images images = new Images(path, terminal);
+        Images images = new Images(path, terminal, this.imageCache);
         this.imageFiles.set(terminalSequence, images);
 
         for (TerminalImage tImage : terminal.getImages()) {
@@ -540,32 +548,26 @@ public class TerminalView extends ViewPart implements PaintListener, IPropertyCh
     }
 
     /**
-     * Ensure the cache is pre-loaded with the current image file also +1 and -1,
-     * the rest should be cleared to minimize heap usage
+     * Ensure the cache is pre-loaded with the current image file first, then prefetch
+     * +1 and -1.  The cache drops the least recently viewed images to limit heap usage.
      */
     private synchronized void checkCache() {
-        int firstImagesToCache = -1;
-        int lastImagesToCache = -1;
-
         Image currentImage = this.images.get(currentImageSequence);
-        if (currentImage != null) {
-            firstImagesToCache = currentImage.getImages().getSequence() - 1;
-            if (firstImagesToCache < 0) {
-                firstImagesToCache = 0;
-            }
-            lastImagesToCache = firstImagesToCache + 2;
-            if (lastImagesToCache >= this.imageFiles.size()) {
-                lastImagesToCache = this.imageFiles.size() - 1;
-            }
+        if (currentImage == null) {
+            return;
         }
 
-        for (int i = 0; i < imageFiles.size(); i++) {
-            if (firstImagesToCache <= i && i <= lastImagesToCache) {
-                if (this.imageFiles.get(i).cacheImages(this.currentImageSequence)) {
-                    updateUI();
-                }
-            } else {
-                this.imageFiles.get(i).clearCache();
+        Images currentImages = currentImage.getImages();
+        if (currentImages.cacheImages(this.currentImageSequence)) {
+            updateUI();
+        }
+
+        int firstImagesToCache = Math.max(currentImages.getSequence() - 1, 0);
+        int lastImagesToCache = Math.min(currentImages.getSequence() + 1, this.imageFiles.size() - 1);
+        for (int i = firstImagesToCache; i <= lastImagesToCache; i++) {
+            Images neighbour = this.imageFiles.get(i);
+            if (neighbour != null && neighbour != currentImages) {
+                neighbour.cacheImages(this.currentImageSequence);
             }
         }
     }
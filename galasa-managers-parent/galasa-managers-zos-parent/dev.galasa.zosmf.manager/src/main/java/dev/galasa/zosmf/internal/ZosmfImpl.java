@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019,2020.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zosmf.internal;
 
@@ -324,6 +324,7 @@ public class ZosmfImpl implements IZosmf {
         
         try {
             this.requestRetry = RequestRetry.get(this.serverId);
+            this.httpClient.setRetryAttempts(this.requestRetry + 1);
         } catch (ZosManagerException e) {
             throw new ZosmfException(e);
         }
@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2019.
+ * (c) Copyright IBM Corp. 2019,2021.
  */
 package dev.galasa.zosmf.internal;
 
@@ -62,7 +62,8 @@ public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         IZosmfResponse response = null;
-        for (int i = 0; i <= ((ZosmfImpl) currentZosmf).getRequestRetry(); i++) {
+        // The HTTP client retries each server with a backoff, so each server is only tried once here
+        for (int i = 0; i < this.zosmfs.size(); i++) {
             try {
                 IZosmf zosmfServer = getCurrentZosmfServer();
                 if (headers != null) {
@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.zosrseapi.internal;
 
@@ -312,6 +312,7 @@ public class RseapiImpl implements IRseapi {
         
         try {
             this.requestRetry = RequestRetry.get(this.serverId);
+            this.httpClient.setRetryAttempts(this.requestRetry + 1);
         } catch (ZosManagerException e) {
             throw new RseapiException(e);
         }
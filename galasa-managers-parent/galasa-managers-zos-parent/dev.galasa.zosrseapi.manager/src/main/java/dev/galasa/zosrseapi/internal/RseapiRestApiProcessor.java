@@ -1,7 +1,7 @@
 /*
  * Licensed Materials - Property of IBM
  * 
- * (c) Copyright IBM Corp. 2020.
+ * (c) Copyright IBM Corp. 2020,2021.
  */
 package dev.galasa.zosrseapi.internal;
 
@@ -61,7 +61,8 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         IRseapiResponse response = null;
-        for (int i = 0; i <= ((RseapiImpl) currentRseapi).getRequestRetry(); i++) {
+        // The HTTP client retries each server with a backoff, so each server is only tried once here
+        for (int i = 0; i < this.rseapis.size(); i++) {
             try {
                 IRseapi rseapiServer = getCurrentRseapiServer();
                 if (headers != null) {